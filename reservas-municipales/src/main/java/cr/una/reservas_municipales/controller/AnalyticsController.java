@@ -0,0 +1,63 @@
+package cr.una.reservas_municipales.controller;
+
+import cr.una.reservas_municipales.dto.AnalyticsResultDTO;
+import cr.una.reservas_municipales.dto.UtilizationReportDTO;
+import cr.una.reservas_municipales.service.AnalyticsStore;
+import cr.una.reservas_municipales.service.SpaceUtilizationService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsController {
+    
+    private final SpaceUtilizationService utilizationService;
+    private final AnalyticsStore analyticsStore;
+    
+    /**
+     * Ocupación de los espacios (minutos reservados sobre minutos abiertos) en un rango de fechas
+     * inclusive, con mapa de calor por día de la semana y hora.
+     */
+    @GetMapping("/utilization")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERVISOR')")
+    public ResponseEntity<UtilizationReportDTO> getUtilization(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) UUID spaceId) {
+        log.info("Solicitud de ocupación: {} a {} (espacio {})", from, to, spaceId);
+        return ResponseEntity.ok(utilizationService.getUtilization(from, to, spaceId));
+    }
+    
+    /**
+     * Agregación ad hoc sobre el almacén analítico en memoria: reservas, minutos, monto y asistencia
+     * agrupados por STATUS, SPACE, SPACE_TYPE, WEEKDAY, HOUR, MONTH o LEAD_TIME (NONE para el total).
+     */
+    @GetMapping("/aggregate")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERVISOR')")
+    public ResponseEntity<AnalyticsResultDTO> aggregate(
+            @RequestParam(required = false) String groupBy,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) List<String> status,
+            @RequestParam(required = false) UUID spaceId,
+            @RequestParam(required = false) Short spaceTypeId) {
+        log.info("Solicitud de agregación por {}: {} a {}", groupBy, from, to);
+        AnalyticsStore.Filter filter = new AnalyticsStore.Filter(from, to,
+                status == null ? null : new HashSet<>(status), spaceId, spaceTypeId);
+        return ResponseEntity.ok(analyticsStore.aggregate(AnalyticsStore.Dimension.parse(groupBy), filter));
+    }
+}
@@ -1,15 +1,24 @@
 package cr.una.reservas_municipales.controller;
 
+import cr.una.reservas_municipales.dto.RangeMetricsDTO;
+import cr.una.reservas_municipales.dto.RangePointDTO;
 import cr.una.reservas_municipales.dto.SimpleDashboardDTO;
+import cr.una.reservas_municipales.service.DashboardCache;
 import cr.una.reservas_municipales.service.MetricsService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/admin/dashboard")
 @RequiredArgsConstructor
@@ -17,12 +26,43 @@ import org.springframework.web.bind.annotation.RestController;
 public class DashboardController {
     
     private final MetricsService metricsService;
+    private final DashboardCache dashboardCache;
     
+    /**
+     * Dashboard general; cada sección se refresca en segundo plano (ver computedAt).
+     */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'SUPERVISOR')")
     public ResponseEntity<SimpleDashboardDTO> getDashboard() {
         log.info("Solicitud de dashboard recibida");
-        SimpleDashboardDTO dashboard = metricsService.getSimpleDashboard();
+        SimpleDashboardDTO dashboard = dashboardCache.getDashboard();
         return ResponseEntity.ok(dashboard);
     }
+    
+    /**
+     * Métricas de un rango de fechas (inclusive), opcionalmente de un solo espacio.
+     */
+    @GetMapping("/range")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERVISOR')")
+    public ResponseEntity<RangeMetricsDTO> getRangeMetrics(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) UUID spaceId) {
+        log.info("Solicitud de métricas de rango: {} a {} (espacio {})", from, to, spaceId);
+        return ResponseEntity.ok(metricsService.getRangeMetrics(from, to, spaceId));
+    }
+    
+    /**
+     * Serie temporal del rango, por día (DAY) o por mes (MONTH).
+     */
+    @GetMapping("/range/series")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERVISOR')")
+    public ResponseEntity<List<RangePointDTO>> getRangeSeries(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) UUID spaceId,
+            @RequestParam(defaultValue = "DAY") String granularity) {
+        log.info("Solicitud de serie de rango: {} a {} (espacio {}, {})", from, to, spaceId, granularity);
+        return ResponseEntity.ok(metricsService.getRangeSeries(from, to, spaceId, granularity));
+    }
 }
@@ -1,9 +1,13 @@
 package cr.una.reservas_municipales.controller;
 
+import cr.una.reservas_municipales.dto.BatchReservationRequestDto;
+import cr.una.reservas_municipales.dto.BatchReservationResultDto;
+import cr.una.reservas_municipales.dto.CursorPageDto;
 import cr.una.reservas_municipales.dto.ReservationDto;
 import cr.una.reservas_municipales.dto.ReservationSummaryDto;
 import cr.una.reservas_municipales.dto.ReservationWithSpaceDto;
 import cr.una.reservas_municipales.dto.QRValidationDto;
+import cr.una.reservas_municipales.exception.BusinessException;
 import cr.una.reservas_municipales.exception.CancellationNotAllowedException;
 import cr.una.reservas_municipales.model.User;
 import cr.una.reservas_municipales.repository.UserRepository;
@@ -15,11 +19,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
@@ -34,17 +40,28 @@ import java.util.UUID;
 @Slf4j
 public class ReservationController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    
     private final ReservationService reservationService;
     private final ReservationExportService reservationExportService;
     private final UserRepository userRepository;
     
+    /**
+     * Los listados paginados devuelven {@code {"items": [...], "nextCursor": "..."}}. Sin {@code limit}
+     * la página trae {@code app.reservations.page.default-size} reservas; para seguir se repite la
+     * consulta con {@code cursor=nextCursor} hasta que venga null. Un cliente que esperaba el arreglo
+     * completo falla al leer la respuesta en lugar de recibir una lista truncada sin aviso.
+     */
     @GetMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISOR') or hasRole('USER')")
-    public ResponseEntity<List<ReservationDto>> getAllReservations() {
-        log.info("GET /api/reservations - Obteniendo todas las reservas");
+    public ResponseEntity<CursorPageDto<ReservationDto>> getAllReservations(@RequestParam(required = false) String cursor,
+                                                                   @RequestParam(required = false) Integer limit) {
+        log.info("GET /api/reservations - Obteniendo página de reservas");
         try {
-            List<ReservationDto> reservations = reservationService.getAllReservations();
-            return ResponseEntity.ok(reservations);
+            return ResponseEntity.ok(reservationService.getAllReservations(cursor, limit));
+        } catch (BusinessException e) {
+            log.warn("Parámetros de paginación inválidos: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error al obtener reservas", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -83,11 +100,15 @@ public class ReservationController {
     
     @GetMapping("/space/{spaceId}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISOR') or hasRole('USER')")
-    public ResponseEntity<List<ReservationDto>> getReservationsBySpace(@PathVariable UUID spaceId) {
+    public ResponseEntity<CursorPageDto<ReservationDto>> getReservationsBySpace(@PathVariable UUID spaceId,
+                                                                       @RequestParam(required = false) String cursor,
+                                                                       @RequestParam(required = false) Integer limit) {
         log.info("GET /api/reservations/space/{} - Obteniendo reservas por espacio", spaceId);
         try {
-            List<ReservationDto> reservations = reservationService.getReservationsBySpace(spaceId);
-            return ResponseEntity.ok(reservations);
+            return ResponseEntity.ok(reservationService.getReservationsBySpace(spaceId, cursor, limit));
+        } catch (BusinessException e) {
+            log.warn("Parámetros de paginación inválidos: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error al obtener reservas del espacio: " + spaceId, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -96,11 +117,15 @@ public class ReservationController {
     
     @GetMapping("/status/{status}")
     @PreAuthorize("hasRole('ADMIN')")
-    public ResponseEntity<List<ReservationDto>> getReservationsByStatus(@PathVariable String status) {
+    public ResponseEntity<CursorPageDto<ReservationDto>> getReservationsByStatus(@PathVariable String status,
+                                                                        @RequestParam(required = false) String cursor,
+                                                                        @RequestParam(required = false) Integer limit) {
         log.info("GET /api/reservations/status/{} - Obteniendo reservas por estado", status);
         try {
-            List<ReservationDto> reservations = reservationService.getReservationsByStatus(status);
-            return ResponseEntity.ok(reservations);
+            return ResponseEntity.ok(reservationService.getReservationsByStatus(status, cursor, limit));
+        } catch (BusinessException e) {
+            log.warn("Parámetros de paginación inválidos: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error al obtener reservas con estado: " + status, e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -109,19 +134,38 @@ public class ReservationController {
     
     @GetMapping("/date-range")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISOR') or hasRole('USER')")
-    public ResponseEntity<List<ReservationDto>> getReservationsInDateRange(
+    public ResponseEntity<CursorPageDto<ReservationDto>> getReservationsInDateRange(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime startDate,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime endDate) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime endDate,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
         log.info("GET /api/reservations/date-range - Obteniendo reservas entre {} y {}", startDate, endDate);
         try {
-            List<ReservationDto> reservations = reservationService.getReservationsInDateRange(startDate, endDate);
-            return ResponseEntity.ok(reservations);
+            return ResponseEntity.ok(reservationService.getReservationsInDateRange(startDate, endDate, cursor, limit));
+        } catch (BusinessException e) {
+            log.warn("Parámetros de paginación inválidos: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error al obtener reservas en rango de fechas", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
     
+    @GetMapping(value = "/stream", produces = NDJSON)
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamReservations(
+            @RequestParam(required = false) String status,
+            @RequestParam(required = false) UUID spaceId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime endDate) {
+        log.info("GET /api/reservations/stream - Exportando reservas en NDJSON");
+        StreamingResponseBody body = outputStream -> reservationService.streamReservations(
+                status, spaceId, startDate, endDate, reservationExportService.ndjsonWriter(outputStream));
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .body(body);
+    }
+    
     @PostMapping
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISOR') or hasRole('USER')")
     public ResponseEntity<ReservationDto> createReservation(@Valid @RequestBody ReservationDto reservationDto) {
@@ -131,6 +175,24 @@ public class ReservationController {
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
     
+    @PostMapping("/batch")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISOR') or hasRole('USER')")
+    public ResponseEntity<BatchReservationResultDto> createReservationsBatch(
+            @Valid @RequestBody BatchReservationRequestDto request) {
+        log.info("POST /api/reservations/batch - Creando {} reservas en lote", request.getReservations().size());
+        BatchReservationResultDto result = reservationService.createReservationsBatch(request);
+        
+        HttpStatus status;
+        if (result.getFailed() == 0) {
+            status = HttpStatus.CREATED;
+        } else if (result.getCreated() > 0) {
+            status = HttpStatus.MULTI_STATUS;
+        } else {
+            status = HttpStatus.BAD_REQUEST;
+        }
+        return ResponseEntity.status(status).body(result);
+    }
+    
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISOR') or hasRole('USER')")
     public ResponseEntity<ReservationDto> updateReservation(@PathVariable UUID id, 
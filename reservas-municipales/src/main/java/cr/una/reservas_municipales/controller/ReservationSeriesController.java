@@ -0,0 +1,92 @@
+package cr.una.reservas_municipales.controller;
+
+import cr.una.reservas_municipales.dto.RescheduleSeriesDto;
+import cr.una.reservas_municipales.dto.ReservationSeriesDto;
+import cr.una.reservas_municipales.exception.CancellationNotAllowedException;
+import cr.una.reservas_municipales.service.ReservationSeriesService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/reservations/series")
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationSeriesController {
+    
+    private final ReservationSeriesService reservationSeriesService;
+    
+    @GetMapping("/{seriesId}")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISOR') or hasRole('USER')")
+    public ResponseEntity<ReservationSeriesDto> getSeries(@PathVariable UUID seriesId) {
+        log.info("GET /api/reservations/series/{} - Obteniendo serie", seriesId);
+        ReservationSeriesDto series = reservationSeriesService.getSeries(seriesId);
+        if (series != null) {
+            return ResponseEntity.ok(series);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PostMapping
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISOR') or hasRole('USER')")
+    public ResponseEntity<ReservationSeriesDto> createSeries(@Valid @RequestBody ReservationSeriesDto seriesDto) {
+        log.info("POST /api/reservations/series - Creando serie con regla {}", seriesDto.getRecurrenceRule());
+        ReservationSeriesDto created = reservationSeriesService.createSeries(seriesDto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+    }
+    
+    @PatchMapping("/{seriesId}/reschedule")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISOR') or hasRole('USER')")
+    public ResponseEntity<ReservationSeriesDto> rescheduleSeries(@PathVariable UUID seriesId,
+                                                                 @Valid @RequestBody RescheduleSeriesDto rescheduleDto) {
+        log.info("PATCH /api/reservations/series/{}/reschedule - Reprogramando serie", seriesId);
+        ReservationSeriesDto updated = reservationSeriesService.rescheduleSeries(seriesId, rescheduleDto);
+        if (updated != null) {
+            return ResponseEntity.ok(updated);
+        } else {
+            return ResponseEntity.notFound().build();
+        }
+    }
+    
+    @PatchMapping("/{seriesId}/cancel")
+    @PreAuthorize("hasRole('ADMIN') or hasRole('SUPERVISOR') or hasRole('USER')")
+    public ResponseEntity<?> cancelSeries(@PathVariable UUID seriesId,
+                                          @RequestParam(required = false) String reason,
+                                          Authentication authentication) {
+        log.info("PATCH /api/reservations/series/{}/cancel - Cancelando serie", seriesId);
+        
+        String userRole = authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .filter(auth -> auth.startsWith("ROLE_"))
+                .map(auth -> auth.replace("ROLE_", ""))
+                .findFirst()
+                .orElse("USER");
+        
+        try {
+            int cancelled = reservationSeriesService.cancelSeries(seriesId, reason, userRole);
+            if (cancelled < 0) {
+                return ResponseEntity.notFound().build();
+            }
+            return ResponseEntity.ok(Map.of("seriesId", seriesId, "cancelledOccurrences", cancelled));
+        } catch (CancellationNotAllowedException e) {
+            log.warn("Cancelación de serie no permitida: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                    .body(Map.of(
+                        "error", "Cancelación no permitida",
+                        "message", e.getMessage(),
+                        "timestamp", OffsetDateTime.now().toString()
+                    ));
+        }
+    }
+}
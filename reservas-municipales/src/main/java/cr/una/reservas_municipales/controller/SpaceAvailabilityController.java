@@ -0,0 +1,33 @@
+package cr.una.reservas_municipales.controller;
+
+import cr.una.reservas_municipales.dto.SpaceAvailabilityDto;
+import cr.una.reservas_municipales.service.SpaceAvailabilityService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/spaces/{spaceId}/availability")
+@RequiredArgsConstructor
+@Slf4j
+public class SpaceAvailabilityController {
+
+    private final SpaceAvailabilityService availabilityService;
+
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<SpaceAvailabilityDto> getAvailability(
+            @PathVariable UUID spaceId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) OffsetDateTime to,
+            @RequestParam(defaultValue = "30") int granularity) {
+        log.debug("GET /api/spaces/{}/availability - {} a {} cada {} min", spaceId, from, to, granularity);
+        return ResponseEntity.ok(availabilityService.getAvailability(spaceId, from, to, granularity));
+    }
+}
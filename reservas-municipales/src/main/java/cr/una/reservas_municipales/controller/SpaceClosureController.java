@@ -0,0 +1,49 @@
+package cr.una.reservas_municipales.controller;
+
+import cr.una.reservas_municipales.dto.CreateClosureDto;
+import cr.una.reservas_municipales.dto.SpaceClosureDto;
+import cr.una.reservas_municipales.service.SpaceClosureService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/spaces/{spaceId}/closures")
+@RequiredArgsConstructor
+@Slf4j
+public class SpaceClosureController {
+
+    private final SpaceClosureService closureService;
+
+    @GetMapping
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<SpaceClosureDto>> getClosures(@PathVariable UUID spaceId) {
+        log.debug("GET /api/spaces/{}/closures", spaceId);
+        return ResponseEntity.ok(closureService.getClosures(spaceId));
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERVISOR')")
+    public ResponseEntity<SpaceClosureDto> createClosure(
+            @PathVariable UUID spaceId,
+            @Valid @RequestBody CreateClosureDto dto) {
+        log.debug("POST /api/spaces/{}/closures - {}", spaceId, dto);
+        return ResponseEntity.status(HttpStatus.CREATED).body(closureService.createClosure(spaceId, dto));
+    }
+
+    @DeleteMapping("/{closureId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPERVISOR')")
+    public ResponseEntity<Void> deleteClosure(@PathVariable UUID spaceId, @PathVariable Long closureId) {
+        log.debug("DELETE /api/spaces/{}/closures/{}", spaceId, closureId);
+        return closureService.deleteClosure(spaceId, closureId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+}
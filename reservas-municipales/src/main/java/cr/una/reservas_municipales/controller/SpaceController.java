@@ -1,6 +1,8 @@
 package cr.una.reservas_municipales.controller;
 
+import cr.una.reservas_municipales.dto.NearbySpaceDto;
 import cr.una.reservas_municipales.dto.SpaceDto;
+import cr.una.reservas_municipales.exception.BusinessException;
 import cr.una.reservas_municipales.service.SpaceService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -76,19 +78,39 @@ public class SpaceController {
         }
     }
 
+    @GetMapping("/search/text")
+    public ResponseEntity<List<SpaceDto>> searchSpacesByText(
+            @RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
+        
+        log.info("Text search - q: {}, limit: {}", q, limit);
+        
+        try {
+            List<SpaceDto> results = spaceService.searchText(q, limit);
+            log.info("Text search returned {} results", results.size());
+            return ResponseEntity.ok(results);
+        } catch (Exception e) {
+            log.error("Error in text search", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/available")
     public ResponseEntity<List<SpaceDto>> getAvailableSpaces(
             @RequestParam String startDate,
             @RequestParam String endDate,
             @RequestParam(required = false) Integer spaceTypeId,
-            @RequestParam(required = false) Integer minCapacity) {
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) String sort,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer offset) {
         
-        log.info("Searching available spaces from {} to {} with typeId: {}, minCapacity: {}", 
-                startDate, endDate, spaceTypeId, minCapacity);
+        log.info("Searching available spaces from {} to {} with typeId: {}, minCapacity: {}, sort: {}, limit: {}, offset: {}", 
+                startDate, endDate, spaceTypeId, minCapacity, sort, limit, offset);
         
         try {
             List<SpaceDto> availableSpaces = spaceService.findAvailableSpaces(
-                startDate, endDate, spaceTypeId, minCapacity);
+                startDate, endDate, spaceTypeId, minCapacity, sort, limit, offset);
             
             log.info("Found {} available spaces", availableSpaces.size());
             return ResponseEntity.ok(availableSpaces);
@@ -98,6 +120,35 @@ public class SpaceController {
         }
     }
 
+    @GetMapping("/nearby")
+    public ResponseEntity<List<NearbySpaceDto>> getNearbySpaces(
+            @RequestParam double lat,
+            @RequestParam double lon,
+            @RequestParam(required = false) Double radiusKm,
+            @RequestParam(required = false) Integer limit,
+            @RequestParam(required = false) Integer spaceTypeId,
+            @RequestParam(required = false) Integer minCapacity,
+            @RequestParam(required = false) Boolean outdoor,
+            @RequestParam(required = false) String startDate,
+            @RequestParam(required = false) String endDate) {
+        
+        log.info("Nearby search - lat: {}, lon: {}, radiusKm: {}, limit: {}, type: {}, minCap: {}, outdoor: {}, from {} to {}", 
+                lat, lon, radiusKm, limit, spaceTypeId, minCapacity, outdoor, startDate, endDate);
+        
+        try {
+            List<NearbySpaceDto> results = spaceService.findNearbySpaces(
+                lat, lon, radiusKm, limit, spaceTypeId, minCapacity, outdoor, startDate, endDate);
+            log.info("Nearby search returned {} results", results.size());
+            return ResponseEntity.ok(results);
+        } catch (BusinessException e) {
+            log.warn("Invalid nearby search parameters: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error in nearby search", e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<SpaceDto> getSpaceById(@PathVariable UUID id) {
         log.info("Fetching space with ID: {}", id);
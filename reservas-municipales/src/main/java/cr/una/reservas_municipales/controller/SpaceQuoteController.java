@@ -0,0 +1,39 @@
+package cr.una.reservas_municipales.controller;
+
+import cr.una.reservas_municipales.dto.BulkQuoteRequestDto;
+import cr.una.reservas_municipales.dto.QuoteDto;
+import cr.una.reservas_municipales.dto.QuoteWindowDto;
+import cr.una.reservas_municipales.service.SpaceRateService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/api/spaces")
+@RequiredArgsConstructor
+@Slf4j
+public class SpaceQuoteController {
+
+    private final SpaceRateService spaceRateService;
+
+    @PostMapping("/{spaceId}/quote")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<QuoteDto> quote(@PathVariable UUID spaceId, @Valid @RequestBody QuoteWindowDto window) {
+        log.debug("POST /api/spaces/{}/quote - {} a {}", spaceId, window.getStartsAt(), window.getEndsAt());
+        return ResponseEntity.ok(spaceRateService.quote(spaceId, window.getStartsAt(), window.getEndsAt()));
+    }
+
+    @PostMapping("/quotes")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<QuoteDto>> quoteBulk(@Valid @RequestBody BulkQuoteRequestDto request) {
+        log.debug("POST /api/spaces/quotes - {} espacios, {} ventanas",
+                request.getSpaceIds().size(), request.getWindows().size());
+        return ResponseEntity.ok(spaceRateService.quoteBulk(request));
+    }
+}
@@ -0,0 +1,18 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsGroupDTO {
+    private String key;                             // id, estado, MONDAY, 9, 2025-03, 7-13...
+    private String label;                           // nombre legible si aplica (espacio, tipo)
+    private long reservations;
+    private long minutes;
+    private double amount;                          // suma de total_amount, sin filtrar por estado
+    private long attended;
+    private double attendanceRate;                  // porcentaje de reservations
+}
@@ -0,0 +1,19 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class AnalyticsResultDTO {
+    private String groupBy;
+    private long scannedRows;
+    private long matchedRows;
+    private OffsetDateTime loadedAt;                // última carga completa del almacén
+    private List<AnalyticsGroupDTO> groups;
+}
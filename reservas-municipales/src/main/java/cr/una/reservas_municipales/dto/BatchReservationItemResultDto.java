@@ -0,0 +1,17 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReservationItemResultDto {
+    private int index;
+    private boolean success;
+    private ReservationDto reservation;
+    private String error;
+}
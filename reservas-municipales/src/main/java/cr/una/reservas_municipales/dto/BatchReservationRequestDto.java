@@ -0,0 +1,22 @@
+package cr.una.reservas_municipales.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchReservationRequestDto {
+    
+    @NotEmpty(message = "El lote debe contener al menos una reserva")
+    @Size(max = 200, message = "El lote no puede contener más de 200 reservas")
+    private List<@Valid ReservationDto> reservations;
+    
+    // ALL_OR_NOTHING: si una reserva falla no se crea ninguna; BEST_EFFORT: se crean las válidas
+    @Pattern(regexp = "ALL_OR_NOTHING|BEST_EFFORT", 
+             message = "El modo debe ser: ALL_OR_NOTHING o BEST_EFFORT")
+    private String mode = "ALL_OR_NOTHING";
+}
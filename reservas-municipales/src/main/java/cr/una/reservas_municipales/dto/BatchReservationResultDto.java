@@ -0,0 +1,20 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReservationResultDto {
+    private String mode;
+    private int total;
+    private int created;
+    private int failed;
+    private List<BatchReservationItemResultDto> items;
+}
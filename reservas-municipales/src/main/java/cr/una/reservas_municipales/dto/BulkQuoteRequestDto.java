@@ -0,0 +1,27 @@
+package cr.una.reservas_municipales.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Cotiza cada espacio en cada ventana; el número de combinaciones está acotado por
+ * app.pricing.bulk.max-quotes.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkQuoteRequestDto {
+
+    @NotEmpty(message = "Debe indicar al menos un espacio")
+    private List<@NotNull UUID> spaceIds;
+
+    @NotEmpty(message = "Debe indicar al menos una ventana")
+    private List<@Valid @NotNull QuoteWindowDto> windows;
+}
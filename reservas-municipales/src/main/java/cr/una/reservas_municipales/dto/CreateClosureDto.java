@@ -0,0 +1,25 @@
+package cr.una.reservas_municipales.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+/**
+ * Cierre temporal de un espacio; al crearlo se cancelan las reservas activas que se solapan.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateClosureDto {
+
+    private String reason;
+
+    @NotNull(message = "La fecha de inicio es requerida")
+    private OffsetDateTime startsAt;
+
+    @NotNull(message = "La fecha de fin es requerida")
+    private OffsetDateTime endsAt;
+}
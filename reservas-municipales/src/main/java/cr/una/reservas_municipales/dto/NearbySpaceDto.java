@@ -0,0 +1,15 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbySpaceDto {
+    private SpaceDto space;
+
+    // Distancia en línea recta desde el punto consultado
+    private double distanceKm;
+}
@@ -0,0 +1,29 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Precio de un espacio en una ventana según sus tarifas vigentes. En la cotización masiva,
+ * {@code priced=false} (sin monto, tarifa ni moneda) indica que ninguna tarifa cubre toda la ventana.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteDto {
+
+    private UUID spaceId;
+    private OffsetDateTime startsAt;
+    private OffsetDateTime endsAt;
+    private boolean priced;
+
+    // Tarifa vigente al inicio de la ventana
+    private Long rateId;
+    private BigDecimal totalAmount;
+    private String currency;
+}
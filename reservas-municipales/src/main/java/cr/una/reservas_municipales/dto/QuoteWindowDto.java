@@ -0,0 +1,20 @@
+package cr.una.reservas_municipales.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteWindowDto {
+
+    @NotNull(message = "La fecha de inicio es requerida")
+    private OffsetDateTime startsAt;
+
+    @NotNull(message = "La fecha de fin es requerida")
+    private OffsetDateTime endsAt;
+}
@@ -0,0 +1,28 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RangeMetricsDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private UUID spaceId;                           // null = todos los espacios
+    private long totalReservations;
+    private long activeReservations;                // CONFIRMED + PENDING
+    private long totalMinutes;
+    private double totalRevenue;                    // CONFIRMED + COMPLETED
+    private long attendanceCount;
+    private Map<String, Long> reservationsByStatus;
+    private List<TopSpaceDTO> topSpaces;            // vacío cuando se filtra por espacio
+    private OffsetDateTime dataAsOf;                // última actualización de los rollups
+}
@@ -0,0 +1,18 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RangePointDTO {
+    private LocalDate periodStart;                  // día, o primer día del mes con granularidad MONTH
+    private long reservations;
+    private long minutes;
+    private double revenue;                         // CONFIRMED + COMPLETED
+    private long attendance;
+}
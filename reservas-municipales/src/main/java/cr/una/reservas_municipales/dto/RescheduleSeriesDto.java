@@ -0,0 +1,23 @@
+package cr.una.reservas_municipales.dto;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalTime;
+
+/**
+ * Nuevo horario (hora local de Costa Rica) para las ocurrencias futuras de una serie.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RescheduleSeriesDto {
+    
+    @NotNull(message = "La hora de inicio es obligatoria")
+    private LocalTime startTime;
+    
+    @NotNull(message = "La hora de fin es obligatoria")
+    private LocalTime endTime;
+}
@@ -0,0 +1,54 @@
+package cr.una.reservas_municipales.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Data
+public class ReservationSeriesDto {
+    private UUID seriesId;
+    
+    @NotNull(message = "El ID del espacio es obligatorio")
+    private UUID spaceId;
+    
+    @NotNull(message = "El ID del usuario es obligatorio")
+    private UUID userId;
+    
+    // Primera ocurrencia; las demás repiten la misma hora y duración
+    @NotNull(message = "La fecha de inicio es obligatoria")
+    @Future(message = "La fecha de inicio debe ser en el futuro")
+    private OffsetDateTime startsAt;
+    
+    @NotNull(message = "La fecha de fin es obligatoria")
+    @Future(message = "La fecha de fin debe ser en el futuro")
+    private OffsetDateTime endsAt;
+    
+    // Subconjunto de RRULE, p. ej. FREQ=WEEKLY;BYDAY=TU;UNTIL=20270430
+    @NotBlank(message = "La regla de recurrencia es obligatoria")
+    private String recurrenceRule;
+    
+    @Pattern(regexp = "PENDING|CONFIRMED", 
+             message = "El estado de las ocurrencias debe ser: PENDING o CONFIRMED")
+    private String occurrenceStatus = "PENDING";
+    
+    private Long rateId;
+    
+    // Monto por ocurrencia
+    @DecimalMin(value = "0.0", inclusive = false, message = "El monto debe ser mayor a 0")
+    @Digits(integer = 10, fraction = 2, message = "Formato de monto inválido")
+    private BigDecimal totalAmount;
+    
+    @Size(min = 3, max = 3, message = "La moneda debe tener 3 caracteres (ej: CRC, USD)")
+    private String currency;
+    
+    // Campos de respuesta
+    private String status;
+    private int occurrenceCount;
+    private List<UUID> reservationIds;
+    private OffsetDateTime createdAt;
+    private OffsetDateTime updatedAt;
+}
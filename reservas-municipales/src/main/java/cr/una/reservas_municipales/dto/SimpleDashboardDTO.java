@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -16,4 +17,5 @@ public class SimpleDashboardDTO {
     private RevenueMetricsDTO revenueMetrics;
     private List<TopSpaceDTO> topSpaces;
     private TemporalMetricsDTO temporalMetrics;
+    private OffsetDateTime computedAt;              // la sección más antigua del dashboard
 }
@@ -0,0 +1,30 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Disponibilidad de un espacio en bloques de {@code granularityMinutes} a partir de {@code from},
+ * codificada por longitud de corridas: {@code runs} alterna bloques libres y ocupados empezando por
+ * el estado indicado en {@code firstRunFree}. Ej.: firstRunFree=false, runs=[4, 6, 2] son 4 bloques
+ * ocupados, 6 libres y 2 ocupados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpaceAvailabilityDto {
+
+    private UUID spaceId;
+    private OffsetDateTime from;
+    private OffsetDateTime to;
+    private int granularityMinutes;
+    private int slotCount;
+    private int freeSlotCount;
+    private boolean firstRunFree;
+    private List<Integer> runs;
+}
@@ -0,0 +1,22 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpaceClosureDto {
+
+    private Long closureId;
+    private UUID spaceId;
+    private String reason;
+    private OffsetDateTime startsAt;
+    private OffsetDateTime endsAt;
+    // Solo al crear: reservas canceladas por el cierre
+    private Integer cancelledReservations;
+}
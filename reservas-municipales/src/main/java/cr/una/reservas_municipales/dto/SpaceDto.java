@@ -1,6 +1,8 @@
 package cr.una.reservas_municipales.dto;
 
 import lombok.Data;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -31,6 +33,15 @@ public class SpaceDto {
     @Size(max = 1000, message = "Description must not exceed 1000 characters")
     private String description;
     
+    // Coordenadas; si no se envían se toman de location cuando tiene la forma "lat,lon"
+    @DecimalMin(value = "-90.0", message = "Latitude must be between -90 and 90")
+    @DecimalMax(value = "90.0", message = "Latitude must be between -90 and 90")
+    private Double latitude;
+    
+    @DecimalMin(value = "-180.0", message = "Longitude must be between -180 and 180")
+    @DecimalMax(value = "180.0", message = "Longitude must be between -180 and 180")
+    private Double longitude;
+    
     // Lista de imágenes asociadas al espacio
     private List<SpaceImageDto> images = new ArrayList<>();
 }
@@ -0,0 +1,23 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class SpaceUtilizationDTO {
+    private UUID spaceId;
+    private String spaceName;
+    private long openMinutes;                       // horario menos cierres
+    private long bookedMinutes;                     // minutos abiertos con alguna reserva
+    private long idleMinutes;
+    private double occupancyRate;                   // porcentaje de openMinutes
+    private long reservationCount;                  // reservas que empiezan en el rango
+    private String peakDay;                         // MONDAY, TUESDAY, ... (null si no hubo reservas)
+    private Integer peakHour;
+    private double[][] hourlyOccupancy;             // [día 0=domingo..6][hora 0..23], porcentaje
+}
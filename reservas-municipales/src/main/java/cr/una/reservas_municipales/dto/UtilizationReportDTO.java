@@ -0,0 +1,24 @@
+package cr.una.reservas_municipales.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class UtilizationReportDTO {
+    private LocalDate from;
+    private LocalDate to;
+    private long openMinutes;
+    private long bookedMinutes;
+    private long idleMinutes;
+    private double occupancyRate;
+    private String peakDay;
+    private Integer peakHour;
+    private double[][] hourlyOccupancy;             // todos los espacios juntos
+    private List<SpaceUtilizationDTO> spaces;       // de mayor a menor ocupación
+}
@@ -0,0 +1,66 @@
+package cr.una.reservas_municipales.model;
+
+import cr.una.reservas_municipales.notification.NotificationType;
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Notificación pendiente de envío, escrita en la misma transacción que el cambio que la origina.
+ * La despacha {@code NotificationOutboxDispatcher} fuera de la transacción de negocio.
+ */
+@Entity
+@Table(name = "notification_outbox")
+@Data
+public class NotificationOutbox {
+
+    public enum Status { PENDING, SENT, DEAD }
+
+    // Secuencia con allocationSize: con IDENTITY Hibernate inserta fila por fila y sendBatch no se agrupa
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_outbox_seq")
+    @SequenceGenerator(name = "notification_outbox_seq", sequenceName = "notification_outbox_seq", allocationSize = 50)
+    @Column(name = "outbox_id")
+    private Long outboxId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false)
+    private NotificationType type;
+
+    @Column(name = "reservation_id")
+    private UUID reservationId;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "email")
+    private String email;
+
+    // Datos del evento serializados como objeto JSON de textos
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "occurred_at", nullable = false)
+    private OffsetDateTime occurredAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false)
+    private Status status = Status.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private OffsetDateTime nextAttemptAt;
+
+    @Column(name = "last_error")
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "sent_at")
+    private OffsetDateTime sentAt;
+}
@@ -1,7 +1,13 @@
 package cr.una.reservas_municipales.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -10,7 +16,7 @@ import java.util.UUID;
 @Entity
 @Table(name = "reservation")
 @Data
-public class Reservation {
+public class Reservation implements Persistable<UUID> {
     @Id
     @Column(name = "reservation_id")
     private UUID reservationId;
@@ -48,9 +54,6 @@ public class Reservation {
     @Column(name = "updated_at", nullable = false)
     private OffsetDateTime updatedAt;
 
-    @Column(name = "qr_code", columnDefinition = "TEXT")
-    private String qrCode;
-
     @Column(name = "qr_validation_token")
     private String qrValidationToken;
 
@@ -62,4 +65,32 @@ public class Reservation {
 
     @Column(name = "confirmed_by_user_id")
     private UUID confirmedByUserId;
+
+    @Column(name = "series_id")
+    private UUID seriesId;
+
+    // El ID se asigna en la aplicación: sin esta marca save() haría un SELECT (merge) antes de
+    // cada INSERT, lo que además impide agrupar los INSERT en lotes JDBC.
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newEntity = true;
+
+    @Override
+    public UUID getId() {
+        return reservationId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
 }
@@ -0,0 +1,77 @@
+package cr.una.reservas_municipales.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Totales de un día (fecha de inicio en hora de Costa Rica) para un espacio y un estado.
+ * Es un dato derivado de reservation: lo escribe solo {@code ReservationRollupService}.
+ */
+@Entity
+@Table(name = "reservation_daily_stats")
+@IdClass(ReservationDailyStatId.class)
+@Data
+public class ReservationDailyStat implements Persistable<ReservationDailyStatId> {
+
+    @Id
+    @Column(name = "stat_day")
+    private LocalDate statDay;
+
+    @Id
+    @Column(name = "space_id")
+    private UUID spaceId;
+
+    @Id
+    @Column(name = "status")
+    private String status;
+
+    @Column(name = "reservation_count", nullable = false)
+    private int reservationCount;
+
+    @Column(name = "total_minutes", nullable = false)
+    private long totalMinutes;
+
+    @Column(name = "revenue_cents", nullable = false)
+    private long revenueCents;
+
+    @Column(name = "attendance_count", nullable = false)
+    private int attendanceCount;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private OffsetDateTime refreshedAt;
+
+    // Las filas de un día se borran y se vuelven a insertar: sin esta marca save() haría un SELECT
+    // (merge) por fila antes del INSERT
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newEntity = true;
+
+    @Override
+    public ReservationDailyStatId getId() {
+        return new ReservationDailyStatId(statDay, spaceId, status);
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
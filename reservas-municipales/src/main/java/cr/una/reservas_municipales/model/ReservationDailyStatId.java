@@ -0,0 +1,18 @@
+package cr.una.reservas_municipales.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDailyStatId implements Serializable {
+    private LocalDate statDay;
+    private UUID spaceId;
+    private String status;
+}
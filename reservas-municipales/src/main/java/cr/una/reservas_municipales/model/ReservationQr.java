@@ -0,0 +1,59 @@
+package cr.una.reservas_municipales.model;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+
+import java.util.UUID;
+
+/**
+ * Imagen PNG en Base64 del código QR de una reserva (1-2 KB). Vive en su propia tabla para que
+ * las consultas sobre {@link Reservation} nunca la transfieran; solo se lee por ID.
+ */
+@Entity
+@Table(name = "reservation_qr")
+@Data
+@NoArgsConstructor
+public class ReservationQr implements Persistable<UUID> {
+    @Id
+    @Column(name = "reservation_id")
+    private UUID reservationId;
+
+    @Column(name = "qr_code", nullable = false, columnDefinition = "TEXT")
+    private String qrCode;
+
+    // Mismo criterio que Reservation: el ID viene de la reserva, así que save() no debe hacer merge
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean newEntity = true;
+
+    public ReservationQr(UUID reservationId, String qrCode) {
+        this.reservationId = reservationId;
+        this.qrCode = qrCode;
+    }
+
+    @Override
+    public UUID getId() {
+        return reservationId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newEntity;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newEntity = false;
+    }
+}
@@ -0,0 +1,54 @@
+package cr.una.reservas_municipales.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Serie de reservas periódicas: la regla de recurrencia y la primera ocurrencia.
+ * Cada ocurrencia es una fila de {@link Reservation} con el mismo series_id.
+ */
+@Entity
+@Table(name = "reservation_series")
+@Data
+public class ReservationSeries {
+    @Id
+    @Column(name = "series_id")
+    private UUID seriesId;
+
+    @Column(name = "space_id", nullable = false)
+    private UUID spaceId;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(name = "recurrence_rule", nullable = false)
+    private String recurrenceRule;
+
+    @Column(name = "first_starts_at", nullable = false)
+    private OffsetDateTime firstStartsAt;
+
+    @Column(name = "first_ends_at", nullable = false)
+    private OffsetDateTime firstEndsAt;
+
+    @Column(name = "status", nullable = false)
+    private String status;
+
+    @Column(name = "rate_id")
+    private Long rateId;
+
+    @Column(name = "total_amount")
+    private BigDecimal totalAmount;
+
+    @Column(name = "currency", nullable = false)
+    private String currency;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private OffsetDateTime updatedAt;
+}
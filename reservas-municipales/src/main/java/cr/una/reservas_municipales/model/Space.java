@@ -35,6 +35,12 @@ public class Space {
     @Column(name = "description")
     private String description;
 
+    @Column(name = "latitude")
+    private Double latitude;
+
+    @Column(name = "longitude")
+    private Double longitude;
+
     @Column(name = "created_at", nullable = false)
     private OffsetDateTime createdAt;
 
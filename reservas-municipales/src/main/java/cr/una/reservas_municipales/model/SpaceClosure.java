@@ -10,6 +10,7 @@ import java.time.OffsetDateTime;
 @Data
 public class SpaceClosure {
     @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = "closure_id")
     private Long closureId;
 
@@ -0,0 +1,139 @@
+package cr.una.reservas_municipales.notification;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motor de entrega SMTP usado por {@link NotificationOutboxDispatcher}.
+ *
+ * Los eventos se agrupan en lotes de {@code messages-per-connection}; cada lote viaja por una sola
+ * conexión SMTP. Un número fijo de hilos virtuales (uno por conexión simultánea) consume una cola
+ * acotada: si se llena, {@link #deliver} bloquea al productor en lugar de acumular memoria. Antes de
+ * cada lote se toman fichas de la cubeta del proveedor para no superar su límite de envíos.
+ */
+@Slf4j
+@Component
+public class MailDeliveryEngine {
+
+    private final EmailNotificationSender emailSender;
+    private final BlockingQueue<Chunk> queue;
+    private final TokenBucket throttle;
+    private final int chunkSize;
+    private final List<Thread> workers = new ArrayList<>();
+    private final AtomicLong delivered = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong connections = new AtomicLong();
+
+    public MailDeliveryEngine(EmailNotificationSender emailSender,
+                              @Value("${app.notifications.smtp.connections:4}") int connections,
+                              @Value("${app.notifications.smtp.messages-per-connection:20}") int messagesPerConnection,
+                              @Value("${app.notifications.smtp.queue-capacity:32}") int queueCapacity,
+                              @Value("${app.notifications.smtp.rate-per-second:10}") double ratePerSecond,
+                              @Value("${app.notifications.smtp.burst:20}") int burst) {
+        this.emailSender = emailSender;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        this.throttle = new TokenBucket(Math.max(1, burst), ratePerSecond);
+        // Un lote nunca pide más fichas de las que caben en la cubeta
+        this.chunkSize = (int) Math.min(Math.max(1, messagesPerConnection), throttle.capacity());
+        for (int i = 0; i < Math.max(1, connections); i++) {
+            workers.add(Thread.ofVirtual().name("smtp-delivery-" + i).start(this::work));
+        }
+    }
+
+    /**
+     * Entrega los eventos y espera el resultado. Devuelve los que fallaron, por identidad.
+     * Bloquea mientras la cola esté llena.
+     */
+    public Map<NotificationEvent, Exception> deliver(List<NotificationEvent> events) throws InterruptedException {
+        long started = System.nanoTime();
+        List<Chunk> chunks = new ArrayList<>();
+        for (int from = 0; from < events.size(); from += chunkSize) {
+            Chunk chunk = new Chunk(events.subList(from, Math.min(from + chunkSize, events.size())),
+                    new CompletableFuture<>());
+            queue.put(chunk);
+            chunks.add(chunk);
+        }
+
+        Map<NotificationEvent, Exception> failures = new IdentityHashMap<>();
+        for (Chunk chunk : chunks) {
+            try {
+                failures.putAll(chunk.result().join());
+            } catch (CompletionException e) {
+                chunk.events().forEach(event -> failures.put(event, e));
+            }
+        }
+
+        if (!events.isEmpty()) {
+            long elapsedMs = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+            log.info("Entrega SMTP: {} enviados, {} fallidos, {} conexiones, {} ms ({} msg/s)",
+                    events.size() - failures.size(), failures.size(), chunks.size(), elapsedMs,
+                    events.size() * 1000L / elapsedMs);
+        }
+        return failures;
+    }
+
+    public long deliveredCount() {
+        return delivered.get();
+    }
+
+    public long failedCount() {
+        return failed.get();
+    }
+
+    public long connectionCount() {
+        return connections.get();
+    }
+
+    int queuedChunks() {
+        return queue.size();
+    }
+
+    private void work() {
+        while (!Thread.currentThread().isInterrupted()) {
+            Chunk chunk;
+            try {
+                chunk = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                throttle.acquire(chunk.events().size());
+                connections.incrementAndGet();
+                Map<NotificationEvent, Exception> failures = emailSender.sendAll(chunk.events());
+                delivered.addAndGet(chunk.events().size() - failures.size());
+                failed.addAndGet(failures.size());
+                chunk.result().complete(failures);
+            } catch (InterruptedException e) {
+                chunk.result().completeExceptionally(e);
+                return;
+            } catch (Exception e) {
+                log.error("Error al entregar un lote de {} correos: {}", chunk.events().size(), e.getMessage());
+                failed.addAndGet(chunk.events().size());
+                chunk.result().completeExceptionally(e);
+            }
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        workers.forEach(Thread::interrupt);
+        List<Chunk> pending = new ArrayList<>();
+        queue.drainTo(pending);
+        pending.forEach(chunk -> chunk.result().completeExceptionally(new IllegalStateException("Motor SMTP detenido")));
+    }
+
+    private record Chunk(List<NotificationEvent> events, CompletableFuture<Map<NotificationEvent, Exception>> result) {
+    }
+}
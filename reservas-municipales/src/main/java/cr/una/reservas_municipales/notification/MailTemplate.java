@@ -0,0 +1,100 @@
+package cr.una.reservas_municipales.notification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Plantilla de correo precompilada: el HTML se parte una sola vez en tramos fijos y marcadores.
+ * {@code {{nombre}}} se escapa como HTML; {@code {{{nombre}}}} se inserta tal cual (solo para
+ * fragmentos generados por la aplicación). Renderizar es solo concatenar en el búfer recibido.
+ */
+final class MailTemplate {
+
+    private static final Pattern SLOT_NAME = Pattern.compile("[A-Za-z][A-Za-z0-9_]*");
+
+    private final String[] literals;
+    private final String[] slots;
+    private final boolean[] raw;
+    private final int literalLength;
+
+    private MailTemplate(List<String> literals, List<String> slots, List<Boolean> raw) {
+        this.literals = literals.toArray(String[]::new);
+        this.slots = slots.toArray(String[]::new);
+        this.raw = new boolean[raw.size()];
+        for (int i = 0; i < raw.size(); i++) {
+            this.raw[i] = raw.get(i);
+        }
+        this.literalLength = literals.stream().mapToInt(String::length).sum();
+    }
+
+    static MailTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        List<Boolean> raw = new ArrayList<>();
+
+        int position = 0;
+        while (true) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                literals.add(source.substring(position));
+                return new MailTemplate(literals, slots, raw);
+            }
+            boolean unescaped = source.startsWith("{{{", open);
+            String closing = unescaped ? "}}}" : "}}";
+            int nameStart = open + (unescaped ? 3 : 2);
+            int close = source.indexOf(closing, nameStart);
+            if (close < 0) {
+                throw new IllegalArgumentException("Marcador sin cerrar en la posición " + open);
+            }
+            String name = source.substring(nameStart, close).trim();
+            if (!SLOT_NAME.matcher(name).matches()) {
+                throw new IllegalArgumentException("Marcador inválido: " + name);
+            }
+            literals.add(source.substring(position, open));
+            slots.add(name);
+            raw.add(unescaped);
+            position = close + closing.length();
+        }
+    }
+
+    /**
+     * Agrega la plantilla al búfer; un valor ausente se renderiza vacío.
+     */
+    void renderTo(StringBuilder out, Map<String, ?> values) {
+        out.ensureCapacity(out.length() + literalLength + 64 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(literals[i]);
+            Object value = values.get(slots[i]);
+            if (value != null) {
+                if (raw[i]) {
+                    out.append(value);
+                } else {
+                    appendEscaped(out, value.toString());
+                }
+            }
+        }
+        out.append(literals[slots.length]);
+    }
+
+    Set<String> slotNames() {
+        return new LinkedHashSet<>(List.of(slots));
+    }
+
+    static void appendEscaped(StringBuilder out, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+}
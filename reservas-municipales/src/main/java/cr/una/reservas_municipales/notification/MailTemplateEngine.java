@@ -0,0 +1,112 @@
+package cr.una.reservas_municipales.notification;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Carga una vez las plantillas {@code *.html} de {@code templates/mail} y las precompila
+ * ({@link MailTemplate}). Cada hilo reutiliza su propio búfer al renderizar.
+ *
+ * Con {@code app.notifications.templates.reload=true} (perfil dev) se compara la fecha de
+ * modificación del archivo en cada render y se recompila si cambió.
+ */
+@Slf4j
+@Component
+public class MailTemplateEngine {
+
+    private static final int INITIAL_BUFFER = 8 * 1024;
+    // Un correo inusualmente grande no debe dejar un búfer enorme retenido por el hilo
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(INITIAL_BUFFER));
+    private final Map<String, LoadedTemplate> templates = new ConcurrentHashMap<>();
+    private final boolean reload;
+
+    public MailTemplateEngine(@Value("${app.notifications.templates.location:classpath:templates/mail/}") String location,
+                              @Value("${app.notifications.templates.reload:false}") boolean reload) {
+        this.reload = reload;
+        ResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        try {
+            for (Resource resource : resolver.getResources(location + "*.html")) {
+                String filename = resource.getFilename();
+                if (filename != null) {
+                    String name = filename.substring(0, filename.length() - ".html".length());
+                    templates.put(name, load(resource));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudieron cargar las plantillas de correo en " + location, e);
+        }
+        log.info("Plantillas de correo precompiladas: {}", templates.keySet());
+    }
+
+    public String render(String name, Map<String, ?> values) {
+        MailTemplate template = template(name);
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        template.renderTo(buffer, values);
+        String html = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            buffers.remove();
+        }
+        return html;
+    }
+
+    public boolean hasTemplate(String name) {
+        return templates.containsKey(name);
+    }
+
+    MailTemplate template(String name) {
+        LoadedTemplate loaded = templates.get(name);
+        if (loaded == null) {
+            throw new IllegalArgumentException("Plantilla de correo no encontrada: " + name);
+        }
+        if (reload) {
+            loaded = reloadIfModified(name, loaded);
+        }
+        return loaded.template();
+    }
+
+    private LoadedTemplate reloadIfModified(String name, LoadedTemplate loaded) {
+        try {
+            if (lastModified(loaded.resource()) == loaded.lastModified()) {
+                return loaded;
+            }
+            LoadedTemplate fresh = load(loaded.resource());
+            templates.put(name, fresh);
+            log.info("Plantilla de correo recompilada: {}", name);
+            return fresh;
+        } catch (IOException | IllegalArgumentException e) {
+            // Un archivo a medio editar no debe romper el envío: se sigue con la versión anterior
+            log.warn("No se pudo recargar la plantilla {}: {}", name, e.getMessage());
+            return loaded;
+        }
+    }
+
+    private static LoadedTemplate load(Resource resource) throws IOException {
+        long lastModified = lastModified(resource);
+        String source = resource.getContentAsString(StandardCharsets.UTF_8);
+        return new LoadedTemplate(MailTemplate.compile(source), resource, lastModified);
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private record LoadedTemplate(MailTemplate template, Resource resource, long lastModified) {
+    }
+}
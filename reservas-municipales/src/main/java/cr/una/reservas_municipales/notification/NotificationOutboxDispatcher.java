@@ -0,0 +1,196 @@
+package cr.una.reservas_municipales.notification;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.una.reservas_municipales.model.NotificationOutbox;
+import cr.una.reservas_municipales.repository.NotificationOutboxRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Despacha notification_outbox fuera de las transacciones de negocio.
+ *
+ * Cada ciclo toma un lote vencido con FOR UPDATE SKIP LOCKED, lo "arrienda" moviendo next_attempt_at
+ * y confirma de inmediato: la conexión se libera antes de hablar con el servidor de correo. El lote
+ * lo entrega {@link MailDeliveryEngine}; los fallos se reintentan con backoff exponencial y, agotados los intentos,
+ * quedan en estado DEAD para revisión manual.
+ *
+ * El sondeo corre en un hilo propio y no en el planificador de @Scheduled: una entrega puede
+ * bloquearse mientras dure un atraso de correos o un SMTP lento (cola llena, límite de envío), y en
+ * el planificador compartido detendría la auto-cancelación, los rollups y las recargas de métricas.
+ */
+@Slf4j
+@Component
+public class NotificationOutboxDispatcher {
+
+    private static final int MAX_ERROR_LENGTH = 500;
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {};
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final MailDeliveryEngine deliveryEngine;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration backoffBase;
+    private final Duration backoffMax;
+    private final long pollDelayMillis;
+    private final ScheduledExecutorService poller = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "notification-outbox");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public NotificationOutboxDispatcher(NotificationOutboxRepository outboxRepository,
+                                        MailDeliveryEngine deliveryEngine,
+                                        ObjectMapper objectMapper,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.notifications.outbox.batch-size:50}") int batchSize,
+                                        @Value("${app.notifications.outbox.max-attempts:6}") int maxAttempts,
+                                        @Value("${app.notifications.outbox.lease-ms:300000}") long leaseMillis,
+                                        @Value("${app.notifications.outbox.backoff-base-ms:30000}") long backoffBaseMillis,
+                                        @Value("${app.notifications.outbox.backoff-max-ms:3600000}") long backoffMaxMillis,
+                                        @Value("${app.notifications.outbox.poll-delay-ms:1000}") long pollDelayMillis) {
+        this.outboxRepository = outboxRepository;
+        this.deliveryEngine = deliveryEngine;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = Math.max(1, batchSize);
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.lease = Duration.ofMillis(leaseMillis);
+        this.backoffBase = Duration.ofMillis(backoffBaseMillis);
+        this.backoffMax = Duration.ofMillis(backoffMaxMillis);
+        this.pollDelayMillis = Math.max(1, pollDelayMillis);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        poller.scheduleWithFixedDelay(this::dispatchPending, pollDelayMillis, pollDelayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        // Interrumpe una entrega en curso: sus filas siguen arrendadas y se reintentan al vencer el arriendo
+        poller.shutdownNow();
+    }
+
+    public void dispatchPending() {
+        try {
+            int processed;
+            do {
+                processed = dispatchBatch();
+            } while (processed == batchSize);
+        } catch (Exception e) {
+            log.error("Error al despachar notificaciones pendientes: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Procesa un lote y devuelve cuántas notificaciones tomó.
+     */
+    int dispatchBatch() {
+        List<NotificationOutbox> batch = transactionTemplate.execute(status -> claimBatch());
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<Long> sent = new ArrayList<>();
+        Map<NotificationOutbox, Exception> failed = new HashMap<>();
+        List<NotificationOutbox> deliverable = new ArrayList<>();
+        List<NotificationEvent> events = new ArrayList<>();
+        for (NotificationOutbox message : batch) {
+            try {
+                events.add(toEvent(message));
+                deliverable.add(message);
+            } catch (Exception e) {
+                failed.put(message, e);
+            }
+        }
+
+        Map<NotificationEvent, Exception> failures;
+        try {
+            failures = deliveryEngine.deliver(events);
+        } catch (InterruptedException e) {
+            // Las filas siguen arrendadas: se reintentan cuando venza el arriendo. Se corta el ciclo
+            Thread.currentThread().interrupt();
+            return 0;
+        }
+        for (int i = 0; i < deliverable.size(); i++) {
+            Exception error = failures.get(events.get(i));
+            if (error == null) {
+                sent.add(deliverable.get(i).getOutboxId());
+            } else {
+                failed.put(deliverable.get(i), error);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> recordResults(sent, failed));
+        log.debug("Lote de notificaciones: {} enviadas, {} fallidas", sent.size(), failed.size());
+        return batch.size();
+    }
+
+    private List<NotificationOutbox> claimBatch() {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<NotificationOutbox> due = outboxRepository.lockDue(now, batchSize);
+        if (!due.isEmpty()) {
+            outboxRepository.lease(due.stream().map(NotificationOutbox::getOutboxId).toList(), now.plus(lease));
+        }
+        return due;
+    }
+
+    private void recordResults(List<Long> sent, Map<NotificationOutbox, Exception> failed) {
+        OffsetDateTime now = OffsetDateTime.now();
+        if (!sent.isEmpty()) {
+            outboxRepository.markSent(sent, now);
+        }
+        failed.forEach((message, error) -> {
+            // attempts de la entidad es el valor previo al arriendo
+            int attempts = message.getAttempts() + 1;
+            String reason = truncate(error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName());
+            if (attempts >= maxAttempts) {
+                outboxRepository.markDead(message.getOutboxId(), reason);
+                log.error("Notificación {} descartada tras {} intentos: {}", message.getOutboxId(), attempts, reason);
+            } else {
+                outboxRepository.reschedule(message.getOutboxId(), now.plus(backoff(attempts)), reason);
+                log.warn("Notificación {} falló (intento {}), se reintentará: {}", message.getOutboxId(), attempts, reason);
+            }
+        });
+    }
+
+    Duration backoff(int attempts) {
+        Duration delay = backoffBase.multipliedBy(1L << Math.min(attempts - 1, 20));
+        return delay.compareTo(backoffMax) > 0 ? backoffMax : delay;
+    }
+
+    private NotificationEvent toEvent(NotificationOutbox message) throws Exception {
+        return NotificationEvent.builder()
+                .type(message.getType())
+                .reservationId(message.getReservationId())
+                .userId(message.getUserId())
+                .email(message.getEmail())
+                .data(objectMapper.readValue(message.getPayload(), PAYLOAD_TYPE))
+                .occurredAt(message.getOccurredAt())
+                .build();
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= MAX_ERROR_LENGTH ? value : value.substring(0, MAX_ERROR_LENGTH);
+    }
+}
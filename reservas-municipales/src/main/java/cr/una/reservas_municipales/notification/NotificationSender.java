@@ -1,5 +1,11 @@
 package cr.una.reservas_municipales.notification;
 
+import java.util.List;
+
 public interface NotificationSender {
     void send(NotificationEvent event);
+
+    default void sendBatch(List<NotificationEvent> events) {
+        events.forEach(this::send);
+    }
 }
@@ -0,0 +1,78 @@
+package cr.una.reservas_municipales.notification;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.una.reservas_municipales.model.NotificationOutbox;
+import cr.una.reservas_municipales.repository.NotificationOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación por defecto de {@link NotificationSender}: no habla SMTP, solo inserta el evento en
+ * notification_outbox dentro de la transacción del llamador. Si la transacción se revierte, la
+ * notificación también; el envío real lo hace {@link NotificationOutboxDispatcher}.
+ */
+@Slf4j
+@Primary
+@Service
+@RequiredArgsConstructor
+public class OutboxNotificationSender implements NotificationSender {
+
+    private final NotificationOutboxRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @Transactional
+    public void send(NotificationEvent event) {
+        outboxRepository.save(toMessage(event, OffsetDateTime.now()));
+        log.debug("Notificación {} encolada para {}", event.getType(), event.getEmail());
+    }
+
+    /**
+     * Encola varias notificaciones con un solo saveAll, p. ej. las cancelaciones por un cierre.
+     */
+    @Override
+    @Transactional
+    public void sendBatch(List<NotificationEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        OffsetDateTime now = OffsetDateTime.now();
+        outboxRepository.saveAll(events.stream().map(event -> toMessage(event, now)).toList());
+        log.debug("{} notificaciones encoladas", events.size());
+    }
+
+    private NotificationOutbox toMessage(NotificationEvent event, OffsetDateTime now) {
+        NotificationOutbox message = new NotificationOutbox();
+        message.setType(event.getType());
+        message.setReservationId(event.getReservationId());
+        message.setUserId(event.getUserId());
+        message.setEmail(event.getEmail());
+        message.setPayload(serialize(event.getData()));
+        message.setOccurredAt(event.getOccurredAt() != null ? event.getOccurredAt() : now);
+        message.setNextAttemptAt(now);
+        message.setCreatedAt(now);
+        return message;
+    }
+
+    // Los correos solo usan String.valueOf de cada dato, así que se guardan ya como texto
+    private String serialize(Map<String, Object> data) {
+        Map<String, String> values = new LinkedHashMap<>();
+        if (data != null) {
+            data.forEach((key, value) -> values.put(key, String.valueOf(value)));
+        }
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar la notificación", e);
+        }
+    }
+}
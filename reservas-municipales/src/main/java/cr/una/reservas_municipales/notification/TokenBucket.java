@@ -0,0 +1,77 @@
+package cr.una.reservas_municipales.notification;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador de tasa por cubeta de fichas: admite ráfagas de hasta {@code capacity} envíos y se
+ * rellena a {@code permitsPerSecond}. Lo comparten todos los hilos que usan el mismo proveedor SMTP.
+ */
+class TokenBucket {
+
+    private final long capacity;
+    private final double permitsPerNano;
+    private final LongSupplier nanoClock;
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(long capacity, double permitsPerSecond) {
+        this(capacity, permitsPerSecond, System::nanoTime);
+    }
+
+    TokenBucket(long capacity, double permitsPerSecond, LongSupplier nanoClock) {
+        if (capacity < 1 || permitsPerSecond <= 0) {
+            throw new IllegalArgumentException("La cubeta necesita capacidad y tasa positivas");
+        }
+        this.capacity = capacity;
+        this.permitsPerNano = permitsPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.nanoClock = nanoClock;
+        this.tokens = capacity;
+        this.lastRefill = nanoClock.getAsLong();
+    }
+
+    long capacity() {
+        return capacity;
+    }
+
+    /**
+     * Bloquea hasta disponer de {@code permits} fichas.
+     */
+    void acquire(int permits) throws InterruptedException {
+        checkPermits(permits);
+        while (true) {
+            long waitNanos;
+            synchronized (this) {
+                refill();
+                if (tokens >= permits) {
+                    tokens -= permits;
+                    return;
+                }
+                waitNanos = (long) Math.ceil((permits - tokens) / permitsPerNano);
+            }
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    synchronized boolean tryAcquire(int permits) {
+        checkPermits(permits);
+        refill();
+        if (tokens >= permits) {
+            tokens -= permits;
+            return true;
+        }
+        return false;
+    }
+
+    private void checkPermits(int permits) {
+        if (permits < 1 || permits > capacity) {
+            throw new IllegalArgumentException("Fichas solicitadas fuera de rango: " + permits);
+        }
+    }
+
+    private void refill() {
+        long now = nanoClock.getAsLong();
+        tokens = Math.min(capacity, tokens + (now - lastRefill) * permitsPerNano);
+        lastRefill = now;
+    }
+}
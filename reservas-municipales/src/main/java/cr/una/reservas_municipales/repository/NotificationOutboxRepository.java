@@ -0,0 +1,46 @@
+package cr.una.reservas_municipales.repository;
+
+import cr.una.reservas_municipales.model.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Pendientes vencidas; SKIP LOCKED deja que varias instancias despachen sin pisarse
+    @Query(value = "SELECT * FROM notification_outbox WHERE status = 'PENDING' AND next_attempt_at <= :now " +
+                   "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED",
+           nativeQuery = true)
+    List<NotificationOutbox> lockDue(@Param("now") OffsetDateTime now, @Param("limit") int limit);
+
+    // Reserva las filas hasta "until": si el proceso cae a mitad del envío se reintentan al vencer
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.attempts = o.attempts + 1, o.nextAttemptAt = :until " +
+           "WHERE o.outboxId IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("until") OffsetDateTime until);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = 'SENT', o.sentAt = :now, o.lastError = NULL " +
+           "WHERE o.outboxId IN :ids")
+    int markSent(@Param("ids") Collection<Long> ids, @Param("now") OffsetDateTime now);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.nextAttemptAt = :nextAttemptAt, o.lastError = :error " +
+           "WHERE o.outboxId = :id")
+    int reschedule(@Param("id") Long id,
+                   @Param("nextAttemptAt") OffsetDateTime nextAttemptAt,
+                   @Param("error") String error);
+
+    @Modifying
+    @Query("UPDATE NotificationOutbox o SET o.status = 'DEAD', o.lastError = :error WHERE o.outboxId = :id")
+    int markDead(@Param("id") Long id, @Param("error") String error);
+
+    long countByStatus(NotificationOutbox.Status status);
+}
@@ -0,0 +1,60 @@
+package cr.una.reservas_municipales.repository;
+
+import cr.una.reservas_municipales.model.ReservationDailyStat;
+import cr.una.reservas_municipales.model.ReservationDailyStatId;
+import cr.una.reservas_municipales.repository.projection.DailyRollup;
+import cr.una.reservas_municipales.repository.projection.RollupTotals;
+import cr.una.reservas_municipales.repository.projection.SpaceRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface ReservationDailyStatRepository extends JpaRepository<ReservationDailyStat, ReservationDailyStatId> {
+    
+    // Borra los rollups de un rango de días (inclusive) antes de recalcularlo
+    @Modifying
+    @Query("DELETE FROM ReservationDailyStat s WHERE s.statDay >= :from AND s.statDay <= :to")
+    int deleteDays(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    // Última actualización de los rollups; null si la tabla está vacía
+    @Query("SELECT max(s.refreshedAt) FROM ReservationDailyStat s")
+    OffsetDateTime findLastRefresh();
+    
+    // Totales por estado en un rango de días, opcionalmente de un solo espacio
+    @Query("SELECT new cr.una.reservas_municipales.repository.projection.RollupTotals(s.status, " +
+           "sum(s.reservationCount), sum(s.totalMinutes), sum(s.revenueCents), sum(s.attendanceCount)) " +
+           "FROM ReservationDailyStat s WHERE s.statDay >= :from AND s.statDay <= :to " +
+           "AND (:spaceId IS NULL OR s.spaceId = :spaceId) GROUP BY s.status")
+    List<RollupTotals> sumByStatus(@Param("from") LocalDate from,
+                                   @Param("to") LocalDate to,
+                                   @Param("spaceId") UUID spaceId);
+    
+    // Serie diaria en un rango de días, opcionalmente de un solo espacio
+    @Query("SELECT new cr.una.reservas_municipales.repository.projection.DailyRollup(s.statDay, " +
+           "sum(s.reservationCount), sum(s.totalMinutes), " +
+           "sum(s.revenueCents) FILTER (WHERE s.status IN ('CONFIRMED', 'COMPLETED')), sum(s.attendanceCount)) " +
+           "FROM ReservationDailyStat s WHERE s.statDay >= :from AND s.statDay <= :to " +
+           "AND (:spaceId IS NULL OR s.spaceId = :spaceId) GROUP BY s.statDay ORDER BY s.statDay ASC")
+    List<DailyRollup> sumByDay(@Param("from") LocalDate from,
+                               @Param("to") LocalDate to,
+                               @Param("spaceId") UUID spaceId);
+    
+    // Espacios con más reservas en un rango de días (usar con PageRequest.of(0, n))
+    @Query("SELECT new cr.una.reservas_municipales.repository.projection.SpaceRollup(sp.spaceId, sp.name, " +
+           "sum(s.reservationCount), sum(s.revenueCents) FILTER (WHERE s.status IN ('CONFIRMED', 'COMPLETED'))) " +
+           "FROM ReservationDailyStat s JOIN Space sp ON sp.spaceId = s.spaceId " +
+           "WHERE s.statDay >= :from AND s.statDay <= :to " +
+           "GROUP BY sp.spaceId, sp.name ORDER BY sum(s.reservationCount) DESC, sp.spaceId ASC")
+    List<SpaceRollup> findTopSpaces(@Param("from") LocalDate from,
+                                    @Param("to") LocalDate to,
+                                    Pageable pageable);
+}
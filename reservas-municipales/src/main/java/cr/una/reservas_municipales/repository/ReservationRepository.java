@@ -1,30 +1,54 @@
 package cr.una.reservas_municipales.repository;
 
 import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.repository.projection.BucketCount;
+import cr.una.reservas_municipales.repository.projection.CreatedCounts;
+import cr.una.reservas_municipales.repository.projection.ReservationCountRow;
+import cr.una.reservas_municipales.repository.projection.ReservationSlot;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import cr.una.reservas_municipales.repository.projection.RevenueTotals;
+import cr.una.reservas_municipales.repository.projection.SpaceUsageRow;
+import cr.una.reservas_municipales.repository.projection.StatusCount;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, UUID> {
     
+    // Columnas de los listados (ver ReservationView); el QR vive en reservation_qr
+    String VIEW_SELECT = "SELECT new cr.una.reservas_municipales.repository.projection.ReservationView(" +
+            "r.reservationId, r.spaceId, r.userId, r.startsAt, r.endsAt, r.status, r.cancelReason, " +
+            "r.rateId, r.totalAmount, r.currency, r.createdAt, r.updatedAt, r.qrValidationToken, " +
+            "r.attendanceConfirmed, r.attendanceConfirmedAt, r.confirmedByUserId) FROM Reservation r ";
+    
     // Encontrar reservas por usuario
     List<Reservation> findByUserIdOrderByStartsAtDesc(UUID userId);
     
-    // Encontrar reservas por espacio
-    List<Reservation> findBySpaceIdOrderByStartsAtDesc(UUID spaceId);
+    // Listado de reservas de un usuario sin cargar entidades
+    @Query(VIEW_SELECT + "WHERE r.userId = :userId ORDER BY r.startsAt DESC")
+    List<ReservationView> findViewsByUserId(@Param("userId") UUID userId);
+    
+    // Estado de una reserva sin cargar la entidad
+    @Query(VIEW_SELECT + "WHERE r.reservationId = :id")
+    Optional<ReservationView> findViewById(@Param("id") UUID id);
     
     // Contar reservas por espacio (para validación de eliminación)
     long countBySpaceId(UUID spaceId);
     
-    // Encontrar reservas por estado
-    List<Reservation> findByStatusOrderByStartsAtDesc(String status);
-    
     // Verificar conflictos de horario para un espacio específico
     @Query("SELECT r FROM Reservation r WHERE r.spaceId = :spaceId " +
            "AND r.status IN ('CONFIRMED', 'PENDING') " +
@@ -33,43 +57,258 @@ public interface ReservationRepository extends JpaRepository<Reservation, UUID>
                                                   @Param("startsAt") OffsetDateTime startsAt,
                                                   @Param("endsAt") OffsetDateTime endsAt);
     
-    // Encontrar reservas en un rango de fechas
-    @Query("SELECT r FROM Reservation r WHERE r.startsAt >= :startDate AND r.endsAt <= :endDate " +
-           "ORDER BY r.startsAt ASC")
-    List<Reservation> findReservationsInDateRange(@Param("startDate") OffsetDateTime startDate,
-                                                  @Param("endDate") OffsetDateTime endDate);
+    // Intervalos activos (CONFIRMED/PENDING) que terminan después de una fecha, sin cargar el QR
+    @Query("SELECT r.reservationId AS reservationId, r.spaceId AS spaceId, " +
+           "r.startsAt AS startsAt, r.endsAt AS endsAt FROM Reservation r " +
+           "WHERE r.status IN ('CONFIRMED', 'PENDING') AND r.endsAt >= :from")
+    List<ReservationSlot> findActiveSlotsEndingAfter(@Param("from") OffsetDateTime from);
     
-    // Encontrar espacios ocupados en un rango de fechas
-    @Query("SELECT DISTINCT r.spaceId FROM Reservation r WHERE r.status IN ('CONFIRMED', 'PENDING') " +
-           "AND ((r.startsAt <= :endsAt AND r.endsAt >= :startsAt))")
-    List<UUID> findOccupiedSpaceIds(@Param("startsAt") OffsetDateTime startsAt,
-                                   @Param("endsAt") OffsetDateTime endsAt);
+    // Intervalos activos de un espacio que se solapan con un rango, ordenados por inicio
+    @Query("SELECT r.reservationId AS reservationId, r.spaceId AS spaceId, " +
+           "r.startsAt AS startsAt, r.endsAt AS endsAt FROM Reservation r " +
+           "WHERE r.spaceId = :spaceId AND r.status IN ('CONFIRMED', 'PENDING') " +
+           "AND r.startsAt <= :endsAt AND r.endsAt >= :startsAt ORDER BY r.startsAt ASC")
+    List<ReservationSlot> findActiveSlotsInRange(@Param("spaceId") UUID spaceId,
+                                                 @Param("startsAt") OffsetDateTime startsAt,
+                                                 @Param("endsAt") OffsetDateTime endsAt);
+    
+    // Intervalos que ocupan un espacio (CONFIRMED/PENDING/COMPLETED) y se solapan con [from, to),
+    // de todos los espacios o de uno solo
+    @Query("SELECT r.reservationId AS reservationId, r.spaceId AS spaceId, " +
+           "r.startsAt AS startsAt, r.endsAt AS endsAt FROM Reservation r " +
+           "WHERE r.status IN ('CONFIRMED', 'PENDING', 'COMPLETED') " +
+           "AND r.startsAt < :to AND r.endsAt > :from " +
+           "AND (:spaceId IS NULL OR r.spaceId = :spaceId)")
+    List<ReservationSlot> findOccupyingSlotsBetween(@Param("from") OffsetDateTime from,
+                                                    @Param("to") OffsetDateTime to,
+                                                    @Param("spaceId") UUID spaceId);
+    
+    // ============ MÉTODOS PARA SERIES PERIÓDICAS ============
+    
+    // Ocurrencias activas de una serie desde una fecha, ordenadas por inicio
+    @Query("SELECT r.reservationId AS reservationId, r.spaceId AS spaceId, " +
+           "r.startsAt AS startsAt, r.endsAt AS endsAt FROM Reservation r " +
+           "WHERE r.seriesId = :seriesId AND r.status IN ('CONFIRMED', 'PENDING') " +
+           "AND r.startsAt >= :from ORDER BY r.startsAt ASC")
+    List<ReservationSlot> findActiveSlotsBySeries(@Param("seriesId") UUID seriesId,
+                                                  @Param("from") OffsetDateTime from);
+    
+    // Si a la serie le quedan ocurrencias activas desde una fecha
+    boolean existsBySeriesIdAndStatusInAndStartsAtGreaterThanEqual(UUID seriesId, List<String> statuses,
+                                                                   OffsetDateTime from);
+    
+    // Ocurrencias activas de una serie desde una fecha, con las columnas de los listados
+    @Query(VIEW_SELECT + "WHERE r.seriesId = :seriesId AND r.status IN ('CONFIRMED', 'PENDING') " +
+           "AND r.startsAt >= :from ORDER BY r.startsAt ASC")
+    List<ReservationView> findActiveViewsBySeries(@Param("seriesId") UUID seriesId,
+                                                  @Param("from") OffsetDateTime from);
+    
+    // Cancela en un solo UPDATE las ocurrencias activas de una serie desde una fecha
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = 'CANCELLED', r.cancelReason = :reason, r.updatedAt = :now " +
+           "WHERE r.seriesId = :seriesId AND r.status IN ('CONFIRMED', 'PENDING') AND r.startsAt >= :from")
+    int cancelSeriesFrom(@Param("seriesId") UUID seriesId,
+                         @Param("from") OffsetDateTime from,
+                         @Param("reason") String reason,
+                         @Param("now") OffsetDateTime now);
+    
+    // Cancela en un solo UPDATE las reservas activas de un espacio que se solapan con un cierre
+    @Modifying
+    @Query("UPDATE Reservation r SET r.status = 'CANCELLED', r.cancelReason = :reason, r.updatedAt = :now " +
+           "WHERE r.spaceId = :spaceId AND r.status IN ('CONFIRMED', 'PENDING') " +
+           "AND r.startsAt <= :endsAt AND r.endsAt >= :startsAt")
+    int cancelActiveInRange(@Param("spaceId") UUID spaceId,
+                            @Param("startsAt") OffsetDateTime startsAt,
+                            @Param("endsAt") OffsetDateTime endsAt,
+                            @Param("reason") String reason,
+                            @Param("now") OffsetDateTime now);
+    
+    // Desplaza en un solo UPDATE el inicio y el fin de las ocurrencias activas de una serie
+    @Modifying
+    @Query(value = "UPDATE reservation SET starts_at = starts_at + (:startShift * INTERVAL '1 second'), " +
+                   "ends_at = ends_at + (:endShift * INTERVAL '1 second'), updated_at = :now " +
+                   "WHERE series_id = :seriesId AND status IN ('CONFIRMED', 'PENDING') AND starts_at >= :from",
+           nativeQuery = true)
+    int shiftSeriesFrom(@Param("seriesId") UUID seriesId,
+                        @Param("from") OffsetDateTime from,
+                        @Param("startShift") long startShiftSeconds,
+                        @Param("endShift") long endShiftSeconds,
+                        @Param("now") OffsetDateTime now);
+    
+    // ============ PAGINACIÓN POR CURSOR (KEYSET SOBRE starts_at, reservation_id) ============
+    
+    // Reservas anteriores al cursor, de la más reciente a la más antigua
+    @Query(VIEW_SELECT + "WHERE r.startsAt <= :startsAt " +
+           "AND (r.startsAt < :startsAt OR r.reservationId < :reservationId) " +
+           "ORDER BY r.startsAt DESC, r.reservationId DESC")
+    List<ReservationView> findPageBefore(@Param("startsAt") OffsetDateTime startsAt,
+                                     @Param("reservationId") UUID reservationId,
+                                     Pageable pageable);
+    
+    @Query(VIEW_SELECT + "WHERE r.status = :status AND r.startsAt <= :startsAt " +
+           "AND (r.startsAt < :startsAt OR r.reservationId < :reservationId) " +
+           "ORDER BY r.startsAt DESC, r.reservationId DESC")
+    List<ReservationView> findPageByStatusBefore(@Param("status") String status,
+                                             @Param("startsAt") OffsetDateTime startsAt,
+                                             @Param("reservationId") UUID reservationId,
+                                             Pageable pageable);
     
-    // ============ MÉTODOS PARA MÉTRICAS (ORM PURO) ============
+    @Query(VIEW_SELECT + "WHERE r.spaceId = :spaceId AND r.startsAt <= :startsAt " +
+           "AND (r.startsAt < :startsAt OR r.reservationId < :reservationId) " +
+           "ORDER BY r.startsAt DESC, r.reservationId DESC")
+    List<ReservationView> findPageBySpaceBefore(@Param("spaceId") UUID spaceId,
+                                            @Param("startsAt") OffsetDateTime startsAt,
+                                            @Param("reservationId") UUID reservationId,
+                                            Pageable pageable);
     
-    // Contar por estado específico
-    long countByStatus(String status);
+    // Reservas dentro del rango posteriores al cursor, en orden cronológico
+    @Query(VIEW_SELECT + "WHERE r.startsAt >= :startDate AND r.endsAt <= :endDate " +
+           "AND r.startsAt >= :startsAt AND (r.startsAt > :startsAt OR r.reservationId > :reservationId) " +
+           "ORDER BY r.startsAt ASC, r.reservationId ASC")
+    List<ReservationView> findPageInDateRangeAfter(@Param("startDate") OffsetDateTime startDate,
+                                               @Param("endDate") OffsetDateTime endDate,
+                                               @Param("startsAt") OffsetDateTime startsAt,
+                                               @Param("reservationId") UUID reservationId,
+                                               Pageable pageable);
     
-    // Contar reservas activas (múltiples estados)
-    long countByStatusIn(List<String> statuses);
+    // Recorrido completo con cursor JDBC de solo avance; debe consumirse dentro de una transacción
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(VIEW_SELECT + "WHERE (:status IS NULL OR r.status = :status) " +
+           "AND (:spaceId IS NULL OR r.spaceId = :spaceId) " +
+           "AND r.startsAt >= :startDate AND r.startsAt < :endDate " +
+           "ORDER BY r.startsAt ASC, r.reservationId ASC")
+    Stream<ReservationView> streamFiltered(@Param("status") String status,
+                                       @Param("spaceId") UUID spaceId,
+                                       @Param("startDate") OffsetDateTime startDate,
+                                       @Param("endDate") OffsetDateTime endDate);
     
-    // Reservas en rango de fechas (para cálculo de ingresos)
-    List<Reservation> findByCreatedAtBetween(OffsetDateTime start, OffsetDateTime end);
+    // Todas las reservas para el almacén analítico, con cursor JDBC; debe consumirse dentro de una transacción
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"),
+        @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "false")
+    })
+    @Query(VIEW_SELECT)
+    Stream<ReservationView> streamAllViews();
     
-    // Todas las reservas de un espacio (para top spaces)
-    List<Reservation> findBySpaceId(UUID spaceId);
+    // ============ MÉTODOS PARA MÉTRICAS (AGREGADOS EN LA BD) ============
+    
+    // Cantidad de reservas por estado en un solo GROUP BY
+    @Query("SELECT new cr.una.reservas_municipales.repository.projection.StatusCount(r.status, count(r)) " +
+           "FROM Reservation r GROUP BY r.status")
+    List<StatusCount> countGroupedByStatus();
+    
+    // Ingresos (CONFIRMED y COMPLETED) del mes actual y del anterior en una sola lectura
+    @Query("SELECT new cr.una.reservas_municipales.repository.projection.RevenueTotals(" +
+           "sum(r.totalAmount) FILTER (WHERE r.createdAt >= :currentStart), " +
+           "sum(r.totalAmount) FILTER (WHERE r.createdAt < :currentStart)) FROM Reservation r " +
+           "WHERE r.status IN ('CONFIRMED', 'COMPLETED') " +
+           "AND r.createdAt >= :previousStart AND r.createdAt < :nextStart")
+    RevenueTotals sumRevenueByMonth(@Param("previousStart") OffsetDateTime previousStart,
+                                    @Param("currentStart") OffsetDateTime currentStart,
+                                    @Param("nextStart") OffsetDateTime nextStart);
+    
+    // Espacios con más reservas, con su nombre e ingresos (usar con PageRequest.of(0, n)); los espacios
+    // sin reservas entran en cero para completar el top
+    @Query("SELECT new cr.una.reservas_municipales.repository.projection.SpaceUsageRow(s.spaceId, s.name, count(r), " +
+           "sum(r.totalAmount) FILTER (WHERE r.status IN ('CONFIRMED', 'COMPLETED'))) " +
+           "FROM Space s LEFT JOIN Reservation r ON r.spaceId = s.spaceId " +
+           "GROUP BY s.spaceId, s.name ORDER BY count(r) DESC, s.spaceId ASC")
+    List<SpaceUsageRow> findTopSpacesByReservationCount(Pageable pageable);
+    
+    // Conteo y monto por espacio, estado y mes de creación en un solo GROUP BY (carga de MetricsAggregator)
+    @Query("SELECT new cr.una.reservas_municipales.repository.projection.ReservationCountRow(" +
+           "r.spaceId, r.status, extract(year from r.createdAt), extract(month from r.createdAt), " +
+           "count(r), sum(r.totalAmount)) FROM Reservation r " +
+           "GROUP BY r.spaceId, r.status, extract(year from r.createdAt), extract(month from r.createdAt)")
+    List<ReservationCountRow> countBySpaceStatusAndMonth();
     
     // ============ MÉTODOS PARA MÉTRICAS TEMPORALES ============
     
-    // Contar reservas desde una fecha específica
-    long countByCreatedAtGreaterThanEqual(OffsetDateTime date);
+    // Reservas creadas hoy, en la última semana y en el último mes (today y week deben ser >= month)
+    @Query("SELECT new cr.una.reservas_municipales.repository.projection.CreatedCounts(" +
+           "count(r) FILTER (WHERE r.createdAt >= :today), " +
+           "count(r) FILTER (WHERE r.createdAt >= :week), count(r)) " +
+           "FROM Reservation r WHERE r.createdAt >= :month")
+    CreatedCounts countCreatedSince(@Param("today") OffsetDateTime today,
+                                    @Param("week") OffsetDateTime week,
+                                    @Param("month") OffsetDateTime month);
+    
+    // Histograma por día de la semana del inicio (1 = domingo ... 7 = sábado)
+    @Query("SELECT new cr.una.reservas_municipales.repository.projection.BucketCount(extract(day of week from r.startsAt), count(r)) " +
+           "FROM Reservation r WHERE r.startsAt BETWEEN :start AND :end " +
+           "GROUP BY extract(day of week from r.startsAt)")
+    List<BucketCount> countByStartDayOfWeek(@Param("start") OffsetDateTime start,
+                                            @Param("end") OffsetDateTime end);
+    
+    // Histograma por hora del inicio (0-23)
+    @Query("SELECT new cr.una.reservas_municipales.repository.projection.BucketCount(extract(hour from r.startsAt), count(r)) " +
+           "FROM Reservation r WHERE r.startsAt BETWEEN :start AND :end " +
+           "GROUP BY extract(hour from r.startsAt)")
+    List<BucketCount> countByStartHour(@Param("start") OffsetDateTime start,
+                                       @Param("end") OffsetDateTime end);
+    
+    // ============ MÉTODOS PARA ROLLUPS DIARIOS ============
+    
+    // Reservas que empiezan en un rango [from, to), con las columnas de los listados
+    @Query(VIEW_SELECT + "WHERE r.startsAt >= :from AND r.startsAt < :to")
+    List<ReservationView> findViewsStartingBetween(@Param("from") OffsetDateTime from,
+                                                   @Param("to") OffsetDateTime to);
+    
+    // Inicio de las reservas modificadas desde una fecha (días que hay que recalcular)
+    @Query("SELECT DISTINCT r.startsAt FROM Reservation r WHERE r.updatedAt >= :since")
+    List<OffsetDateTime> findStartsAtUpdatedSince(@Param("since") OffsetDateTime since);
+    
+    // Primera y última fecha de inicio (reconstrucción completa de los rollups)
+    @Query("SELECT min(r.startsAt) FROM Reservation r")
+    OffsetDateTime findFirstStartsAt();
+    
+    @Query("SELECT max(r.startsAt) FROM Reservation r")
+    OffsetDateTime findLastStartsAt();
+    
+    // ============ MÉTODOS PARA AUTO-CANCELACIÓN Y AUTO-COMPLETADO ============
+    
+    // Lote de reservas pendientes cuya hora de inicio ya pasó, sin cargar entidades (ni el QR)
+    @Query(VIEW_SELECT + "WHERE r.status = 'PENDING' AND r.startsAt < :now " +
+           "ORDER BY r.startsAt ASC, r.reservationId ASC")
+    List<ReservationView> findExpiredPendingViews(@Param("now") OffsetDateTime now, Pageable pageable);
+    
+    // Lote de reservas confirmadas que terminaron antes de :endedBefore
+    @Query(VIEW_SELECT + "WHERE r.status = 'CONFIRMED' AND r.endsAt < :endedBefore " +
+           "ORDER BY r.endsAt ASC, r.reservationId ASC")
+    List<ReservationView> findFinishedConfirmedViews(@Param("endedBefore") OffsetDateTime endedBefore,
+                                                     Pageable pageable);
     
-    // Obtener reservas que comienzan en un rango (para análisis por día/hora)
-    List<Reservation> findByStartsAtBetween(OffsetDateTime start, OffsetDateTime end);
+    // UPDATE ... RETURNING (solo PostgreSQL; ver ReservationBulkStatusPostgresTest). No llevan @Modifying
+    // a propósito: con @Modifying Spring Data usa executeUpdate(), que solo devuelve el número de filas;
+    // sin él la sentencia se ejecuta como consulta y el RETURNING llega como resultado. Como no pasa por
+    // las entidades, el contexto de persistencia no ve el cambio; los llamadores solo usan proyecciones.
+    // El @Transactional anula el readOnly por defecto de los métodos de consulta.
     
-    // ============ MÉTODOS PARA AUTO-CANCELACIÓN ============
+    // Cancela el lote con un solo UPDATE y devuelve solo los IDs que seguían PENDING.
+    // Con withStartTime el motivo termina con la hora de inicio local: "motivo (dd/MM/yyyy HH:mm)"
+    @Transactional
+    @Query(value = "UPDATE reservation SET status = 'CANCELLED', updated_at = :now, cancel_reason = " +
+                   "CASE WHEN :withStartTime THEN :reason || ' (' || " +
+                   "to_char(starts_at AT TIME ZONE :zone, 'DD/MM/YYYY HH24:MI') || ')' ELSE :reason END " +
+                   "WHERE reservation_id IN (:ids) AND status = 'PENDING' AND starts_at < :now " +
+                   "RETURNING reservation_id",
+           nativeQuery = true)
+    List<UUID> cancelExpiredPending(@Param("ids") List<UUID> ids,
+                                    @Param("now") OffsetDateTime now,
+                                    @Param("reason") String reason,
+                                    @Param("withStartTime") boolean withStartTime,
+                                    @Param("zone") String zone);
     
-    // Encontrar reservas pendientes cuya hora de inicio ya pasó (optimizado)
-    @Query("SELECT r FROM Reservation r WHERE r.status = 'PENDING' AND r.startsAt < :currentTime")
-    List<Reservation> findExpiredPendingReservations(@Param("currentTime") OffsetDateTime currentTime);
+    // Completa el lote con un solo UPDATE y devuelve solo los IDs que seguían CONFIRMED
+    @Transactional
+    @Query(value = "UPDATE reservation SET status = 'COMPLETED', updated_at = :now " +
+                   "WHERE reservation_id IN (:ids) AND status = 'CONFIRMED' AND ends_at < :endedBefore " +
+                   "RETURNING reservation_id",
+           nativeQuery = true)
+    List<UUID> completeFinishedConfirmed(@Param("ids") List<UUID> ids,
+                                         @Param("endedBefore") OffsetDateTime endedBefore,
+                                         @Param("now") OffsetDateTime now);
 }
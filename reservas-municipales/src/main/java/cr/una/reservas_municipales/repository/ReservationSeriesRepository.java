@@ -0,0 +1,11 @@
+package cr.una.reservas_municipales.repository;
+
+import cr.una.reservas_municipales.model.ReservationSeries;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.UUID;
+
+@Repository
+public interface ReservationSeriesRepository extends JpaRepository<ReservationSeries, UUID> {
+}
@@ -3,5 +3,16 @@ package cr.una.reservas_municipales.repository;
 import cr.una.reservas_municipales.model.SpaceClosure;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
 public interface SpaceClosureRepository extends JpaRepository<SpaceClosure, Long> {
+    
+    // Cierres de un espacio que se solapan con un rango: starts_at <= :endsAt AND ends_at >= :startsAt
+    List<SpaceClosure> findBySpaceIdAndStartsAtLessThanEqualAndEndsAtGreaterThanEqual(UUID spaceId,
+                                                                                     OffsetDateTime endsAt,
+                                                                                     OffsetDateTime startsAt);
+    
+    List<SpaceClosure> findBySpaceIdOrderByStartsAtAsc(UUID spaceId);
 }
@@ -3,11 +3,14 @@ package cr.una.reservas_municipales.repository;
 import cr.una.reservas_municipales.model.SpaceImage;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface SpaceImageRepository extends JpaRepository<SpaceImage, Long> {
     List<SpaceImage> findBySpaceIdOrderByOrdAsc(UUID spaceId);
+    // Imágenes de varios espacios en una sola consulta; el orden por ord se conserva al agrupar
+    List<SpaceImage> findBySpaceIdInOrderByOrdAsc(Collection<UUID> spaceIds);
     long countBySpaceId(UUID spaceId);
     void deleteBySpaceId(UUID spaceId);
 }
\ No newline at end of file
@@ -3,5 +3,13 @@ package cr.una.reservas_municipales.repository;
 import cr.una.reservas_municipales.model.SpaceRate;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
 public interface SpaceRateRepository extends JpaRepository<SpaceRate, Long> {
+
+    List<SpaceRate> findBySpaceIdAndActiveTrue(UUID spaceId);
+
+    List<SpaceRate> findBySpaceIdInAndActiveTrue(Collection<UUID> spaceIds);
 }
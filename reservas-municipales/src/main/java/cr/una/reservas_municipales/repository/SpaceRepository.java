@@ -2,8 +2,37 @@ package cr.una.reservas_municipales.repository;
 
 import cr.una.reservas_municipales.model.Space;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public interface SpaceRepository extends JpaRepository<Space, UUID> {
+
+    /**
+     * Espacios activos sin reservas activas ni cierres que se solapen con el rango, filtrados y
+     * ordenados en la BD. {@code sort}: "capacity" (menor primero), "rating" (mejor promedio de
+     * reseñas visibles primero) o cualquier otro valor para ordenar por nombre.
+     */
+    @Query("SELECT s FROM Space s WHERE s.active = true " +
+           "AND (:spaceTypeId IS NULL OR s.spaceTypeId = :spaceTypeId) " +
+           "AND (:minCapacity IS NULL OR s.capacity >= :minCapacity) " +
+           "AND NOT EXISTS (SELECT 1 FROM Reservation r WHERE r.spaceId = s.spaceId " +
+           "    AND r.status IN ('CONFIRMED', 'PENDING') AND r.startsAt <= :endsAt AND r.endsAt >= :startsAt) " +
+           "AND NOT EXISTS (SELECT 1 FROM SpaceClosure c WHERE c.spaceId = s.spaceId " +
+           "    AND c.startsAt <= :endsAt AND c.endsAt >= :startsAt) " +
+           "ORDER BY CASE WHEN :sort = 'capacity' THEN s.capacity END ASC, " +
+           "CASE WHEN :sort = 'rating' THEN (SELECT COALESCE(AVG(rv.rating), 0) FROM ReviewEntity rv " +
+           "    WHERE rv.spaceId = s.spaceId AND rv.visible = true) END DESC, " +
+           "s.name ASC " +
+           "LIMIT :limit OFFSET :offset")
+    List<Space> findAvailable(@Param("startsAt") OffsetDateTime startsAt,
+                              @Param("endsAt") OffsetDateTime endsAt,
+                              @Param("spaceTypeId") Short spaceTypeId,
+                              @Param("minCapacity") Integer minCapacity,
+                              @Param("sort") String sort,
+                              @Param("limit") int limit,
+                              @Param("offset") int offset);
 }
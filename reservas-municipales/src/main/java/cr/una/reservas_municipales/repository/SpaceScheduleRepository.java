@@ -4,6 +4,7 @@ import cr.una.reservas_municipales.model.SpaceSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -26,6 +27,12 @@ public interface SpaceScheduleRepository extends JpaRepository<SpaceSchedule, Lo
      */
     List<SpaceSchedule> findBySpace_SpaceIdAndWeekday(UUID spaceId, Short weekday);
     
+    /**
+     * Find all schedules for several spaces at once
+     * Derived query: WHERE space_id IN (?)
+     */
+    List<SpaceSchedule> findBySpace_SpaceIdIn(Collection<UUID> spaceIds);
+    
     /**
      * Delete all schedules for a specific space
      * Derived query: DELETE FROM space_schedule WHERE space_id = ?
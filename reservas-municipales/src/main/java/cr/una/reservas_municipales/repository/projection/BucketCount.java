@@ -0,0 +1,7 @@
+package cr.una.reservas_municipales.repository.projection;
+
+/**
+ * Cantidad de reservas en un intervalo de un histograma (día de la semana u hora).
+ */
+public record BucketCount(Integer bucket, Long count) {
+}
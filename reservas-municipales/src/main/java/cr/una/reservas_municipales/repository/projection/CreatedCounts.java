@@ -0,0 +1,7 @@
+package cr.una.reservas_municipales.repository.projection;
+
+/**
+ * Reservas creadas desde el inicio del día, en los últimos 7 días y en los últimos 30.
+ */
+public record CreatedCounts(Long today, Long lastWeek, Long lastMonth) {
+}
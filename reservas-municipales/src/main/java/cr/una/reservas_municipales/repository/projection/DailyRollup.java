@@ -0,0 +1,9 @@
+package cr.una.reservas_municipales.repository.projection;
+
+import java.time.LocalDate;
+
+/**
+ * Totales de un día sumando todos los estados; {@code revenueCents} solo cuenta CONFIRMED y COMPLETED.
+ */
+public record DailyRollup(LocalDate day, Long reservations, Long minutes, Long revenueCents, Long attendance) {
+}
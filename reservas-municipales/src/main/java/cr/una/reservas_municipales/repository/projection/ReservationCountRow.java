@@ -0,0 +1,17 @@
+package cr.una.reservas_municipales.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Fila agregada de reservas: cantidad y suma de montos de un espacio en un estado, por mes de creación.
+ * {@code totalAmount} es null si ninguna reserva del grupo tiene monto.
+ */
+public record ReservationCountRow(
+        UUID spaceId,
+        String status,
+        Integer year,
+        Integer month,
+        Long count,
+        BigDecimal totalAmount) {
+}
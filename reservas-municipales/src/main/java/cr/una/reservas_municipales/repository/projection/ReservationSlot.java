@@ -0,0 +1,15 @@
+package cr.una.reservas_municipales.repository.projection;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Proyección mínima de una reserva: solo el intervalo que ocupa en un espacio.
+ * Evita cargar la fila completa cuando solo interesa el horario.
+ */
+public interface ReservationSlot {
+    UUID getReservationId();
+    UUID getSpaceId();
+    OffsetDateTime getStartsAt();
+    OffsetDateTime getEndsAt();
+}
@@ -0,0 +1,77 @@
+package cr.una.reservas_municipales.repository.projection;
+
+import cr.una.reservas_municipales.model.Reservation;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Proyección de solo lectura con las columnas que muestran los listados de reservas.
+ * No es una entidad administrada: no se registra en el contexto de persistencia ni se revisa
+ * en el flush, y nunca incluye el código QR.
+ */
+public record ReservationView(
+        UUID reservationId,
+        UUID spaceId,
+        UUID userId,
+        OffsetDateTime startsAt,
+        OffsetDateTime endsAt,
+        String status,
+        String cancelReason,
+        Long rateId,
+        BigDecimal totalAmount,
+        String currency,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        String qrValidationToken,
+        Boolean attendanceConfirmed,
+        OffsetDateTime attendanceConfirmedAt,
+        UUID confirmedByUserId) {
+
+    /**
+     * Copia de las columnas de una entidad, p. ej. para conservar su estado antes de modificarla.
+     */
+    public static ReservationView of(Reservation r) {
+        return new ReservationView(r.getReservationId(), r.getSpaceId(), r.getUserId(), r.getStartsAt(),
+                r.getEndsAt(), r.getStatus(), r.getCancelReason(), r.getRateId(), r.getTotalAmount(),
+                r.getCurrency(), r.getCreatedAt(), r.getUpdatedAt(), r.getQrValidationToken(),
+                r.getAttendanceConfirmed(), r.getAttendanceConfirmedAt(), r.getConfirmedByUserId());
+    }
+
+    /**
+     * Estado que deja un UPDATE masivo de cancelación, que no pasa por las entidades.
+     */
+    public ReservationView cancelled(String reason, OffsetDateTime now) {
+        return new ReservationView(reservationId, spaceId, userId, startsAt, endsAt, "CANCELLED", reason, rateId,
+                totalAmount, currency, createdAt, now, qrValidationToken, attendanceConfirmed,
+                attendanceConfirmedAt, confirmedByUserId);
+    }
+
+    /**
+     * Estado que deja el UPDATE masivo que reprograma una serie.
+     */
+    public ReservationView rescheduled(OffsetDateTime newStartsAt, OffsetDateTime newEndsAt, OffsetDateTime now) {
+        return new ReservationView(reservationId, spaceId, userId, newStartsAt, newEndsAt, status, cancelReason, rateId,
+                totalAmount, currency, createdAt, now, qrValidationToken, attendanceConfirmed,
+                attendanceConfirmedAt, confirmedByUserId);
+    }
+
+    /**
+     * Copia con el precio de una nueva cotización.
+     */
+    public ReservationView repriced(Long newRateId, BigDecimal newTotalAmount, String newCurrency) {
+        return new ReservationView(reservationId, spaceId, userId, startsAt, endsAt, status, cancelReason, newRateId,
+                newTotalAmount, newCurrency, createdAt, updatedAt, qrValidationToken, attendanceConfirmed,
+                attendanceConfirmedAt, confirmedByUserId);
+    }
+
+    /**
+     * Estado que deja el UPDATE masivo de auto-completado.
+     */
+    public ReservationView completed(OffsetDateTime now) {
+        return new ReservationView(reservationId, spaceId, userId, startsAt, endsAt, "COMPLETED", cancelReason, rateId,
+                totalAmount, currency, createdAt, now, qrValidationToken, attendanceConfirmed,
+                attendanceConfirmedAt, confirmedByUserId);
+    }
+}
@@ -0,0 +1,9 @@
+package cr.una.reservas_municipales.repository.projection;
+
+import java.math.BigDecimal;
+
+/**
+ * Ingresos del mes actual y del anterior; cada suma es null si el mes no tiene montos.
+ */
+public record RevenueTotals(BigDecimal currentMonth, BigDecimal previousMonth) {
+}
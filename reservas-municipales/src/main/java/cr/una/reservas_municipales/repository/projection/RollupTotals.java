@@ -0,0 +1,7 @@
+package cr.una.reservas_municipales.repository.projection;
+
+/**
+ * Suma de los rollups diarios de un estado en un rango de días.
+ */
+public record RollupTotals(String status, Long reservations, Long minutes, Long revenueCents, Long attendance) {
+}
@@ -0,0 +1,9 @@
+package cr.una.reservas_municipales.repository.projection;
+
+import java.util.UUID;
+
+/**
+ * Reservas de un espacio en un rango de días e ingresos de las CONFIRMED y COMPLETED, en céntimos.
+ */
+public record SpaceRollup(UUID spaceId, String name, Long reservations, Long revenueCents) {
+}
@@ -0,0 +1,10 @@
+package cr.una.reservas_municipales.repository.projection;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Reservas de un espacio e ingresos de las CONFIRMED y COMPLETED ({@code revenue} es null si no hay montos).
+ */
+public record SpaceUsageRow(UUID spaceId, String name, Long reservationCount, BigDecimal revenue) {
+}
@@ -0,0 +1,7 @@
+package cr.una.reservas_municipales.repository.projection;
+
+/**
+ * Cantidad de reservas en un estado.
+ */
+public record StatusCount(String status, Long count) {
+}
@@ -0,0 +1,29 @@
+package cr.una.reservas_municipales.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Ejecuta acciones sobre las cachés en memoria (índices, catálogo) cuando el cambio ya es visible
+ * en la BD. Con una transacción activa la acción corre tras su commit y no corre si se revierte:
+ * hacerlo antes dejaría que una lectura concurrente recargue el estado viejo y lo vuelva a cachear.
+ * Sin transacción el cambio ya está confirmado y la acción corre de inmediato.
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
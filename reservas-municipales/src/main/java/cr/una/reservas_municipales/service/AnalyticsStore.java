@@ -0,0 +1,602 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.AnalyticsGroupDTO;
+import cr.una.reservas_municipales.dto.AnalyticsResultDTO;
+import cr.una.reservas_municipales.dto.SpaceDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.model.SpaceType;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.SpaceTypeRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Copia columnar en memoria de las reservas para analítica ad hoc del administrador: una fila por
+ * reserva repartida en arreglos primitivos (inicio en minutos epoch, duración, estado como ordinal
+ * de diccionario, monto en céntimos, índice de espacio, minuto de creación y un bit de asistencia).
+ *
+ * Las consultas filtran por rango de fechas, estados, espacio y tipo de espacio, y agregan por una
+ * dimensión con lazos planos sobre los arreglos: cada bloque de {@link #CHUNK_ROWS} filas produce un
+ * vector de selección, luego las claves de grupo y por último los acumulados; los bloques se
+ * recorren en paralelo y sus parciales se suman al final.
+ *
+ * Se carga al arrancar con un cursor sobre todas las reservas, se mantiene con
+ * {@link ReservationChangedEvent} y se reconstruye cada noche para compactar las filas borradas y
+ * corregir la deriva de cambios hechos fuera de la aplicación.
+ */
+@Slf4j
+@Component
+public class AnalyticsStore {
+
+    static final int CHUNK_ROWS = 1 << 16;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final byte DELETED = -1;
+    // Costa Rica no tiene horario de verano: UTC-6 fijo
+    private static final int LOCAL_OFFSET_MINUTES = -360;
+    private static final int MINUTES_PER_DAY = 1440;
+    private static final String UNKNOWN = "UNKNOWN";
+    private static final String[] LEAD_TIME_BUCKETS = {"<1", "1-2", "3-6", "7-13", "14-29", "30+"};
+
+    // Acumulados por grupo: reservas, minutos, céntimos, asistencias
+    private static final int ACC_WIDTH = 4;
+
+    public enum Dimension {
+        NONE, STATUS, SPACE, SPACE_TYPE, WEEKDAY, HOUR, MONTH, LEAD_TIME;
+
+        public static Dimension parse(String value) {
+            if (value == null || value.isBlank()) {
+                return NONE;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new BusinessException("Agrupación no válida: " + value + ". Valores permitidos: "
+                        + Arrays.toString(values()));
+            }
+        }
+    }
+
+    /**
+     * Filtro de una consulta; cualquier campo nulo (o conjunto vacío) no filtra. Las fechas son días
+     * inclusive en hora de Costa Rica y se comparan contra el inicio de la reserva.
+     */
+    public record Filter(LocalDate from, LocalDate to, Set<String> statuses, UUID spaceId, Short spaceTypeId) {
+
+        public static Filter all() {
+            return new Filter(null, null, null, null, null);
+        }
+    }
+
+    private final ReservationRepository reservationRepository;
+    private final SpaceCatalog spaceCatalog;
+    private final SpaceTypeRepository spaceTypeRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final boolean enabled;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // null hasta la primera carga; se modifica solo con el candado de escritura
+    private volatile Columns columns;
+    private volatile OffsetDateTime loadedAt;
+    // Eventos recibidos mientras se reconstruye, para reaplicarlos sobre la copia nueva
+    private List<ReservationChangedEvent> pending;
+
+    public AnalyticsStore(ReservationRepository reservationRepository,
+                          SpaceCatalog spaceCatalog,
+                          SpaceTypeRepository spaceTypeRepository,
+                          PlatformTransactionManager transactionManager,
+                          @Value("${app.analytics.store.enabled:true}") boolean enabled) {
+        this.reservationRepository = reservationRepository;
+        this.spaceCatalog = spaceCatalog;
+        this.spaceTypeRepository = spaceTypeRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.enabled = enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Almacén analítico deshabilitado");
+            return;
+        }
+        try {
+            reload();
+        } catch (Exception e) {
+            // La primera consulta vuelve a intentar la carga
+            log.error("Error al cargar el almacén analítico: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reconstruye las columnas desde la BD y las reemplaza de una vez. Los cambios que llegan
+     * durante la lectura se aplican a la copia vigente y se reaplican sobre la nueva antes del cambio.
+     */
+    @Scheduled(cron = "${app.analytics.store.reload-cron:0 15 4 * * *}")
+    public synchronized void reload() {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        long started = System.nanoTime();
+        Columns loaded = new Columns();
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<ReservationView> views = reservationRepository.streamAllViews()) {
+                    views.forEach(loaded::upsert);
+                }
+            });
+        } catch (RuntimeException e) {
+            lock.writeLock().lock();
+            try {
+                pending = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            throw e;
+        }
+
+        lock.writeLock().lock();
+        try {
+            pending.forEach(loaded::apply);
+            pending = null;
+            columns = loaded;
+            loadedAt = OffsetDateTime.now();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Almacén analítico cargado: {} reservas en {} ms", loaded.size,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            }
+            Columns current = columns;
+            if (current != null) {
+                current.apply(event);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isReady() {
+        return columns != null;
+    }
+
+    /**
+     * Agrega las reservas que pasan el filtro por la dimensión indicada. Se omiten los grupos vacíos;
+     * estado, espacio y tipo de espacio se ordenan por cantidad de reservas y el resto en su orden
+     * natural (lunes a domingo, hora, mes, antelación).
+     */
+    public AnalyticsResultDTO aggregate(Dimension dimension, Filter filter) {
+        if (!enabled) {
+            throw new BusinessException("El almacén analítico está deshabilitado");
+        }
+        Filter effective = filter == null ? Filter.all() : filter;
+        if (effective.from() != null && effective.to() != null && effective.from().isAfter(effective.to())) {
+            throw new BusinessException("La fecha inicial no puede ser posterior a la final");
+        }
+        if (!isReady()) {
+            loadOnDemand();
+        }
+
+        SpaceCatalog.Snapshot catalog = spaceCatalog.snapshot();
+        lock.readLock().lock();
+        try {
+            Columns current = columns;
+            Query query = new Query(current, dimension, effective, catalog);
+            long[] totals = scan(current, query);
+            List<AnalyticsGroupDTO> groups = toGroups(query, totals, catalog);
+            long matched = groups.stream().mapToLong(AnalyticsGroupDTO::getReservations).sum();
+            return new AnalyticsResultDTO(dimension.name(), current.size, matched, loadedAt, groups);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private synchronized void loadOnDemand() {
+        if (!isReady()) {
+            reload();
+        }
+    }
+
+    private static long[] scan(Columns columns, Query query) {
+        int chunks = (columns.size + CHUNK_ROWS - 1) / CHUNK_ROWS;
+        if (chunks <= 1) {
+            return scanChunk(columns, query, 0, columns.size);
+        }
+        // Las tareas solo leen los arreglos; el hilo que consulta mantiene el candado de lectura
+        return IntStream.range(0, chunks).parallel()
+                .mapToObj(chunk -> scanChunk(columns, query, chunk * CHUNK_ROWS,
+                        Math.min(columns.size, (chunk + 1) * CHUNK_ROWS)))
+                .reduce(AnalyticsStore::merge)
+                .orElseGet(() -> new long[query.groups * ACC_WIDTH]);
+    }
+
+    static long[] scanChunk(Columns c, Query q, int begin, int end) {
+        int[] selection = new int[end - begin];
+        int selected = 0;
+        for (int row = begin; row < end; row++) {
+            int start = c.startMinute[row];
+            byte status = c.status[row];
+            if (status != DELETED && start >= q.fromMinute && start < q.toMinute && q.statusAllowed[status]
+                    && (q.spaceAllowed == null || q.spaceAllowed[c.space[row]])) {
+                selection[selected++] = row;
+            }
+        }
+
+        int[] keys = new int[selected];
+        switch (q.dimension) {
+            case NONE -> {
+                // Todas las filas van al grupo 0
+            }
+            case STATUS -> {
+                for (int j = 0; j < selected; j++) {
+                    keys[j] = c.status[selection[j]];
+                }
+            }
+            case SPACE -> {
+                for (int j = 0; j < selected; j++) {
+                    keys[j] = c.space[selection[j]];
+                }
+            }
+            case SPACE_TYPE -> {
+                for (int j = 0; j < selected; j++) {
+                    keys[j] = q.spaceGroup[c.space[selection[j]]];
+                }
+            }
+            case WEEKDAY -> {
+                // 1970-01-01 fue jueves; 0 = lunes
+                for (int j = 0; j < selected; j++) {
+                    keys[j] = Math.floorMod(localDay(c.startMinute[selection[j]]) + 3, 7);
+                }
+            }
+            case HOUR -> {
+                for (int j = 0; j < selected; j++) {
+                    keys[j] = Math.floorMod(c.startMinute[selection[j]] + LOCAL_OFFSET_MINUTES, MINUTES_PER_DAY) / 60;
+                }
+            }
+            case MONTH -> {
+                for (int j = 0; j < selected; j++) {
+                    keys[j] = q.dayToMonth[localDay(c.startMinute[selection[j]]) - q.firstDay];
+                }
+            }
+            case LEAD_TIME -> {
+                for (int j = 0; j < selected; j++) {
+                    int row = selection[j];
+                    keys[j] = leadTimeBucket(Math.floorDiv(c.startMinute[row] - c.createdMinute[row], MINUTES_PER_DAY));
+                }
+            }
+        }
+
+        long[] acc = new long[q.groups * ACC_WIDTH];
+        long[] attended = c.attended;
+        for (int j = 0; j < selected; j++) {
+            int row = selection[j];
+            int base = keys[j] * ACC_WIDTH;
+            acc[base]++;
+            acc[base + 1] += c.duration[row];
+            acc[base + 2] += c.amountCents[row];
+            acc[base + 3] += (attended[row >>> 6] >>> row) & 1L;
+        }
+        return acc;
+    }
+
+    private static long[] merge(long[] left, long[] right) {
+        for (int i = 0; i < left.length; i++) {
+            left[i] += right[i];
+        }
+        return left;
+    }
+
+    private static int localDay(int epochMinute) {
+        return Math.floorDiv(epochMinute + LOCAL_OFFSET_MINUTES, MINUTES_PER_DAY);
+    }
+
+    private static int leadTimeBucket(int days) {
+        if (days < 1) {
+            return 0;
+        } else if (days < 3) {
+            return 1;
+        } else if (days < 7) {
+            return 2;
+        } else if (days < 14) {
+            return 3;
+        } else if (days < 30) {
+            return 4;
+        }
+        return 5;
+    }
+
+    private List<AnalyticsGroupDTO> toGroups(Query query, long[] totals, SpaceCatalog.Snapshot catalog) {
+        Map<Short, String> typeNames = query.dimension == Dimension.SPACE_TYPE
+                ? spaceTypeRepository.findAll().stream()
+                        .collect(Collectors.toMap(SpaceType::getSpaceTypeId, SpaceType::getName, (a, b) -> a))
+                : Map.of();
+
+        List<AnalyticsGroupDTO> groups = new ArrayList<>();
+        for (int group = 0; group < query.groups; group++) {
+            int base = group * ACC_WIDTH;
+            long reservations = totals[base];
+            if (reservations == 0) {
+                continue;
+            }
+            String key;
+            String label = null;
+            switch (query.dimension) {
+                case NONE -> key = "TOTAL";
+                case STATUS -> key = query.columns.statuses.get(group);
+                case SPACE -> {
+                    UUID spaceId = query.columns.spaces.get(group);
+                    key = String.valueOf(spaceId);
+                    label = spaceId == null ? null : catalog.get(spaceId).map(SpaceDto::getName).orElse(null);
+                }
+                case SPACE_TYPE -> {
+                    Short typeId = query.spaceTypes.get(group);
+                    key = typeId == null ? UNKNOWN : String.valueOf(typeId);
+                    label = typeId == null ? null : typeNames.get(typeId);
+                }
+                case WEEKDAY -> key = DayOfWeek.of(group + 1).name();
+                case HOUR -> key = String.valueOf(group);
+                case MONTH -> key = query.firstMonth.plusMonths(group).toString();
+                case LEAD_TIME -> key = LEAD_TIME_BUCKETS[group];
+                default -> throw new IllegalStateException("Dimensión sin etiqueta: " + query.dimension);
+            }
+            long attended = totals[base + 3];
+            groups.add(new AnalyticsGroupDTO(key, label, reservations, totals[base + 1],
+                    BigDecimal.valueOf(totals[base + 2], 2).doubleValue(), attended,
+                    Math.round(attended * 10000.0 / reservations) / 100.0));
+        }
+        if (query.dimension == Dimension.STATUS || query.dimension == Dimension.SPACE
+                || query.dimension == Dimension.SPACE_TYPE) {
+            groups.sort(Comparator.comparingLong(AnalyticsGroupDTO::getReservations).reversed()
+                    .thenComparing(AnalyticsGroupDTO::getKey));
+        }
+        return groups;
+    }
+
+    /**
+     * Filtro y dimensión traducidos a índices de las columnas vigentes.
+     */
+    static final class Query {
+
+        final Columns columns;
+        final Dimension dimension;
+        final int fromMinute;
+        final int toMinute;
+        final boolean[] statusAllowed;
+        // null si no se filtra por espacio
+        final boolean[] spaceAllowed;
+        int groups;
+        // SPACE_TYPE: grupo de cada índice de espacio y tipo de cada grupo
+        int[] spaceGroup;
+        List<Short> spaceTypes;
+        // MONTH: mes relativo de cada día local desde firstDay
+        int firstDay;
+        int[] dayToMonth;
+        YearMonth firstMonth;
+
+        Query(Columns columns, Dimension dimension, Filter filter, SpaceCatalog.Snapshot catalog) {
+            this.columns = columns;
+            this.dimension = dimension;
+            this.fromMinute = filter.from() == null ? Integer.MIN_VALUE : dayStartMinute(filter.from());
+            this.toMinute = filter.to() == null ? Integer.MAX_VALUE : dayStartMinute(filter.to().plusDays(1));
+
+            this.statusAllowed = new boolean[Math.max(1, columns.statuses.size())];
+            for (int i = 0; i < columns.statuses.size(); i++) {
+                statusAllowed[i] = filter.statuses() == null || filter.statuses().isEmpty()
+                        || filter.statuses().contains(columns.statuses.get(i));
+            }
+
+            if (filter.spaceId() == null && filter.spaceTypeId() == null) {
+                this.spaceAllowed = null;
+            } else {
+                this.spaceAllowed = new boolean[Math.max(1, columns.spaces.size())];
+                for (int i = 0; i < columns.spaces.size(); i++) {
+                    UUID spaceId = columns.spaces.get(i);
+                    spaceAllowed[i] = (filter.spaceId() == null || filter.spaceId().equals(spaceId))
+                            && (filter.spaceTypeId() == null
+                                || (spaceId != null && filter.spaceTypeId().equals(catalog.spaceTypeId(spaceId))));
+                }
+            }
+
+            switch (dimension) {
+                case NONE -> groups = 1;
+                case STATUS -> groups = columns.statuses.size();
+                case SPACE -> groups = columns.spaces.size();
+                case SPACE_TYPE -> groupBySpaceType(catalog);
+                case WEEKDAY -> groups = 7;
+                case HOUR -> groups = 24;
+                case MONTH -> groupByMonth();
+                case LEAD_TIME -> groups = LEAD_TIME_BUCKETS.length;
+            }
+        }
+
+        private void groupBySpaceType(SpaceCatalog.Snapshot catalog) {
+            Map<Short, Integer> groupByType = new HashMap<>();
+            spaceTypes = new ArrayList<>();
+            spaceGroup = new int[columns.spaces.size()];
+            for (int i = 0; i < columns.spaces.size(); i++) {
+                UUID spaceId = columns.spaces.get(i);
+                Short typeId = spaceId == null ? null : catalog.spaceTypeId(spaceId);
+                spaceGroup[i] = groupByType.computeIfAbsent(typeId, key -> {
+                    spaceTypes.add(key);
+                    return spaceTypes.size() - 1;
+                });
+            }
+            groups = spaceTypes.size();
+        }
+
+        private void groupByMonth() {
+            if (columns.size == 0) {
+                groups = 0;
+                dayToMonth = new int[0];
+                return;
+            }
+            firstDay = localDay(columns.minStart);
+            int lastDay = localDay(columns.maxStart);
+            LocalDate first = LocalDate.ofEpochDay(firstDay);
+            firstMonth = YearMonth.from(first);
+            dayToMonth = new int[lastDay - firstDay + 1];
+            for (int day = 0; day < dayToMonth.length; day++) {
+                YearMonth month = YearMonth.from(first.plusDays(day));
+                dayToMonth[day] = (int) firstMonth.until(month, ChronoUnit.MONTHS);
+            }
+            groups = dayToMonth[dayToMonth.length - 1] + 1;
+        }
+
+        private static int dayStartMinute(LocalDate date) {
+            long minute = date.atStartOfDay(ReservationRules.COSTA_RICA_ZONE).toEpochSecond() / 60;
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, minute));
+        }
+    }
+
+    /**
+     * Columnas primitivas de las reservas; las filas borradas quedan marcadas hasta la próxima recarga.
+     */
+    static final class Columns {
+
+        int size;
+        int[] startMinute = new int[INITIAL_CAPACITY];
+        short[] duration = new short[INITIAL_CAPACITY];
+        byte[] status = new byte[INITIAL_CAPACITY];
+        long[] amountCents = new long[INITIAL_CAPACITY];
+        int[] space = new int[INITIAL_CAPACITY];
+        int[] createdMinute = new int[INITIAL_CAPACITY];
+        long[] attended = new long[INITIAL_CAPACITY / 64];
+        int minStart = Integer.MAX_VALUE;
+        int maxStart = Integer.MIN_VALUE;
+
+        final Map<UUID, Integer> rowById = new HashMap<>();
+        final List<String> statuses = new ArrayList<>();
+        final Map<String, Byte> statusIndex = new HashMap<>();
+        final List<UUID> spaces = new ArrayList<>();
+        final Map<UUID, Integer> spaceIndex = new HashMap<>();
+
+        void apply(ReservationChangedEvent event) {
+            if (event.after() != null) {
+                upsert(event.after());
+            } else if (event.before() != null) {
+                delete(event.before().reservationId());
+            }
+        }
+
+        void upsert(ReservationView reservation) {
+            Integer existing = rowById.get(reservation.reservationId());
+            int row;
+            if (existing == null) {
+                ensureCapacity(size + 1);
+                row = size++;
+                rowById.put(reservation.reservationId(), row);
+            } else {
+                row = existing;
+            }
+
+            int start = epochMinute(reservation.startsAt(), 0);
+            long minutes = reservation.endsAt() == null || reservation.startsAt() == null ? 0
+                    : Math.floorDiv(reservation.endsAt().toEpochSecond() - reservation.startsAt().toEpochSecond(), 60);
+            startMinute[row] = start;
+            duration[row] = (short) Math.max(0, Math.min(Short.MAX_VALUE, minutes));
+            status[row] = statusOrdinal(reservation.status() == null ? UNKNOWN : reservation.status());
+            amountCents[row] = MetricsAggregator.toCents(reservation.totalAmount());
+            space[row] = spaceIndex.computeIfAbsent(reservation.spaceId(), key -> {
+                spaces.add(key);
+                return spaces.size() - 1;
+            });
+            createdMinute[row] = epochMinute(reservation.createdAt(), start);
+            if (Boolean.TRUE.equals(reservation.attendanceConfirmed())) {
+                attended[row >>> 6] |= 1L << row;
+            } else {
+                attended[row >>> 6] &= ~(1L << row);
+            }
+            minStart = Math.min(minStart, start);
+            maxStart = Math.max(maxStart, start);
+        }
+
+        void delete(UUID reservationId) {
+            Integer row = rowById.remove(reservationId);
+            if (row != null) {
+                status[row] = DELETED;
+            }
+        }
+
+        private byte statusOrdinal(String value) {
+            Byte ordinal = statusIndex.get(value);
+            if (ordinal == null) {
+                if (statuses.size() >= Byte.MAX_VALUE) {
+                    throw new IllegalStateException("Demasiados estados distintos para el almacén analítico");
+                }
+                ordinal = (byte) statuses.size();
+                statuses.add(value);
+                statusIndex.put(value, ordinal);
+            }
+            return ordinal;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required <= startMinute.length) {
+                return;
+            }
+            int capacity = Math.max(required, startMinute.length + (startMinute.length >> 1));
+            startMinute = Arrays.copyOf(startMinute, capacity);
+            duration = Arrays.copyOf(duration, capacity);
+            status = Arrays.copyOf(status, capacity);
+            amountCents = Arrays.copyOf(amountCents, capacity);
+            space = Arrays.copyOf(space, capacity);
+            createdMinute = Arrays.copyOf(createdMinute, capacity);
+            attended = Arrays.copyOf(attended, (capacity + 63) >>> 6);
+        }
+
+        private static int epochMinute(OffsetDateTime value, int fallback) {
+            if (value == null) {
+                return fallback;
+            }
+            long minute = Math.floorDiv(value.toEpochSecond(), 60);
+            return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, minute));
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationSlot;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Índice en memoria de los intervalos ocupados (CONFIRMED/PENDING) por espacio.
+ *
+ * Cada espacio tiene una línea de tiempo inmutable con arreglos ordenados de epoch-seconds
+ * y el máximo acumulado de fin, de modo que una consulta de conflicto es una búsqueda binaria
+ * más un recorrido corto hacia atrás. Las escrituras reemplazan la línea de tiempo completa
+ * (copy-on-write), así que las lecturas no requieren bloqueo.
+ *
+ * El índice es conservador: puede reportar falsos positivos (segundos truncados, cambios que
+ * aún no se reflejan), por eso un conflicto siempre se verifica contra la BD. Solo responde
+ * consultas a partir del momento en que se cargó ({@link #covers}).
+ *
+ * Solo ve lo que esta instancia confirma ({@link #track}/{@link #untrack}). Una reserva escrita por
+ * otra instancia o por SQL directo no aparece hasta el próximo arranque; si choca con una nueva, la
+ * restricción EXCLUDE de reservation rechaza el INSERT y el servicio lo traduce al mismo error de
+ * conflicto (23P01 → BusinessException).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AvailabilityIndex {
+
+    private static final Set<String> BLOCKING_STATUSES = Set.of("CONFIRMED", "PENDING");
+
+    private final ReservationRepository reservationRepository;
+
+    private final ConcurrentMap<UUID, SpaceTimeline> timelines = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, UUID> spaceByReservation = new ConcurrentHashMap<>();
+    // Contador de cambios por espacio; permite a otros cachés detectar que quedaron viejos
+    private final ConcurrentMap<UUID, Long> versions = new ConcurrentHashMap<>();
+
+    private volatile long horizon = Long.MAX_VALUE;
+    private volatile boolean ready;
+
+    @Value("${app.reservations.availability-index.enabled:true}")
+    private boolean enabled = true;
+
+    /**
+     * Carga los intervalos vigentes al arrancar la aplicación.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Índice de disponibilidad deshabilitado, se usará solo la BD");
+            return;
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<ReservationSlot> slots = reservationRepository.findActiveSlotsEndingAfter(now);
+        for (ReservationSlot slot : slots) {
+            apply(slot.getReservationId(), slot.getSpaceId(), slot.getStartsAt(), slot.getEndsAt(), true);
+        }
+
+        horizon = now.toEpochSecond();
+        ready = true;
+        log.info("Índice de disponibilidad cargado: {} reservas en {} espacios", slots.size(), timelines.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Indica si el índice puede responder consultas que inician en {@code startsAt}.
+     */
+    public boolean covers(OffsetDateTime startsAt) {
+        return ready && startsAt != null && startsAt.toEpochSecond() >= horizon;
+    }
+
+    /**
+     * Misma semántica que {@code ReservationRepository.findConflictingReservations}:
+     * existe conflicto si {@code r.startsAt <= endsAt AND r.endsAt >= startsAt}.
+     */
+    public boolean hasConflict(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt, UUID excludeReservationId) {
+        SpaceTimeline timeline = timelines.get(spaceId);
+        return timeline != null
+                && timeline.overlaps(startsAt.toEpochSecond(), endsAt.toEpochSecond(), excludeReservationId);
+    }
+
+    public int size() {
+        return spaceByReservation.size();
+    }
+
+    /**
+     * Número de cambios aplicados a las reservas del espacio desde el arranque. Un valor leído
+     * antes de consultar la BD que sigue igual después indica que nada cambió entretanto.
+     */
+    public long version(UUID spaceId) {
+        return versions.getOrDefault(spaceId, 0L);
+    }
+
+    /**
+     * Refleja el estado actual de la reserva en el índice tras el commit de la transacción.
+     */
+    public void track(Reservation reservation) {
+        UUID reservationId = reservation.getReservationId();
+        UUID spaceId = reservation.getSpaceId();
+        OffsetDateTime startsAt = reservation.getStartsAt();
+        OffsetDateTime endsAt = reservation.getEndsAt();
+        boolean blocking = BLOCKING_STATUSES.contains(reservation.getStatus());
+
+        AfterCommit.run(() -> apply(reservationId, spaceId, startsAt, endsAt, blocking));
+    }
+
+    /**
+     * Registra un intervalo activo (CONFIRMED/PENDING) tras el commit de la transacción.
+     */
+    public void track(UUID reservationId, UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        AfterCommit.run(() -> apply(reservationId, spaceId, startsAt, endsAt, true));
+    }
+    
+    /**
+     * Elimina la reserva del índice tras el commit de la transacción.
+     */
+    public void untrack(UUID reservationId) {
+        AfterCommit.run(() -> remove(reservationId));
+    }
+
+    private void apply(UUID reservationId, UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt, boolean blocking) {
+        remove(reservationId);
+        if (spaceId != null) {
+            versions.merge(spaceId, 1L, Long::sum);
+        }
+        if (!blocking || spaceId == null || startsAt == null || endsAt == null) {
+            return;
+        }
+        spaceByReservation.put(reservationId, spaceId);
+        timelines.compute(spaceId, (id, current) -> (current == null ? SpaceTimeline.EMPTY : current)
+                .with(reservationId, startsAt.toEpochSecond(), endsAt.toEpochSecond()));
+    }
+
+    private void remove(UUID reservationId) {
+        UUID spaceId = spaceByReservation.remove(reservationId);
+        if (spaceId != null) {
+            versions.merge(spaceId, 1L, Long::sum);
+            timelines.computeIfPresent(spaceId, (id, current) -> {
+                SpaceTimeline next = current.without(reservationId);
+                return next.isEmpty() ? null : next;
+            });
+        }
+    }
+
+    /**
+     * Intervalos de un espacio ordenados por inicio, con el fin máximo acumulado
+     * ({@code maxEnd[i] = max(ends[0..i])}) para podar la búsqueda hacia atrás.
+     */
+    static final class SpaceTimeline {
+
+        static final SpaceTimeline EMPTY = new SpaceTimeline(new long[0], new long[0], new UUID[0]);
+
+        private final long[] starts;
+        private final long[] ends;
+        private final UUID[] ids;
+        private final long[] maxEnd;
+
+        private SpaceTimeline(long[] starts, long[] ends, UUID[] ids) {
+            this.starts = starts;
+            this.ends = ends;
+            this.ids = ids;
+            this.maxEnd = new long[starts.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < ends.length; i++) {
+                max = Math.max(max, ends[i]);
+                maxEnd[i] = max;
+            }
+        }
+
+        /**
+         * Construye la línea de tiempo de una sola vez a partir de intervalos leídos de la BD.
+         */
+        static SpaceTimeline of(List<ReservationSlot> slots) {
+            List<ReservationSlot> sorted = slots.stream()
+                    .sorted(Comparator.comparing(ReservationSlot::getStartsAt))
+                    .toList();
+            long[] starts = new long[sorted.size()];
+            long[] ends = new long[sorted.size()];
+            UUID[] ids = new UUID[sorted.size()];
+            for (int i = 0; i < sorted.size(); i++) {
+                ReservationSlot slot = sorted.get(i);
+                starts[i] = slot.getStartsAt().toEpochSecond();
+                ends[i] = slot.getEndsAt().toEpochSecond();
+                ids[i] = slot.getReservationId();
+            }
+            return new SpaceTimeline(starts, ends, ids);
+        }
+
+        boolean isEmpty() {
+            return starts.length == 0;
+        }
+
+        int size() {
+            return starts.length;
+        }
+
+        boolean overlaps(long startsAt, long endsAt, UUID excludeId) {
+            for (int i = lastStartAtOrBefore(endsAt); i >= 0 && maxEnd[i] >= startsAt; i--) {
+                if (ends[i] >= startsAt && !ids[i].equals(excludeId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        SpaceTimeline with(UUID id, long start, long end) {
+            int n = starts.length;
+            int pos = lastStartAtOrBefore(start) + 1;
+
+            long[] newStarts = new long[n + 1];
+            long[] newEnds = new long[n + 1];
+            UUID[] newIds = new UUID[n + 1];
+            System.arraycopy(starts, 0, newStarts, 0, pos);
+            System.arraycopy(ends, 0, newEnds, 0, pos);
+            System.arraycopy(ids, 0, newIds, 0, pos);
+            newStarts[pos] = start;
+            newEnds[pos] = end;
+            newIds[pos] = id;
+            System.arraycopy(starts, pos, newStarts, pos + 1, n - pos);
+            System.arraycopy(ends, pos, newEnds, pos + 1, n - pos);
+            System.arraycopy(ids, pos, newIds, pos + 1, n - pos);
+            return new SpaceTimeline(newStarts, newEnds, newIds);
+        }
+
+        SpaceTimeline without(UUID id) {
+            int pos = Arrays.asList(ids).indexOf(id);
+            if (pos < 0) {
+                return this;
+            }
+            int n = starts.length;
+            long[] newStarts = new long[n - 1];
+            long[] newEnds = new long[n - 1];
+            UUID[] newIds = new UUID[n - 1];
+            System.arraycopy(starts, 0, newStarts, 0, pos);
+            System.arraycopy(ends, 0, newEnds, 0, pos);
+            System.arraycopy(ids, 0, newIds, 0, pos);
+            System.arraycopy(starts, pos + 1, newStarts, pos, n - pos - 1);
+            System.arraycopy(ends, pos + 1, newEnds, pos, n - pos - 1);
+            System.arraycopy(ids, pos + 1, newIds, pos, n - pos - 1);
+            return new SpaceTimeline(newStarts, newEnds, newIds);
+        }
+
+        /**
+         * Índice del último intervalo cuyo inicio es {@code <= value}, o -1.
+         */
+        private int lastStartAtOrBefore(long value) {
+            int low = 0;
+            int high = starts.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package cr.una.reservas_municipales.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.model.SpaceClosure;
+import cr.una.reservas_municipales.repository.SpaceClosureRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Caché de cierres (space_closure) por espacio, ordenados por inicio para responder con búsqueda
+ * binaria si un intervalo cae en un cierre. Misma semántica cerrada que los conflictos entre
+ * reservas: un cierre que termina justo cuando empieza la reserva la bloquea.
+ *
+ * SpaceClosureService invalida la entrada al crear o borrar cierres; la expiración acota cuánto
+ * puede tardar en verse un cambio hecho desde otra instancia.
+ */
+@Component
+public class ClosureIndex {
+
+    private static final DateTimeFormatter FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
+    private final SpaceClosureRepository closureRepository;
+    private final LoadingCache<UUID, ClosureTimeline> cache;
+
+    public ClosureIndex(SpaceClosureRepository closureRepository,
+                        @Value("${app.reservations.closure-index.max-spaces:1000}") long maxSpaces,
+                        @Value("${app.reservations.closure-index.ttl-minutes:10}") long ttlMinutes) {
+        this.closureRepository = closureRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSpaces)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build(spaceId -> ClosureTimeline.of(closureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId)));
+    }
+
+    /**
+     * Lanza BusinessException si el espacio está cerrado en algún momento del intervalo.
+     */
+    public void validate(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        Optional<SpaceClosure> closure = findOverlap(spaceId, startsAt, endsAt);
+        if (closure.isPresent()) {
+            throw new BusinessException(describe(closure.get()));
+        }
+    }
+
+    public Optional<SpaceClosure> findOverlap(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        return Optional.ofNullable(cache.get(spaceId).overlapping(startsAt.toEpochSecond(), endsAt.toEpochSecond()));
+    }
+
+    ClosureTimeline get(UUID spaceId) {
+        return cache.get(spaceId);
+    }
+
+    public void invalidate(UUID spaceId) {
+        cache.invalidate(spaceId);
+        AfterCommit.run(() -> cache.invalidate(spaceId));
+    }
+
+    static String describe(SpaceClosure closure) {
+        String message = String.format("El espacio está cerrado del %s al %s",
+                closure.getStartsAt().atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE).format(FORMATTER),
+                closure.getEndsAt().atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE).format(FORMATTER));
+        return closure.getReason() == null || closure.getReason().isBlank()
+                ? message
+                : message + ": " + closure.getReason();
+    }
+
+    /**
+     * Cierres de un espacio ordenados por inicio, con el fin máximo acumulado para podar la
+     * búsqueda hacia atrás (igual que AvailabilityIndex.SpaceTimeline).
+     */
+    static final class ClosureTimeline {
+
+        private final long[] starts;
+        private final long[] maxEnd;
+        private final SpaceClosure[] closures;
+
+        private ClosureTimeline(SpaceClosure[] closures) {
+            this.closures = closures;
+            this.starts = new long[closures.length];
+            this.maxEnd = new long[closures.length];
+            long max = Long.MIN_VALUE;
+            for (int i = 0; i < closures.length; i++) {
+                starts[i] = closures[i].getStartsAt().toEpochSecond();
+                max = Math.max(max, closures[i].getEndsAt().toEpochSecond());
+                maxEnd[i] = max;
+            }
+        }
+
+        static ClosureTimeline of(List<SpaceClosure> closures) {
+            return new ClosureTimeline(closures.stream()
+                    .sorted(Comparator.comparing(SpaceClosure::getStartsAt))
+                    .toArray(SpaceClosure[]::new));
+        }
+
+        int size() {
+            return closures.length;
+        }
+
+        /**
+         * Algún cierre con {@code startsAt <= to AND endsAt >= from}, o null.
+         */
+        SpaceClosure overlapping(long from, long to) {
+            for (int i = lastStartAtOrBefore(to); i >= 0 && maxEnd[i] >= from; i--) {
+                if (closures[i].getEndsAt().toEpochSecond() >= from) {
+                    return closures[i];
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Cierres que se solapan con el intervalo, en orden de inicio.
+         */
+        List<SpaceClosure> overlappingAll(long from, long to) {
+            int last = lastStartAtOrBefore(to);
+            int first = last;
+            while (first >= 0 && maxEnd[first] >= from) {
+                first--;
+            }
+            List<SpaceClosure> result = new ArrayList<>();
+            for (int i = first + 1; i <= last; i++) {
+                if (closures[i].getEndsAt().toEpochSecond() >= from) {
+                    result.add(closures[i]);
+                }
+            }
+            return result;
+        }
+
+        private int lastStartAtOrBefore(long value) {
+            int low = 0;
+            int high = starts.length - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (starts[mid] <= value) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return high;
+        }
+    }
+}
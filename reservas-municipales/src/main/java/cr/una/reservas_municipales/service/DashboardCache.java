@@ -0,0 +1,141 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.RevenueMetricsDTO;
+import cr.una.reservas_municipales.dto.SimpleDashboardDTO;
+import cr.una.reservas_municipales.dto.TemporalMetricsDTO;
+import cr.una.reservas_municipales.dto.TopSpaceDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Dashboard de administración con refresco anticipado (stale-while-revalidate). Cada sección
+ * (conteos, ingresos, top de espacios, histogramas temporales) guarda su último valor y su propio
+ * intervalo de refresco: una vez vencido, la petición que lo nota lanza un único recálculo en segundo
+ * plano y todas siguen recibiendo el valor anterior hasta que termine. Nadie espera el recálculo
+ * salvo la primera carga, que se hace una sola vez aunque lleguen varias peticiones a la vez.
+ *
+ * Si un recálculo falla se conserva el valor anterior y se reintenta en la siguiente petición.
+ */
+@Slf4j
+@Component
+public class DashboardCache {
+
+    private final Section<MetricsService.DashboardCounts> counts;
+    private final Section<RevenueMetricsDTO> revenue;
+    private final Section<List<TopSpaceDTO>> topSpaces;
+    private final Section<TemporalMetricsDTO> temporal;
+
+    @Autowired
+    public DashboardCache(MetricsService metricsService,
+                          @Value("${app.dashboard.refresh.counts-seconds:30}") long countsSeconds,
+                          @Value("${app.dashboard.refresh.revenue-seconds:60}") long revenueSeconds,
+                          @Value("${app.dashboard.refresh.top-spaces-seconds:300}") long topSpacesSeconds,
+                          @Value("${app.dashboard.refresh.temporal-seconds:600}") long temporalSeconds) {
+        this(metricsService, countsSeconds, revenueSeconds, topSpacesSeconds, temporalSeconds,
+                task -> Thread.ofVirtual().name("dashboard-refresh").start(task));
+    }
+
+    DashboardCache(MetricsService metricsService, long countsSeconds, long revenueSeconds, long topSpacesSeconds,
+                   long temporalSeconds, Executor executor) {
+        this.counts = new Section<>("conteos", metricsService::computeCounts, countsSeconds, executor);
+        this.revenue = new Section<>("ingresos", metricsService::computeRevenue, revenueSeconds, executor);
+        this.topSpaces = new Section<>("top de espacios", metricsService::computeTopSpaces, topSpacesSeconds, executor);
+        this.temporal = new Section<>("métricas temporales", metricsService::computeTemporal, temporalSeconds, executor);
+    }
+
+    /**
+     * Dashboard con el último valor de cada sección; {@code computedAt} es el de la sección más antigua.
+     */
+    public SimpleDashboardDTO getDashboard() {
+        Computed<MetricsService.DashboardCounts> countsValue = counts.get();
+        Computed<RevenueMetricsDTO> revenueValue = revenue.get();
+        Computed<List<TopSpaceDTO>> topSpacesValue = topSpaces.get();
+        Computed<TemporalMetricsDTO> temporalValue = temporal.get();
+
+        SimpleDashboardDTO dashboard = new SimpleDashboardDTO();
+        dashboard.setGeneralMetrics(countsValue.value().generalMetrics());
+        dashboard.setReservationsByStatus(countsValue.value().reservationsByStatus());
+        dashboard.setRevenueMetrics(revenueValue.value());
+        dashboard.setTopSpaces(topSpacesValue.value());
+        dashboard.setTemporalMetrics(temporalValue.value());
+        dashboard.setComputedAt(Stream.of(countsValue, revenueValue, topSpacesValue, temporalValue)
+                .map(Computed::computedAt)
+                .min(OffsetDateTime::compareTo)
+                .orElseThrow());
+        return dashboard;
+    }
+
+    record Computed<T>(T value, OffsetDateTime computedAt, long computedNanos) {
+    }
+
+    /**
+     * Valor de una sección con refresco en segundo plano de a uno.
+     */
+    static final class Section<T> {
+
+        private final String name;
+        private final Supplier<T> loader;
+        private final long refreshNanos;
+        private final Executor executor;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private volatile Computed<T> current;
+
+        Section(String name, Supplier<T> loader, long refreshSeconds, Executor executor) {
+            this.name = name;
+            this.loader = loader;
+            this.refreshNanos = Duration.ofSeconds(Math.max(0, refreshSeconds)).toNanos();
+            this.executor = executor;
+        }
+
+        Computed<T> get() {
+            Computed<T> value = current;
+            if (value == null) {
+                return loadFirst();
+            }
+            if (System.nanoTime() - value.computedNanos() >= refreshNanos && refreshing.compareAndSet(false, true)) {
+                try {
+                    executor.execute(this::refresh);
+                } catch (RejectedExecutionException e) {
+                    refreshing.set(false);
+                    log.warn("No se pudo programar el refresco de {}: {}", name, e.getMessage());
+                }
+            }
+            return value;
+        }
+
+        private synchronized Computed<T> loadFirst() {
+            if (current == null) {
+                current = compute();
+            }
+            return current;
+        }
+
+        private void refresh() {
+            try {
+                current = compute();
+                log.debug("Sección del dashboard refrescada: {}", name);
+            } catch (Exception e) {
+                // Se sigue sirviendo el valor anterior; la próxima petición vuelve a intentarlo
+                log.error("Error al refrescar {} del dashboard: {}", name, e.getMessage(), e);
+            } finally {
+                refreshing.set(false);
+            }
+        }
+
+        private Computed<T> compute() {
+            return new Computed<>(loader.get(), OffsetDateTime.now(), System.nanoTime());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.Space;
+
+import java.util.Optional;
+
+/**
+ * Coordenadas geográficas en grados decimales (WGS84).
+ */
+public record GeoPoint(double latitude, double longitude) {
+
+    static final double EARTH_RADIUS_KM = 6371.0088;
+
+    public GeoPoint {
+        if (!valid(latitude, longitude)) {
+            throw new IllegalArgumentException("Coordenadas fuera de rango: " + latitude + "," + longitude);
+        }
+    }
+
+    public static boolean valid(double latitude, double longitude) {
+        return latitude >= -90 && latitude <= 90 && longitude >= -180 && longitude <= 180;
+    }
+
+    /**
+     * Punto con ambas coordenadas presentes y en rango.
+     */
+    public static Optional<GeoPoint> of(Double latitude, Double longitude) {
+        if (latitude == null || longitude == null || !valid(latitude, longitude)) {
+            return Optional.empty();
+        }
+        return Optional.of(new GeoPoint(latitude, longitude));
+    }
+
+    /**
+     * Interpreta una ubicación con la forma "lat,lon" ("9.9281, -84.0907"); cualquier otro texto
+     * (una dirección, un nombre de barrio) no tiene coordenadas.
+     */
+    public static Optional<GeoPoint> parse(String location) {
+        if (location == null) {
+            return Optional.empty();
+        }
+        String[] parts = location.split(",");
+        if (parts.length != 2) {
+            return Optional.empty();
+        }
+        try {
+            return of(Double.parseDouble(parts[0].trim()), Double.parseDouble(parts[1].trim()));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Coordenadas del espacio: las columnas normalizadas y, si faltan, las de su ubicación.
+     */
+    public static Optional<GeoPoint> of(Space space) {
+        Optional<GeoPoint> point = of(space.getLatitude(), space.getLongitude());
+        return point.isPresent() ? point : parse(space.getLocation());
+    }
+
+    /**
+     * Distancia sobre la esfera (fórmula del haversine) en kilómetros.
+     */
+    public double distanceKm(GeoPoint other) {
+        double dLat = Math.toRadians(other.latitude - latitude);
+        double dLon = Math.toRadians(other.longitude - longitude);
+        double a = Math.pow(Math.sin(dLat / 2), 2)
+                + Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(other.latitude)) * Math.pow(Math.sin(dLon / 2), 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+}
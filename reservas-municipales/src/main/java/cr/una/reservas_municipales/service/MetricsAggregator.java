@@ -0,0 +1,224 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationCountRow;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Contadores del dashboard mantenidos en memoria a partir de {@link ReservationChangedEvent}:
+ * reservas por estado, por espacio y por mes de creación, con los ingresos (CONFIRMED y COMPLETED)
+ * en céntimos. Cada evento resta el aporte del estado anterior y suma el del nuevo.
+ *
+ * Se carga al arrancar con un solo GROUP BY y se vuelve a cargar periódicamente para corregir la
+ * deriva de cambios hechos fuera de la aplicación. Los eventos que llegan durante la carga se
+ * guardan y se reaplican sobre los contadores nuevos antes de publicarlos. Mientras no está listo,
+ * MetricsService consulta la BD.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MetricsAggregator {
+
+    static final Set<String> ACTIVE_STATUSES = Set.of("CONFIRMED", "PENDING");
+    static final Set<String> REVENUE_STATUSES = Set.of("CONFIRMED", "COMPLETED");
+
+    private static final Comparator<SpaceTotals> RANKING = Comparator
+            .comparingLong(SpaceTotals::reservationCount)
+            .thenComparingLong(SpaceTotals::revenueCents)
+            .thenComparing(SpaceTotals::spaceId, Comparator.reverseOrder());
+
+    private final ReservationRepository reservationRepository;
+
+    // null hasta la primera carga
+    private volatile Counters counters;
+    // Eventos recibidos mientras se carga, para reaplicarlos sobre los contadores nuevos
+    private List<ReservationChangedEvent> pending;
+    private final Object lock = new Object();
+
+    @Value("${app.metrics.aggregator.enabled:true}")
+    private boolean enabled = true;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (!enabled) {
+            log.info("Agregador de métricas deshabilitado, el dashboard se calculará con consultas");
+            return;
+        }
+        reload();
+    }
+
+    /**
+     * Recarga los contadores desde la BD y reemplaza los actuales de una vez. Un evento cuyo commit
+     * cae entre el inicio de la carga y la lectura puede contarse dos veces; la siguiente carga lo
+     * corrige.
+     */
+    @Scheduled(cron = "${app.metrics.aggregator.reload-cron:0 30 3 * * *}")
+    public void reload() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (lock) {
+            pending = new ArrayList<>();
+        }
+
+        Counters loaded = new Counters();
+        try {
+            reservationRepository.countBySpaceStatusAndMonth().forEach(loaded::add);
+        } catch (RuntimeException e) {
+            synchronized (lock) {
+                pending = null;
+            }
+            throw e;
+        }
+
+        synchronized (lock) {
+            pending.forEach(loaded::apply);
+            pending = null;
+            counters = loaded;
+        }
+        log.info("Agregador de métricas cargado: {} reservas en {} espacios", loaded.total.sum(), loaded.bySpace.size());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        synchronized (lock) {
+            if (pending != null) {
+                pending.add(event);
+            }
+            Counters current = counters;
+            if (current != null) {
+                current.apply(event);
+            }
+        }
+    }
+
+    public boolean isReady() {
+        return counters != null;
+    }
+
+    public long totalReservations() {
+        return counters.total.sum();
+    }
+
+    public long activeReservations() {
+        return ACTIVE_STATUSES.stream().mapToLong(this::countByStatus).sum();
+    }
+
+    public long countByStatus(String status) {
+        LongAdder count = counters.byStatus.get(status);
+        return count == null ? 0 : count.sum();
+    }
+
+    /**
+     * Ingresos en céntimos de las reservas creadas en el mes.
+     */
+    public long revenueCents(YearMonth month) {
+        LongAdder revenue = counters.revenueByMonth.get(month);
+        return revenue == null ? 0 : revenue.sum();
+    }
+
+    /**
+     * Los {@code limit} espacios con más reservas (desempate por ingresos), de mayor a menor.
+     */
+    public List<SpaceTotals> topSpaces(int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        PriorityQueue<SpaceTotals> top = new PriorityQueue<>(RANKING);
+        counters.bySpace.forEach((spaceId, totals) -> {
+            SpaceTotals candidate = new SpaceTotals(spaceId, totals.count.sum(), totals.revenueCents.sum());
+            if (candidate.reservationCount() <= 0) {
+                return;
+            }
+            if (top.size() < limit) {
+                top.add(candidate);
+            } else if (RANKING.compare(candidate, top.peek()) > 0) {
+                top.poll();
+                top.add(candidate);
+            }
+        });
+        List<SpaceTotals> result = new ArrayList<>(top);
+        result.sort(RANKING.reversed());
+        return result;
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount == null ? 0 : amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public record SpaceTotals(UUID spaceId, long reservationCount, long revenueCents) {
+    }
+
+    private static final class Counters {
+
+        private final LongAdder total = new LongAdder();
+        private final ConcurrentMap<String, LongAdder> byStatus = new ConcurrentHashMap<>();
+        private final ConcurrentMap<YearMonth, LongAdder> revenueByMonth = new ConcurrentHashMap<>();
+        private final ConcurrentMap<UUID, SpaceCounters> bySpace = new ConcurrentHashMap<>();
+
+        void apply(ReservationChangedEvent event) {
+            if (event.before() != null) {
+                add(event.before(), -1);
+            }
+            if (event.after() != null) {
+                add(event.after(), 1);
+            }
+        }
+
+        void add(ReservationCountRow row) {
+            YearMonth month = row.year() == null || row.month() == null ? null : YearMonth.of(row.year(), row.month());
+            add(row.spaceId(), row.status(), month, row.count(), toCents(row.totalAmount()));
+        }
+
+        void add(ReservationView reservation, int sign) {
+            YearMonth month = reservation.createdAt() == null ? null
+                    : YearMonth.from(reservation.createdAt().atZoneSameInstant(ZoneId.systemDefault()));
+            add(reservation.spaceId(), reservation.status(), month, sign, sign * toCents(reservation.totalAmount()));
+        }
+
+        private void add(UUID spaceId, String status, YearMonth month, long count, long cents) {
+            total.add(count);
+            if (status != null) {
+                byStatus.computeIfAbsent(status, key -> new LongAdder()).add(count);
+            }
+            boolean revenue = status != null && REVENUE_STATUSES.contains(status);
+            if (revenue && month != null) {
+                revenueByMonth.computeIfAbsent(month, key -> new LongAdder()).add(cents);
+            }
+            if (spaceId != null) {
+                SpaceCounters space = bySpace.computeIfAbsent(spaceId, key -> new SpaceCounters());
+                space.count.add(count);
+                if (revenue) {
+                    space.revenueCents.add(cents);
+                }
+            }
+        }
+    }
+
+    private static final class SpaceCounters {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder revenueCents = new LongAdder();
+    }
+}
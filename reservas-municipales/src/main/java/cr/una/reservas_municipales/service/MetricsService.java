@@ -1,19 +1,31 @@
 package cr.una.reservas_municipales.service;
 
 import cr.una.reservas_municipales.dto.*;
-import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.exception.BusinessException;
 import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.repository.ReservationDailyStatRepository;
 import cr.una.reservas_municipales.repository.ReservationRepository;
 import cr.una.reservas_municipales.repository.SpaceRepository;
 import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.repository.projection.BucketCount;
+import cr.una.reservas_municipales.repository.projection.CreatedCounts;
+import cr.una.reservas_municipales.repository.projection.DailyRollup;
+import cr.una.reservas_municipales.repository.projection.RevenueTotals;
+import cr.una.reservas_municipales.repository.projection.RollupTotals;
+import cr.una.reservas_municipales.repository.projection.StatusCount;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.OffsetDateTime;
 import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -25,33 +37,223 @@ public class MetricsService {
     private final ReservationRepository reservationRepository;
     private final SpaceRepository spaceRepository;
     private final UserRepository userRepository;
+    private final MetricsAggregator metricsAggregator;
+    private final ReservationDailyStatRepository dailyStatRepository;
+    
+    private static final List<String> DASHBOARD_STATUSES = List.of("CONFIRMED", "PENDING", "CANCELLED", "COMPLETED");
+    private static final Set<String> REVENUE_STATUSES = Set.of("CONFIRMED", "COMPLETED");
+    
+    @Value("${app.analytics.range.max-days:3660}")
+    private int maxRangeDays = 3660;
 
-    @Cacheable(value = "dashboardMetrics", key = "'simple-dashboard'")
+    /**
+     * Dashboard completo calculado en el momento. El endpoint lo sirve desde {@link DashboardCache},
+     * que refresca cada sección por separado con estos mismos métodos.
+     */
     public SimpleDashboardDTO getSimpleDashboard() {
         log.info("Calculando métricas del dashboard...");
         
         SimpleDashboardDTO dashboard = new SimpleDashboardDTO();
-        
-        dashboard.setGeneralMetrics(calculateGeneralMetrics());
-        dashboard.setReservationsByStatus(calculateReservationsByStatus());
-        dashboard.setRevenueMetrics(calculateRevenueMetrics());
-        dashboard.setTopSpaces(calculateTopSpaces(5)); 
+        DashboardCounts counts = computeCounts();
+        dashboard.setGeneralMetrics(counts.generalMetrics());
+        dashboard.setReservationsByStatus(counts.reservationsByStatus());
+        dashboard.setRevenueMetrics(computeRevenue());
+        dashboard.setTopSpaces(computeTopSpaces());
         dashboard.setTemporalMetrics(calculateTemporalMetrics());
+        dashboard.setComputedAt(OffsetDateTime.now());
         
         log.info("Dashboard calculado exitosamente");
         return dashboard;
     }
+    
+    // ============ SECCIONES DEL DASHBOARD ============
+    // Con el agregador listo salen de contadores en memoria; si no, de agregados en la BD
+    
+    DashboardCounts computeCounts() {
+        if (metricsAggregator.isReady()) {
+            return new DashboardCounts(aggregatedGeneralMetrics(), aggregatedReservationsByStatus());
+        }
+        // Un GROUP BY por estado alimenta las métricas generales y la distribución
+        Map<String, Long> statusCounts = countReservationsByStatus();
+        return new DashboardCounts(calculateGeneralMetrics(statusCounts), calculateReservationsByStatus(statusCounts));
+    }
+    
+    RevenueMetricsDTO computeRevenue() {
+        return metricsAggregator.isReady() ? aggregatedRevenueMetrics() : calculateRevenueMetrics();
+    }
+    
+    List<TopSpaceDTO> computeTopSpaces() {
+        return metricsAggregator.isReady() ? aggregatedTopSpaces(5) : calculateTopSpaces(5);
+    }
+    
+    TemporalMetricsDTO computeTemporal() {
+        return calculateTemporalMetrics();
+    }
+    
+    record DashboardCounts(GeneralMetricsDTO generalMetrics, Map<String, Long> reservationsByStatus) {
+    }
 
+    /**
+     * Métricas de un rango de días arbitrario (inclusive), calculadas sobre reservation_daily_stats.
+     * Los días son fechas de inicio en hora de Costa Rica.
+     */
+    public RangeMetricsDTO getRangeMetrics(LocalDate from, LocalDate to, UUID spaceId) {
+        validateRange(from, to);
+        
+        Map<String, Long> byStatus = new HashMap<>();
+        for (String status : DASHBOARD_STATUSES) {
+            byStatus.put(status, 0L);
+        }
+        long total = 0;
+        long minutes = 0;
+        long revenueCents = 0;
+        long attendance = 0;
+        for (RollupTotals row : dailyStatRepository.sumByStatus(from, to, spaceId)) {
+            long count = nullToZero(row.reservations());
+            byStatus.merge(row.status(), count, Long::sum);
+            total += count;
+            minutes += nullToZero(row.minutes());
+            attendance += nullToZero(row.attendance());
+            if (REVENUE_STATUSES.contains(row.status())) {
+                revenueCents += nullToZero(row.revenueCents());
+            }
+        }
+        long active = byStatus.getOrDefault("CONFIRMED", 0L) + byStatus.getOrDefault("PENDING", 0L);
+        
+        List<TopSpaceDTO> topSpaces = spaceId != null ? List.of() : dailyStatRepository
+            .findTopSpaces(from, to, PageRequest.of(0, 5)).stream()
+            .map(row -> new TopSpaceDTO(
+                row.spaceId(),
+                row.name(),
+                nullToZero(row.reservations()),
+                nullToZero(row.revenueCents()) / 100.0))
+            .collect(Collectors.toList());
+        
+        log.debug("Métricas de rango {} a {} (espacio {}): {} reservas", from, to, spaceId, total);
+        return new RangeMetricsDTO(from, to, spaceId, total, active, minutes, revenueCents / 100.0,
+            attendance, byStatus, topSpaces, dailyStatRepository.findLastRefresh());
+    }
     
-    private GeneralMetricsDTO calculateGeneralMetrics() {
+    /**
+     * Serie temporal de un rango de días (inclusive), por día o por mes. Los periodos sin reservas se omiten.
+     */
+    public List<RangePointDTO> getRangeSeries(LocalDate from, LocalDate to, UUID spaceId, String granularity) {
+        validateRange(from, to);
+        boolean monthly;
+        if (granularity == null || granularity.equalsIgnoreCase("DAY")) {
+            monthly = false;
+        } else if (granularity.equalsIgnoreCase("MONTH")) {
+            monthly = true;
+        } else {
+            throw new BusinessException("Granularidad no válida: " + granularity + " (use DAY o MONTH)");
+        }
         
-        long totalReservations = reservationRepository.count();
+        // Las filas llegan ordenadas por día: los meses se acumulan en orden
+        Map<LocalDate, RangePointDTO> points = new LinkedHashMap<>();
+        for (DailyRollup row : dailyStatRepository.sumByDay(from, to, spaceId)) {
+            LocalDate period = monthly ? row.day().withDayOfMonth(1) : row.day();
+            RangePointDTO point = points.computeIfAbsent(period, key -> new RangePointDTO(key, 0, 0, 0.0, 0));
+            point.setReservations(point.getReservations() + nullToZero(row.reservations()));
+            point.setMinutes(point.getMinutes() + nullToZero(row.minutes()));
+            point.setRevenue(point.getRevenue() + nullToZero(row.revenueCents()) / 100.0);
+            point.setAttendance(point.getAttendance() + nullToZero(row.attendance()));
+        }
+        return new ArrayList<>(points.values());
+    }
+    
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new BusinessException("Debe indicar las fechas de inicio y fin del rango");
+        }
+        if (from.isAfter(to)) {
+            throw new BusinessException("La fecha de inicio debe ser anterior o igual a la fecha de fin");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new BusinessException("El rango no puede superar " + maxRangeDays + " días");
+        }
+    }
+    
+    private static long nullToZero(Long value) {
+        return value == null ? 0 : value;
+    }
+    
+    private GeneralMetricsDTO aggregatedGeneralMetrics() {
+        return new GeneralMetricsDTO(
+            metricsAggregator.totalReservations(),
+            spaceRepository.count(),
+            userRepository.count(),
+            metricsAggregator.activeReservations()
+        );
+    }
+    
+    private Map<String, Long> aggregatedReservationsByStatus() {
+        Map<String, Long> statusCount = new HashMap<>();
+        for (String status : DASHBOARD_STATUSES) {
+            statusCount.put(status, metricsAggregator.countByStatus(status));
+        }
+        return statusCount;
+    }
+    
+    private RevenueMetricsDTO aggregatedRevenueMetrics() {
+        YearMonth currentMonth = YearMonth.now();
+        double currentRevenue = metricsAggregator.revenueCents(currentMonth) / 100.0;
+        double lastRevenue = metricsAggregator.revenueCents(currentMonth.minusMonths(1)) / 100.0;
+        return new RevenueMetricsDTO(currentRevenue, lastRevenue, percentageChange(currentRevenue, lastRevenue));
+    }
+    
+    private List<TopSpaceDTO> aggregatedTopSpaces(int limit) {
+        List<MetricsAggregator.SpaceTotals> top = metricsAggregator.topSpaces(limit);
+        // Solo se consultan los nombres de los espacios que entran al top
+        Map<UUID, String> names = spaceRepository.findAllById(
+                top.stream().map(MetricsAggregator.SpaceTotals::spaceId).toList()).stream()
+            .collect(Collectors.toMap(Space::getSpaceId, Space::getName));
+        return withIdleSpaces(top.stream()
+            .map(totals -> new TopSpaceDTO(
+                totals.spaceId(),
+                names.get(totals.spaceId()),
+                totals.reservationCount(),
+                totals.revenueCents() / 100.0))
+            .collect(Collectors.toList()), limit);
+    }
+    
+    /**
+     * Completa el top con espacios sin reservas (en cero) hasta {@code limit}, como hacía el cálculo
+     * original sobre todos los espacios. Solo consulta espacios si faltan.
+     */
+    private List<TopSpaceDTO> withIdleSpaces(List<TopSpaceDTO> top, int limit) {
+        if (top.size() >= limit) {
+            return top;
+        }
+        Set<UUID> ranked = top.stream().map(TopSpaceDTO::getSpaceId).collect(Collectors.toSet());
+        List<TopSpaceDTO> filled = new ArrayList<>(top);
+        // Con limit espacios alcanza: a lo sumo top.size() ya están en el top
+        for (Space space : spaceRepository.findAll(PageRequest.of(0, limit, Sort.by("spaceId")))) {
+            if (filled.size() >= limit) {
+                break;
+            }
+            if (!ranked.contains(space.getSpaceId())) {
+                filled.add(new TopSpaceDTO(space.getSpaceId(), space.getName(), 0L, 0.0));
+            }
+        }
+        return filled;
+    }
+    
+    private Map<String, Long> countReservationsByStatus() {
+        Map<String, Long> counts = new HashMap<>();
+        for (StatusCount row : reservationRepository.countGroupedByStatus()) {
+            counts.put(row.status(), row.count());
+        }
+        return counts;
+    }
+    
+    private GeneralMetricsDTO calculateGeneralMetrics(Map<String, Long> statusCounts) {
+        
+        long totalReservations = statusCounts.values().stream().mapToLong(Long::longValue).sum();
         long totalSpaces = spaceRepository.count();
         long totalUsers = userRepository.count();
         
-        
-        List<String> activeStatuses = Arrays.asList("CONFIRMED", "PENDING");
-        long activeReservations = reservationRepository.countByStatusIn(activeStatuses);
+        long activeReservations = statusCounts.getOrDefault("CONFIRMED", 0L)
+            + statusCounts.getOrDefault("PENDING", 0L);
         
         log.debug("Métricas generales - Reservas: {}, Espacios: {}, Usuarios: {}, Activas: {}", 
             totalReservations, totalSpaces, totalUsers, activeReservations);
@@ -64,12 +266,11 @@ public class MetricsService {
         );
     }
     
-    private Map<String, Long> calculateReservationsByStatus() {
+    private Map<String, Long> calculateReservationsByStatus(Map<String, Long> statusCounts) {
         Map<String, Long> statusCount = new HashMap<>();
-        statusCount.put("CONFIRMED", reservationRepository.countByStatus("CONFIRMED"));
-        statusCount.put("PENDING", reservationRepository.countByStatus("PENDING"));
-        statusCount.put("CANCELLED", reservationRepository.countByStatus("CANCELLED"));
-        statusCount.put("COMPLETED", reservationRepository.countByStatus("COMPLETED"));
+        for (String status : DASHBOARD_STATUSES) {
+            statusCount.put(status, statusCounts.getOrDefault(status, 0L));
+        }
         
         log.debug("Distribución por estado: {}", statusCount);
         return statusCount;
@@ -78,45 +279,27 @@ public class MetricsService {
     private RevenueMetricsDTO calculateRevenueMetrics() {
         
         YearMonth currentMonth = YearMonth.now();
-        YearMonth lastMonth = currentMonth.minusMonths(1);
-        
-        OffsetDateTime currentMonthStart = currentMonth.atDay(1)
-            .atStartOfDay()
-            .atOffset(OffsetDateTime.now().getOffset());
-        OffsetDateTime currentMonthEnd = currentMonth.atEndOfMonth()
-            .atTime(23, 59, 59)
-            .atOffset(OffsetDateTime.now().getOffset());
-        
-        OffsetDateTime lastMonthStart = lastMonth.atDay(1)
-            .atStartOfDay()
-            .atOffset(OffsetDateTime.now().getOffset());
-        OffsetDateTime lastMonthEnd = lastMonth.atEndOfMonth()
-            .atTime(23, 59, 59)
-            .atOffset(OffsetDateTime.now().getOffset());
-        
-        
-        List<Reservation> currentMonthReservations = 
-            reservationRepository.findByCreatedAtBetween(currentMonthStart, currentMonthEnd);
+        ZoneOffset offset = OffsetDateTime.now().getOffset();
         
-        List<Reservation> lastMonthReservations = 
-            reservationRepository.findByCreatedAtBetween(lastMonthStart, lastMonthEnd);
+        OffsetDateTime currentMonthStart = currentMonth.atDay(1).atStartOfDay().atOffset(offset);
+        OffsetDateTime lastMonthStart = currentMonthStart.minusMonths(1);
+        OffsetDateTime nextMonthStart = currentMonthStart.plusMonths(1);
         
+        RevenueTotals totals = reservationRepository.sumRevenueByMonth(
+            lastMonthStart, currentMonthStart, nextMonthStart);
         
-        double currentRevenue = currentMonthReservations.stream()
-            .filter(r -> r.getStatus().equals("CONFIRMED") || r.getStatus().equals("COMPLETED"))
-            .map(Reservation::getTotalAmount)
-            .filter(Objects::nonNull)
-            .mapToDouble(BigDecimal::doubleValue)
-            .sum();
+        double currentRevenue = totals == null || totals.currentMonth() == null ? 0.0 : totals.currentMonth().doubleValue();
+        double lastRevenue = totals == null || totals.previousMonth() == null ? 0.0 : totals.previousMonth().doubleValue();
         
-        double lastRevenue = lastMonthReservations.stream()
-            .filter(r -> r.getStatus().equals("CONFIRMED") || r.getStatus().equals("COMPLETED"))
-            .map(Reservation::getTotalAmount)
-            .filter(Objects::nonNull)
-            .mapToDouble(BigDecimal::doubleValue)
-            .sum();
+        double percentageChange = percentageChange(currentRevenue, lastRevenue);
         
+        log.debug("Ingresos - Actual: ${}, Anterior: ${}, Cambio: {}%", 
+            currentRevenue, lastRevenue, percentageChange);
         
+        return new RevenueMetricsDTO(currentRevenue, lastRevenue, percentageChange);
+    }
+    
+    private static double percentageChange(double currentRevenue, double lastRevenue) {
         double percentageChange = 0.0;
         if (lastRevenue > 0) {
             percentageChange = ((currentRevenue - lastRevenue) / lastRevenue) * 100;
@@ -124,49 +307,18 @@ public class MetricsService {
             percentageChange = 100.0; 
         }
         
-        
-        percentageChange = Math.round(percentageChange * 100.0) / 100.0;
-        
-        log.debug("Ingresos - Actual: ${}, Anterior: ${}, Cambio: {}%", 
-            currentRevenue, lastRevenue, percentageChange);
-        
-        return new RevenueMetricsDTO(currentRevenue, lastRevenue, percentageChange);
+        return Math.round(percentageChange * 100.0) / 100.0;
     }
     
     private List<TopSpaceDTO> calculateTopSpaces(int limit) {
         
-        List<Space> allSpaces = spaceRepository.findAll();
-        
-        
-        List<TopSpaceDTO> topSpaces = allSpaces.stream()
-            .map(space -> {
-                
-                List<Reservation> spaceReservations = 
-                    reservationRepository.findBySpaceId(space.getSpaceId());
-                
-                
-                long count = spaceReservations.size();
-                
-                
-                double revenue = spaceReservations.stream()
-                    .filter(r -> r.getStatus().equals("CONFIRMED") || 
-                                 r.getStatus().equals("COMPLETED"))
-                    .map(Reservation::getTotalAmount)
-                    .filter(Objects::nonNull)
-                    .mapToDouble(BigDecimal::doubleValue)
-                    .sum();
-                
-                return new TopSpaceDTO(
-                    space.getSpaceId(),
-                    space.getName(),
-                    count,
-                    revenue
-                );
-            })
-            
-            .sorted(Comparator.comparingLong(TopSpaceDTO::getReservationCount).reversed())
-            
-            .limit(limit)
+        List<TopSpaceDTO> topSpaces = reservationRepository
+            .findTopSpacesByReservationCount(PageRequest.of(0, limit)).stream()
+            .map(row -> new TopSpaceDTO(
+                row.spaceId(),
+                row.name(),
+                row.reservationCount(),
+                row.revenue() == null ? 0.0 : row.revenue().doubleValue()))
             .collect(Collectors.toList());
         
         log.debug("Top {} espacios calculados", topSpaces.size());
@@ -176,44 +328,34 @@ public class MetricsService {
     private TemporalMetricsDTO calculateTemporalMetrics() {
         OffsetDateTime now = OffsetDateTime.now();
         
-        
         OffsetDateTime todayStart = now.toLocalDate().atStartOfDay()
                                        .atOffset(now.getOffset());
-        long today = reservationRepository.countByCreatedAtGreaterThanEqual(todayStart);
-        
-        
         OffsetDateTime weekStart = now.minusDays(7);
-        long thisWeek = reservationRepository.countByCreatedAtGreaterThanEqual(weekStart);
-        
-        
         OffsetDateTime monthStart = now.minusDays(30);
-        long thisMonth = reservationRepository.countByCreatedAtGreaterThanEqual(monthStart);
         
+        // Los tres conteos en una sola lectura del índice por created_at
+        CreatedCounts created = reservationRepository.countCreatedSince(todayStart, weekStart, monthStart);
+        long today = created == null ? 0 : created.today();
+        long thisWeek = created == null ? 0 : created.lastWeek();
+        long thisMonth = created == null ? 0 : created.lastMonth();
+        
+        // Histogramas agrupados en la BD sobre el mismo rango de inicio
+        OffsetDateTime rangeEnd = now.plusDays(30);
+        Map<String, Long> byDayOfWeek = new HashMap<>();
+        for (BucketCount row : reservationRepository.countByStartDayOfWeek(monthStart, rangeEnd)) {
+            byDayOfWeek.merge(dayOfWeek(row.bucket()).toString(), row.count(), Long::sum);
+        }
         
-        List<Reservation> monthReservations = 
-            reservationRepository.findByStartsAtBetween(monthStart, now.plusDays(30));
-        
-        
-        Map<String, Long> byDayOfWeek = monthReservations.stream()
-            .collect(Collectors.groupingBy(
-                r -> r.getStartsAt().getDayOfWeek().toString(),
-                Collectors.counting()
-            ));
-        
-        
-        Map<Integer, Long> byHour = monthReservations.stream()
-            .collect(Collectors.groupingBy(
-                r -> r.getStartsAt().getHour(),
-                Collectors.counting()
-            ));
-        
+        Map<Integer, Long> byHour = new HashMap<>();
+        for (BucketCount row : reservationRepository.countByStartHour(monthStart, rangeEnd)) {
+            byHour.merge(row.bucket(), row.count(), Long::sum);
+        }
         
         String mostPopularDay = byDayOfWeek.entrySet().stream()
             .max(Map.Entry.comparingByValue())
             .map(Map.Entry::getKey)
             .orElse("N/A");
         
-        
         Integer mostPopularHour = byHour.entrySet().stream()
             .max(Map.Entry.comparingByValue())
             .map(Map.Entry::getKey)
@@ -232,4 +374,11 @@ public class MetricsService {
             mostPopularHour
         );
     }
+    
+    /**
+     * Convierte el día de la semana de HQL (1 = domingo ... 7 = sábado) a {@link DayOfWeek}.
+     */
+    static DayOfWeek dayOfWeek(int sqlDayOfWeek) {
+        return DayOfWeek.SUNDAY.plus(sqlDayOfWeek - 1L);
+    }
 }
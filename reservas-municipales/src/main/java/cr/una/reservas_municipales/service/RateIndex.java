@@ -0,0 +1,93 @@
+package cr.una.reservas_municipales.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.model.SpaceRate;
+import cr.una.reservas_municipales.repository.SpaceRateRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Caché de tarifas por espacio compiladas a {@link RateTimeline}. Cotizar una reserva o una ventana
+ * de la consulta masiva no toca la base de datos; los espacios que faltan en una consulta masiva se
+ * cargan juntos con una sola consulta a space_rate.
+ *
+ * La aplicación no escribe tarifas: se cargan por SQL y la expiración acota cuánto tarda en verse
+ * un cambio. Quien agregue escrituras debe invalidar la caché tras el commit.
+ */
+@Component
+public class RateIndex {
+
+    static final String NOT_COVERED_MESSAGE = "El espacio no tiene una tarifa vigente que cubra todo el intervalo";
+
+    private final LoadingCache<UUID, RateTimeline> cache;
+
+    public RateIndex(SpaceRateRepository rateRepository,
+                     @Value("${app.pricing.rate-index.max-spaces:1000}") long maxSpaces,
+                     @Value("${app.pricing.rate-index.ttl-minutes:10}") long ttlMinutes) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSpaces)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public RateTimeline load(UUID spaceId) {
+                        return RateTimeline.compile(rateRepository.findBySpaceIdAndActiveTrue(spaceId));
+                    }
+
+                    @Override
+                    public Map<UUID, RateTimeline> loadAll(Set<? extends UUID> spaceIds) {
+                        Map<UUID, List<SpaceRate>> bySpace = rateRepository.findBySpaceIdInAndActiveTrue(Set.copyOf(spaceIds))
+                                .stream()
+                                .collect(Collectors.groupingBy(SpaceRate::getSpaceId));
+                        Map<UUID, RateTimeline> timelines = new HashMap<>();
+                        for (UUID spaceId : spaceIds) {
+                            timelines.put(spaceId, RateTimeline.compile(bySpace.getOrDefault(spaceId, List.of())));
+                        }
+                        return timelines;
+                    }
+                });
+    }
+
+    /**
+     * Cotización del intervalo con las tarifas vigentes, vacía si el espacio no tiene una tarifa
+     * que cubra todo el intervalo.
+     */
+    Optional<RateTimeline.Quote> quote(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        return Optional.ofNullable(cache.get(spaceId).quote(startsAt, endsAt));
+    }
+
+    /**
+     * Precio que se cobra por el intervalo. Vacío solo si el espacio no tiene ninguna tarifa activa,
+     * el único caso en que se acepta el monto que envía el cliente.
+     *
+     * @throws BusinessException si el espacio tiene tarifas pero ninguna cubre todo el intervalo
+     */
+    Optional<RateTimeline.Quote> price(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        RateTimeline timeline = cache.get(spaceId);
+        if (timeline.isEmpty()) {
+            return Optional.empty();
+        }
+        RateTimeline.Quote quote = timeline.quote(startsAt, endsAt);
+        if (quote == null) {
+            throw new BusinessException(NOT_COVERED_MESSAGE);
+        }
+        return Optional.of(quote);
+    }
+
+    Map<UUID, RateTimeline> timelines(Set<UUID> spaceIds) {
+        return cache.getAll(spaceIds);
+    }
+}
@@ -0,0 +1,179 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.SpaceRate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/**
+ * Tarifas activas de un espacio compiladas a una línea de tiempo por fecha (hora de Costa Rica):
+ * {@code starts[i]} es el día (epoch day) desde el que rige {@code rates[i]}, hasta el siguiente inicio.
+ * Cuando varias tarifas cubren el mismo día gana la de applies_from más reciente, y entre iguales
+ * la de mayor rate_id, así una tarifa de temporada se impone a la base sin tener que cerrarla.
+ *
+ * Los montos se calculan en unidades menores (céntimos) con aritmética entera:
+ * HOUR cobra por hora o fracción, BLOCK por bloque de block_minutes o fracción y DAY por día
+ * calendario tocado. Una reserva que cruza un cambio de tarifa se cobra por tramos.
+ */
+final class RateTimeline {
+
+    static final String HOUR = "HOUR";
+    static final String DAY = "DAY";
+    static final String BLOCK = "BLOCK";
+
+    /** Espacio sin tarifas activas: no se puede cotizar. */
+    static final RateTimeline EMPTY = new RateTimeline(new long[0], new Rate[0]);
+
+    private static final Comparator<SpaceRate> PRECEDENCE = Comparator
+            .comparing(SpaceRate::getAppliesFrom)
+            .thenComparing(SpaceRate::getRateId, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final long[] starts;
+    // null donde ninguna tarifa rige
+    private final Rate[] rates;
+
+    private RateTimeline(long[] starts, Rate[] rates) {
+        this.starts = starts;
+        this.rates = rates;
+    }
+
+    static RateTimeline compile(List<SpaceRate> spaceRates) {
+        List<SpaceRate> usable = spaceRates.stream().filter(RateTimeline::isUsable).toList();
+        if (usable.isEmpty()) {
+            return EMPTY;
+        }
+
+        TreeSet<Long> boundaries = new TreeSet<>();
+        for (SpaceRate rate : usable) {
+            boundaries.add(rate.getAppliesFrom().toEpochDay());
+            if (rate.getAppliesTo() != null) {
+                boundaries.add(rate.getAppliesTo().toEpochDay() + 1);
+            }
+        }
+
+        List<Long> starts = new ArrayList<>();
+        List<Rate> rates = new ArrayList<>();
+        for (long day : boundaries) {
+            Rate winner = usable.stream()
+                    .filter(rate -> covers(rate, day))
+                    .max(PRECEDENCE)
+                    .map(Rate::of)
+                    .orElse(null);
+            // Tramos contiguos con la misma tarifa se unen: una hora que cruza la medianoche sigue siendo una
+            if (!rates.isEmpty() && Objects.equals(rates.get(rates.size() - 1), winner)) {
+                continue;
+            }
+            starts.add(day);
+            rates.add(winner);
+        }
+        return new RateTimeline(starts.stream().mapToLong(Long::longValue).toArray(), rates.toArray(Rate[]::new));
+    }
+
+    boolean isEmpty() {
+        return rates.length == 0;
+    }
+
+    /**
+     * Cotización del intervalo, o null si alguna parte no tiene tarifa vigente o los tramos usan
+     * monedas distintas.
+     */
+    Quote quote(OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        if (isEmpty() || startsAt == null || endsAt == null || !endsAt.isAfter(startsAt)) {
+            return null;
+        }
+        ZonedDateTime cursor = startsAt.atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE);
+        ZonedDateTime end = endsAt.atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE);
+        int segment = segmentAt(cursor.toLocalDate().toEpochDay());
+
+        Rate first = null;
+        long total = 0;
+        while (cursor.isBefore(end)) {
+            if (segment < 0 || rates[segment] == null) {
+                return null;
+            }
+            Rate rate = rates[segment];
+            if (first == null) {
+                first = rate;
+            } else if (!first.currency().equals(rate.currency())) {
+                return null;
+            }
+            ZonedDateTime segmentEnd = end;
+            if (segment + 1 < starts.length) {
+                ZonedDateTime next = LocalDate.ofEpochDay(starts[segment + 1]).atStartOfDay(ReservationRules.COSTA_RICA_ZONE);
+                if (next.isBefore(end)) {
+                    segmentEnd = next;
+                }
+            }
+            total = Math.addExact(total, rate.charge(cursor, segmentEnd));
+            cursor = segmentEnd;
+            segment++;
+        }
+        return new Quote(first.rateId(), total, first.currency());
+    }
+
+    private int segmentAt(long epochDay) {
+        int index = Arrays.binarySearch(starts, epochDay);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    private static boolean isUsable(SpaceRate rate) {
+        if (!rate.isActive() || rate.getAppliesFrom() == null || rate.getPrice() == null
+                || rate.getCurrency() == null || rate.getUnit() == null) {
+            return false;
+        }
+        if (rate.getAppliesTo() != null && rate.getAppliesTo().isBefore(rate.getAppliesFrom())) {
+            return false;
+        }
+        return switch (rate.getUnit().trim().toUpperCase()) {
+            case HOUR, DAY -> true;
+            case BLOCK -> rate.getBlockMinutes() != null && rate.getBlockMinutes() > 0;
+            default -> false;
+        };
+    }
+
+    private static boolean covers(SpaceRate rate, long epochDay) {
+        return rate.getAppliesFrom().toEpochDay() <= epochDay
+                && (rate.getAppliesTo() == null || rate.getAppliesTo().toEpochDay() >= epochDay);
+    }
+
+    private record Rate(Long rateId, String unit, int blockMinutes, long priceMinor, String currency) {
+
+        static Rate of(SpaceRate rate) {
+            long priceMinor = rate.getPrice().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            int blockMinutes = rate.getBlockMinutes() != null ? rate.getBlockMinutes() : 60;
+            return new Rate(rate.getRateId(), rate.getUnit().trim().toUpperCase(), blockMinutes, priceMinor,
+                    rate.getCurrency().trim());
+        }
+
+        long charge(ZonedDateTime from, ZonedDateTime to) {
+            long minutes = Math.ceilDiv(Duration.between(from, to).toSeconds(), 60);
+            long units = switch (unit) {
+                case HOUR -> Math.ceilDiv(minutes, 60);
+                case BLOCK -> Math.ceilDiv(minutes, blockMinutes);
+                // El último instante del tramo es to - 1 ns: terminar a medianoche no toca el día siguiente
+                default -> to.minusNanos(1).toLocalDate().toEpochDay() - from.toLocalDate().toEpochDay() + 1;
+            };
+            return Math.multiplyExact(units, priceMinor);
+        }
+    }
+
+    /**
+     * Monto en unidades menores; {@code rateId} es la tarifa vigente al inicio del intervalo.
+     */
+    record Quote(Long rateId, long amountMinor, String currency) {
+
+        BigDecimal amount() {
+            return BigDecimal.valueOf(amountMinor, 2);
+        }
+    }
+}
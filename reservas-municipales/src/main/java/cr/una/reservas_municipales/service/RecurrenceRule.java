@@ -0,0 +1,167 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Subconjunto de RRULE (RFC 5545) suficiente para reservas periódicas, por ejemplo
+ * {@code FREQ=WEEKLY;BYDAY=TU;UNTIL=20261231} o {@code FREQ=DAILY;INTERVAL=2;COUNT=10}.
+ *
+ * Soporta FREQ (DAILY, WEEKLY, MONTHLY), INTERVAL, COUNT, UNTIL (fecha local, inclusiva) y
+ * BYDAY (solo con WEEKLY). Las ocurrencias se calculan en hora local de Costa Rica.
+ */
+public final class RecurrenceRule {
+
+    private static final DateTimeFormatter UNTIL_FORMAT = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final Map<String, DayOfWeek> DAYS = Map.of(
+            "MO", DayOfWeek.MONDAY,
+            "TU", DayOfWeek.TUESDAY,
+            "WE", DayOfWeek.WEDNESDAY,
+            "TH", DayOfWeek.THURSDAY,
+            "FR", DayOfWeek.FRIDAY,
+            "SA", DayOfWeek.SATURDAY,
+            "SU", DayOfWeek.SUNDAY);
+
+    private final ChronoUnit frequency;
+    private final int interval;
+    private final Integer count;
+    private final LocalDate until;
+    private final Set<DayOfWeek> byDay;
+
+    private RecurrenceRule(ChronoUnit frequency, int interval, Integer count, LocalDate until, Set<DayOfWeek> byDay) {
+        this.frequency = frequency;
+        this.interval = interval;
+        this.count = count;
+        this.until = until;
+        this.byDay = byDay;
+    }
+
+    public static RecurrenceRule parse(String rule) {
+        if (rule == null || rule.isBlank()) {
+            throw new BusinessException("La regla de recurrencia es obligatoria");
+        }
+
+        Map<String, String> parts = new HashMap<>();
+        for (String part : rule.trim().replaceFirst("^(?i)RRULE:", "").split(";")) {
+            String[] keyValue = part.split("=", 2);
+            if (keyValue.length != 2 || keyValue[1].isBlank()) {
+                throw new BusinessException("Regla de recurrencia inválida: " + part);
+            }
+            parts.put(keyValue[0].trim().toUpperCase(Locale.ROOT), keyValue[1].trim().toUpperCase(Locale.ROOT));
+        }
+
+        ChronoUnit frequency = switch (parts.getOrDefault("FREQ", "")) {
+            case "DAILY" -> ChronoUnit.DAYS;
+            case "WEEKLY" -> ChronoUnit.WEEKS;
+            case "MONTHLY" -> ChronoUnit.MONTHS;
+            default -> throw new BusinessException("FREQ debe ser DAILY, WEEKLY o MONTHLY");
+        };
+
+        int interval = parsePositive(parts.getOrDefault("INTERVAL", "1"), "INTERVAL");
+        Integer count = parts.containsKey("COUNT") ? parsePositive(parts.get("COUNT"), "COUNT") : null;
+        LocalDate until = parts.containsKey("UNTIL") ? parseUntil(parts.get("UNTIL")) : null;
+        if (count == null && until == null) {
+            throw new BusinessException("La regla de recurrencia debe indicar COUNT o UNTIL");
+        }
+
+        Set<DayOfWeek> byDay = EnumSet.noneOf(DayOfWeek.class);
+        if (parts.containsKey("BYDAY")) {
+            if (frequency != ChronoUnit.WEEKS) {
+                throw new BusinessException("BYDAY solo se admite con FREQ=WEEKLY");
+            }
+            for (String day : parts.get("BYDAY").split(",")) {
+                DayOfWeek dayOfWeek = DAYS.get(day.trim());
+                if (dayOfWeek == null) {
+                    throw new BusinessException("Día inválido en BYDAY: " + day);
+                }
+                byDay.add(dayOfWeek);
+            }
+        }
+
+        return new RecurrenceRule(frequency, interval, count, until, byDay);
+    }
+
+    /**
+     * Inicios de cada ocurrencia a partir de {@code firstStartsAt} (incluida si cumple la regla).
+     *
+     * @throws BusinessException si la regla genera más de {@code maxOccurrences} ocurrencias
+     */
+    public List<OffsetDateTime> expand(OffsetDateTime firstStartsAt, int maxOccurrences) {
+        LocalDateTime first = firstStartsAt.atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE).toLocalDateTime();
+        List<OffsetDateTime> occurrences = new ArrayList<>();
+
+        for (long step = 0; ; step++) {
+            LocalDateTime periodStart = first.plus(step * interval, frequency);
+            if (frequency == ChronoUnit.MONTHS && periodStart.getDayOfMonth() != first.getDayOfMonth()) {
+                // El mes no tiene ese día (p. ej. 31); se omite como indica RFC 5545
+                if (until != null && periodStart.toLocalDate().isAfter(until)) {
+                    break;
+                }
+                continue;
+            }
+
+            for (LocalDateTime candidate : candidatesInPeriod(first, periodStart)) {
+                if (candidate.isBefore(first)) {
+                    continue;
+                }
+                if ((until != null && candidate.toLocalDate().isAfter(until))
+                        || (count != null && occurrences.size() >= count)) {
+                    return occurrences;
+                }
+                if (occurrences.size() >= maxOccurrences) {
+                    throw new BusinessException(String.format(
+                            "La serie no puede tener más de %d ocurrencias", maxOccurrences));
+                }
+                occurrences.add(candidate.atZone(ReservationRules.COSTA_RICA_ZONE).toOffsetDateTime());
+            }
+        }
+        return occurrences;
+    }
+
+    private List<LocalDateTime> candidatesInPeriod(LocalDateTime first, LocalDateTime periodStart) {
+        if (byDay.isEmpty()) {
+            return List.of(periodStart);
+        }
+        LocalDateTime monday = periodStart.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        List<LocalDateTime> candidates = new ArrayList<>(byDay.size());
+        for (DayOfWeek day : byDay) {
+            candidates.add(monday.with(TemporalAdjusters.nextOrSame(day)).with(first.toLocalTime()));
+        }
+        return candidates;
+    }
+
+    private static int parsePositive(String value, String name) {
+        try {
+            int parsed = Integer.parseInt(value);
+            if (parsed > 0) {
+                return parsed;
+            }
+        } catch (NumberFormatException e) {
+            // se reporta abajo
+        }
+        throw new BusinessException(name + " debe ser un entero positivo");
+    }
+
+    private static LocalDate parseUntil(String value) {
+        try {
+            return LocalDate.parse(value.length() > 8 ? value.substring(0, 8) : value, UNTIL_FORMAT);
+        } catch (DateTimeParseException e) {
+            throw new BusinessException("UNTIL debe tener el formato AAAAMMDD");
+        }
+    }
+}
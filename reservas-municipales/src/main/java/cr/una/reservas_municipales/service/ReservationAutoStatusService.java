@@ -1,121 +1,244 @@
 package cr.una.reservas_municipales.service;
 
-import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.dto.SpaceDto;
+import cr.una.reservas_municipales.model.User;
+import cr.una.reservas_municipales.notification.NotificationEvent;
+import cr.una.reservas_municipales.notification.NotificationSender;
+import cr.una.reservas_municipales.notification.NotificationType;
 import cr.una.reservas_municipales.repository.ReservationRepository;
-import lombok.RequiredArgsConstructor;
+import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.Duration;
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
- * Servicio para gestionar automáticamente el estado de las reservas.
- * Cancela automáticamente las reservas pendientes que no fueron confirmadas antes de su hora de inicio.
- * 
- * OPTIMIZACIONES IMPLEMENTADAS:
- * 1. Query directa en BD con filtro (evita traer datos innecesarios a memoria)
- * 2. Batch update con saveAll() (reduce llamadas a BD)
- * 3. Constantes para strings mágicos (evita errores de tipeo)
+ * Servicio para gestionar automáticamente el estado de las reservas:
+ * - Cancela las reservas pendientes que no fueron confirmadas antes de su hora de inicio.
+ * - Completa las reservas confirmadas cuya hora de fin ya pasó (con un margen para validar el QR tarde).
+ *
+ * Ambos jobs trabajan por lotes de {@code chunk-size} reservas, cada uno en su propia transacción:
+ * se leen las columnas de los listados (sin entidades ni QR) y se actualiza el lote con un solo
+ * UPDATE ... RETURNING, que devuelve solo las filas que seguían en el estado esperado. Por cada ID
+ * devuelto se publica un {@link ReservationChangedEvent}, que tras el commit actualiza cachés y
+ * agregados, y se encola en el outbox el correo al usuario (RESERVATION_CANCELLED o
+ * RESERVATION_STATUS_CHANGED) en la misma transacción del lote. Tras una caída, el atraso se procesa
+ * sin cargarlo entero en memoria y lo ya confirmado no se pierde si un lote falla.
  */
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class ReservationAutoStatusService {
 
-    private final ReservationRepository reservationRepository;
-    
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-    private static final String STATUS_PENDING = "PENDING";
-    private static final String STATUS_CANCELLED = "CANCELLED";
-    private static final String AUTO_CANCEL_REASON_PREFIX = 
-        "Cancelada automáticamente - No se confirmó antes de la hora de inicio (";
-    
+    private static final String AUTO_CANCEL_REASON =
+        "Cancelada automáticamente - No se confirmó antes de la hora de inicio";
+    private static final String MANUAL_CANCEL_REASON =
+        "Cancelada manualmente por sistema - No confirmada antes de hora de inicio";
+
+    private final ReservationRepository reservationRepository;
+    private final AvailabilityIndex availabilityIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final UserRepository userRepository;
+    private final SpaceCatalog spaceCatalog;
+    private final NotificationSender notificationSender;
+    private final TransactionTemplate transactionTemplate;
+    private final int chunkSize;
+    private final boolean autoCompleteEnabled;
+    private final Duration completeGrace;
+
+    public ReservationAutoStatusService(ReservationRepository reservationRepository,
+                                        AvailabilityIndex availabilityIndex,
+                                        ApplicationEventPublisher eventPublisher,
+                                        UserRepository userRepository,
+                                        SpaceCatalog spaceCatalog,
+                                        NotificationSender notificationSender,
+                                        PlatformTransactionManager transactionManager,
+                                        @Value("${app.reservations.auto-status.chunk-size:500}") int chunkSize,
+                                        @Value("${app.reservations.auto-complete.enabled:true}") boolean autoCompleteEnabled,
+                                        @Value("${app.reservations.auto-complete.grace-minutes:60}") long completeGraceMinutes) {
+        this.reservationRepository = reservationRepository;
+        this.availabilityIndex = availabilityIndex;
+        this.eventPublisher = eventPublisher;
+        this.userRepository = userRepository;
+        this.spaceCatalog = spaceCatalog;
+        this.notificationSender = notificationSender;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.autoCompleteEnabled = autoCompleteEnabled;
+        this.completeGrace = Duration.ofMinutes(Math.max(0, completeGraceMinutes));
+    }
+
     /**
      * Job programado que se ejecuta cada 5 minutos para auto-cancelar reservas pendientes expiradas.
      */
     @Scheduled(cron = "0 */5 * * * *")
-    @Transactional
     public void autoCancelExpiredPendingReservations() {
         log.debug("Ejecutando job de auto-cancelación de reservas pendientes expiradas...");
-        
-        OffsetDateTime now = OffsetDateTime.now();
-        
-        // OPTIMIZACIÓN 1: Query directa con filtro en BD (en vez de traer todo y filtrar en memoria)
-        List<Reservation> expiredPendingReservations = 
-            reservationRepository.findExpiredPendingReservations(now);
-        
-        if (expiredPendingReservations.isEmpty()) {
-            log.debug("No hay reservas pendientes expiradas para cancelar");
-            return;
-        }
-        
-        log.info("Encontradas {} reservas pendientes expiradas para auto-cancelar", 
-                expiredPendingReservations.size());
-        
-        // OPTIMIZACIÓN 2: Actualizar en lote con saveAll en vez de save individual
-        int cancelledCount = 0;
-        for (Reservation reservation : expiredPendingReservations) {
-            try {
-                reservation.setStatus(STATUS_CANCELLED);
-                reservation.setCancelReason(
-                    AUTO_CANCEL_REASON_PREFIX + 
-                    reservation.getStartsAt().format(DATE_FORMATTER) + ")"
-                );
-                reservation.setUpdatedAt(now);
-                cancelledCount++;
-                
-                log.debug("Marcando reserva {} para cancelación", reservation.getReservationId());
-                
-            } catch (Exception e) {
-                log.error("Error al preparar cancelación de reserva {}: {}", 
-                        reservation.getReservationId(), e.getMessage());
-            }
-        }
-        
-        // OPTIMIZACIÓN 3: Guardar todas las reservas en un solo batch
         try {
-            reservationRepository.saveAll(expiredPendingReservations);
-            log.info("Job completado exitosamente: {} reservas auto-canceladas", cancelledCount);
+            int cancelled = cancelExpired(AUTO_CANCEL_REASON, true);
+            if (cancelled > 0) {
+                log.info("Job completado exitosamente: {} reservas auto-canceladas", cancelled);
+            } else {
+                log.debug("No hay reservas pendientes expiradas para cancelar");
+            }
         } catch (Exception e) {
-            log.error("Error al guardar reservas canceladas en batch: {}", e.getMessage(), e);
+            // Los lotes anteriores ya quedaron confirmados; el resto se reintenta en la próxima ejecución
+            log.error("Error en el job de auto-cancelación: {}", e.getMessage(), e);
         }
     }
-    
+
     /**
      * Método manual para ejecutar la auto-cancelación bajo demanda (para testing o admin)
      * @return Cantidad de reservas canceladas
      */
-    @Transactional
     public int manualAutoCancelExpiredReservations() {
         log.info("Ejecutando auto-cancelación manual de reservas pendientes expiradas...");
-        
+        int cancelled = cancelExpired(MANUAL_CANCEL_REASON, false);
+        log.info("Auto-cancelación manual completada: {} reservas canceladas", cancelled);
+        return cancelled;
+    }
+
+    /**
+     * Job programado que pasa a COMPLETED las reservas confirmadas que terminaron hace más del margen.
+     */
+    @Scheduled(cron = "${app.reservations.auto-complete.cron:30 */5 * * * *}")
+    public void autoCompleteFinishedReservations() {
+        if (!autoCompleteEnabled) {
+            return;
+        }
+        try {
+            OffsetDateTime now = OffsetDateTime.now();
+            OffsetDateTime endedBefore = now.minus(completeGrace);
+            int completed = processInChunks(
+                    page -> reservationRepository.findFinishedConfirmedViews(endedBefore, page),
+                    ids -> reservationRepository.completeFinishedConfirmed(ids, endedBefore, now),
+                    view -> view.completed(now),
+                    NotificationType.RESERVATION_STATUS_CHANGED,
+                    view -> Map.of("oldStatus", "CONFIRMED", "newStatus", "COMPLETED"));
+            if (completed > 0) {
+                log.info("Job completado exitosamente: {} reservas auto-completadas", completed);
+            }
+        } catch (Exception e) {
+            log.error("Error en el job de auto-completado: {}", e.getMessage(), e);
+        }
+    }
+
+    private int cancelExpired(String reason, boolean withStartTime) {
         OffsetDateTime now = OffsetDateTime.now();
-        
-        List<Reservation> expiredPendingReservations = 
-            reservationRepository.findExpiredPendingReservations(now);
-        
-        if (expiredPendingReservations.isEmpty()) {
-            log.info("No hay reservas pendientes expiradas para cancelar");
-            return 0;
+        String zone = ReservationRules.COSTA_RICA_ZONE.getId();
+        return processInChunks(
+                page -> reservationRepository.findExpiredPendingViews(now, page),
+                ids -> reservationRepository.cancelExpiredPending(ids, now, reason, withStartTime, zone),
+                view -> view.cancelled(withStartTime ? reasonWithStartTime(reason, view) : reason, now),
+                NotificationType.RESERVATION_CANCELLED,
+                view -> Map.of("reason", view.cancelReason()));
+    }
+
+    /**
+     * Procesa lotes hasta que uno venga incompleto o el UPDATE no cambie ninguna fila. Cada lote sale
+     * del conjunto consultado al actualizarse, así que siempre se lee la primera página.
+     */
+    private int processInChunks(Function<Pageable, List<ReservationView>> loader,
+                                Function<List<UUID>, List<UUID>> updater,
+                                Function<ReservationView, ReservationView> afterState,
+                                NotificationType notificationType,
+                                Function<ReservationView, Map<String, Object>> notificationData) {
+        Pageable page = PageRequest.of(0, chunkSize);
+        int total = 0;
+        while (true) {
+            ChunkResult chunk = transactionTemplate.execute(status -> {
+                List<ReservationView> views = loader.apply(page);
+                if (views.isEmpty()) {
+                    return new ChunkResult(0, 0);
+                }
+                Set<UUID> updated = new HashSet<>(updater.apply(views.stream()
+                        .map(ReservationView::reservationId)
+                        .toList()));
+                List<ReservationView> changed = new ArrayList<>(updated.size());
+                for (ReservationView before : views) {
+                    // Las que cambiaron de estado entre la lectura y el UPDATE no vuelven en el RETURNING
+                    if (updated.contains(before.reservationId())) {
+                        ReservationView after = afterState.apply(before);
+                        availabilityIndex.untrack(before.reservationId());
+                        eventPublisher.publishEvent(new ReservationChangedEvent(before, after));
+                        changed.add(after);
+                    }
+                }
+                notifyUsers(changed, notificationType, notificationData);
+                return new ChunkResult(views.size(), updated.size());
+            });
+            total += chunk.updated();
+            log.debug("Lote de estado automático: {} leídas, {} actualizadas", chunk.read(), chunk.updated());
+            if (chunk.read() < chunkSize || chunk.updated() == 0) {
+                return total;
+            }
         }
-        
-        int cancelledCount = 0;
-        for (Reservation reservation : expiredPendingReservations) {
-            reservation.setStatus(STATUS_CANCELLED);
-            reservation.setCancelReason(
-                "Cancelada manualmente por sistema - No confirmada antes de hora de inicio"
-            );
-            reservation.setUpdatedAt(now);
-            cancelledCount++;
+    }
+
+    /**
+     * Encola un correo por reserva con una sola consulta de usuarios por lote; el nombre del espacio
+     * sale del catálogo en memoria.
+     */
+    private void notifyUsers(List<ReservationView> reservations, NotificationType type,
+                             Function<ReservationView, Map<String, Object>> extraData) {
+        if (reservations.isEmpty()) {
+            return;
+        }
+        Map<UUID, User> users = userRepository.findAllById(reservations.stream()
+                        .map(ReservationView::userId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+        SpaceCatalog.Snapshot spaces = spaceCatalog.snapshot();
+        OffsetDateTime now = OffsetDateTime.now();
+
+        List<NotificationEvent> events = new ArrayList<>(reservations.size());
+        for (ReservationView reservation : reservations) {
+            User user = users.get(reservation.userId());
+            if (user == null) {
+                continue;
+            }
+            Map<String, Object> data = new LinkedHashMap<>(extraData.apply(reservation));
+            data.put("spaceName", spaces.get(reservation.spaceId()).map(SpaceDto::getName).orElse(""));
+            data.put("startsAt", reservation.startsAt());
+            data.put("endsAt", reservation.endsAt());
+            events.add(NotificationEvent.builder()
+                .type(type)
+                .reservationId(reservation.reservationId())
+                .userId(user.getUserId())
+                .email(user.getEmail())
+                .data(data)
+                .occurredAt(now)
+                .build());
         }
-        
-        reservationRepository.saveAll(expiredPendingReservations);
-        
-        log.info("Auto-cancelación manual completada: {} reservas canceladas", cancelledCount);
-        return cancelledCount;
+        notificationSender.sendBatch(events);
+    }
+
+    private static String reasonWithStartTime(String reason, ReservationView reservation) {
+        return reason + " (" + reservation.startsAt()
+                .atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE)
+                .format(DATE_FORMATTER) + ")";
+    }
+
+    private record ChunkResult(int read, int updated) {
     }
 }
@@ -0,0 +1,24 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+
+/**
+ * Cambio en el ciclo de vida de una reserva: {@code before} es null al crearla y {@code after} es
+ * null al eliminarla. Se publica dentro de la transacción; los consumidores lo reciben con
+ * {@code @TransactionalEventListener}, solo si la transacción confirma.
+ */
+public record ReservationChangedEvent(ReservationView before, ReservationView after) {
+
+    public static ReservationChangedEvent created(Reservation reservation) {
+        return new ReservationChangedEvent(null, ReservationView.of(reservation));
+    }
+
+    public static ReservationChangedEvent changed(ReservationView before, Reservation after) {
+        return new ReservationChangedEvent(before, ReservationView.of(after));
+    }
+
+    public static ReservationChangedEvent deleted(ReservationView before) {
+        return new ReservationChangedEvent(before, null);
+    }
+}
@@ -0,0 +1,57 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Posición de paginación por llave (keyset) sobre {@code (starts_at, reservation_id)}.
+ *
+ * Se expone al cliente como un texto opaco en Base64 URL-safe. Los cursores iniciales usan
+ * valores centinela para que la primera página use la misma consulta que las siguientes.
+ */
+record ReservationCursor(OffsetDateTime startsAt, UUID reservationId) {
+
+    static final OffsetDateTime EARLIEST = OffsetDateTime.of(1900, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    static final OffsetDateTime LATEST = OffsetDateTime.of(9999, 12, 31, 23, 59, 59, 0, ZoneOffset.UTC);
+
+    // Mayor que cualquier reserva real, para recorridos descendentes
+    static final ReservationCursor FIRST_DESCENDING = new ReservationCursor(LATEST, new UUID(-1L, -1L));
+
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+
+    // Menor que cualquier reserva que empiece en o después de {@code startsAt}, para recorridos ascendentes
+    static ReservationCursor firstAscending(OffsetDateTime startsAt) {
+        return new ReservationCursor(startsAt, MIN_UUID);
+    }
+
+    static ReservationCursor of(ReservationView reservation) {
+        return new ReservationCursor(reservation.startsAt(), reservation.reservationId());
+    }
+
+    static ReservationCursor decode(String cursor, ReservationCursor whenAbsent) {
+        if (cursor == null || cursor.isBlank()) {
+            return whenAbsent;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf('|');
+            return new ReservationCursor(
+                    OffsetDateTime.parse(decoded.substring(0, separator)),
+                    UUID.fromString(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+            throw new BusinessException("Cursor de paginación inválido");
+        }
+    }
+
+    String encode() {
+        String raw = startsAt.toString() + "|" + reservationId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
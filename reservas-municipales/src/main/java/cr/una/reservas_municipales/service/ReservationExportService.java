@@ -1,5 +1,10 @@
 package cr.una.reservas_municipales.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import cr.una.reservas_municipales.dto.ReservationDto;
 import cr.una.reservas_municipales.dto.ReservationWithSpaceDto;
 import cr.una.reservas_municipales.dto.ReservationSummaryDto;
 import lombok.RequiredArgsConstructor;
@@ -10,8 +15,11 @@ import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.format.DateTimeFormatter;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 @RequiredArgsConstructor
@@ -20,6 +28,35 @@ public class ReservationExportService {
 
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
     private static final DateTimeFormatter DATE_ONLY_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final int NDJSON_FLUSH_EVERY = 500;
+    
+    private static final ObjectMapper NDJSON_MAPPER = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    /**
+     * Escribe cada reserva recibida como una línea JSON (NDJSON), vaciando el buffer periódicamente
+     * para que el cliente reciba datos mientras el recorrido avanza.
+     */
+    public Consumer<ReservationDto> ndjsonWriter(OutputStream outputStream) {
+        return new Consumer<>() {
+            private int written;
+
+            @Override
+            public void accept(ReservationDto reservation) {
+                try {
+                    outputStream.write(NDJSON_MAPPER.writeValueAsBytes(reservation));
+                    outputStream.write('\n');
+                    if (++written % NDJSON_FLUSH_EVERY == 0) {
+                        outputStream.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+    }
 
     public byte[] generateReservationsExcel(List<ReservationWithSpaceDto> reservations, 
                                            ReservationSummaryDto summary) throws IOException {
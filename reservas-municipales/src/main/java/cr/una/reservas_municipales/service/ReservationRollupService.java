@@ -0,0 +1,267 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.ReservationDailyStat;
+import cr.una.reservas_municipales.model.ReservationDailyStatId;
+import cr.una.reservas_municipales.repository.ReservationDailyStatRepository;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Mantiene reservation_daily_stats: un rollup por día de inicio (hora de Costa Rica), espacio y estado.
+ *
+ * Cada día se recalcula completo desde reservation (borrar e insertar en una transacción), así que
+ * recalcular de más nunca deja datos incorrectos. Qué días recalcular sale de tres fuentes:
+ * 1. Los {@link ReservationChangedEvent} confirmados (incluye eliminaciones)
+ * 2. Las reservas con updated_at posterior a la última pasada (UPDATE masivos, cambios externos)
+ * 3. Una reparación nocturna de una ventana alrededor de hoy, para ediciones tardías que las
+ *    anteriores no vieron (p. ej. el día anterior de una serie reprogramada)
+ * Si la tabla está vacía al arrancar, se reconstruye por tramos desde la primera reserva.
+ */
+@Slf4j
+@Service
+public class ReservationRollupService {
+
+    private final ReservationRepository reservationRepository;
+    private final ReservationDailyStatRepository statRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int chunkDays;
+    private final int repairDaysBack;
+    private final int repairDaysAhead;
+    private final Duration overlap;
+
+    private final Set<LocalDate> dirtyDays = ConcurrentHashMap.newKeySet();
+
+    // Inicio de la última pasada incremental; null hasta inicializar
+    private volatile OffsetDateTime watermark;
+
+    public ReservationRollupService(ReservationRepository reservationRepository,
+                                    ReservationDailyStatRepository statRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${app.analytics.rollup.enabled:true}") boolean enabled,
+                                    @Value("${app.analytics.rollup.chunk-days:31}") int chunkDays,
+                                    @Value("${app.analytics.rollup.repair-days-back:35}") int repairDaysBack,
+                                    @Value("${app.analytics.rollup.repair-days-ahead:90}") int repairDaysAhead,
+                                    @Value("${app.analytics.rollup.overlap-seconds:300}") long overlapSeconds) {
+        this.reservationRepository = reservationRepository;
+        this.statRepository = statRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.chunkDays = Math.max(1, chunkDays);
+        this.repairDaysBack = Math.max(0, repairDaysBack);
+        this.repairDaysAhead = Math.max(0, repairDaysAhead);
+        this.overlap = Duration.ofSeconds(Math.max(0, overlapSeconds));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        if (!enabled) {
+            log.info("Rollups diarios deshabilitados");
+            return;
+        }
+        try {
+            OffsetDateTime lastRefresh = statRepository.findLastRefresh();
+            if (lastRefresh == null) {
+                rebuildAll();
+            } else {
+                // La siguiente pasada incremental recoge lo cambiado mientras la aplicación no corría
+                watermark = lastRefresh;
+            }
+        } catch (Exception e) {
+            log.error("Error al inicializar los rollups diarios: {}", e.getMessage(), e);
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onReservationChanged(ReservationChangedEvent event) {
+        if (event.before() != null && event.before().startsAt() != null) {
+            dirtyDays.add(day(event.before().startsAt()));
+        }
+        if (event.after() != null && event.after().startsAt() != null) {
+            dirtyDays.add(day(event.after().startsAt()));
+        }
+    }
+
+    /**
+     * Job programado: recalcula los días tocados desde la pasada anterior.
+     */
+    @Scheduled(cron = "${app.analytics.rollup.cron:0 */5 * * * *}")
+    public void refreshIncremental() {
+        if (!enabled || watermark == null) {
+            return;
+        }
+        OffsetDateTime startedAt = OffsetDateTime.now();
+        Set<LocalDate> days = new TreeSet<>();
+        drainDirtyDays(days);
+        // El solape cubre transacciones que escribieron updated_at antes de la pasada anterior
+        // pero confirmaron después
+        for (OffsetDateTime startsAt : reservationRepository.findStartsAtUpdatedSince(watermark.minus(overlap))) {
+            days.add(day(startsAt));
+        }
+        if (days.isEmpty()) {
+            watermark = startedAt;
+            return;
+        }
+        try {
+            int rows = recomputeDays(days);
+            watermark = startedAt;
+            log.debug("Rollups diarios actualizados: {} días, {} filas", days.size(), rows);
+        } catch (Exception e) {
+            // Se reintentan en la siguiente pasada
+            dirtyDays.addAll(days);
+            log.error("Error al actualizar rollups diarios: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Job nocturno: recalcula una ventana alrededor de hoy para corregir ediciones tardías.
+     */
+    @Scheduled(cron = "${app.analytics.rollup.repair-cron:0 45 3 * * *}")
+    public void repairRecent() {
+        if (!enabled) {
+            return;
+        }
+        LocalDate today = LocalDate.now(ReservationRules.COSTA_RICA_ZONE);
+        try {
+            int rows = recomputeRange(today.minusDays(repairDaysBack), today.plusDays(repairDaysAhead));
+            log.info("Reparación de rollups diarios completada: {} filas", rows);
+        } catch (Exception e) {
+            log.error("Error en la reparación de rollups diarios: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reconstruye todos los rollups desde la primera hasta la última reserva, por tramos.
+     * @return Cantidad de filas de rollup escritas
+     */
+    public int rebuildAll() {
+        OffsetDateTime startedAt = OffsetDateTime.now();
+        OffsetDateTime first = reservationRepository.findFirstStartsAt();
+        OffsetDateTime last = reservationRepository.findLastStartsAt();
+        int rows = 0;
+        if (first != null && last != null) {
+            rows = recomputeRange(day(first), day(last));
+        }
+        watermark = startedAt;
+        log.info("Rollups diarios reconstruidos: {} filas", rows);
+        return rows;
+    }
+
+    /**
+     * Recalcula un conjunto de días agrupándolos en tramos consecutivos.
+     * @return Cantidad de filas de rollup escritas
+     */
+    public int recomputeDays(Collection<LocalDate> days) {
+        TreeSet<LocalDate> sorted = new TreeSet<>(days);
+        int rows = 0;
+        LocalDate runStart = null;
+        LocalDate runEnd = null;
+        for (LocalDate day : sorted) {
+            if (runStart != null && day.equals(runEnd.plusDays(1))) {
+                runEnd = day;
+                continue;
+            }
+            if (runStart != null) {
+                rows += recomputeRange(runStart, runEnd);
+            }
+            runStart = day;
+            runEnd = day;
+        }
+        if (runStart != null) {
+            rows += recomputeRange(runStart, runEnd);
+        }
+        return rows;
+    }
+
+    /**
+     * Recalcula los días de {@code from} a {@code to} (inclusive), una transacción por tramo.
+     * @return Cantidad de filas de rollup escritas
+     */
+    public int recomputeRange(LocalDate from, LocalDate to) {
+        int rows = 0;
+        for (LocalDate chunkStart = from; !chunkStart.isAfter(to); chunkStart = chunkStart.plusDays(chunkDays)) {
+            LocalDate chunkEnd = chunkStart.plusDays(chunkDays - 1L);
+            LocalDate end = chunkEnd.isAfter(to) ? to : chunkEnd;
+            LocalDate start = chunkStart;
+            Integer written = transactionTemplate.execute(status -> recomputeChunk(start, end));
+            rows += written == null ? 0 : written;
+        }
+        return rows;
+    }
+
+    private int recomputeChunk(LocalDate from, LocalDate to) {
+        OffsetDateTime now = OffsetDateTime.now();
+        statRepository.deleteDays(from, to);
+        List<ReservationView> reservations = reservationRepository.findViewsStartingBetween(
+                startOf(from), startOf(to.plusDays(1)));
+        Map<ReservationDailyStatId, ReservationDailyStat> stats = new HashMap<>();
+        for (ReservationView reservation : reservations) {
+            if (reservation.spaceId() == null || reservation.status() == null) {
+                continue;
+            }
+            ReservationDailyStatId id = new ReservationDailyStatId(
+                    day(reservation.startsAt()), reservation.spaceId(), reservation.status());
+            ReservationDailyStat stat = stats.computeIfAbsent(id, key -> newStat(key, now));
+            stat.setReservationCount(stat.getReservationCount() + 1);
+            stat.setTotalMinutes(stat.getTotalMinutes() + minutes(reservation));
+            stat.setRevenueCents(stat.getRevenueCents() + MetricsAggregator.toCents(reservation.totalAmount()));
+            if (Boolean.TRUE.equals(reservation.attendanceConfirmed())) {
+                stat.setAttendanceCount(stat.getAttendanceCount() + 1);
+            }
+        }
+        statRepository.saveAll(stats.values());
+        return stats.size();
+    }
+
+    private void drainDirtyDays(Set<LocalDate> into) {
+        for (LocalDate day : dirtyDays) {
+            if (dirtyDays.remove(day)) {
+                into.add(day);
+            }
+        }
+    }
+
+    private static ReservationDailyStat newStat(ReservationDailyStatId id, OffsetDateTime now) {
+        ReservationDailyStat stat = new ReservationDailyStat();
+        stat.setStatDay(id.getStatDay());
+        stat.setSpaceId(id.getSpaceId());
+        stat.setStatus(id.getStatus());
+        stat.setRefreshedAt(now);
+        return stat;
+    }
+
+    private static long minutes(ReservationView reservation) {
+        if (reservation.startsAt() == null || reservation.endsAt() == null) {
+            return 0;
+        }
+        return Math.max(0, Duration.between(reservation.startsAt(), reservation.endsAt()).toMinutes());
+    }
+
+    static LocalDate day(OffsetDateTime instant) {
+        return instant.atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE).toLocalDate();
+    }
+
+    private static OffsetDateTime startOf(LocalDate day) {
+        return day.atStartOfDay(ReservationRules.COSTA_RICA_ZONE).toOffsetDateTime();
+    }
+}
@@ -0,0 +1,67 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.SpaceSchedule;
+
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+/**
+ * Reglas de horario y solapamiento compartidas por la creación individual, en lote y por series.
+ * Los horarios se interpretan en la zona de Costa Rica (weekday: 0=domingo ... 6=sábado).
+ */
+final class ReservationRules {
+
+    static final ZoneId COSTA_RICA_ZONE = ZoneId.of("America/Costa_Rica");
+    static final String CONFLICT_MESSAGE =
+            "Ya existe una reserva confirmada o pendiente para ese espacio en el horario solicitado";
+
+    // SQLSTATE de PostgreSQL para violaciones de restricciones EXCLUDE
+    private static final String EXCLUSION_VIOLATION_SQL_STATE = "23P01";
+
+    private ReservationRules() {
+    }
+
+    /**
+     * Misma semántica inclusiva que {@code ReservationRepository.findConflictingReservations}.
+     */
+    static boolean overlaps(OffsetDateTime startsA, OffsetDateTime endsA, OffsetDateTime startsB, OffsetDateTime endsB) {
+        return !startsA.isAfter(endsB) && !endsA.isBefore(startsB);
+    }
+
+    /**
+     * Indica si el error proviene de la restricción EXCLUDE de solapamientos de la BD.
+     */
+    static boolean isExclusionViolation(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException
+                    && EXCLUSION_VIOLATION_SQL_STATE.equals(sqlException.getSQLState())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Valida el horario con los horarios del espacio ya cargados (todos los días de la semana).
+     * Un espacio sin horarios configurados acepta cualquier horario. Para validar varias reservas del
+     * mismo espacio conviene compilar una vez con {@link WeeklySchedule#compile}.
+     */
+    static void validateSchedule(List<SpaceSchedule> spaceSchedules, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        WeeklySchedule.compile(spaceSchedules).validate(startsAt, endsAt);
+    }
+
+    static String getDayName(short weekday) {
+        return switch (weekday) {
+            case 0 -> "domingo";
+            case 1 -> "lune";
+            case 2 -> "marte";
+            case 3 -> "miércole";
+            case 4 -> "jueve";
+            case 5 -> "vierne";
+            case 6 -> "sábado";
+            default -> "día desconocido";
+        };
+    }
+}
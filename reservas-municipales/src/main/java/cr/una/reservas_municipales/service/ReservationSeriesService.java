@@ -0,0 +1,484 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.RescheduleSeriesDto;
+import cr.una.reservas_municipales.dto.ReservationSeriesDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.CancellationNotAllowedException;
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.model.ReservationQr;
+import cr.una.reservas_municipales.model.ReservationSeries;
+import cr.una.reservas_municipales.notification.NotificationEvent;
+import cr.una.reservas_municipales.notification.NotificationSender;
+import cr.una.reservas_municipales.notification.NotificationType;
+import cr.una.reservas_municipales.repository.ReservationQrRepository;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.ReservationSeriesRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationSlot;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Reservas periódicas ("todos los martes de 18:00 a 20:00 por 6 meses").
+ *
+ * Todas las ocurrencias se validan juntas: los horarios y cierres del espacio se leen una vez,
+ * las reservas existentes se leen con una sola consulta por rango y se comparan en memoria,
+ * y las ocurrencias se insertan en lote. Cancelar o reprogramar la serie es un único UPDATE.
+ * Cada ocurrencia se cotiza con las tarifas vigentes de su fecha; el monto que envía el cliente
+ * solo queda si el espacio no tiene tarifas, y una ocurrencia sin tarifa rechaza la serie.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ReservationSeriesService {
+
+    private static final String ACTIVE = "ACTIVE";
+    private static final String CANCELLED = "CANCELLED";
+    private static final List<String> ACTIVE_OCCURRENCE_STATUSES = List.of("CONFIRMED", "PENDING");
+    private static final int MAX_REPORTED_DATES = 5;
+
+    private final ReservationSeriesRepository seriesRepository;
+    private final ReservationRepository reservationRepository;
+    private final ReservationQrRepository reservationQrRepository;
+    private final SpaceRepository spaceRepository;
+    private final UserRepository userRepository;
+    private final ScheduleIndex scheduleIndex;
+    private final ClosureIndex closureIndex;
+    private final QRCodeService qrCodeService;
+    private final NotificationSender notificationSender;
+    private final AvailabilityIndex availabilityIndex;
+    private final RateIndex rateIndex;
+    private final SpaceLockRegistry spaceLockRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.reservations.series.max-occurrences:200}")
+    private int maxOccurrences = 200;
+
+    @Value("${app.reservations.cancellation.min-hours-before:24}")
+    private long minHoursBeforeCancellation = 24;
+
+    @Transactional(readOnly = true)
+    public ReservationSeriesDto getSeries(UUID seriesId) {
+        log.info("Obteniendo serie de reservas: {}", seriesId);
+        return seriesRepository.findById(seriesId)
+                .map(series -> toDto(series, activeReservationIds(series)))
+                .orElse(null);
+    }
+
+    @Transactional
+    public ReservationSeriesDto createSeries(ReservationSeriesDto dto) {
+        log.info("Creando serie de reservas para espacio: {} usuario: {} regla: {}",
+                dto.getSpaceId(), dto.getUserId(), dto.getRecurrenceRule());
+
+        if (!dto.getEndsAt().isAfter(dto.getStartsAt())) {
+            throw new BusinessException("La fecha de fin debe ser posterior a la fecha de inicio");
+        }
+
+        var space = spaceRepository.findById(dto.getSpaceId())
+                .orElseThrow(() -> new BusinessException("El espacio especificado no existe"));
+        var user = userRepository.findById(dto.getUserId())
+                .orElseThrow(() -> new BusinessException("El usuario especificado no existe"));
+
+        Duration duration = Duration.between(dto.getStartsAt(), dto.getEndsAt());
+        List<OffsetDateTime> starts = RecurrenceRule.parse(dto.getRecurrenceRule())
+                .expand(dto.getStartsAt(), maxOccurrences);
+        if (starts.isEmpty()) {
+            throw new BusinessException("La regla de recurrencia no genera ninguna ocurrencia");
+        }
+        List<OffsetDateTime> ends = starts.stream().map(start -> start.plus(duration)).toList();
+
+        validateOccurrences(dto.getSpaceId(), starts, ends);
+
+        ReservationSeries series = new ReservationSeries();
+        series.setSeriesId(UUID.randomUUID());
+        series.setSpaceId(dto.getSpaceId());
+        series.setUserId(dto.getUserId());
+        series.setRecurrenceRule(dto.getRecurrenceRule().trim());
+        series.setFirstStartsAt(starts.get(0));
+        series.setFirstEndsAt(ends.get(0));
+        series.setStatus(ACTIVE);
+        series.setRateId(dto.getRateId());
+        series.setTotalAmount(dto.getTotalAmount());
+        series.setCurrency(dto.getCurrency() == null || dto.getCurrency().isEmpty() ? "CRC" : dto.getCurrency());
+        series.setCreatedAt(OffsetDateTime.now());
+        series.setUpdatedAt(series.getCreatedAt());
+
+        String occurrenceStatus = dto.getOccurrenceStatus() == null ? "PENDING" : dto.getOccurrenceStatus();
+        List<Reservation> occurrences = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            occurrences.add(buildOccurrence(series, starts.get(i), ends.get(i), occurrenceStatus));
+        }
+        // La serie muestra el precio de su primera ocurrencia
+        Reservation first = occurrences.get(0);
+        series.setRateId(first.getRateId());
+        series.setTotalAmount(first.getTotalAmount());
+        series.setCurrency(first.getCurrency());
+
+        List<Reservation> saved = spaceLockRegistry.execute(dto.getSpaceId(), () -> {
+            checkConflicts(dto.getSpaceId(), starts, ends, Set.of());
+
+            // Flush explícito: series_id es una columna simple y Hibernate no ordenaría los INSERT por la FK
+            seriesRepository.saveAndFlush(series);
+            List<Reservation> persisted = flushTranslatingConflicts(() -> reservationRepository.saveAll(occurrences));
+            persisted.forEach(availabilityIndex::track);
+            persisted.forEach(reservation -> eventPublisher.publishEvent(ReservationChangedEvent.created(reservation)));
+            return persisted;
+        });
+        log.info("Serie {} creada con {} ocurrencias", series.getSeriesId(), saved.size());
+        storeQrCodes(saved);
+
+        notificationSender.send(NotificationEvent.builder()
+            .type(NotificationType.RESERVATION_CREATED)
+            .reservationId(saved.get(0).getReservationId())
+            .userId(user.getUserId())
+            .email(user.getEmail())
+            .data(Map.of(
+                "spaceName", space.getName(),
+                "startsAt",  series.getFirstStartsAt(),
+                "endsAt",    series.getFirstEndsAt()
+            ))
+            .occurredAt(OffsetDateTime.now())
+            .build());
+
+        return toDto(series, saved.stream().map(Reservation::getReservationId).toList());
+    }
+
+    /**
+     * Cancela con un único UPDATE las ocurrencias futuras de la serie. Solo un ADMIN puede
+     * cancelar ocurrencias que inician dentro del plazo mínimo de cancelación; si quedan de esas,
+     * la serie sigue ACTIVE y solo pasa a CANCELLED cuando ya no tiene ocurrencias activas.
+     *
+     * @return cantidad de ocurrencias canceladas, o -1 si la serie no existe
+     */
+    @Transactional
+    public int cancelSeries(UUID seriesId, String cancelReason, String currentUserRole) {
+        log.info("Cancelando serie {} por usuario con rol: {}", seriesId, currentUserRole);
+
+        ReservationSeries series = seriesRepository.findById(seriesId).orElse(null);
+        if (series == null) {
+            return -1;
+        }
+        if (CANCELLED.equals(series.getStatus())) {
+            throw new CancellationNotAllowedException("Esta serie ya se encuentra cancelada.");
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        OffsetDateTime from = "ADMIN".equals(currentUserRole) ? now : now.plusHours(minHoursBeforeCancellation);
+        List<ReservationView> occurrences = reservationRepository.findActiveViewsBySeries(seriesId, from);
+
+        int cancelled = reservationRepository.cancelSeriesFrom(seriesId, from, cancelReason, now);
+        for (ReservationView occurrence : occurrences) {
+            availabilityIndex.untrack(occurrence.reservationId());
+            eventPublisher.publishEvent(new ReservationChangedEvent(occurrence, occurrence.cancelled(cancelReason, now)));
+        }
+
+        // Las ocurrencias dentro del plazo mínimo siguen activas y la serie con ellas
+        boolean remaining = from.isAfter(now) && reservationRepository
+                .existsBySeriesIdAndStatusInAndStartsAtGreaterThanEqual(seriesId, ACTIVE_OCCURRENCE_STATUSES, now);
+        if (remaining) {
+            log.info("Serie {}: {} ocurrencias canceladas desde {}, sigue activa con ocurrencias dentro del plazo",
+                    seriesId, cancelled, from);
+        } else {
+            series.setStatus(CANCELLED);
+            series.setUpdatedAt(now);
+            seriesRepository.save(series);
+            log.info("Serie {} cancelada: {} ocurrencias desde {}", seriesId, cancelled, from);
+        }
+
+        if (!occurrences.isEmpty()) {
+            var user  = userRepository.findById(series.getUserId()).orElse(null);
+            var space = spaceRepository.findById(series.getSpaceId()).orElse(null);
+            if (user != null && space != null) {
+                notificationSender.send(NotificationEvent.builder()
+                    .type(NotificationType.RESERVATION_CANCELLED)
+                    .reservationId(occurrences.get(0).reservationId())
+                    .userId(user.getUserId())
+                    .email(user.getEmail())
+                    .data(Map.of(
+                        "reason",    cancelReason == null ? "(sin motivo)" : cancelReason,
+                        "spaceName", space.getName(),
+                        "startsAt",  occurrences.get(0).startsAt(),
+                        "endsAt",    occurrences.get(0).endsAt()
+                    ))
+                    .occurredAt(now)
+                    .build());
+            }
+        }
+
+        return cancelled;
+    }
+
+    /**
+     * Mueve las ocurrencias futuras de la serie al nuevo horario con un único UPDATE,
+     * después de validar el nuevo horario contra horarios, cierres y otras reservas.
+     * Las ocurrencias movidas se recotizan; solo las que cambian de precio se actualizan, en lote.
+     * Como el UPDATE no pasa por las entidades, se publica un {@link ReservationChangedEvent} por ocurrencia.
+     */
+    @Transactional
+    public ReservationSeriesDto rescheduleSeries(UUID seriesId, RescheduleSeriesDto dto) {
+        log.info("Reprogramando serie {} a {} - {}", seriesId, dto.getStartTime(), dto.getEndTime());
+
+        ReservationSeries series = seriesRepository.findById(seriesId).orElse(null);
+        if (series == null) {
+            return null;
+        }
+        if (!ACTIVE.equals(series.getStatus())) {
+            throw new BusinessException("Solo se pueden reprogramar series activas");
+        }
+        if (!dto.getEndTime().isAfter(dto.getStartTime())) {
+            throw new BusinessException("La hora de fin debe ser posterior a la hora de inicio");
+        }
+
+        OffsetDateTime now = OffsetDateTime.now();
+        List<ReservationView> occurrences = reservationRepository.findActiveViewsBySeries(seriesId, now);
+        if (occurrences.isEmpty()) {
+            throw new BusinessException("La serie no tiene ocurrencias futuras para reprogramar");
+        }
+
+        LocalTime currentStart = series.getFirstStartsAt().atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE).toLocalTime();
+        LocalTime currentEnd = series.getFirstEndsAt().atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE).toLocalTime();
+        long startShift = Duration.between(currentStart, dto.getStartTime()).getSeconds();
+        long endShift = Duration.between(currentEnd, dto.getEndTime()).getSeconds();
+
+        List<OffsetDateTime> starts = occurrences.stream().map(view -> view.startsAt().plusSeconds(startShift)).toList();
+        List<OffsetDateTime> ends = occurrences.stream().map(view -> view.endsAt().plusSeconds(endShift)).toList();
+        Set<UUID> ownIds = occurrences.stream().map(ReservationView::reservationId).collect(Collectors.toSet());
+
+        validateOccurrences(series.getSpaceId(), starts, ends);
+
+        Map<UUID, RateTimeline.Quote> repriced = new HashMap<>();
+        for (int i = 0; i < occurrences.size(); i++) {
+            ReservationView occurrence = occurrences.get(i);
+            priceOccurrence(series.getSpaceId(), starts.get(i), ends.get(i))
+                    .filter(quote -> !samePrice(occurrence, quote))
+                    .ifPresent(quote -> repriced.put(occurrence.reservationId(), quote));
+        }
+
+        int moved = spaceLockRegistry.execute(series.getSpaceId(), () -> {
+            checkConflicts(series.getSpaceId(), starts, ends, ownIds);
+            return flushTranslatingConflicts(() ->
+                    reservationRepository.shiftSeriesFrom(seriesId, now, startShift, endShift, now));
+        });
+        if (!repriced.isEmpty()) {
+            // Se leen después del UPDATE para no pisar el horario nuevo; el flush agrupa los UPDATE
+            List<Reservation> toReprice = reservationRepository.findAllById(repriced.keySet());
+            for (Reservation reservation : toReprice) {
+                RateTimeline.Quote quote = repriced.get(reservation.getReservationId());
+                reservation.setRateId(quote.rateId());
+                reservation.setTotalAmount(quote.amount());
+                reservation.setCurrency(quote.currency());
+                reservation.setUpdatedAt(now);
+            }
+            reservationRepository.saveAll(toReprice);
+        }
+        for (int i = 0; i < occurrences.size(); i++) {
+            ReservationView before = occurrences.get(i);
+            ReservationView after = before.rescheduled(starts.get(i), ends.get(i), now);
+            RateTimeline.Quote quote = repriced.get(before.reservationId());
+            if (quote != null) {
+                after = after.repriced(quote.rateId(), quote.amount(), quote.currency());
+            }
+            availabilityIndex.track(before.reservationId(), series.getSpaceId(), starts.get(i), ends.get(i));
+            eventPublisher.publishEvent(new ReservationChangedEvent(before, after));
+        }
+
+        series.setFirstStartsAt(series.getFirstStartsAt().plusSeconds(startShift));
+        series.setFirstEndsAt(series.getFirstEndsAt().plusSeconds(endShift));
+        // La serie pasa a mostrar el precio de la próxima ocurrencia si cambió
+        RateTimeline.Quote firstQuote = repriced.get(occurrences.get(0).reservationId());
+        if (firstQuote != null) {
+            series.setRateId(firstQuote.rateId());
+            series.setTotalAmount(firstQuote.amount());
+            series.setCurrency(firstQuote.currency());
+        }
+        series.setUpdatedAt(now);
+        seriesRepository.save(series);
+        log.info("Serie {} reprogramada: {} ocurrencias movidas", seriesId, moved);
+
+        return toDto(series, activeReservationIds(series));
+    }
+
+    /**
+     * Horarios y cierres del espacio para todas las ocurrencias, desde ScheduleIndex y ClosureIndex.
+     */
+    private void validateOccurrences(UUID spaceId, List<OffsetDateTime> starts, List<OffsetDateTime> ends) {
+        WeeklySchedule schedule = scheduleIndex.get(spaceId);
+        for (int i = 0; i < starts.size(); i++) {
+            try {
+                schedule.validate(starts.get(i), ends.get(i));
+            } catch (BusinessException e) {
+                throw new BusinessException(String.format("Ocurrencia del %s: %s",
+                        starts.get(i).toLocalDate(), e.getMessage()));
+            }
+        }
+
+        List<OffsetDateTime> closed = new ArrayList<>();
+        for (int i = 0; i < starts.size(); i++) {
+            if (closureIndex.findOverlap(spaceId, starts.get(i), ends.get(i)).isPresent()) {
+                closed.add(starts.get(i));
+            }
+        }
+        if (!closed.isEmpty()) {
+            throw new BusinessException("El espacio está cerrado en las fechas: " + describe(closed));
+        }
+    }
+
+    /**
+     * Una sola consulta por rango para todas las ocurrencias; la comparación se hace sobre la
+     * línea de tiempo ordenada (búsqueda binaria por ocurrencia).
+     */
+    private void checkConflicts(UUID spaceId, List<OffsetDateTime> starts, List<OffsetDateTime> ends, Set<UUID> ownIds) {
+        List<ReservationSlot> existing = reservationRepository
+                .findActiveSlotsInRange(spaceId, starts.get(0), ends.get(ends.size() - 1)).stream()
+                .filter(slot -> !ownIds.contains(slot.getReservationId()))
+                .toList();
+        if (existing.isEmpty()) {
+            return;
+        }
+
+        AvailabilityIndex.SpaceTimeline timeline = AvailabilityIndex.SpaceTimeline.of(existing);
+        List<OffsetDateTime> conflicts = new ArrayList<>();
+        for (int i = 0; i < starts.size(); i++) {
+            if (timeline.overlaps(starts.get(i).toEpochSecond(), ends.get(i).toEpochSecond(), null)) {
+                conflicts.add(starts.get(i));
+            }
+        }
+        if (!conflicts.isEmpty()) {
+            throw new BusinessException(ReservationRules.CONFLICT_MESSAGE + ": " + describe(conflicts));
+        }
+    }
+
+    private Reservation buildOccurrence(ReservationSeries series, OffsetDateTime startsAt, OffsetDateTime endsAt,
+                                        String status) {
+        Reservation reservation = new Reservation();
+        reservation.setReservationId(UUID.randomUUID());
+        reservation.setSeriesId(series.getSeriesId());
+        reservation.setSpaceId(series.getSpaceId());
+        reservation.setUserId(series.getUserId());
+        reservation.setStartsAt(startsAt);
+        reservation.setEndsAt(endsAt);
+        reservation.setStatus(status);
+        reservation.setRateId(series.getRateId());
+        reservation.setTotalAmount(series.getTotalAmount());
+        reservation.setCurrency(series.getCurrency());
+        priceOccurrence(series.getSpaceId(), startsAt, endsAt).ifPresent(quote -> {
+            reservation.setRateId(quote.rateId());
+            reservation.setTotalAmount(quote.amount());
+            reservation.setCurrency(quote.currency());
+        });
+        reservation.setCreatedAt(series.getCreatedAt());
+        reservation.setUpdatedAt(series.getCreatedAt());
+        reservation.setAttendanceConfirmed(false);
+
+        try {
+            reservation.setQrValidationToken(qrCodeService.generateValidationToken(reservation.getReservationId()));
+        } catch (Exception e) {
+            log.error("Error generating validation token for reservation: {}", reservation.getReservationId(), e);
+        }
+        return reservation;
+    }
+
+    private Optional<RateTimeline.Quote> priceOccurrence(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        try {
+            return rateIndex.price(spaceId, startsAt, endsAt);
+        } catch (BusinessException e) {
+            throw new BusinessException(String.format("Ocurrencia del %s: %s",
+                    startsAt.atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE).toLocalDate(), e.getMessage()));
+        }
+    }
+
+    private static boolean samePrice(ReservationView occurrence, RateTimeline.Quote quote) {
+        return Objects.equals(occurrence.rateId(), quote.rateId())
+                && occurrence.totalAmount() != null && occurrence.totalAmount().compareTo(quote.amount()) == 0
+                && Objects.equals(occurrence.currency(), quote.currency());
+    }
+
+    // Las imágenes QR van a reservation_qr en un solo saveAll; un fallo no invalida la ocurrencia
+    private void storeQrCodes(List<Reservation> occurrences) {
+        List<ReservationQr> codes = new ArrayList<>(occurrences.size());
+        for (Reservation occurrence : occurrences) {
+            try {
+                String qrCode = qrCodeService.generateQRCode(
+                    occurrence.getReservationId(), occurrence.getUserId(), occurrence.getSpaceId());
+                if (qrCode != null) {
+                    codes.add(new ReservationQr(occurrence.getReservationId(), qrCode));
+                }
+            } catch (Exception e) {
+                log.error("Error generating QR code for reservation: {}", occurrence.getReservationId(), e);
+            }
+        }
+        if (!codes.isEmpty()) {
+            reservationQrRepository.saveAll(codes);
+        }
+    }
+
+    private <T> T flushTranslatingConflicts(Supplier<T> write) {
+        try {
+            T result = write.get();
+            reservationRepository.flush();
+            return result;
+        } catch (DataIntegrityViolationException e) {
+            if (ReservationRules.isExclusionViolation(e)) {
+                log.warn("La BD rechazó un solapamiento de la serie: {}", e.getMostSpecificCause().getMessage());
+                throw new BusinessException(ReservationRules.CONFLICT_MESSAGE, e);
+            }
+            throw e;
+        }
+    }
+
+    private List<UUID> activeReservationIds(ReservationSeries series) {
+        return reservationRepository.findActiveSlotsBySeries(series.getSeriesId(), series.getFirstStartsAt()).stream()
+                .map(ReservationSlot::getReservationId)
+                .toList();
+    }
+
+    private String describe(List<OffsetDateTime> dates) {
+        String shown = dates.stream()
+                .limit(MAX_REPORTED_DATES)
+                .map(date -> date.atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE).toLocalDate().toString())
+                .collect(Collectors.joining(", "));
+        return dates.size() > MAX_REPORTED_DATES
+                ? shown + String.format(" y %d más", dates.size() - MAX_REPORTED_DATES)
+                : shown;
+    }
+
+    private ReservationSeriesDto toDto(ReservationSeries series, List<UUID> activeReservationIds) {
+        ReservationSeriesDto dto = new ReservationSeriesDto();
+        dto.setSeriesId(series.getSeriesId());
+        dto.setSpaceId(series.getSpaceId());
+        dto.setUserId(series.getUserId());
+        dto.setStartsAt(series.getFirstStartsAt());
+        dto.setEndsAt(series.getFirstEndsAt());
+        dto.setRecurrenceRule(series.getRecurrenceRule());
+        dto.setRateId(series.getRateId());
+        dto.setTotalAmount(series.getTotalAmount());
+        dto.setCurrency(series.getCurrency());
+        dto.setStatus(series.getStatus());
+        dto.setOccurrenceCount(activeReservationIds.size());
+        dto.setReservationIds(activeReservationIds);
+        dto.setCreatedAt(series.getCreatedAt());
+        dto.setUpdatedAt(series.getUpdatedAt());
+        return dto;
+    }
+}
@@ -1,5 +1,9 @@
 package cr.una.reservas_municipales.service;
 
+import cr.una.reservas_municipales.dto.BatchReservationItemResultDto;
+import cr.una.reservas_municipales.dto.BatchReservationRequestDto;
+import cr.una.reservas_municipales.dto.BatchReservationResultDto;
+import cr.una.reservas_municipales.dto.CursorPageDto;
 import cr.una.reservas_municipales.dto.ReservationDto;
 import cr.una.reservas_municipales.dto.ReservationSummaryDto;
 import cr.una.reservas_municipales.dto.ReservationWithSpaceDto;
@@ -7,29 +11,45 @@ import cr.una.reservas_municipales.dto.QRValidationDto;
 import cr.una.reservas_municipales.exception.BusinessException;
 import cr.una.reservas_municipales.exception.CancellationNotAllowedException;
 import cr.una.reservas_municipales.model.Reservation;
-import cr.una.reservas_municipales.model.SpaceSchedule;
+import cr.una.reservas_municipales.model.ReservationQr;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.SpaceClosure;
 import cr.una.reservas_municipales.model.User;
+import cr.una.reservas_municipales.repository.ReservationQrRepository;
 import cr.una.reservas_municipales.repository.ReservationRepository;
 import cr.una.reservas_municipales.repository.SpaceRepository;
-import cr.una.reservas_municipales.repository.SpaceScheduleRepository;
 import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationSlot;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
 import cr.una.reservas_municipales.notification.*;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.time.DayOfWeek;
-import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -39,55 +59,73 @@ public class ReservationService {
     private final ReservationRepository reservationRepository;
     private final SpaceRepository spaceRepository;
     private final UserRepository userRepository;
-    private final SpaceScheduleRepository spaceScheduleRepository;
+    private final ScheduleIndex scheduleIndex;
+    private final ClosureIndex closureIndex;
     private final QRCodeService qrCodeService;
     private final NotificationSender notificationSender;
+    private final AvailabilityIndex availabilityIndex;
+    private final SpaceLockRegistry spaceLockRegistry;
+    private final ReservationQrRepository reservationQrRepository;
+    private final RateIndex rateIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    
+    private static final String BEST_EFFORT = "BEST_EFFORT";
     
     @Value("${app.reservations.cancellation.min-hours-before:24}")
     private long minHoursBeforeCancellation;
     
+    @Value("${app.reservations.page.default-size:100}")
+    private int defaultPageSize = 100;
+    
+    @Value("${app.reservations.page.max-size:500}")
+    private int maxPageSize = 500;
+    
     @Transactional(readOnly = true)
-    public List<ReservationDto> getAllReservations() {
-        log.info("Obteniendo todas las reservas");
-        return reservationRepository.findAll()
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPageDto<ReservationDto> getAllReservations(String cursor, Integer limit) {
+        log.info("Obteniendo página de reservas");
+        ReservationCursor after = ReservationCursor.decode(cursor, ReservationCursor.FIRST_DESCENDING);
+        int size = pageSize(limit);
+        return toPage(reservationRepository.findPageBefore(
+                after.startsAt(), after.reservationId(), PageRequest.ofSize(size + 1)), size);
     }
     
     @Transactional(readOnly = true)
     public ReservationDto getReservationById(UUID id) {
         log.info("Obteniendo reserva con ID: {}", id);
         return reservationRepository.findById(id)
-                .map(this::convertToDto)
+                .map(reservation -> {
+                    ReservationDto dto = convertToDto(reservation);
+                    reservationQrRepository.findById(id).ifPresent(qr -> dto.setQrCode(qr.getQrCode()));
+                    return dto;
+                })
                 .orElse(null);
     }
     
     @Transactional(readOnly = true)
     public List<ReservationDto> getReservationsByUser(UUID userId) {
         log.info("Obteniendo reservas del usuario: {}", userId);
-        return reservationRepository.findByUserIdOrderByStartsAtDesc(userId)
+        return reservationRepository.findViewsByUserId(userId)
                 .stream()
                 .map(this::convertToDto)
                 .collect(Collectors.toList());
     }
     
     @Transactional(readOnly = true)
-    public List<ReservationDto> getReservationsBySpace(UUID spaceId) {
-        log.info("Obteniendo reservas del espacio: {}", spaceId);
-        return reservationRepository.findBySpaceIdOrderByStartsAtDesc(spaceId)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPageDto<ReservationDto> getReservationsBySpace(UUID spaceId, String cursor, Integer limit) {
+        log.info("Obteniendo página de reservas del espacio: {}", spaceId);
+        ReservationCursor after = ReservationCursor.decode(cursor, ReservationCursor.FIRST_DESCENDING);
+        int size = pageSize(limit);
+        return toPage(reservationRepository.findPageBySpaceBefore(
+                spaceId, after.startsAt(), after.reservationId(), PageRequest.ofSize(size + 1)), size);
     }
     
     @Transactional(readOnly = true)
-    public List<ReservationDto> getReservationsByStatus(String status) {
-        log.info("Obteniendo reservas con estado: {}", status);
-        return reservationRepository.findByStatusOrderByStartsAtDesc(status)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPageDto<ReservationDto> getReservationsByStatus(String status, String cursor, Integer limit) {
+        log.info("Obteniendo página de reservas con estado: {}", status);
+        ReservationCursor after = ReservationCursor.decode(cursor, ReservationCursor.FIRST_DESCENDING);
+        int size = pageSize(limit);
+        return toPage(reservationRepository.findPageByStatusBefore(
+                status, after.startsAt(), after.reservationId(), PageRequest.ofSize(size + 1)), size);
     }
     
     @Transactional
@@ -108,50 +146,24 @@ public class ReservationService {
             throw new BusinessException("La fecha de fin debe ser posterior a la fecha de inicio");
         }
         
-        List<Reservation> conflicts = reservationRepository.findConflictingReservations(
-                reservationDto.getSpaceId(),
-                reservationDto.getStartsAt(),
-                reservationDto.getEndsAt()
-        );
-        
-        if (!conflicts.isEmpty()) {
-            throw new BusinessException("Ya existe una reserva confirmada o pendiente para ese espacio en el horario solicitado");
-        }
-        
-        validateSchedule(reservationDto.getSpaceId(), reservationDto.getStartsAt(), reservationDto.getEndsAt());
-        
-        Reservation reservation = convertToEntity(reservationDto);
-        reservation.setReservationId(UUID.randomUUID());
-        reservation.setCreatedAt(OffsetDateTime.now());
-        reservation.setUpdatedAt(OffsetDateTime.now());
-        
-        if (reservation.getStatus() == null || reservation.getStatus().isEmpty()) {
-            reservation.setStatus("PENDING");
-        }
-        
-        if (reservation.getCurrency() == null || reservation.getCurrency().isEmpty()) {
-            reservation.setCurrency("CRC");
-        }
-        
-        try {
-            String qrCode = qrCodeService.generateQRCode(
-                reservation.getReservationId(),
-                reservation.getUserId(),
-                reservation.getSpaceId()
-            );
-            String validationToken = qrCodeService.generateValidationToken(reservation.getReservationId());
+        // Verificar conflicto e insertar bajo el candado del espacio; se libera al terminar la transacción
+        Reservation saved = spaceLockRegistry.execute(reservationDto.getSpaceId(), () -> {
+            if (hasConflict(reservationDto.getSpaceId(), reservationDto.getStartsAt(), reservationDto.getEndsAt(), null)) {
+                throw new BusinessException(ReservationRules.CONFLICT_MESSAGE);
+            }
             
-            reservation.setQrCode(qrCode);
-            reservation.setQrValidationToken(validationToken);
-            reservation.setAttendanceConfirmed(false);
+            validateSchedule(reservationDto.getSpaceId(), reservationDto.getStartsAt(), reservationDto.getEndsAt());
+            closureIndex.validate(reservationDto.getSpaceId(), reservationDto.getStartsAt(), reservationDto.getEndsAt());
             
-            log.info("QR code generated successfully for reservation: {}", reservation.getReservationId());
-        } catch (Exception e) {
-            log.error("Error generating QR code for reservation: {}", reservation.getReservationId(), e);
-        }
-        
-        Reservation saved = reservationRepository.save(reservation);
+            Reservation reservation = prepareNewReservation(reservationDto);
+            
+            Reservation persisted = saveAndFlush(reservation);
+            availabilityIndex.track(persisted);
+            eventPublisher.publishEvent(ReservationChangedEvent.created(persisted));
+            return persisted;
+        });
         log.info("Reserva creada exitosamente con ID: {}", saved.getReservationId());
+        Map<UUID, String> qrCodes = storeQrCodes(List.of(saved));
         
         var user  = userRepository.findById(saved.getUserId()).orElse(null);
         var space = spaceRepository.findById(saved.getSpaceId()).orElse(null);
@@ -170,7 +182,161 @@ public class ReservationService {
                 .build());
         }
         
-        return convertToDto(saved);
+        ReservationDto created = convertToDto(saved);
+        created.setQrCode(qrCodes.get(saved.getReservationId()));
+        return created;
+    }
+    
+    /**
+     * Crea varias reservas validando el lote completo en una sola pasada: existencia de espacios y
+     * usuarios y horarios se cargan una vez, se hace una consulta de conflictos por espacio que cubre
+     * todos sus intervalos, se detectan solapamientos dentro del mismo lote y los INSERT se agrupan.
+     * En modo ALL_OR_NOTHING un solo error descarta el lote completo; en BEST_EFFORT se crean las válidas.
+     */
+    @Transactional
+    public BatchReservationResultDto createReservationsBatch(BatchReservationRequestDto request) {
+        List<ReservationDto> items = request.getReservations();
+        boolean bestEffort = BEST_EFFORT.equals(request.getMode());
+        log.info("Creando lote de {} reservas (modo {})", items.size(), bestEffort ? BEST_EFFORT : "ALL_OR_NOTHING");
+        
+        Set<UUID> spaceIds = items.stream()
+                .map(ReservationDto::getSpaceId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<UUID> userIds = items.stream()
+                .map(ReservationDto::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        
+        Map<UUID, Space> spaces = spaceRepository.findAllById(spaceIds).stream()
+                .collect(Collectors.toMap(Space::getSpaceId, Function.identity()));
+        Map<UUID, User> users = userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+        Map<UUID, WeeklySchedule> schedulesBySpace = scheduleIndex.getAll(spaceIds);
+        
+        String[] errors = new String[items.size()];
+        Map<UUID, List<Integer>> candidatesBySpace = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            ReservationDto item = items.get(i);
+            try {
+                validateBatchItem(item, spaces, users);
+                schedulesBySpace.getOrDefault(item.getSpaceId(), WeeklySchedule.UNRESTRICTED)
+                        .validate(item.getStartsAt(), item.getEndsAt());
+                rateIndex.price(item.getSpaceId(), item.getStartsAt(), item.getEndsAt());
+                candidatesBySpace.computeIfAbsent(item.getSpaceId(), id -> new ArrayList<>()).add(i);
+            } catch (BusinessException e) {
+                errors[i] = e.getMessage();
+            }
+        }
+        
+        // Conflictos e INSERT bajo los candados de todos los espacios del lote
+        List<Reservation> saved = spaceLockRegistry.executeAll(candidatesBySpace.keySet(), () -> {
+            candidatesBySpace.forEach((spaceId, indexes) -> markConflicts(spaceId, indexes, items, errors));
+            
+            boolean rejected = Arrays.stream(errors).anyMatch(Objects::nonNull);
+            if (rejected && !bestEffort) {
+                return List.<Reservation>of();
+            }
+            
+            List<Reservation> toInsert = new ArrayList<>();
+            for (int i = 0; i < items.size(); i++) {
+                if (errors[i] == null) {
+                    toInsert.add(prepareNewReservation(items.get(i)));
+                }
+            }
+            List<Reservation> persisted = toInsert.isEmpty() ? List.of() : saveAllAndFlush(toInsert);
+            persisted.forEach(availabilityIndex::track);
+            persisted.forEach(reservation -> eventPublisher.publishEvent(ReservationChangedEvent.created(reservation)));
+            return persisted;
+        });
+        
+        Map<UUID, String> qrCodes = storeQrCodes(saved);
+        for (Reservation reservation : saved) {
+            User user = users.get(reservation.getUserId());
+            Space space = spaces.get(reservation.getSpaceId());
+            notificationSender.send(NotificationEvent.builder()
+                .type(NotificationType.RESERVATION_CREATED)
+                .reservationId(reservation.getReservationId())
+                .userId(user.getUserId())
+                .email(user.getEmail())
+                .data(Map.of(
+                    "spaceName", space.getName(),
+                    "startsAt",  reservation.getStartsAt(),
+                    "endsAt",    reservation.getEndsAt()
+                ))
+                .occurredAt(OffsetDateTime.now())
+                .build());
+        }
+        
+        List<BatchReservationItemResultDto> results = new ArrayList<>(items.size());
+        Iterator<Reservation> created = saved.iterator();
+        for (int i = 0; i < items.size(); i++) {
+            BatchReservationItemResultDto.BatchReservationItemResultDtoBuilder result = 
+                    BatchReservationItemResultDto.builder().index(i);
+            if (errors[i] != null) {
+                result.success(false).error(errors[i]);
+            } else if (created.hasNext()) {
+                Reservation reservation = created.next();
+                ReservationDto dto = convertToDto(reservation);
+                dto.setQrCode(qrCodes.get(reservation.getReservationId()));
+                result.success(true).reservation(dto);
+            } else {
+                result.success(false).error("No se creó: el lote fue rechazado por errores en otras reservas");
+            }
+            results.add(result.build());
+        }
+        
+        log.info("Lote procesado: {} de {} reservas creadas", saved.size(), items.size());
+        return BatchReservationResultDto.builder()
+                .mode(bestEffort ? BEST_EFFORT : "ALL_OR_NOTHING")
+                .total(items.size())
+                .created(saved.size())
+                .failed(items.size() - saved.size())
+                .items(results)
+                .build();
+    }
+    
+    private void validateBatchItem(ReservationDto item, Map<UUID, Space> spaces, Map<UUID, User> users) {
+        if (item.getSpaceId() == null || !spaces.containsKey(item.getSpaceId())) {
+            throw new BusinessException("El espacio especificado no existe");
+        }
+        if (item.getUserId() == null || !users.containsKey(item.getUserId())) {
+            throw new BusinessException("El usuario especificado no existe");
+        }
+        if (item.getStartsAt() == null || item.getEndsAt() == null
+                || !item.getEndsAt().isAfter(item.getStartsAt())) {
+            throw new BusinessException("La fecha de fin debe ser posterior a la fecha de inicio");
+        }
+    }
+    
+    /**
+     * Una sola consulta por espacio sobre el rango que cubre todos los intervalos pedidos; cada
+     * reserva se compara contra las existentes y contra las ya aceptadas del mismo lote.
+     */
+    private void markConflicts(UUID spaceId, List<Integer> indexes, List<ReservationDto> items, String[] errors) {
+        OffsetDateTime from = indexes.stream().map(i -> items.get(i).getStartsAt())
+                .min(Comparator.naturalOrder()).orElseThrow();
+        OffsetDateTime to = indexes.stream().map(i -> items.get(i).getEndsAt())
+                .max(Comparator.naturalOrder()).orElseThrow();
+        List<ReservationSlot> existing = reservationRepository.findActiveSlotsInRange(spaceId, from, to);
+        
+        List<ReservationDto> accepted = new ArrayList<>();
+        for (int index : indexes) {
+            ReservationDto item = items.get(index);
+            boolean conflict = existing.stream()
+                    .anyMatch(slot -> ReservationRules.overlaps(slot.getStartsAt(), slot.getEndsAt(), item.getStartsAt(), item.getEndsAt()));
+            Optional<SpaceClosure> closure = closureIndex.findOverlap(spaceId, item.getStartsAt(), item.getEndsAt());
+            if (closure.isPresent()) {
+                errors[index] = ClosureIndex.describe(closure.get());
+            } else if (conflict) {
+                errors[index] = ReservationRules.CONFLICT_MESSAGE;
+            } else if (accepted.stream().anyMatch(other -> 
+                    ReservationRules.overlaps(other.getStartsAt(), other.getEndsAt(), item.getStartsAt(), item.getEndsAt()))) {
+                errors[index] = "Se solapa con otra reserva del mismo lote para ese espacio";
+            } else {
+                accepted.add(item);
+            }
+        }
     }
     
     @Transactional
@@ -180,6 +346,7 @@ public class ReservationService {
         return reservationRepository.findById(id)
                 .map(existingReservation -> {
                 String oldStatus = existingReservation.getStatus();
+                ReservationView before = ReservationView.of(existingReservation);
                 if (reservationDto.getStartsAt() != null && reservationDto.getEndsAt() != null) {
                     if (reservationDto.getEndsAt().isBefore(reservationDto.getStartsAt()) || 
                         reservationDto.getEndsAt().isEqual(reservationDto.getStartsAt())) {
@@ -188,20 +355,23 @@ public class ReservationService {
                     
                     validateSchedule(existingReservation.getSpaceId(), reservationDto.getStartsAt(), reservationDto.getEndsAt());
                     
-                    List<Reservation> conflicts = reservationRepository.findConflictingReservations(
-                            existingReservation.getSpaceId(),
-                            reservationDto.getStartsAt(),
-                            reservationDto.getEndsAt()
-                    );                        conflicts = conflicts.stream()
-                                .filter(r -> !r.getReservationId().equals(id))
-                                .collect(Collectors.toList());
-                        
-                        if (!conflicts.isEmpty()) {
-                            throw new BusinessException("Ya existe una reserva confirmada o pendiente para ese espacio en el horario solicitado");
+                    // El candado queda tomado hasta terminar la transacción, cubriendo también el save
+                    spaceLockRegistry.run(existingReservation.getSpaceId(), () -> {
+                        if (hasConflict(existingReservation.getSpaceId(), reservationDto.getStartsAt(), reservationDto.getEndsAt(), id)) {
+                            throw new BusinessException(ReservationRules.CONFLICT_MESSAGE);
                         }
+                        closureIndex.validate(existingReservation.getSpaceId(), reservationDto.getStartsAt(), reservationDto.getEndsAt());
+                    });
                         
                         existingReservation.setStartsAt(reservationDto.getStartsAt());
                         existingReservation.setEndsAt(reservationDto.getEndsAt());
+                        // Con fechas nuevas se recotiza; solo un espacio sin tarifas conserva el monto anterior
+                        rateIndex.price(existingReservation.getSpaceId(), reservationDto.getStartsAt(), reservationDto.getEndsAt())
+                                .ifPresent(quote -> {
+                                    existingReservation.setRateId(quote.rateId());
+                                    existingReservation.setTotalAmount(quote.amount());
+                                    existingReservation.setCurrency(quote.currency());
+                                });
                     }
                     
                     if (reservationDto.getStatus() != null) {
@@ -210,19 +380,13 @@ public class ReservationService {
                     if (reservationDto.getCancelReason() != null) {
                         existingReservation.setCancelReason(reservationDto.getCancelReason());
                     }
-                    if (reservationDto.getTotalAmount() != null) {
-                        existingReservation.setTotalAmount(reservationDto.getTotalAmount());
-                    }
-                    if (reservationDto.getCurrency() != null) {
-                        existingReservation.setCurrency(reservationDto.getCurrency());
-                    }
-                    if (reservationDto.getRateId() != null) {
-                        existingReservation.setRateId(reservationDto.getRateId());
-                    }
+                    // El monto, la moneda y la tarifa los fija el servidor; se ignoran los que envíe el cliente
                     
                     existingReservation.setUpdatedAt(OffsetDateTime.now());
                     
-                    Reservation updated = reservationRepository.save(existingReservation);
+                    Reservation updated = saveAndFlush(existingReservation);
+                    availabilityIndex.track(updated);
+                    eventPublisher.publishEvent(ReservationChangedEvent.changed(before, updated));
                     log.info("Reserva actualizada exitosamente: {}", updated.getReservationId());
                     
                     if (reservationDto.getStatus() != null && !oldStatus.equals(reservationDto.getStatus())) {
@@ -281,11 +445,14 @@ public class ReservationService {
                         throw new CancellationNotAllowedException(errorMsg);
                     }
                     
+                    ReservationView before = ReservationView.of(reservation);
                     reservation.setStatus("CANCELLED");
                     reservation.setCancelReason(cancelReason);
                     reservation.setUpdatedAt(now);
                     
                     reservationRepository.save(reservation);
+                    availabilityIndex.track(reservation);
+                    eventPublisher.publishEvent(ReservationChangedEvent.changed(before, reservation));
                     log.info("Reserva cancelada exitosamente: {} (por {})", id, currentUserRole);
                     
                     var user  = userRepository.findById(reservation.getUserId()).orElse(null);
@@ -315,8 +482,11 @@ public class ReservationService {
     public boolean deleteReservation(UUID id) {
         log.info("Eliminando reserva con ID: {}", id);
         
-        if (reservationRepository.existsById(id)) {
+        Optional<ReservationView> existing = reservationRepository.findViewById(id);
+        if (existing.isPresent()) {
             reservationRepository.deleteById(id);
+            availabilityIndex.untrack(id);
+            eventPublisher.publishEvent(ReservationChangedEvent.deleted(existing.get()));
             log.info("Reserva eliminada exitosamente: {}", id);
             return true;
         }
@@ -324,12 +494,52 @@ public class ReservationService {
     }
     
     @Transactional(readOnly = true)
-    public List<ReservationDto> getReservationsInDateRange(OffsetDateTime startDate, OffsetDateTime endDate) {
-        log.info("Obteniendo reservas entre {} y {}", startDate, endDate);
-        return reservationRepository.findReservationsInDateRange(startDate, endDate)
-                .stream()
-                .map(this::convertToDto)
-                .collect(Collectors.toList());
+    public CursorPageDto<ReservationDto> getReservationsInDateRange(OffsetDateTime startDate, OffsetDateTime endDate,
+                                                                    String cursor, Integer limit) {
+        log.info("Obteniendo página de reservas entre {} y {}", startDate, endDate);
+        ReservationCursor after = ReservationCursor.decode(cursor, ReservationCursor.firstAscending(startDate));
+        int size = pageSize(limit);
+        return toPage(reservationRepository.findPageInDateRangeAfter(
+                startDate, endDate, after.startsAt(), after.reservationId(), PageRequest.ofSize(size + 1)), size);
+    }
+    
+    /**
+     * Recorre las reservas filtradas en orden cronológico sin materializarlas en memoria.
+     * Las filas llegan como proyecciones, así que el contexto de persistencia no crece.
+     *
+     * @return cantidad de reservas entregadas a {@code sink}
+     */
+    @Transactional(readOnly = true)
+    public long streamReservations(String status, UUID spaceId, OffsetDateTime startDate, OffsetDateTime endDate,
+                                   Consumer<ReservationDto> sink) {
+        OffsetDateTime from = startDate != null ? startDate : ReservationCursor.EARLIEST;
+        OffsetDateTime to = endDate != null ? endDate : ReservationCursor.LATEST;
+        log.info("Exportando reservas (estado={}, espacio={}) entre {} y {}", status, spaceId, from, to);
+        
+        long count = 0;
+        try (Stream<ReservationView> reservations = reservationRepository.streamFiltered(status, spaceId, from, to)) {
+            Iterator<ReservationView> iterator = reservations.iterator();
+            while (iterator.hasNext()) {
+                sink.accept(convertToDto(iterator.next()));
+                count++;
+            }
+        }
+        log.info("Exportación de reservas finalizada: {} registros", count);
+        return count;
+    }
+    
+    private int pageSize(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return defaultPageSize;
+        }
+        return Math.min(limit, maxPageSize);
+    }
+    
+    private CursorPageDto<ReservationDto> toPage(List<ReservationView> rows, int size) {
+        boolean hasMore = rows.size() > size;
+        List<ReservationView> page = hasMore ? rows.subList(0, size) : rows;
+        String nextCursor = hasMore ? ReservationCursor.of(page.get(size - 1)).encode() : null;
+        return new CursorPageDto<>(page.stream().map(this::convertToDto).collect(Collectors.toList()), nextCursor);
     }
     
     private ReservationDto convertToDto(Reservation reservation) {
@@ -347,7 +557,6 @@ public class ReservationService {
         dto.setCreatedAt(reservation.getCreatedAt());
         dto.setUpdatedAt(reservation.getUpdatedAt());
         
-        dto.setQrCode(reservation.getQrCode());
         dto.setQrValidationToken(reservation.getQrValidationToken());
         dto.setAttendanceConfirmed(reservation.getAttendanceConfirmed());
         dto.setAttendanceConfirmedAt(reservation.getAttendanceConfirmedAt());
@@ -356,6 +565,29 @@ public class ReservationService {
         return dto;
     }
     
+    private ReservationDto convertToDto(ReservationView view) {
+        ReservationDto dto = new ReservationDto();
+        dto.setReservationId(view.reservationId());
+        dto.setSpaceId(view.spaceId());
+        dto.setUserId(view.userId());
+        dto.setStartsAt(view.startsAt());
+        dto.setEndsAt(view.endsAt());
+        dto.setStatus(view.status());
+        dto.setCancelReason(view.cancelReason());
+        dto.setRateId(view.rateId());
+        dto.setTotalAmount(view.totalAmount());
+        dto.setCurrency(view.currency());
+        dto.setCreatedAt(view.createdAt());
+        dto.setUpdatedAt(view.updatedAt());
+        
+        dto.setQrValidationToken(view.qrValidationToken());
+        dto.setAttendanceConfirmed(view.attendanceConfirmed());
+        dto.setAttendanceConfirmedAt(view.attendanceConfirmedAt());
+        dto.setConfirmedByUserId(view.confirmedByUserId());
+        
+        return dto;
+    }
+    
     private Reservation convertToEntity(ReservationDto dto) {
         Reservation reservation = new Reservation();
         reservation.setReservationId(dto.getReservationId());
@@ -371,7 +603,6 @@ public class ReservationService {
         reservation.setCreatedAt(dto.getCreatedAt());
         reservation.setUpdatedAt(dto.getUpdatedAt());
         
-        reservation.setQrCode(dto.getQrCode());
         reservation.setQrValidationToken(dto.getQrValidationToken());
         reservation.setAttendanceConfirmed(dto.getAttendanceConfirmed());
         reservation.setAttendanceConfirmedAt(dto.getAttendanceConfirmedAt());
@@ -401,12 +632,14 @@ public class ReservationService {
                             return new QRValidationDto(reservationId, false, "La asistencia ya fue confirmada previamente");
                         }
                         
+                        ReservationView before = ReservationView.of(reservation);
                         reservation.setAttendanceConfirmed(true);
                         reservation.setAttendanceConfirmedAt(OffsetDateTime.now());
                         reservation.setConfirmedByUserId(validatedByUserId);
                         reservation.setUpdatedAt(OffsetDateTime.now());
                         
                         reservationRepository.save(reservation);
+                        eventPublisher.publishEvent(ReservationChangedEvent.changed(before, reservation));
                         
                         log.info("Attendance confirmed for reservation: {}", reservationId);
                         
@@ -450,7 +683,11 @@ public class ReservationService {
                         );
                         String newValidationToken = qrCodeService.generateValidationToken(reservation.getReservationId());
                         
-                        reservation.setQrCode(newQRCode);
+                        ReservationQr qr = reservationQrRepository.findById(reservationId)
+                                .orElseGet(() -> new ReservationQr(reservationId, null));
+                        qr.setQrCode(newQRCode);
+                        reservationQrRepository.save(qr);
+                        
                         reservation.setQrValidationToken(newValidationToken);
                         reservation.setUpdatedAt(OffsetDateTime.now());
                         
@@ -467,69 +704,112 @@ public class ReservationService {
                 .orElseThrow(() -> new RuntimeException("Reservation not found"));
     }
     
-    private void validateSchedule(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
-        boolean hasSchedules = spaceScheduleRepository.existsBySpace_SpaceId(spaceId);
+    /**
+     * Construye la entidad de una reserva nueva con valores por defecto y su token de validación.
+     * La imagen QR se guarda aparte, después del INSERT (ver {@link #storeQrCodes}).
+     */
+    private Reservation prepareNewReservation(ReservationDto reservationDto) {
+        Reservation reservation = convertToEntity(reservationDto);
+        reservation.setReservationId(UUID.randomUUID());
+        reservation.setCreatedAt(OffsetDateTime.now());
+        reservation.setUpdatedAt(OffsetDateTime.now());
         
-        if (!hasSchedules) {
-            log.debug("Space {} has no schedules configured, allowing reservation", spaceId);
-            return;
+        if (reservation.getStatus() == null || reservation.getStatus().isEmpty()) {
+            reservation.setStatus("PENDING");
         }
         
-        java.time.ZoneId costaRicaZone = java.time.ZoneId.of("America/Costa_Rica");
-        java.time.ZonedDateTime localStartsAt = startsAt.atZoneSameInstant(costaRicaZone);
-        java.time.ZonedDateTime localEndsAt = endsAt.atZoneSameInstant(costaRicaZone);
-        
-        DayOfWeek dayOfWeek = localStartsAt.getDayOfWeek();
-        short weekday = (short) (dayOfWeek.getValue() % 7);
-        
-        LocalTime startTime = localStartsAt.toLocalTime();
-        LocalTime endTime = localEndsAt.toLocalTime();
+        // El monto lo fija el servidor con las tarifas vigentes; el del cliente solo queda si el espacio no tiene tarifas
+        rateIndex.price(reservation.getSpaceId(), reservation.getStartsAt(), reservation.getEndsAt())
+                .ifPresent(quote -> {
+                    reservation.setRateId(quote.rateId());
+                    reservation.setTotalAmount(quote.amount());
+                    reservation.setCurrency(quote.currency());
+                });
         
-        log.debug("Validating reservation for space {} on weekday {} ({}) from {} to {}", 
-                spaceId, weekday, dayOfWeek, startTime, endTime);
-        
-        List<SpaceSchedule> schedules = spaceScheduleRepository.findBySpace_SpaceIdAndWeekday(spaceId, weekday);
+        if (reservation.getCurrency() == null || reservation.getCurrency().isEmpty()) {
+            reservation.setCurrency("CRC");
+        }
         
-        if (schedules.isEmpty()) {
-            throw new BusinessException(
-                String.format("El espacio no está disponible los %ss", getDayName(weekday))
-            );
+        reservation.setAttendanceConfirmed(false);
+        try {
+            reservation.setQrValidationToken(qrCodeService.generateValidationToken(reservation.getReservationId()));
+        } catch (Exception e) {
+            log.error("Error generating validation token for reservation: {}", reservation.getReservationId(), e);
         }
         
-        boolean isWithinSchedule = false;
-        for (SpaceSchedule schedule : schedules) {
-            if (!startTime.isBefore(schedule.getTimeFrom()) && 
-                !endTime.isAfter(schedule.getTimeTo())) {
-                isWithinSchedule = true;
-                break;
+        return reservation;
+    }
+    
+    /**
+     * Genera y guarda en reservation_qr la imagen QR de reservas recién insertadas. Un fallo al
+     * generar un QR no invalida la reserva; se puede regenerar después.
+     *
+     * @return QR en Base64 por ID de reserva, solo de los que se generaron
+     */
+    private Map<UUID, String> storeQrCodes(List<Reservation> reservations) {
+        List<ReservationQr> codes = new ArrayList<>(reservations.size());
+        for (Reservation reservation : reservations) {
+            try {
+                String qrCode = qrCodeService.generateQRCode(
+                        reservation.getReservationId(), reservation.getUserId(), reservation.getSpaceId());
+                if (qrCode != null) {
+                    codes.add(new ReservationQr(reservation.getReservationId(), qrCode));
+                }
+            } catch (Exception e) {
+                log.error("Error generating QR code for reservation: {}", reservation.getReservationId(), e);
             }
         }
-        
-        if (!isWithinSchedule) {
-            String availableTimes = schedules.stream()
-                    .map(s -> s.getTimeFrom() + " - " + s.getTimeTo())
-                    .collect(Collectors.joining(", "));
-                    
-            throw new BusinessException(
-                String.format("El espacio solo está disponible los %ss en los siguientes horarios: %s",
-                    getDayName(weekday), availableTimes)
-            );
+        if (!codes.isEmpty()) {
+            reservationQrRepository.saveAll(codes);
+        }
+        return codes.stream().collect(Collectors.toMap(ReservationQr::getReservationId, ReservationQr::getQrCode));
+    }
+    
+    /**
+     * Guarda y fuerza el INSERT/UPDATE para que una violación de la restricción EXCLUDE
+     * (solapamiento detectado por la BD) se traduzca aquí en una BusinessException.
+     */
+    private Reservation saveAndFlush(Reservation reservation) {
+        return flushTranslatingConflicts(() -> reservationRepository.save(reservation));
+    }
+    
+    private List<Reservation> saveAllAndFlush(List<Reservation> reservations) {
+        return flushTranslatingConflicts(() -> reservationRepository.saveAll(reservations));
+    }
+    
+    private <T> T flushTranslatingConflicts(Supplier<T> write) {
+        try {
+            T saved = write.get();
+            reservationRepository.flush();
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (ReservationRules.isExclusionViolation(e)) {
+                log.warn("La BD rechazó un solapamiento de reservas: {}", e.getMostSpecificCause().getMessage());
+                throw new BusinessException(ReservationRules.CONFLICT_MESSAGE, e);
+            }
+            throw e;
+        }
+    }
+    
+    /**
+     * Resuelve el conflicto en memoria cuando el índice cubre el horario; si el índice
+     * reporta un posible conflicto (o no cubre el horario) se verifica contra la BD.
+     * Lo que el índice no ve (otra instancia, SQL directo) lo rechaza la restricción EXCLUDE
+     * en {@link #saveAndFlush}.
+     */
+    private boolean hasConflict(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt, UUID excludeReservationId) {
+        if (availabilityIndex.covers(startsAt)
+                && !availabilityIndex.hasConflict(spaceId, startsAt, endsAt, excludeReservationId)) {
+            return false;
         }
         
-        log.debug("Reservation validated successfully within schedule");
+        return reservationRepository.findConflictingReservations(spaceId, startsAt, endsAt)
+                .stream()
+                .anyMatch(r -> excludeReservationId == null || !excludeReservationId.equals(r.getReservationId()));
     }
     
-    private String getDayName(short weekday) {
-        return switch (weekday) {
-            case 0 -> "domingo";
-            case 1 -> "lune";
-            case 2 -> "marte";
-            case 3 -> "miércole";
-            case 4 -> "jueve";
-            case 5 -> "vierne";
-            case 6 -> "sábado";
-            default -> "día desconocido";
-        };
+    private void validateSchedule(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        scheduleIndex.validate(spaceId, startsAt, endsAt);
     }
     
     @Transactional(readOnly = true)
@@ -0,0 +1,96 @@
+package cr.una.reservas_municipales.service;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import cr.una.reservas_municipales.model.SpaceSchedule;
+import cr.una.reservas_municipales.repository.SpaceScheduleRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Caché de horarios semanales por espacio ({@link WeeklySchedule}). Reemplaza las dos consultas a
+ * space_schedule que hacía cada creación o modificación de reserva por una prueba de bits en memoria.
+ *
+ * SpaceScheduleService invalida la entrada al crear o borrar horarios. La expiración acota cuánto
+ * puede tardar en verse un cambio hecho desde otra instancia de la aplicación.
+ */
+@Slf4j
+@Component
+public class ScheduleIndex {
+
+    private final SpaceScheduleRepository scheduleRepository;
+    private final LoadingCache<UUID, WeeklySchedule> cache;
+
+    public ScheduleIndex(SpaceScheduleRepository scheduleRepository,
+                         @Value("${app.reservations.schedule-index.max-spaces:1000}") long maxSpaces,
+                         @Value("${app.reservations.schedule-index.ttl-minutes:10}") long ttlMinutes) {
+        this.scheduleRepository = scheduleRepository;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSpaces)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build(new CacheLoader<>() {
+                    @Override
+                    public WeeklySchedule load(UUID spaceId) {
+                        return compile(spaceId, scheduleRepository.findBySpace_SpaceId(spaceId));
+                    }
+
+                    @Override
+                    public Map<UUID, WeeklySchedule> loadAll(Set<? extends UUID> spaceIds) {
+                        Map<UUID, List<SpaceSchedule>> bySpace = scheduleRepository.findBySpace_SpaceIdIn(Set.copyOf(spaceIds))
+                                .stream()
+                                .collect(Collectors.groupingBy(schedule -> schedule.getSpace().getSpaceId()));
+                        Map<UUID, WeeklySchedule> schedules = new HashMap<>();
+                        for (UUID spaceId : spaceIds) {
+                            schedules.put(spaceId, compile(spaceId, bySpace.getOrDefault(spaceId, List.of())));
+                        }
+                        return schedules;
+                    }
+                });
+    }
+
+    /**
+     * Lanza BusinessException si el intervalo queda fuera del horario del espacio.
+     */
+    public void validate(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        cache.get(spaceId).validate(startsAt, endsAt);
+    }
+
+    WeeklySchedule get(UUID spaceId) {
+        return cache.get(spaceId);
+    }
+
+    /**
+     * Horarios de varios espacios; los que no están en caché se leen en una sola consulta.
+     */
+    Map<UUID, WeeklySchedule> getAll(Set<UUID> spaceIds) {
+        return cache.getAll(spaceIds);
+    }
+
+    public void invalidate(UUID spaceId) {
+        cache.invalidate(spaceId);
+        AfterCommit.run(() -> cache.invalidate(spaceId));
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+        AfterCommit.run(cache::invalidateAll);
+    }
+
+    private static WeeklySchedule compile(UUID spaceId, List<SpaceSchedule> rows) {
+        WeeklySchedule schedule = WeeklySchedule.compile(rows);
+        log.debug("Horario del espacio {} compilado (sin restricciones: {})", spaceId, schedule.isUnrestricted());
+        return schedule;
+    }
+}
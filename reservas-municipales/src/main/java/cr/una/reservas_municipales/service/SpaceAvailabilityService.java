@@ -0,0 +1,232 @@
+package cr.una.reservas_municipales.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import cr.una.reservas_municipales.dto.SpaceAvailabilityDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.SpaceNotFoundException;
+import cr.una.reservas_municipales.model.SpaceClosure;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationSlot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static cr.una.reservas_municipales.service.WeeklySchedule.MINUTES_PER_WEEK;
+
+/**
+ * Calendario de bloques libres de un espacio: horario semanal, cierres y reservas activas
+ * (CONFIRMED/PENDING) se combinan en un mapa de bits de un bit por minuto, por semana
+ * (domingo 00:00 hora de Costa Rica), y cada bloque pedido es libre si todos sus minutos lo son.
+ *
+ * Los intervalos de reservas y cierres son cerrados, igual que en la validación de conflictos
+ * (ReservationRules.overlaps y la restricción EXCLUDE '[]'): un bloque que empieza justo cuando
+ * termina una reserva se reporta ocupado, porque crear esa reserva fallaría.
+ *
+ * Las semanas calculadas se guardan en caché y se recalculan cuando cambia la versión del espacio
+ * en {@link AvailabilityIndex} (cualquier reserva creada, modificada o cancelada), su horario o
+ * sus cierres.
+ */
+@Slf4j
+@Service
+public class SpaceAvailabilityService {
+
+    static final int MIN_GRANULARITY_MINUTES = 5;
+    static final int MAX_GRANULARITY_MINUTES = 1440;
+
+    private final SpaceRepository spaceRepository;
+    private final ReservationRepository reservationRepository;
+    private final ScheduleIndex scheduleIndex;
+    private final ClosureIndex closureIndex;
+    private final AvailabilityIndex availabilityIndex;
+    private final long maxDays;
+    private final Cache<WeekKey, SpaceWeek> weeks;
+
+    public SpaceAvailabilityService(SpaceRepository spaceRepository,
+                                    ReservationRepository reservationRepository,
+                                    ScheduleIndex scheduleIndex,
+                                    ClosureIndex closureIndex,
+                                    AvailabilityIndex availabilityIndex,
+                                    @Value("${app.reservations.availability.max-days:31}") long maxDays,
+                                    @Value("${app.reservations.availability.max-weeks:2000}") long maxWeeks,
+                                    @Value("${app.reservations.availability.ttl-minutes:5}") long ttlMinutes) {
+        this.spaceRepository = spaceRepository;
+        this.reservationRepository = reservationRepository;
+        this.scheduleIndex = scheduleIndex;
+        this.closureIndex = closureIndex;
+        this.availabilityIndex = availabilityIndex;
+        this.maxDays = maxDays;
+        this.weeks = Caffeine.newBuilder()
+                .maximumSize(maxWeeks)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Bloques libres del espacio entre {@code from} y {@code to}. El inicio se redondea al minuto
+     * siguiente y el último bloque incompleto se descarta.
+     */
+    @Transactional(readOnly = true)
+    public SpaceAvailabilityDto getAvailability(UUID spaceId, OffsetDateTime from, OffsetDateTime to, int granularityMinutes) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new BusinessException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+        if (granularityMinutes < MIN_GRANULARITY_MINUTES || granularityMinutes > MAX_GRANULARITY_MINUTES) {
+            throw new BusinessException(String.format("La granularidad debe estar entre %d y %d minutos",
+                    MIN_GRANULARITY_MINUTES, MAX_GRANULARITY_MINUTES));
+        }
+        if (Duration.between(from, to).compareTo(Duration.ofDays(maxDays)) > 0) {
+            throw new BusinessException(String.format("El rango de consulta no puede superar %d días", maxDays));
+        }
+        if (!spaceRepository.existsById(spaceId)) {
+            throw new SpaceNotFoundException("Espacio no encontrado con ID: " + spaceId);
+        }
+
+        ZonedDateTime start = ceilMinute(from.atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE));
+        int slotCount = (int) Math.max(0, Duration.between(start, to).toMinutes() / granularityMinutes);
+        int minutes = slotCount * granularityMinutes;
+        long[] usable = collectUsable(spaceId, start, minutes);
+
+        List<Integer> runs = new ArrayList<>();
+        boolean firstRunFree = slotCount > 0 && slotFree(usable, 0, granularityMinutes);
+        boolean current = firstRunFree;
+        int runLength = 0;
+        int freeSlots = 0;
+        for (int slot = 0; slot < slotCount; slot++) {
+            boolean free = slotFree(usable, slot, granularityMinutes);
+            if (free) {
+                freeSlots++;
+            }
+            if (free != current) {
+                runs.add(runLength);
+                current = free;
+                runLength = 0;
+            }
+            runLength++;
+        }
+        if (runLength > 0) {
+            runs.add(runLength);
+        }
+
+        return new SpaceAvailabilityDto(spaceId, start.toOffsetDateTime(),
+                start.plusMinutes(minutes).toOffsetDateTime(), granularityMinutes,
+                slotCount, freeSlots, firstRunFree, runs);
+    }
+
+    private static boolean slotFree(long[] usable, int slot, int granularityMinutes) {
+        int from = slot * granularityMinutes;
+        return WeeklySchedule.rangeSet(usable, from, from + granularityMinutes);
+    }
+
+    /**
+     * Minutos utilizables desde {@code start}, armados a partir de las semanas en caché.
+     */
+    private long[] collectUsable(UUID spaceId, ZonedDateTime start, int minutes) {
+        long[] usable = new long[(minutes + 63) / 64];
+        ZonedDateTime weekStart = start.toLocalDate()
+                .with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY))
+                .atStartOfDay(ReservationRules.COSTA_RICA_ZONE);
+        int offset = (int) Duration.between(weekStart, start).toMinutes();
+        int copied = 0;
+        while (copied < minutes) {
+            long[] week = week(spaceId, weekStart).usable();
+            int count = Math.min(MINUTES_PER_WEEK - offset, minutes - copied);
+            for (int i = 0; i < count; i++) {
+                int source = offset + i;
+                if ((week[source >>> 6] & (1L << source)) != 0) {
+                    int target = copied + i;
+                    usable[target >>> 6] |= 1L << target;
+                }
+            }
+            copied += count;
+            offset = 0;
+            weekStart = weekStart.plusWeeks(1);
+        }
+        return usable;
+    }
+
+    SpaceWeek week(UUID spaceId, ZonedDateTime weekStart) {
+        WeekKey key = new WeekKey(spaceId, weekStart.toOffsetDateTime());
+        WeeklySchedule schedule = scheduleIndex.get(spaceId);
+        ClosureIndex.ClosureTimeline closures = closureIndex.get(spaceId);
+        long version = availabilityIndex.version(spaceId);
+        SpaceWeek cached = weeks.getIfPresent(key);
+        if (cached != null && cached.version() == version
+                && cached.schedule() == schedule && cached.closures() == closures) {
+            return cached;
+        }
+        // La versión se leyó antes de consultar la BD: un cambio concurrente deja la entrada vieja
+        SpaceWeek computed = compute(key, schedule, closures, version);
+        weeks.put(key, computed);
+        return computed;
+    }
+
+    private SpaceWeek compute(WeekKey key, WeeklySchedule schedule, ClosureIndex.ClosureTimeline closures, long version) {
+        OffsetDateTime weekStart = key.weekStart();
+        OffsetDateTime weekEnd = weekStart.plusMinutes(MINUTES_PER_WEEK);
+
+        long[] usable = schedule.openMinutes();
+        List<ReservationSlot> slots = reservationRepository.findActiveSlotsInRange(key.spaceId(), weekStart, weekEnd);
+        for (ReservationSlot slot : slots) {
+            block(usable, weekStart, slot.getStartsAt(), slot.getEndsAt());
+        }
+        List<SpaceClosure> closed = closures.overlappingAll(weekStart.toEpochSecond(), weekEnd.toEpochSecond());
+        for (SpaceClosure closure : closed) {
+            block(usable, weekStart, closure.getStartsAt(), closure.getEndsAt());
+        }
+
+        log.debug("Disponibilidad del espacio {} para la semana {} calculada: {} reservas, {} cierres",
+                key.spaceId(), weekStart.toLocalDate(), slots.size(), closed.size());
+        return new SpaceWeek(usable, version, schedule, closures);
+    }
+
+    /**
+     * Un bloque [a, b] en minutos enteros choca con el intervalo cerrado [s, e] si contiene algún
+     * minuto exacto entre ceil(s) y floor(e), o sea si usa el minuto anterior o posterior a alguno de
+     * esos puntos. Si el intervalo cabe dentro de un solo minuto, solo ese minuto queda bloqueado.
+     */
+    private static void block(long[] usable, OffsetDateTime weekStart, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        long startSeconds = Duration.between(weekStart, startsAt).getSeconds();
+        long endSeconds = Duration.between(weekStart, endsAt).getSeconds();
+        long firstPoint = Math.floorDiv(startSeconds + 59, 60);
+        long lastPoint = Math.floorDiv(endSeconds, 60);
+        if (firstPoint > lastPoint) {
+            clear(usable, Math.floorDiv(startSeconds, 60), Math.floorDiv(startSeconds, 60) + 1);
+        } else {
+            clear(usable, firstPoint - 1, lastPoint + 1);
+        }
+    }
+
+    // Apaga los minutos [from, to) recortados a la semana
+    private static void clear(long[] usable, long from, long to) {
+        int first = (int) Math.max(0, from);
+        int last = (int) Math.min(MINUTES_PER_WEEK, to);
+        for (int minute = first; minute < last; minute++) {
+            usable[minute >>> 6] &= ~(1L << minute);
+        }
+    }
+
+    private static ZonedDateTime ceilMinute(ZonedDateTime time) {
+        ZonedDateTime truncated = time.truncatedTo(ChronoUnit.MINUTES);
+        return truncated.equals(time) ? time : truncated.plusMinutes(1);
+    }
+
+    record WeekKey(UUID spaceId, OffsetDateTime weekStart) {
+    }
+
+    record SpaceWeek(long[] usable, long version, WeeklySchedule schedule, ClosureIndex.ClosureTimeline closures) {
+    }
+}
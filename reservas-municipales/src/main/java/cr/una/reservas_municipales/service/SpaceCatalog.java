@@ -0,0 +1,400 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.NearbySpaceDto;
+import cr.una.reservas_municipales.dto.SpaceDto;
+import cr.una.reservas_municipales.dto.SpaceImageDto;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.SpaceImage;
+import cr.una.reservas_municipales.repository.SpaceImageRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Modelo de lectura del catálogo de espacios. Mantiene una instantánea inmutable con los SpaceDto
+ * (imágenes incluidas) indexados por id, nombre en minúsculas, tipo, exterior/interior, capacidad,
+ * texto ({@link SpaceSearchIndex}) y coordenadas ({@link SpaceGeoIndex}), para que los listados, la
+ * búsqueda y las validaciones de nombre no relean la tabla space.
+ *
+ * Las lecturas solo leen la referencia volátil a la instantánea, sin bloqueos. SpaceService y
+ * SpaceImageService llaman a {@link #refresh(UUID)} al modificar un espacio o sus imágenes: tras el
+ * commit se recarga ese espacio y se publica una instantánea nueva (copy-on-write) con la versión
+ * siguiente. La expiración fuerza una recarga completa para ver cambios hechos desde otra instancia.
+ *
+ * Los SpaceDto publicados se comparten entre lecturas y no se deben modificar.
+ */
+@Slf4j
+@Component
+public class SpaceCatalog {
+
+    private final SpaceRepository spaceRepository;
+    private final SpaceImageRepository spaceImageRepository;
+    private final long ttlNanos;
+
+    private volatile Snapshot snapshot;
+    private long lastVersion;
+
+    public SpaceCatalog(SpaceRepository spaceRepository,
+                        SpaceImageRepository spaceImageRepository,
+                        @Value("${app.spaces.catalog.ttl-minutes:5}") long ttlMinutes) {
+        this.spaceRepository = spaceRepository;
+        this.spaceImageRepository = spaceImageRepository;
+        this.ttlNanos = Duration.ofMinutes(ttlMinutes).toNanos();
+    }
+
+    /**
+     * Instantánea vigente; se carga completa la primera vez y cuando expira.
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null || System.nanoTime() - current.loadedAt >= ttlNanos) {
+            return reload();
+        }
+        return current;
+    }
+
+    public long version() {
+        return snapshot().version();
+    }
+
+    /**
+     * Vuelve a leer un espacio y sus imágenes tras el commit de la transacción en curso (o de
+     * inmediato si no hay una). Si el espacio ya no existe se quita del catálogo.
+     */
+    public void refresh(UUID spaceId) {
+        AfterCommit.run(() -> apply(spaceId));
+    }
+
+    /**
+     * Descarta la instantánea; la siguiente lectura recarga el catálogo completo. Para cambios
+     * masivos hechos fuera de SpaceService/SpaceImageService.
+     */
+    public synchronized void invalidateAll() {
+        snapshot = null;
+    }
+
+    private synchronized Snapshot reload() {
+        Snapshot current = snapshot;
+        if (current != null && System.nanoTime() - current.loadedAt < ttlNanos) {
+            return current;
+        }
+        List<Space> spaces = spaceRepository.findAll();
+        Map<UUID, List<SpaceImage>> images = loadImages(spaces.stream().map(Space::getSpaceId).collect(Collectors.toList()));
+        Map<UUID, Entry> entries = new HashMap<>();
+        for (Space space : spaces) {
+            entries.put(space.getSpaceId(), Entry.of(space, images.getOrDefault(space.getSpaceId(), List.of())));
+        }
+        Snapshot loaded = Snapshot.of(entries.values(), ++lastVersion, System.nanoTime(), null, null);
+        snapshot = loaded;
+        log.debug("Catálogo de espacios cargado: {} espacios (versión {})", entries.size(), loaded.version());
+        return loaded;
+    }
+
+    private synchronized void apply(UUID spaceId) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Nadie ha leído el catálogo todavía; la primera lectura lo carga completo
+            return;
+        }
+        Map<UUID, Entry> entries = new HashMap<>(current.byId);
+        Entry entry = spaceRepository.findById(spaceId)
+                .map(space -> Entry.of(space, spaceImageRepository.findBySpaceIdOrderByOrdAsc(spaceId)))
+                .orElse(null);
+        if (entry != null) {
+            entries.put(spaceId, entry);
+        } else {
+            entries.remove(spaceId);
+        }
+        // Solo se re-indexa el espacio modificado; el resto de los índices de texto y coordenadas se comparte
+        snapshot = Snapshot.of(entries.values(), ++lastVersion, current.loadedAt, current.text.with(spaceId, entry),
+                current.geo.with(spaceId, entry == null ? null : entry.point()));
+        log.debug("Catálogo de espacios actualizado por {} (versión {})", spaceId, lastVersion);
+    }
+
+    private Map<UUID, List<SpaceImage>> loadImages(List<UUID> spaceIds) {
+        Map<UUID, List<SpaceImage>> imagesBySpace = new HashMap<>();
+        for (int from = 0; from < spaceIds.size(); from += SpaceService.IMAGE_BATCH_SIZE) {
+            List<UUID> batch = spaceIds.subList(from, Math.min(from + SpaceService.IMAGE_BATCH_SIZE, spaceIds.size()));
+            spaceImageRepository.findBySpaceIdInOrderByOrdAsc(batch)
+                    .forEach(image -> imagesBySpace.computeIfAbsent(image.getSpaceId(), id -> new ArrayList<>()).add(image));
+        }
+        return imagesBySpace;
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Espacio del catálogo con los campos de búsqueda precalculados.
+     */
+    record Entry(SpaceDto dto, Short spaceTypeId, String name, String location, GeoPoint point) {
+
+        static Entry of(Space space, List<SpaceImage> images) {
+            SpaceDto dto = new SpaceDto();
+            dto.setSpaceId(space.getSpaceId());
+            dto.setName(space.getName());
+            dto.setCapacity(space.getCapacity());
+            dto.setLocation(space.getLocation());
+            dto.setOutdoor(space.isOutdoor());
+            dto.setActive(space.isActive());
+            dto.setDescription(space.getDescription());
+            GeoPoint point = GeoPoint.of(space).orElse(null);
+            dto.setLatitude(point == null ? null : point.latitude());
+            dto.setLongitude(point == null ? null : point.longitude());
+            dto.setImages(images.stream().map(Entry::imageDto).toList());
+            return new Entry(dto, space.getSpaceTypeId(), lower(space.getName()),
+                    SpaceSearchIndex.fold(space.getLocation()), point);
+        }
+
+        private static SpaceImageDto imageDto(SpaceImage image) {
+            SpaceImageDto dto = new SpaceImageDto();
+            dto.setImageId(image.getImageId());
+            dto.setUrl(image.getUrl());
+            dto.setMain(image.isMain());
+            dto.setOrd(image.getOrd());
+            dto.setCreatedAt(image.getCreatedAt());
+            return dto;
+        }
+    }
+
+    /**
+     * Estado inmutable del catálogo. Las listas están ordenadas por nombre y no se copian al leerlas.
+     */
+    public static final class Snapshot {
+
+        private static final Comparator<Entry> BY_NAME = Comparator.comparing(
+                (Entry entry) -> entry.name() == null ? "" : entry.name())
+                .thenComparing(entry -> entry.dto().getSpaceId());
+
+        private final long version;
+        private final long loadedAt;
+        private final List<Entry> entries;
+        private final Map<UUID, Entry> byId;
+        private final SpaceSearchIndex text;
+        private final SpaceGeoIndex geo;
+        private final Map<String, List<Entry>> byName;
+        private final Map<Short, List<Entry>> byType;
+        private final Map<Boolean, List<Entry>> byOutdoor;
+        private final Entry[] byCapacity;
+        private final int[] capacities;
+        private final List<SpaceDto> all;
+        private final List<SpaceDto> active;
+
+        private Snapshot(long version, long loadedAt, List<Entry> sorted, SpaceSearchIndex text, SpaceGeoIndex geo) {
+            this.version = version;
+            this.loadedAt = loadedAt;
+            this.text = text;
+            this.geo = geo;
+            this.entries = List.copyOf(sorted);
+            Map<UUID, Entry> ids = new HashMap<>();
+            Map<String, List<Entry>> names = new HashMap<>();
+            Map<Short, List<Entry>> types = new HashMap<>();
+            Map<Boolean, List<Entry>> outdoor = new HashMap<>();
+            for (Entry entry : sorted) {
+                ids.put(entry.dto().getSpaceId(), entry);
+                if (entry.name() != null) {
+                    names.computeIfAbsent(entry.name(), key -> new ArrayList<>()).add(entry);
+                }
+                if (entry.spaceTypeId() != null) {
+                    types.computeIfAbsent(entry.spaceTypeId(), key -> new ArrayList<>()).add(entry);
+                }
+                outdoor.computeIfAbsent(entry.dto().isOutdoor(), key -> new ArrayList<>()).add(entry);
+            }
+            this.byId = ids;
+            this.byName = freeze(names);
+            this.byType = freeze(types);
+            this.byOutdoor = freeze(outdoor);
+            this.byCapacity = sorted.stream()
+                    .filter(entry -> entry.dto().getCapacity() != null)
+                    .sorted(Comparator.comparingInt((Entry entry) -> entry.dto().getCapacity()))
+                    .toArray(Entry[]::new);
+            this.capacities = Arrays.stream(byCapacity).mapToInt(entry -> entry.dto().getCapacity()).toArray();
+            this.all = sorted.stream().map(Entry::dto).toList();
+            this.active = sorted.stream().map(Entry::dto).filter(SpaceDto::isActive).toList();
+        }
+
+        /**
+         * {@code text} y {@code geo} son los índices ya actualizados; si son null se construyen desde cero.
+         */
+        static Snapshot of(Collection<Entry> entries, long version, long loadedAt, SpaceSearchIndex text,
+                           SpaceGeoIndex geo) {
+            List<Entry> sorted = new ArrayList<>(entries);
+            sorted.sort(BY_NAME);
+            if (geo == null) {
+                Map<UUID, GeoPoint> points = new HashMap<>();
+                sorted.stream()
+                        .filter(entry -> entry.point() != null)
+                        .forEach(entry -> points.put(entry.dto().getSpaceId(), entry.point()));
+                geo = SpaceGeoIndex.build(points);
+            }
+            return new Snapshot(version, loadedAt, sorted, text == null ? SpaceSearchIndex.build(sorted) : text, geo);
+        }
+
+        private static <K> Map<K, List<Entry>> freeze(Map<K, List<Entry>> index) {
+            Map<K, List<Entry>> frozen = new HashMap<>();
+            index.forEach((key, entries) -> frozen.put(key, List.copyOf(entries)));
+            return frozen;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public List<SpaceDto> all() {
+            return all;
+        }
+
+        public List<SpaceDto> active() {
+            return active;
+        }
+
+        public Optional<SpaceDto> get(UUID spaceId) {
+            Entry entry = byId.get(spaceId);
+            return entry == null ? Optional.empty() : Optional.of(entry.dto());
+        }
+
+        /**
+         * Tipo del espacio, o null si no existe o no tiene tipo.
+         */
+        public Short spaceTypeId(UUID spaceId) {
+            Entry entry = byId.get(spaceId);
+            return entry == null ? null : entry.spaceTypeId();
+        }
+
+        /**
+         * Hay otro espacio con el mismo nombre sin distinguir mayúsculas; {@code excludeId} puede ser null.
+         */
+        public boolean nameTaken(String name, UUID excludeId) {
+            if (name == null) {
+                return false;
+            }
+            return byName.getOrDefault(lower(name), List.of()).stream()
+                    .anyMatch(entry -> !entry.dto().getSpaceId().equals(excludeId));
+        }
+
+        /**
+         * Búsqueda con los criterios de SpaceService.searchSpaces. Si hay texto, se resuelve con el
+         * índice de texto sobre nombre y descripción (sin tildes, tolerante a errores) y el resultado
+         * sale ordenado por relevancia; si no, parte del índice más selectivo disponible (tipo, rango
+         * de capacidad o exterior) y sale ordenado por nombre. La ubicación se filtra por subcadena
+         * sin tildes ni mayúsculas.
+         */
+        public List<SpaceDto> search(String text, Short spaceTypeId, Integer minCapacity, Integer maxCapacity,
+                                     String location, Boolean outdoor, boolean activeOnly) {
+            String locationFilter = location == null || location.trim().isEmpty() ? null : SpaceSearchIndex.fold(location);
+            Predicate<Entry> accepts = entry -> {
+                SpaceDto dto = entry.dto();
+                return !(activeOnly && !dto.isActive())
+                        && (spaceTypeId == null || spaceTypeId.equals(entry.spaceTypeId()))
+                        && (minCapacity == null || (dto.getCapacity() != null && dto.getCapacity() >= minCapacity))
+                        && (maxCapacity == null || (dto.getCapacity() != null && dto.getCapacity() <= maxCapacity))
+                        && (outdoor == null || outdoor == dto.isOutdoor())
+                        && (locationFilter == null || entry.location().contains(locationFilter));
+            };
+
+            if (text != null && !text.trim().isEmpty()) {
+                return this.text.search(text, SpaceSearchIndex.NAME_AND_DESCRIPTION,
+                                id -> accepts.test(byId.get(id)), Integer.MAX_VALUE).stream()
+                        .map(hit -> byId.get(hit.spaceId()).dto())
+                        .toList();
+            }
+
+            List<Entry> candidates;
+            boolean byCapacityOrder = false;
+            if (spaceTypeId != null) {
+                candidates = byType.getOrDefault(spaceTypeId, List.of());
+            } else if (minCapacity != null || maxCapacity != null) {
+                int from = minCapacity == null ? 0 : lowerBound(minCapacity);
+                int to = maxCapacity == null ? capacities.length : upperBound(maxCapacity);
+                candidates = from < to ? Arrays.asList(byCapacity).subList(from, to) : List.of();
+                byCapacityOrder = true;
+            } else if (outdoor != null) {
+                candidates = byOutdoor.getOrDefault(outdoor, List.of());
+            } else {
+                candidates = entries;
+            }
+
+            List<Entry> result = new ArrayList<>();
+            for (Entry entry : candidates) {
+                if (accepts.test(entry)) {
+                    result.add(entry);
+                }
+            }
+            if (byCapacityOrder) {
+                result.sort(BY_NAME);
+            }
+            return result.stream().map(Entry::dto).toList();
+        }
+
+        /**
+         * Los {@code limit} espacios más relevantes para el texto en nombre, descripción y ubicación.
+         */
+        public List<SpaceDto> searchText(String query, boolean activeOnly, int limit) {
+            return text.search(query, SpaceSearchIndex.ALL_FIELDS,
+                            id -> !activeOnly || byId.get(id).dto().isActive(), limit).stream()
+                    .map(hit -> byId.get(hit.spaceId()).dto())
+                    .toList();
+        }
+
+        /**
+         * Hasta {@code limit} espacios activos a no más de {@code radiusKm} de {@code center}, del más
+         * cercano al más lejano, que cumplen los filtros opcionales y {@code available}. Este último se
+         * evalúa solo para los candidatos que entrarían al resultado.
+         */
+        public List<NearbySpaceDto> nearby(GeoPoint center, double radiusKm, Short spaceTypeId, Integer minCapacity,
+                                           Boolean outdoor, Predicate<UUID> available, int limit) {
+            Predicate<UUID> accepts = spaceId -> {
+                Entry entry = byId.get(spaceId);
+                SpaceDto dto = entry.dto();
+                return dto.isActive()
+                        && (spaceTypeId == null || spaceTypeId.equals(entry.spaceTypeId()))
+                        && (minCapacity == null || (dto.getCapacity() != null && dto.getCapacity() >= minCapacity))
+                        && (outdoor == null || outdoor == dto.isOutdoor())
+                        && available.test(spaceId);
+            };
+            return geo.nearest(center, radiusKm, accepts, limit).stream()
+                    .map(hit -> new NearbySpaceDto(byId.get(hit.spaceId()).dto(), hit.distanceKm()))
+                    .toList();
+        }
+
+        // Primer índice con capacidad >= capacity
+        private int lowerBound(int capacity) {
+            return search(capacity, false);
+        }
+
+        // Primer índice con capacidad > capacity
+        private int upperBound(int capacity) {
+            return search(capacity, true);
+        }
+
+        private int search(int capacity, boolean inclusive) {
+            int low = 0;
+            int high = capacities.length;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (capacities[mid] < capacity || (inclusive && capacities[mid] == capacity)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.CreateClosureDto;
+import cr.una.reservas_municipales.dto.SpaceClosureDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.SpaceNotFoundException;
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.SpaceClosure;
+import cr.una.reservas_municipales.model.User;
+import cr.una.reservas_municipales.notification.NotificationEvent;
+import cr.una.reservas_municipales.notification.NotificationSender;
+import cr.una.reservas_municipales.notification.NotificationType;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.SpaceClosureRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Cierres temporales de espacios. Crear un cierre cancela de una vez las reservas activas que se
+ * solapan (un solo UPDATE) y encola sus notificaciones juntas, en lugar de cancelar una por una.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SpaceClosureService {
+
+    private final SpaceClosureRepository closureRepository;
+    private final SpaceRepository spaceRepository;
+    private final ReservationRepository reservationRepository;
+    private final UserRepository userRepository;
+    private final ClosureIndex closureIndex;
+    private final AvailabilityIndex availabilityIndex;
+    private final SpaceLockRegistry spaceLockRegistry;
+    private final NotificationSender notificationSender;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional(readOnly = true)
+    public List<SpaceClosureDto> getClosures(UUID spaceId) {
+        if (!spaceRepository.existsById(spaceId)) {
+            throw new SpaceNotFoundException("Espacio no encontrado con ID: " + spaceId);
+        }
+        return closureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId).stream()
+                .map(closure -> toDto(closure, null))
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public SpaceClosureDto createClosure(UUID spaceId, CreateClosureDto dto) {
+        log.info("Creando cierre para espacio {} del {} al {}", spaceId, dto.getStartsAt(), dto.getEndsAt());
+
+        Space space = spaceRepository.findById(spaceId)
+                .orElseThrow(() -> new SpaceNotFoundException("Espacio no encontrado con ID: " + spaceId));
+        if (!dto.getEndsAt().isAfter(dto.getStartsAt())) {
+            throw new BusinessException("La fecha de fin debe ser posterior a la fecha de inicio");
+        }
+
+        // Bajo el candado del espacio ninguna reserva nueva se cuela entre la consulta y el UPDATE
+        return spaceLockRegistry.execute(spaceId, () -> {
+            SpaceClosure closure = new SpaceClosure();
+            closure.setSpaceId(spaceId);
+            closure.setReason(dto.getReason());
+            closure.setStartsAt(dto.getStartsAt());
+            closure.setEndsAt(dto.getEndsAt());
+            SpaceClosure saved = closureRepository.save(closure);
+            closureIndex.invalidate(spaceId);
+
+            List<Reservation> affected = reservationRepository
+                    .findConflictingReservations(spaceId, dto.getStartsAt(), dto.getEndsAt());
+            if (!affected.isEmpty()) {
+                String reason = "Espacio cerrado" + (dto.getReason() == null || dto.getReason().isBlank()
+                        ? "" : ": " + dto.getReason());
+                OffsetDateTime now = OffsetDateTime.now();
+                int cancelled = reservationRepository.cancelActiveInRange(
+                        spaceId, dto.getStartsAt(), dto.getEndsAt(), reason, now);
+                for (Reservation reservation : affected) {
+                    availabilityIndex.untrack(reservation.getReservationId());
+                    // El UPDATE masivo no pasa por las entidades: el estado nuevo se arma a partir del anterior
+                    ReservationView before = ReservationView.of(reservation);
+                    eventPublisher.publishEvent(new ReservationChangedEvent(before, before.cancelled(reason, now)));
+                }
+                notifyCancelled(affected, space, reason, now);
+                log.info("Cierre {} canceló {} reservas del espacio {}", saved.getClosureId(), cancelled, spaceId);
+            }
+            return toDto(saved, affected.size());
+        });
+    }
+
+    @Transactional
+    public boolean deleteClosure(UUID spaceId, Long closureId) {
+        return closureRepository.findById(closureId)
+                .filter(closure -> closure.getSpaceId().equals(spaceId))
+                .map(closure -> {
+                    closureRepository.delete(closure);
+                    closureIndex.invalidate(spaceId);
+                    log.info("Cierre {} del espacio {} eliminado", closureId, spaceId);
+                    return true;
+                })
+                .orElse(false);
+    }
+
+    private void notifyCancelled(List<Reservation> reservations, Space space, String reason, OffsetDateTime now) {
+        Map<UUID, User> users = userRepository.findAllById(reservations.stream()
+                        .map(Reservation::getUserId)
+                        .collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(User::getUserId, Function.identity()));
+
+        List<NotificationEvent> events = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            User user = users.get(reservation.getUserId());
+            if (user == null) {
+                continue;
+            }
+            events.add(NotificationEvent.builder()
+                .type(NotificationType.RESERVATION_CANCELLED)
+                .reservationId(reservation.getReservationId())
+                .userId(user.getUserId())
+                .email(user.getEmail())
+                .data(Map.of(
+                    "reason",    reason,
+                    "spaceName", space.getName(),
+                    "startsAt",  reservation.getStartsAt(),
+                    "endsAt",    reservation.getEndsAt()
+                ))
+                .occurredAt(now)
+                .build());
+        }
+        notificationSender.sendBatch(events);
+    }
+
+    private SpaceClosureDto toDto(SpaceClosure closure, Integer cancelledReservations) {
+        return new SpaceClosureDto(closure.getClosureId(), closure.getSpaceId(), closure.getReason(),
+                closure.getStartsAt(), closure.getEndsAt(), cancelledReservations);
+    }
+}
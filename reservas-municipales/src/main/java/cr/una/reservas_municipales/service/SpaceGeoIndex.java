@@ -0,0 +1,188 @@
+package cr.una.reservas_municipales.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Índice espacial de los espacios con coordenadas: una cuadrícula de celdas de
+ * {@link #CELL_DEGREES} grados (unos 5,5 km) guardada por clave de celda.
+ *
+ * La búsqueda de vecinos recorre anillos de celdas desde la celda del punto de consulta y se detiene
+ * al salir del radio o cuando ninguna celda del anillo puede estar más cerca que el k-ésimo mejor
+ * encontrado, así que el costo depende de los espacios cercanos y no del total. El filtro se evalúa
+ * solo para los candidatos que entrarían al resultado, de cerca hacia lejos.
+ *
+ * Es inmutable: {@link #with(UUID, GeoPoint)} copia solo el mapa de celdas y la celda afectada.
+ */
+final class SpaceGeoIndex {
+
+    static final double CELL_DEGREES = 0.05;
+
+    private static final int ROWS = (int) Math.round(180 / CELL_DEGREES);
+    private static final int COLUMNS = (int) Math.round(360 / CELL_DEGREES);
+    private static final double KM_PER_DEGREE = Math.PI * GeoPoint.EARTH_RADIUS_KM / 180;
+
+    private static final Comparator<Hit> NEAREST = Comparator.comparingDouble(Hit::distanceKm)
+            .thenComparing(Hit::spaceId);
+
+    private final Map<Long, Cell> cells;
+    private final Map<UUID, GeoPoint> points;
+
+    private SpaceGeoIndex(Map<Long, Cell> cells, Map<UUID, GeoPoint> points) {
+        this.cells = cells;
+        this.points = points;
+    }
+
+    static SpaceGeoIndex build(Map<UUID, GeoPoint> points) {
+        Map<Long, List<UUID>> ids = new HashMap<>();
+        points.forEach((spaceId, point) -> ids.computeIfAbsent(key(point), key -> new ArrayList<>()).add(spaceId));
+        Map<Long, Cell> cells = new HashMap<>();
+        ids.forEach((key, list) -> cells.put(key, new Cell(
+                list.toArray(UUID[]::new),
+                list.stream().map(points::get).toArray(GeoPoint[]::new))));
+        return new SpaceGeoIndex(cells, new HashMap<>(points));
+    }
+
+    /**
+     * Índice con el espacio en {@code point}, o quitado si es null.
+     */
+    SpaceGeoIndex with(UUID spaceId, GeoPoint point) {
+        GeoPoint old = points.get(spaceId);
+        if (point == null ? old == null : point.equals(old)) {
+            return this;
+        }
+        Map<Long, Cell> nextCells = new HashMap<>(cells);
+        Map<UUID, GeoPoint> nextPoints = new HashMap<>(points);
+        if (old != null) {
+            long key = key(old);
+            Cell cell = nextCells.get(key).without(spaceId);
+            if (cell.ids().length == 0) {
+                nextCells.remove(key);
+            } else {
+                nextCells.put(key, cell);
+            }
+            nextPoints.remove(spaceId);
+        }
+        if (point != null) {
+            nextCells.merge(key(point), new Cell(new UUID[]{spaceId}, new GeoPoint[]{point}), Cell::plus);
+            nextPoints.put(spaceId, point);
+        }
+        return new SpaceGeoIndex(nextCells, nextPoints);
+    }
+
+    int size() {
+        return points.size();
+    }
+
+    /**
+     * Hasta {@code limit} espacios a no más de {@code radiusKm} del centro que cumplen {@code filter},
+     * del más cercano al más lejano.
+     */
+    List<Hit> nearest(GeoPoint center, double radiusKm, Predicate<UUID> filter, int limit) {
+        if (limit <= 0 || radiusKm < 0 || points.isEmpty()) {
+            return List.of();
+        }
+        int row = row(center.latitude());
+        int column = column(center.longitude());
+
+        // Alcance en celdas: hacia los polos un grado de longitud mide menos, se usa la latitud más extrema
+        double cellHeightKm = CELL_DEGREES * KM_PER_DEGREE;
+        int rowReach = (int) Math.ceil(radiusKm / cellHeightKm);
+        double extremeLatitude = Math.min(90, Math.abs(center.latitude()) + (rowReach + 1) * CELL_DEGREES);
+        double cellWidthKm = cellHeightKm * Math.cos(Math.toRadians(extremeLatitude));
+        int columnReach = cellWidthKm <= 0
+                ? (COLUMNS - 1) / 2
+                : (int) Math.min((COLUMNS - 1) / 2, Math.ceil(radiusKm / cellWidthKm));
+        double ringKm = Math.min(cellHeightKm, cellWidthKm);
+
+        PriorityQueue<Hit> best = new PriorityQueue<>(NEAREST.reversed());
+        for (int ring = 0; ring <= Math.max(rowReach, columnReach); ring++) {
+            // Todo punto del anillo está al menos a (ring - 1) celdas del centro
+            if (best.size() == limit && (ring - 1) * ringKm > best.peek().distanceKm()) {
+                break;
+            }
+            for (int dRow = -Math.min(ring, rowReach); dRow <= Math.min(ring, rowReach); dRow++) {
+                if (Math.abs(dRow) == ring) {
+                    for (int dColumn = -Math.min(ring, columnReach); dColumn <= Math.min(ring, columnReach); dColumn++) {
+                        visit(row + dRow, column + dColumn, center, radiusKm, filter, limit, best);
+                    }
+                } else if (ring <= columnReach) {
+                    visit(row + dRow, column - ring, center, radiusKm, filter, limit, best);
+                    visit(row + dRow, column + ring, center, radiusKm, filter, limit, best);
+                }
+            }
+        }
+        List<Hit> hits = new ArrayList<>(best);
+        hits.sort(NEAREST);
+        return hits;
+    }
+
+    private void visit(int row, int column, GeoPoint center, double radiusKm, Predicate<UUID> filter,
+                       int limit, PriorityQueue<Hit> best) {
+        if (row < 0 || row >= ROWS) {
+            return;
+        }
+        Cell cell = cells.get((long) row * COLUMNS + Math.floorMod(column, COLUMNS));
+        if (cell == null) {
+            return;
+        }
+        for (int i = 0; i < cell.ids().length; i++) {
+            double distance = center.distanceKm(cell.points()[i]);
+            if (distance > radiusKm || (best.size() == limit && distance >= best.peek().distanceKm())) {
+                continue;
+            }
+            if (!filter.test(cell.ids()[i])) {
+                continue;
+            }
+            best.add(new Hit(cell.ids()[i], distance));
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+    }
+
+    private static long key(GeoPoint point) {
+        return (long) row(point.latitude()) * COLUMNS + column(point.longitude());
+    }
+
+    private static int row(double latitude) {
+        return Math.min(ROWS - 1, (int) Math.floor((latitude + 90) / CELL_DEGREES));
+    }
+
+    private static int column(double longitude) {
+        return Math.floorMod((int) Math.floor((longitude + 180) / CELL_DEGREES), COLUMNS);
+    }
+
+    record Hit(UUID spaceId, double distanceKm) {
+    }
+
+    private record Cell(UUID[] ids, GeoPoint[] points) {
+
+        Cell plus(Cell other) {
+            UUID[] nextIds = Arrays.copyOf(ids, ids.length + other.ids.length);
+            GeoPoint[] nextPoints = Arrays.copyOf(points, points.length + other.points.length);
+            System.arraycopy(other.ids, 0, nextIds, ids.length, other.ids.length);
+            System.arraycopy(other.points, 0, nextPoints, points.length, other.points.length);
+            return new Cell(nextIds, nextPoints);
+        }
+
+        Cell without(UUID spaceId) {
+            List<UUID> keptIds = new ArrayList<>();
+            List<GeoPoint> keptPoints = new ArrayList<>();
+            for (int i = 0; i < ids.length; i++) {
+                if (!ids[i].equals(spaceId)) {
+                    keptIds.add(ids[i]);
+                    keptPoints.add(points[i]);
+                }
+            }
+            return new Cell(keptIds.toArray(UUID[]::new), keptPoints.toArray(GeoPoint[]::new));
+        }
+    }
+}
@@ -19,6 +19,7 @@ import java.util.UUID;
 public class SpaceImageService {
     private final SpaceImageRepository repository;
     private final SpaceRepository spaceRepository;
+    private final SpaceCatalog spaceCatalog;
 
     public List<SpaceImage> listAll() {
         return repository.findAll();
@@ -58,7 +59,9 @@ public class SpaceImageService {
         image.setOrd((int) (imageCount + 1));
         image.setCreatedAt(OffsetDateTime.now());
 
-        return repository.save(image);
+        SpaceImage saved = repository.save(image);
+        spaceCatalog.refresh(spaceId);
+        return saved;
     }
 
     @Transactional
@@ -84,7 +87,9 @@ public class SpaceImageService {
                 image.setMain(false);
             }
 
-            return repository.save(image);
+            SpaceImage saved = repository.save(image);
+            spaceCatalog.refresh(image.getSpaceId());
+            return saved;
         });
     }
 
@@ -113,6 +118,7 @@ public class SpaceImageService {
             }
         }
 
+        spaceCatalog.refresh(spaceId);
         return true;
     }
 
@@ -120,6 +126,7 @@ public class SpaceImageService {
     public void deleteAllImagesForSpace(UUID spaceId) {
         log.info("Deleting all images for space: {}", spaceId);
         repository.deleteBySpaceId(spaceId);
+        spaceCatalog.refresh(spaceId);
     }
 
     @Transactional
@@ -136,5 +143,6 @@ public class SpaceImageService {
                 }
             });
         }
+        spaceCatalog.refresh(spaceId);
     }
 }
\ No newline at end of file
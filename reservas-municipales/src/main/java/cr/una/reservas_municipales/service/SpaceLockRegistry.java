@@ -0,0 +1,135 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Candados en memoria por espacio, repartidos en un número fijo de franjas (striping).
+ *
+ * Serializa "verificar conflicto + insertar" para un mismo espacio dentro de esta JVM,
+ * mientras que reservas de espacios distintos casi nunca compiten por la misma franja.
+ * Si hay una transacción activa el candado se libera al terminarla (commit o rollback),
+ * de modo que la siguiente verificación ya ve la fila confirmada.
+ *
+ * Entre instancias distintas la garantía la da la restricción EXCLUDE de la BD.
+ */
+@Slf4j
+@Component
+public class SpaceLockRegistry {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMillis;
+    private final boolean enabled;
+
+    public SpaceLockRegistry(@Value("${app.reservations.locking.stripes:64}") int stripes,
+                             @Value("${app.reservations.locking.timeout-ms:5000}") long timeoutMillis,
+                             @Value("${app.reservations.locking.enabled:true}") boolean enabled) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("La cantidad de franjas debe ser positiva");
+        }
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMillis = timeoutMillis;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Ejecuta la acción con el candado del espacio tomado.
+     */
+    public <T> T execute(UUID spaceId, Supplier<T> action) {
+        return executeAll(List.of(spaceId), action);
+    }
+
+    /**
+     * Ejecuta la acción con los candados de todos los espacios tomados. Las franjas se
+     * adquieren en orden ascendente para que dos lotes concurrentes no se bloqueen mutuamente.
+     */
+    public <T> T executeAll(Collection<UUID> spaceIds, Supplier<T> action) {
+        if (!enabled || spaceIds.isEmpty()) {
+            return action.get();
+        }
+
+        int[] indexes = spaceIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .toArray();
+        List<ReentrantLock> held = new ArrayList<>(indexes.length);
+        try {
+            for (int index : indexes) {
+                acquire(stripes[index], spaceIds);
+                held.add(stripes[index]);
+            }
+        } catch (RuntimeException e) {
+            held.forEach(ReentrantLock::unlock);
+            throw e;
+        }
+
+        boolean deferred = false;
+        try {
+            T result = action.get();
+            deferred = releaseOnCompletion(held);
+            return result;
+        } finally {
+            if (!deferred) {
+                held.forEach(ReentrantLock::unlock);
+            }
+        }
+    }
+
+    public void run(UUID spaceId, Runnable action) {
+        execute(spaceId, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    public int stripeCount() {
+        return stripes.length;
+    }
+
+    int stripeIndex(UUID spaceId) {
+        int h = spaceId.hashCode();
+        h ^= (h >>> 16);
+        return Math.floorMod(h, stripes.length);
+    }
+
+    private void acquire(ReentrantLock lock, Collection<UUID> spaceIds) {
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("Tiempo de espera agotado para el candado de los espacios {}", spaceIds);
+                throw new BusinessException("El espacio está siendo reservado por otro usuario, intente de nuevo");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("Reserva interrumpida, intente de nuevo", e);
+        }
+    }
+
+    private boolean releaseOnCompletion(List<ReentrantLock> held) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return false;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                held.forEach(ReentrantLock::unlock);
+            }
+        });
+        return true;
+    }
+}
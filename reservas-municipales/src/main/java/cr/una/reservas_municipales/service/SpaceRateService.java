@@ -1,19 +1,37 @@
 package cr.una.reservas_municipales.service;
 
+import cr.una.reservas_municipales.dto.BulkQuoteRequestDto;
+import cr.una.reservas_municipales.dto.QuoteDto;
+import cr.una.reservas_municipales.dto.QuoteWindowDto;
 import cr.una.reservas_municipales.dto.SpaceRateDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.SpaceNotFoundException;
 import cr.una.reservas_municipales.model.SpaceRate;
 import cr.una.reservas_municipales.repository.SpaceRateRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class SpaceRateService {
     private final SpaceRateRepository spaceRateRepository;
+    private final SpaceRepository spaceRepository;
+    private final RateIndex rateIndex;
+
+    @Value("${app.pricing.bulk.max-quotes:1000}")
+    private int maxBulkQuotes = 1000;
 
     public List<SpaceRateDto> listAll() {
         return spaceRateRepository.findAll().stream().map(this::toDto).collect(Collectors.toList());
@@ -23,6 +41,61 @@ public class SpaceRateService {
         return spaceRateRepository.findById(id).map(this::toDto);
     }
 
+    /**
+     * Precio del espacio en la ventana con las tarifas vigentes, el mismo que se cobra al crear la reserva.
+     */
+    public QuoteDto quote(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        validateWindow(startsAt, endsAt);
+        Optional<RateTimeline.Quote> quote = rateIndex.quote(spaceId, startsAt, endsAt);
+        if (quote.isPresent()) {
+            return toQuoteDto(spaceId, startsAt, endsAt, quote.get());
+        }
+        // Solo se consulta la existencia cuando no hay precio: el camino normal no toca la base
+        if (!spaceRepository.existsById(spaceId)) {
+            throw new SpaceNotFoundException("Espacio no encontrado con ID: " + spaceId);
+        }
+        throw new BusinessException(RateIndex.NOT_COVERED_MESSAGE);
+    }
+
+    /**
+     * Cotiza cada espacio en cada ventana, en ese orden. Las tarifas de los espacios que no están en
+     * caché se cargan con una sola consulta.
+     */
+    public List<QuoteDto> quoteBulk(BulkQuoteRequestDto request) {
+        Set<UUID> spaceIds = new LinkedHashSet<>(request.getSpaceIds());
+        List<QuoteWindowDto> windows = request.getWindows();
+        if ((long) spaceIds.size() * windows.size() > maxBulkQuotes) {
+            throw new BusinessException("La consulta no puede superar " + maxBulkQuotes + " cotizaciones");
+        }
+        windows.forEach(window -> validateWindow(window.getStartsAt(), window.getEndsAt()));
+
+        Map<UUID, RateTimeline> timelines = rateIndex.timelines(spaceIds);
+        List<QuoteDto> quotes = new ArrayList<>(spaceIds.size() * windows.size());
+        for (UUID spaceId : spaceIds) {
+            RateTimeline timeline = timelines.get(spaceId);
+            for (QuoteWindowDto window : windows) {
+                RateTimeline.Quote quote = timeline.quote(window.getStartsAt(), window.getEndsAt());
+                quotes.add(quote != null
+                        ? toQuoteDto(spaceId, window.getStartsAt(), window.getEndsAt(), quote)
+                        : new QuoteDto(spaceId, window.getStartsAt(), window.getEndsAt(), false, null, null, null));
+            }
+        }
+        return quotes;
+    }
+
+    private static void validateWindow(OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        if (startsAt == null || endsAt == null) {
+            throw new BusinessException("Las fechas de inicio y fin son requeridas");
+        }
+        if (!endsAt.isAfter(startsAt)) {
+            throw new BusinessException("La fecha de inicio debe ser anterior a la fecha de fin");
+        }
+    }
+
+    private static QuoteDto toQuoteDto(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt, RateTimeline.Quote quote) {
+        return new QuoteDto(spaceId, startsAt, endsAt, true, quote.rateId(), quote.amount(), quote.currency());
+    }
+
     private SpaceRateDto toDto(SpaceRate r) {
         SpaceRateDto d = new SpaceRateDto();
         d.setRateId(r.getRateId());
@@ -27,6 +27,7 @@ public class SpaceScheduleService {
 
     private final SpaceScheduleRepository scheduleRepository;
     private final SpaceRepository spaceRepository;
+    private final ScheduleIndex scheduleIndex;
 
     /**
      * Get all schedules for a space
@@ -86,6 +87,7 @@ public class SpaceScheduleService {
         schedule.setTimeTo(dto.getTimeTo());
 
         SpaceSchedule saved = scheduleRepository.save(schedule);
+        scheduleIndex.invalidate(spaceId);
         log.info("Created schedule {} for space {}", saved.getScheduleId(), spaceId);
 
         return toDto(saved);
@@ -103,6 +105,8 @@ public class SpaceScheduleService {
         }
 
         scheduleRepository.deleteById(scheduleId);
+        // Solo se conoce el ID del horario; borrar horarios es raro, así que se vacía toda la caché
+        scheduleIndex.invalidateAll();
         log.info("Deleted schedule {}", scheduleId);
     }
 
@@ -119,6 +123,7 @@ public class SpaceScheduleService {
 
         long count = scheduleRepository.countBySpace_SpaceId(spaceId);
         scheduleRepository.deleteBySpace_SpaceId(spaceId);
+        scheduleIndex.invalidate(spaceId);
         log.info("Deleted {} schedules for space {}", count, spaceId);
     }
 
@@ -0,0 +1,330 @@
+package cr.una.reservas_municipales.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * Índice invertido de trigramas sobre nombre, descripción y ubicación de los espacios. El texto se
+ * pasa a minúsculas sin tildes ("Salón" y "salon" son el mismo término) y cada palabra se parte en
+ * trigramas con relleno, como pg_trgm.
+ *
+ * Tiene dos niveles: los trigramas apuntan a las palabras distintas del vocabulario y cada palabra a
+ * los (espacio, campo) donde aparece. Cada palabra de la consulta se compara contra el vocabulario con
+ * la similitud de Jaccard de sus trigramas; basta {@link #MIN_SIMILARITY} para tolerar errores de
+ * tipeo y prefijos ("gimnacio", "sal"). Un espacio coincide si todas las palabras de la consulta
+ * coinciden en algún campo, y se ordena por la suma de similitudes ponderada por campo, con un extra
+ * si el campo contiene la frase completa.
+ *
+ * Es inmutable: {@link #with(UUID, SpaceCatalog.Entry)} devuelve un índice nuevo que solo copia las
+ * listas de las palabras del espacio modificado y comparte el resto.
+ */
+final class SpaceSearchIndex {
+
+    static final int NAME = 0;
+    static final int DESCRIPTION = 1;
+    static final int LOCATION = 2;
+
+    static final int NAME_AND_DESCRIPTION = (1 << NAME) | (1 << DESCRIPTION);
+    static final int ALL_FIELDS = NAME_AND_DESCRIPTION | (1 << LOCATION);
+
+    static final double MIN_SIMILARITY = 0.3;
+
+    private static final int FIELDS = 3;
+    private static final double[] FIELD_WEIGHTS = {3.0, 1.0, 2.0};
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALNUM = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int[] NONE = new int[0];
+
+    private static final Comparator<Hit> RANKING = Comparator.comparingDouble(Hit::score).reversed()
+            .thenComparing(Hit::sortKey)
+            .thenComparing(Hit::spaceId);
+
+    /**
+     * Documentos por ordinal; los quitados quedan en null hasta la próxima reconstrucción completa.
+     */
+    private final Doc[] docs;
+    private final Map<UUID, Doc> byId;
+    private final Map<String, Integer> wordIds;
+    private final int[] trigramCounts;
+    private final Map<String, int[]> wordsByTrigram;
+    /**
+     * Por id de palabra, postings (ordinal << 2 | campo) de los espacios que la contienen.
+     */
+    private final int[][] postings;
+
+    private SpaceSearchIndex(Doc[] docs, Map<UUID, Doc> byId, Map<String, Integer> wordIds, int[] trigramCounts,
+                             Map<String, int[]> wordsByTrigram, int[][] postings) {
+        this.docs = docs;
+        this.byId = byId;
+        this.wordIds = wordIds;
+        this.trigramCounts = trigramCounts;
+        this.wordsByTrigram = wordsByTrigram;
+        this.postings = postings;
+    }
+
+    private static final SpaceSearchIndex EMPTY =
+            new SpaceSearchIndex(new Doc[0], Map.of(), Map.of(), NONE, Map.of(), new int[0][]);
+
+    static SpaceSearchIndex build(Collection<SpaceCatalog.Entry> entries) {
+        Builder builder = new Builder(EMPTY);
+        entries.forEach(builder::add);
+        return builder.build();
+    }
+
+    /**
+     * Índice con el espacio reemplazado por {@code entry}, o quitado si es null.
+     */
+    SpaceSearchIndex with(UUID spaceId, SpaceCatalog.Entry entry) {
+        Builder builder = new Builder(this);
+        builder.remove(spaceId);
+        if (entry != null) {
+            builder.add(entry);
+        }
+        return builder.build();
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    /**
+     * Espacios que coinciden con la consulta en los campos de {@code fieldMask}, de mayor a menor
+     * puntaje, hasta {@code limit}. {@code filter} descarta espacios antes de aplicar el límite.
+     */
+    List<Hit> search(String query, int fieldMask, Predicate<UUID> filter, int limit) {
+        List<String> words = queryWords(query);
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        double[] score = new double[docs.length];
+        int[] matched = new int[docs.length];
+        double[] best = new double[docs.length * FIELDS];
+        int[] shared = new int[trigramCounts.length];
+        int[] similar = new int[trigramCounts.length];
+        int[] touched = new int[docs.length * FIELDS];
+        for (int w = 0; w < words.size(); w++) {
+            // Palabras del vocabulario que comparten algún trigrama y cuántos
+            Set<String> trigrams = trigrams(words.get(w));
+            int candidates = 0;
+            for (String trigram : trigrams) {
+                for (int wordId : wordsByTrigram.getOrDefault(trigram, NONE)) {
+                    if (shared[wordId]++ == 0) {
+                        similar[candidates++] = wordId;
+                    }
+                }
+            }
+            // Mejor similitud por espacio y campo entre las palabras parecidas
+            int slots = 0;
+            for (int i = 0; i < candidates; i++) {
+                int wordId = similar[i];
+                int common = shared[wordId];
+                shared[wordId] = 0;
+                double similarity = (double) common / (trigrams.size() + trigramCounts[wordId] - common);
+                if (similarity < MIN_SIMILARITY) {
+                    continue;
+                }
+                for (int posting : postings[wordId]) {
+                    int field = posting & 3;
+                    if ((fieldMask & (1 << field)) == 0) {
+                        continue;
+                    }
+                    int slot = (posting >>> 2) * FIELDS + field;
+                    if (best[slot] == 0) {
+                        touched[slots++] = slot;
+                    }
+                    best[slot] = Math.max(best[slot], similarity);
+                }
+            }
+            for (int i = 0; i < slots; i++) {
+                int slot = touched[i];
+                int ordinal = slot / FIELDS;
+                if (matched[ordinal] == w) {
+                    matched[ordinal]++;
+                }
+                score[ordinal] += FIELD_WEIGHTS[slot % FIELDS] * best[slot];
+                best[slot] = 0;
+            }
+        }
+
+        String phrase = String.join(" ", words);
+        PriorityQueue<Hit> top = new PriorityQueue<>(RANKING.reversed());
+        for (int ordinal = 0; ordinal < docs.length; ordinal++) {
+            Doc doc = docs[ordinal];
+            if (matched[ordinal] < words.size() || doc == null || !filter.test(doc.spaceId())) {
+                continue;
+            }
+            double value = score[ordinal];
+            for (int field = NAME; field <= LOCATION; field++) {
+                if ((fieldMask & (1 << field)) != 0 && doc.fields()[field].contains(phrase)) {
+                    value += FIELD_WEIGHTS[field];
+                }
+            }
+            if (top.size() == limit && value < top.peek().score()) {
+                continue;
+            }
+            top.add(new Hit(doc.spaceId(), doc.fields()[NAME], value));
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(top);
+        hits.sort(RANKING);
+        return hits;
+    }
+
+    /**
+     * Minúsculas sin tildes ni signos: "Salón Comunal" → "salon comunal".
+     */
+    static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+        String stripped = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        return NON_ALNUM.matcher(stripped.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * Palabras de la consulta; las de menos de tres letras se ignoran si hay otras más largas.
+     */
+    static List<String> queryWords(String query) {
+        String folded = fold(query);
+        if (folded.isEmpty()) {
+            return List.of();
+        }
+        List<String> words = Arrays.stream(folded.split(" ")).distinct().toList();
+        List<String> longWords = words.stream().filter(word -> word.length() >= 3).toList();
+        return longWords.isEmpty() ? words : longWords;
+    }
+
+    static Set<String> trigrams(String word) {
+        String padded = "  " + word + " ";
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    record Hit(UUID spaceId, String sortKey, double score) {
+    }
+
+    private record Doc(UUID spaceId, int ordinal, String[] fields, int[] wordIds) {
+    }
+
+    /**
+     * Arma un índice nuevo a partir de otro. Los mapas se copian superficialmente y los arreglos de
+     * postings solo se reemplazan para las palabras que cambian, así el índice original queda intacto.
+     */
+    private static final class Builder {
+
+        private Doc[] docs;
+        private final Map<UUID, Doc> byId;
+        private final Map<String, Integer> wordIds;
+        private int[] trigramCounts;
+        private final Map<String, int[]> wordsByTrigram;
+        private int[][] postings;
+        private int docCount;
+        private int wordCount;
+
+        Builder(SpaceSearchIndex base) {
+            this.docs = base.docs.clone();
+            this.byId = new HashMap<>(base.byId);
+            this.wordIds = new HashMap<>(base.wordIds);
+            this.trigramCounts = base.trigramCounts;
+            this.wordsByTrigram = new HashMap<>(base.wordsByTrigram);
+            this.postings = base.postings.clone();
+            this.docCount = base.docs.length;
+            this.wordCount = base.trigramCounts.length;
+        }
+
+        void remove(UUID spaceId) {
+            Doc old = byId.remove(spaceId);
+            if (old == null) {
+                return;
+            }
+            docs[old.ordinal()] = null;
+            for (int wordId : old.wordIds()) {
+                postings[wordId] = Arrays.stream(postings[wordId])
+                        .filter(posting -> posting >>> 2 != old.ordinal())
+                        .toArray();
+            }
+        }
+
+        void add(SpaceCatalog.Entry entry) {
+            String[] fields = {
+                    fold(entry.dto().getName()), fold(entry.dto().getDescription()), fold(entry.dto().getLocation())
+            };
+            int ordinal = docCount++;
+            Map<Integer, Integer> fieldsByWord = new HashMap<>();
+            for (int field = NAME; field <= LOCATION; field++) {
+                if (!fields[field].isEmpty()) {
+                    for (String word : fields[field].split(" ")) {
+                        fieldsByWord.merge(wordId(word), 1 << field, (a, b) -> a | b);
+                    }
+                }
+            }
+            fieldsByWord.forEach((wordId, mask) -> {
+                int[] current = postings[wordId];
+                int[] next = Arrays.copyOf(current, current.length + Integer.bitCount(mask));
+                int i = current.length;
+                for (int field = NAME; field <= LOCATION; field++) {
+                    if ((mask & (1 << field)) != 0) {
+                        next[i++] = ordinal << 2 | field;
+                    }
+                }
+                postings[wordId] = next;
+            });
+
+            Doc doc = new Doc(entry.dto().getSpaceId(), ordinal, fields,
+                    fieldsByWord.keySet().stream().mapToInt(Integer::intValue).toArray());
+            if (docs.length < docCount) {
+                docs = Arrays.copyOf(docs, Math.max(docCount, docs.length * 2));
+            }
+            docs[ordinal] = doc;
+            byId.put(doc.spaceId(), doc);
+        }
+
+        private int wordId(String word) {
+            Integer existing = wordIds.get(word);
+            if (existing != null) {
+                return existing;
+            }
+            int wordId = wordCount++;
+            wordIds.put(word, wordId);
+            if (trigramCounts.length < wordCount) {
+                int capacity = Math.max(16, trigramCounts.length * 2);
+                trigramCounts = Arrays.copyOf(trigramCounts, capacity);
+                postings = Arrays.copyOf(postings, capacity);
+            }
+            Set<String> trigrams = trigrams(word);
+            trigramCounts[wordId] = trigrams.size();
+            postings[wordId] = NONE;
+            for (String trigram : trigrams) {
+                int[] current = wordsByTrigram.getOrDefault(trigram, NONE);
+                int[] next = Arrays.copyOf(current, current.length + 1);
+                next[current.length] = wordId;
+                wordsByTrigram.put(trigram, next);
+            }
+            return wordId;
+        }
+
+        SpaceSearchIndex build() {
+            return new SpaceSearchIndex(Arrays.copyOf(docs, docCount), byId, wordIds,
+                    Arrays.copyOf(trigramCounts, wordCount), wordsByTrigram, Arrays.copyOf(postings, wordCount));
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package cr.una.reservas_municipales.service;
 
+import cr.una.reservas_municipales.dto.NearbySpaceDto;
 import cr.una.reservas_municipales.dto.SpaceDto;
 import cr.una.reservas_municipales.dto.SpaceImageDto;
+import cr.una.reservas_municipales.exception.BusinessException;
 import cr.una.reservas_municipales.model.Space;
 import cr.una.reservas_municipales.model.SpaceImage;
 import cr.una.reservas_municipales.repository.SpaceRepository;
@@ -9,17 +11,22 @@ import cr.una.reservas_municipales.repository.ReservationRepository;
 import cr.una.reservas_municipales.repository.SpaceImageRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.time.OffsetDateTime;
 import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -30,16 +37,45 @@ public class SpaceService {
     private final ReservationRepository reservationRepository;
     private final SpaceImageRepository spaceImageRepository;
     private final CloudinaryService cloudinaryService;
+    private final SpaceCatalog spaceCatalog;
+    private final AvailabilityIndex availabilityIndex;
+    private final ClosureIndex closureIndex;
+
+    private static final Set<String> SEARCH_SORTS = Set.of("name", "capacity", "rating");
+
+    // Tope de IDs por consulta IN al cargar imágenes (PostgreSQL admite hasta 32767 parámetros)
+    static final int IMAGE_BATCH_SIZE = 1000;
+
+    @Value("${app.spaces.search.default-limit:100}")
+    private int defaultSearchLimit = 100;
+
+    @Value("${app.spaces.search.max-limit:500}")
+    private int maxSearchLimit = 500;
+
+    @Value("${app.spaces.text-search.default-limit:10}")
+    private int defaultTextSearchLimit = 10;
+
+    @Value("${app.spaces.text-search.max-limit:50}")
+    private int maxTextSearchLimit = 50;
+
+    @Value("${app.spaces.nearby.default-radius-km:5}")
+    private double defaultNearbyRadiusKm = 5;
+
+    @Value("${app.spaces.nearby.max-radius-km:100}")
+    private double maxNearbyRadiusKm = 100;
+
+    @Value("${app.spaces.nearby.default-limit:20}")
+    private int defaultNearbyLimit = 20;
+
+    @Value("${app.spaces.nearby.max-limit:100}")
+    private int maxNearbyLimit = 100;
 
     public List<SpaceDto> listAll() {
-        return spaceRepository.findAll().stream().map(this::toDto).collect(Collectors.toList());
+        return spaceCatalog.snapshot().all();
     }
 
     public List<SpaceDto> listActiveSpaces() {
-        return spaceRepository.findAll().stream()
-                .filter(Space::isActive)
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return spaceCatalog.snapshot().active();
     }
 
     public Optional<SpaceDto> getById(UUID id) {
@@ -59,10 +95,12 @@ public class SpaceService {
         space.setOutdoor(spaceDto.isOutdoor());
         space.setActive(true);
         space.setDescription(spaceDto.getDescription());
+        applyCoordinates(space, spaceDto);
         space.setCreatedAt(OffsetDateTime.now());
         space.setUpdatedAt(OffsetDateTime.now());
 
         Space saved = spaceRepository.save(space);
+        spaceCatalog.refresh(saved.getSpaceId());
         return toDto(saved);
     }
 
@@ -82,10 +120,12 @@ public class SpaceService {
         space.setOutdoor(spaceDto.isOutdoor());
         space.setActive(true);
         space.setDescription(spaceDto.getDescription());
+        applyCoordinates(space, spaceDto);
         space.setCreatedAt(OffsetDateTime.now());
         space.setUpdatedAt(OffsetDateTime.now());
         
         Space savedSpace = spaceRepository.save(space);
+        spaceCatalog.refresh(spaceId);
         log.info("Space created with ID: {}", spaceId);
         
         
@@ -166,6 +206,7 @@ public class SpaceService {
         
         if (!newImages.isEmpty()) {
             spaceImageRepository.saveAll(newImages);
+            spaceCatalog.refresh(spaceId);
             log.info("Added {} images to space {}", newImages.size(), spaceId);
         }
         
@@ -203,6 +244,7 @@ public class SpaceService {
         
         
         spaceImageRepository.delete(image);
+        spaceCatalog.refresh(spaceId);
         log.info("Image {} deleted from database", imageId);
         
         return true;
@@ -219,9 +261,12 @@ public class SpaceService {
             space.setOutdoor(spaceDto.isOutdoor());
             space.setActive(spaceDto.isActive());
             space.setDescription(spaceDto.getDescription());
+            applyCoordinates(space, spaceDto);
             space.setUpdatedAt(OffsetDateTime.now());
             
-            return toDto(spaceRepository.save(space));
+            Space saved = spaceRepository.save(space);
+            spaceCatalog.refresh(id);
+            return toDto(saved);
         });
     }
 
@@ -231,6 +276,7 @@ public class SpaceService {
             space.setActive(false);
             space.setUpdatedAt(OffsetDateTime.now());
             spaceRepository.save(space);
+            spaceCatalog.refresh(id);
             return true;
         }).orElse(false);
     }
@@ -252,18 +298,16 @@ public class SpaceService {
         
         log.info("Permanently deleting space {} (no reservations found)", id);
         spaceRepository.deleteById(id);
+        spaceCatalog.refresh(id);
         return true;
     }
 
     public boolean existsByName(String name) {
-        return spaceRepository.findAll().stream()
-                .anyMatch(space -> space.getName().equalsIgnoreCase(name));
+        return spaceCatalog.snapshot().nameTaken(name, null);
     }
 
     public boolean existsByNameAndNotId(String name, UUID excludeId) {
-        return spaceRepository.findAll().stream()
-                .anyMatch(space -> space.getName().equalsIgnoreCase(name) && 
-                                 !space.getSpaceId().equals(excludeId));
+        return spaceCatalog.snapshot().nameTaken(name, excludeId);
     }
 
     
@@ -271,58 +315,27 @@ public class SpaceService {
                                       Integer maxCapacity, String location, Boolean outdoor, Boolean activeOnly) {
         log.info("Performing advanced search with filters");
         
-        return spaceRepository.findAll().stream()
-                .filter(space -> {
-                    
-                    if (activeOnly && !space.isActive()) {
-                        return false;
-                    }
-                    
-                    
-                    if (name != null && !name.trim().isEmpty()) {
-                        String searchName = name.toLowerCase().trim();
-                        if (!space.getName().toLowerCase().contains(searchName) && 
-                            (space.getDescription() == null || !space.getDescription().toLowerCase().contains(searchName))) {
-                            return false;
-                        }
-                    }
-                    
-                    
-                    if (spaceTypeId != null && !spaceTypeId.equals((int) space.getSpaceTypeId())) {
-                        return false;
-                    }
-                    
-                    
-                    if (minCapacity != null && space.getCapacity() < minCapacity) {
-                        return false;
-                    }
-                    
-                    
-                    if (maxCapacity != null && space.getCapacity() > maxCapacity) {
-                        return false;
-                    }
-                    
-                    
-                    if (location != null && !location.trim().isEmpty()) {
-                        if (space.getLocation() == null || 
-                            !space.getLocation().toLowerCase().contains(location.toLowerCase().trim())) {
-                            return false;
-                        }
-                    }
-                    
-                    
-                    if (outdoor != null && !outdoor.equals(space.isOutdoor())) {
-                        return false;
-                    }
-                    
-                    return true;
-                })
-                .map(this::toDto)
-                .collect(Collectors.toList());
+        return spaceCatalog.snapshot().search(name, spaceTypeId == null ? null : spaceTypeId.shortValue(),
+                minCapacity, maxCapacity, location, outdoor, activeOnly);
     }
 
-    public List<SpaceDto> findAvailableSpaces(String startDate, String endDate, 
-                                            Integer spaceTypeId, Integer minCapacity) {
+    /**
+     * Espacios activos más relevantes para el texto (nombre, descripción y ubicación), sin
+     * distinguir tildes y tolerando errores de tipeo.
+     */
+    public List<SpaceDto> searchText(String query, Integer limit) {
+        int size = limit == null || limit <= 0 ? defaultTextSearchLimit : Math.min(limit, maxTextSearchLimit);
+        return spaceCatalog.snapshot().searchText(query, true, size);
+    }
+
+    /**
+     * Espacios activos libres en el rango: disponibilidad (reservas y cierres), filtros, orden y
+     * paginación se resuelven en una sola consulta; las imágenes de la página se traen con un IN.
+     */
+    @Transactional(readOnly = true)
+    public List<SpaceDto> findAvailableSpaces(String startDate, String endDate,
+                                            Integer spaceTypeId, Integer minCapacity,
+                                            String sort, Integer limit, Integer offset) {
         log.info("Searching for available spaces from {} to {}", startDate, endDate);
         
         try {
@@ -330,36 +343,13 @@ public class SpaceService {
             OffsetDateTime startsAt = OffsetDateTime.parse(startDate, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
             OffsetDateTime endsAt = OffsetDateTime.parse(endDate, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
             
+            int size = limit == null || limit <= 0 ? defaultSearchLimit : Math.min(limit, maxSearchLimit);
+            List<Space> spaces = spaceRepository.findAvailable(startsAt, endsAt,
+                    spaceTypeId == null ? null : spaceTypeId.shortValue(), minCapacity,
+                    sort != null && SEARCH_SORTS.contains(sort) ? sort : "name", size, offset == null ? 0 : Math.max(0, offset));
+            log.info("Found {} available spaces in the date range", spaces.size());
             
-            List<UUID> occupiedSpaceIds = reservationRepository.findOccupiedSpaceIds(startsAt, endsAt);
-            log.info("Found {} occupied spaces in the date range", occupiedSpaceIds.size());
-            
-            return spaceRepository.findAll().stream()
-                    .filter(space -> {
-                        
-                        if (!space.isActive()) {
-                            return false;
-                        }
-                        
-                        
-                        if (occupiedSpaceIds.contains(space.getSpaceId())) {
-                            return false;
-                        }
-                        
-                        
-                        if (spaceTypeId != null && !spaceTypeId.equals((int) space.getSpaceTypeId())) {
-                            return false;
-                        }
-                        
-                        
-                        if (minCapacity != null && space.getCapacity() < minCapacity) {
-                            return false;
-                        }
-                        
-                        return true;
-                    })
-                    .map(this::toDto)
-                    .collect(Collectors.toList());
+            return toDtos(spaces);
                     
         } catch (Exception e) {
             log.error("Error parsing dates or searching available spaces", e);
@@ -367,6 +357,92 @@ public class SpaceService {
         }
     }
 
+    /**
+     * Espacios activos más cercanos al punto dentro del radio, resueltos con el índice espacial del
+     * catálogo. Con {@code startDate}/{@code endDate} solo se devuelven los libres en ese rango (sin
+     * reservas activas ni cierres), verificando únicamente los candidatos más cercanos.
+     */
+    @Transactional(readOnly = true)
+    public List<NearbySpaceDto> findNearbySpaces(double latitude, double longitude, Double radiusKm, Integer limit,
+                                                 Integer spaceTypeId, Integer minCapacity, Boolean outdoor,
+                                                 String startDate, String endDate) {
+        if (!GeoPoint.valid(latitude, longitude)) {
+            throw new BusinessException("Coordenadas fuera de rango");
+        }
+        if ((startDate == null) != (endDate == null)) {
+            throw new BusinessException("Debe indicar fecha de inicio y de fin");
+        }
+        double radius = radiusKm == null || radiusKm <= 0 ? defaultNearbyRadiusKm : Math.min(radiusKm, maxNearbyRadiusKm);
+        int size = limit == null || limit <= 0 ? defaultNearbyLimit : Math.min(limit, maxNearbyLimit);
+
+        Predicate<UUID> available = spaceId -> true;
+        if (startDate != null) {
+            OffsetDateTime startsAt;
+            OffsetDateTime endsAt;
+            try {
+                startsAt = OffsetDateTime.parse(startDate, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+                endsAt = OffsetDateTime.parse(endDate, DateTimeFormatter.ISO_OFFSET_DATE_TIME);
+            } catch (DateTimeParseException e) {
+                throw new BusinessException("Formato de fecha inválido", e);
+            }
+            if (!endsAt.isAfter(startsAt)) {
+                throw new BusinessException("La fecha de fin debe ser posterior a la de inicio");
+            }
+            available = spaceId -> isFree(spaceId, startsAt, endsAt);
+        }
+
+        List<NearbySpaceDto> result = spaceCatalog.snapshot().nearby(new GeoPoint(latitude, longitude), radius,
+                spaceTypeId == null ? null : spaceTypeId.shortValue(), minCapacity, outdoor, available, size);
+        log.info("Found {} spaces within {} km of {},{}", result.size(), radius, latitude, longitude);
+        return result;
+    }
+
+    /**
+     * Igual que la verificación al reservar: el índice de disponibilidad descarta la BD cuando cubre
+     * el horario y no ve conflicto; un posible conflicto se confirma con la consulta.
+     */
+    private boolean isFree(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        if (closureIndex.findOverlap(spaceId, startsAt, endsAt).isPresent()) {
+            return false;
+        }
+        if (availabilityIndex.covers(startsAt) && !availabilityIndex.hasConflict(spaceId, startsAt, endsAt, null)) {
+            return true;
+        }
+        return reservationRepository.findConflictingReservations(spaceId, startsAt, endsAt).isEmpty();
+    }
+
+    /**
+     * Normaliza las coordenadas: las enviadas explícitamente o, si faltan, las de location
+     * ("lat,lon"); una ubicación textual deja el espacio sin coordenadas.
+     */
+    private static void applyCoordinates(Space space, SpaceDto spaceDto) {
+        GeoPoint point = GeoPoint.of(spaceDto.getLatitude(), spaceDto.getLongitude())
+                .or(() -> GeoPoint.parse(spaceDto.getLocation()))
+                .orElse(null);
+        space.setLatitude(point == null ? null : point.latitude());
+        space.setLongitude(point == null ? null : point.longitude());
+    }
+
+    /**
+     * Arma los DTO de una lista de espacios cargando sus imágenes en bloques de
+     * {@link #IMAGE_BATCH_SIZE} IDs por consulta ({@code space_id IN (...)}) en vez de una por espacio.
+     */
+    private List<SpaceDto> toDtos(List<Space> spaces) {
+        if (spaces.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<UUID> spaceIds = spaces.stream().map(Space::getSpaceId).collect(Collectors.toList());
+        Map<UUID, List<SpaceImage>> imagesBySpace = new HashMap<>();
+        for (int from = 0; from < spaceIds.size(); from += IMAGE_BATCH_SIZE) {
+            List<UUID> batch = spaceIds.subList(from, Math.min(from + IMAGE_BATCH_SIZE, spaceIds.size()));
+            spaceImageRepository.findBySpaceIdInOrderByOrdAsc(batch)
+                    .forEach(image -> imagesBySpace.computeIfAbsent(image.getSpaceId(), id -> new ArrayList<>()).add(image));
+        }
+        return spaces.stream()
+                .map(space -> toDtoWithImages(space, imagesBySpace.getOrDefault(space.getSpaceId(), List.of())))
+                .collect(Collectors.toList());
+    }
+
     private SpaceDto toDto(Space s) {
         SpaceDto d = new SpaceDto();
         d.setSpaceId(s.getSpaceId());
@@ -376,6 +452,8 @@ public class SpaceService {
         d.setOutdoor(s.isOutdoor());
         d.setActive(s.isActive());
         d.setDescription(s.getDescription());
+        d.setLatitude(s.getLatitude());
+        d.setLongitude(s.getLongitude());
         
         
         List<SpaceImage> images = spaceImageRepository.findBySpaceIdOrderByOrdAsc(s.getSpaceId());
@@ -393,6 +471,8 @@ public class SpaceService {
         d.setOutdoor(s.isOutdoor());
         d.setActive(s.isActive());
         d.setDescription(s.getDescription());
+        d.setLatitude(s.getLatitude());
+        d.setLongitude(s.getLongitude());
         d.setImages(images.stream().map(this::imageToDto).collect(Collectors.toList()));
         return d;
     }
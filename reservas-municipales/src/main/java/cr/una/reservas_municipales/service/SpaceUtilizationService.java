@@ -0,0 +1,295 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.SpaceDto;
+import cr.una.reservas_municipales.dto.SpaceUtilizationDTO;
+import cr.una.reservas_municipales.dto.UtilizationReportDTO;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.SpaceNotFoundException;
+import cr.una.reservas_municipales.model.SpaceClosure;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationSlot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static cr.una.reservas_municipales.service.WeeklySchedule.MINUTES_PER_DAY;
+import static cr.una.reservas_municipales.service.WeeklySchedule.MINUTES_PER_WEEK;
+
+/**
+ * Ocupación de los espacios en un rango de días: qué porcentaje de los minutos abiertos estuvo reservado.
+ *
+ * Por cada espacio se arma un mapa de bits con un bit por minuto del rango (hora de Costa Rica):
+ * los minutos abiertos salen del {@link WeeklySchedule} menos los cierres, los reservados de las
+ * reservas CONFIRMED, PENDING y COMPLETED, y la ocupación es la intersección de ambos. Las reservas
+ * que se solapan no cuentan doble. Un espacio sin horarios configurados está abierto todo el día.
+ *
+ * Las reservas de todos los espacios se leen en una sola consulta (solo el intervalo) y cada espacio
+ * se calcula en paralelo en un ForkJoinPool propio.
+ */
+@Slf4j
+@Service
+public class SpaceUtilizationService {
+
+    private static final String[] DAY_NAMES = {
+        "SUNDAY", "MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY", "SATURDAY"
+    };
+
+    private final ReservationRepository reservationRepository;
+    private final SpaceCatalog spaceCatalog;
+    private final ScheduleIndex scheduleIndex;
+    private final ClosureIndex closureIndex;
+    private final ForkJoinPool pool;
+    private final int maxRangeDays;
+
+    public SpaceUtilizationService(ReservationRepository reservationRepository,
+                                   SpaceCatalog spaceCatalog,
+                                   ScheduleIndex scheduleIndex,
+                                   ClosureIndex closureIndex,
+                                   @Value("${app.analytics.utilization.parallelism:0}") int parallelism,
+                                   @Value("${app.analytics.utilization.max-days:366}") int maxRangeDays) {
+        this.reservationRepository = reservationRepository;
+        this.spaceCatalog = spaceCatalog;
+        this.scheduleIndex = scheduleIndex;
+        this.closureIndex = closureIndex;
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.maxRangeDays = maxRangeDays;
+    }
+
+    /**
+     * Ocupación de {@code from} a {@code to} (inclusive) de un espacio, o de todos los activos si
+     * {@code spaceId} es null.
+     */
+    public UtilizationReportDTO getUtilization(LocalDate from, LocalDate to, UUID spaceId) {
+        validateRange(from, to);
+        List<SpaceDto> spaces = spaces(spaceId);
+        OffsetDateTime rangeStart = startOf(from);
+        OffsetDateTime rangeEnd = startOf(to.plusDays(1));
+        int days = (int) ChronoUnit.DAYS.between(from, to) + 1;
+
+        Map<UUID, List<ReservationSlot>> slotsBySpace = reservationRepository
+                .findOccupyingSlotsBetween(rangeStart, rangeEnd, spaceId).stream()
+                .filter(slot -> slot.getSpaceId() != null)
+                .collect(Collectors.groupingBy(ReservationSlot::getSpaceId));
+
+        List<SpaceResult> results = pool.submit(() -> spaces.parallelStream()
+                .map(space -> new SpaceResult(space, UtilizationGrid.compute(
+                        scheduleIndex.get(space.getSpaceId()),
+                        closureIndex.get(space.getSpaceId()),
+                        slotsBySpace.getOrDefault(space.getSpaceId(), List.of()),
+                        rangeStart, from, days)))
+                .toList()).join();
+
+        // El total se suma en minutos por celda, no promediando porcentajes
+        UtilizationGrid total = new UtilizationGrid();
+        results.forEach(result -> total.add(result.grid()));
+        List<SpaceUtilizationDTO> bySpace = results.stream()
+                .map(result -> toDto(result.space(), result.grid()))
+                .sorted(Comparator.comparingDouble(SpaceUtilizationDTO::getOccupancyRate).reversed()
+                        .thenComparing(SpaceUtilizationDTO::getSpaceName, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+
+        log.debug("Ocupación calculada: {} espacios, {} días, {} reservas", spaces.size(), days,
+                slotsBySpace.values().stream().mapToInt(List::size).sum());
+        int[] peak = total.peak();
+        return new UtilizationReportDTO(from, to, total.openMinutes, total.bookedMinutes,
+                total.openMinutes - total.bookedMinutes, rate(total.bookedMinutes, total.openMinutes),
+                peak == null ? null : DAY_NAMES[peak[0]], peak == null ? null : peak[1],
+                total.hourlyOccupancy(), bySpace);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pool.shutdownNow();
+    }
+
+    private List<SpaceDto> spaces(UUID spaceId) {
+        SpaceCatalog.Snapshot snapshot = spaceCatalog.snapshot();
+        if (spaceId == null) {
+            return snapshot.active();
+        }
+        return List.of(snapshot.get(spaceId)
+                .orElseThrow(() -> new SpaceNotFoundException("Espacio no encontrado con ID: " + spaceId)));
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null) {
+            throw new BusinessException("Debe indicar las fechas de inicio y fin del rango");
+        }
+        if (from.isAfter(to)) {
+            throw new BusinessException("La fecha de inicio debe ser anterior o igual a la fecha de fin");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxRangeDays) {
+            throw new BusinessException("El rango no puede superar " + maxRangeDays + " días");
+        }
+    }
+
+    private static SpaceUtilizationDTO toDto(SpaceDto space, UtilizationGrid grid) {
+        int[] peak = grid.peak();
+        return new SpaceUtilizationDTO(space.getSpaceId(), space.getName(), grid.openMinutes,
+                grid.bookedMinutes, grid.openMinutes - grid.bookedMinutes, rate(grid.bookedMinutes, grid.openMinutes),
+                grid.reservations, peak == null ? null : DAY_NAMES[peak[0]], peak == null ? null : peak[1],
+                grid.hourlyOccupancy());
+    }
+
+    private static double rate(long booked, long open) {
+        return open == 0 ? 0.0 : Math.round(booked * 10000.0 / open) / 100.0;
+    }
+
+    private static OffsetDateTime startOf(LocalDate day) {
+        return day.atStartOfDay(ReservationRules.COSTA_RICA_ZONE).toOffsetDateTime();
+    }
+
+    private record SpaceResult(SpaceDto space, UtilizationGrid grid) {
+    }
+
+    /**
+     * Minutos abiertos y reservados acumulados por día de la semana (0=domingo) y hora.
+     */
+    static final class UtilizationGrid {
+
+        // Dos semanas son 20160 minutos = 315 palabras exactas, así el horario se copia por palabras
+        private static final int TEMPLATE_WORDS = 2 * MINUTES_PER_WEEK / 64;
+
+        final long[][] open = new long[7][24];
+        final long[][] booked = new long[7][24];
+        long openMinutes;
+        long bookedMinutes;
+        long reservations;
+
+        /**
+         * Calcula un espacio para {@code days} días desde {@code from}; {@code rangeStart} es el
+         * inicio de {@code from} en hora de Costa Rica.
+         */
+        static UtilizationGrid compute(WeeklySchedule schedule, ClosureIndex.ClosureTimeline closures,
+                                       List<ReservationSlot> slots, OffsetDateTime rangeStart, LocalDate from,
+                                       int days) {
+            int minutes = days * MINUTES_PER_DAY;
+            int firstWeekday = from.getDayOfWeek().getValue() % 7;
+            long[] open = openBits(schedule, firstWeekday, minutes);
+
+            OffsetDateTime rangeEnd = rangeStart.plusMinutes(minutes);
+            for (SpaceClosure closure : closures.overlappingAll(rangeStart.toEpochSecond(), rangeEnd.toEpochSecond())) {
+                WeeklySchedule.clearRange(open, floorMinute(rangeStart, closure.getStartsAt(), minutes),
+                        ceilMinute(rangeStart, closure.getEndsAt(), minutes));
+            }
+
+            UtilizationGrid grid = new UtilizationGrid();
+            long[] busy = new long[open.length];
+            for (ReservationSlot slot : slots) {
+                if (!slot.getStartsAt().isBefore(rangeStart) && slot.getStartsAt().isBefore(rangeEnd)) {
+                    grid.reservations++;
+                }
+                // Un minuto cuenta como reservado si la reserva ocupa cualquier parte de él
+                WeeklySchedule.setRange(busy, floorMinute(rangeStart, slot.getStartsAt(), minutes),
+                        ceilMinute(rangeStart, slot.getEndsAt(), minutes));
+            }
+            for (int word = 0; word < busy.length; word++) {
+                busy[word] &= open[word];
+            }
+
+            for (int day = 0; day < days; day++) {
+                int weekday = (firstWeekday + day) % 7;
+                for (int hour = 0; hour < 24; hour++) {
+                    int cell = day * MINUTES_PER_DAY + hour * 60;
+                    grid.open[weekday][hour] += WeeklySchedule.countRange(open, cell, cell + 60);
+                    grid.booked[weekday][hour] += WeeklySchedule.countRange(busy, cell, cell + 60);
+                }
+            }
+            grid.openMinutes = sum(grid.open);
+            grid.bookedMinutes = sum(grid.booked);
+            return grid;
+        }
+
+        void add(UtilizationGrid other) {
+            for (int day = 0; day < 7; day++) {
+                for (int hour = 0; hour < 24; hour++) {
+                    open[day][hour] += other.open[day][hour];
+                    booked[day][hour] += other.booked[day][hour];
+                }
+            }
+            openMinutes += other.openMinutes;
+            bookedMinutes += other.bookedMinutes;
+            reservations += other.reservations;
+        }
+
+        /**
+         * {día, hora} con más minutos reservados, o null si no hubo ninguno.
+         */
+        int[] peak() {
+            int[] peak = null;
+            long max = 0;
+            for (int day = 0; day < 7; day++) {
+                for (int hour = 0; hour < 24; hour++) {
+                    if (booked[day][hour] > max) {
+                        max = booked[day][hour];
+                        peak = new int[] {day, hour};
+                    }
+                }
+            }
+            return peak;
+        }
+
+        double[][] hourlyOccupancy() {
+            double[][] rates = new double[7][24];
+            for (int day = 0; day < 7; day++) {
+                for (int hour = 0; hour < 24; hour++) {
+                    rates[day][hour] = rate(booked[day][hour], open[day][hour]);
+                }
+            }
+            return rates;
+        }
+
+        /**
+         * Minutos abiertos del rango: el horario semanal repetido desde el día de la semana de inicio.
+         */
+        private static long[] openBits(WeeklySchedule schedule, int firstWeekday, int minutes) {
+            long[] week = schedule.openMinutes();
+            long[] template = new long[TEMPLATE_WORDS];
+            int offset = firstWeekday * MINUTES_PER_DAY;
+            for (int minute = 0; minute < TEMPLATE_WORDS * 64; minute++) {
+                int source = (offset + minute) % MINUTES_PER_WEEK;
+                if ((week[source >>> 6] & (1L << source)) != 0) {
+                    template[minute >>> 6] |= 1L << minute;
+                }
+            }
+            long[] open = new long[(minutes + 63) >>> 6];
+            for (int word = 0; word < open.length; word++) {
+                open[word] = template[word % TEMPLATE_WORDS];
+            }
+            WeeklySchedule.clearRange(open, minutes, open.length * 64);
+            return open;
+        }
+
+        private static int floorMinute(OffsetDateTime rangeStart, OffsetDateTime time, int minutes) {
+            long seconds = Duration.between(rangeStart, time).getSeconds();
+            return (int) Math.max(0, Math.min(minutes, Math.floorDiv(seconds, 60)));
+        }
+
+        private static int ceilMinute(OffsetDateTime rangeStart, OffsetDateTime time, int minutes) {
+            long seconds = Duration.between(rangeStart, time).getSeconds();
+            return (int) Math.max(0, Math.min(minutes, Math.floorDiv(seconds + 59, 60)));
+        }
+
+        private static long sum(long[][] cells) {
+            long total = 0;
+            for (long[] row : cells) {
+                for (long value : row) {
+                    total += value;
+                }
+            }
+            return total;
+        }
+    }
+}
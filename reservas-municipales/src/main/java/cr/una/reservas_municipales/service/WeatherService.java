@@ -14,6 +14,7 @@ import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import java.time.OffsetDateTime;
+import java.util.Optional;
 import java.util.UUID;
 
 @Service
@@ -40,16 +41,12 @@ public class WeatherService {
         double latitude = 9.9281;
         double longitude = -84.0907;
 
-        if (space.getLocation() != null && space.getLocation().contains(",")) {
-            try {
-                String[] parts = space.getLocation().split(",");
-                if (parts.length == 2) {
-                    latitude = Double.parseDouble(parts[0].trim());
-                    longitude = Double.parseDouble(parts[1].trim());
-                }
-            } catch (NumberFormatException e) {
-                log.warn("Could not parse coordinates from location: {}, using default", space.getLocation());
-            }
+        Optional<GeoPoint> point = GeoPoint.of(space);
+        if (point.isPresent()) {
+            latitude = point.get().latitude();
+            longitude = point.get().longitude();
+        } else if (space.getLocation() != null && space.getLocation().contains(",")) {
+            log.warn("Could not parse coordinates from location: {}, using default", space.getLocation());
         }
 
         try {
@@ -0,0 +1,198 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.model.SpaceSchedule;
+
+import java.time.Duration;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Horario semanal de un espacio compilado a un mapa de bits de 7×1440 minutos (hora de Costa Rica,
+ * índice = weekday × 1440 + minuto del día). Validar una reserva es comprobar que todos los bits del
+ * rango estén encendidos; un rango que cruza la medianoche sigue naturalmente en el día siguiente.
+ *
+ * Bloques contiguos del mismo día se tratan como uno solo: 08:00-12:00 y 12:00-16:00 admiten 10:00-14:00.
+ */
+final class WeeklySchedule {
+
+    static final int MINUTES_PER_DAY = 1440;
+    static final int MINUTES_PER_WEEK = 7 * MINUTES_PER_DAY;
+    static final int WORDS = (MINUTES_PER_WEEK + 63) / 64;
+
+    /** Espacio sin horarios configurados: acepta cualquier horario. */
+    static final WeeklySchedule UNRESTRICTED = new WeeklySchedule(null, null);
+
+    private final long[] bits;
+    // Texto "08:00 - 18:00, ..." por día, solo para los mensajes de error
+    private final String[] availableTimes;
+
+    private WeeklySchedule(long[] bits, String[] availableTimes) {
+        this.bits = bits;
+        this.availableTimes = availableTimes;
+    }
+
+    static WeeklySchedule compile(List<SpaceSchedule> schedules) {
+        if (schedules.isEmpty()) {
+            return UNRESTRICTED;
+        }
+
+        long[] bits = new long[WORDS];
+        List<List<SpaceSchedule>> byDay = new ArrayList<>();
+        for (int day = 0; day < 7; day++) {
+            byDay.add(new ArrayList<>());
+        }
+        for (SpaceSchedule schedule : schedules) {
+            if (schedule.getWeekday() == null || schedule.getWeekday() < 0 || schedule.getWeekday() > 6) {
+                continue;
+            }
+            int day = schedule.getWeekday();
+            byDay.get(day).add(schedule);
+            // Se redondea hacia adentro: un horario con segundos nunca abre un minuto incompleto
+            int from = day * MINUTES_PER_DAY + ceilMinute(schedule.getTimeFrom());
+            int to = day * MINUTES_PER_DAY + floorMinute(schedule.getTimeTo());
+            setRange(bits, from, to);
+        }
+
+        String[] availableTimes = new String[7];
+        for (int day = 0; day < 7; day++) {
+            availableTimes[day] = byDay.get(day).stream()
+                    .sorted(Comparator.comparing(SpaceSchedule::getTimeFrom))
+                    .map(s -> s.getTimeFrom() + " - " + s.getTimeTo())
+                    .collect(Collectors.joining(", "));
+        }
+        return new WeeklySchedule(bits, availableTimes);
+    }
+
+    boolean isUnrestricted() {
+        return bits == null;
+    }
+
+    /**
+     * Copia de los minutos abiertos de la semana (un bit por minuto desde el domingo 00:00).
+     */
+    long[] openMinutes() {
+        long[] open = new long[WORDS];
+        if (isUnrestricted()) {
+            setRange(open, 0, MINUTES_PER_WEEK);
+        } else {
+            System.arraycopy(bits, 0, open, 0, WORDS);
+        }
+        return open;
+    }
+
+    /**
+     * Lanza {@link BusinessException} si el intervalo no cae por completo dentro del horario.
+     */
+    void validate(OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        if (isUnrestricted()) {
+            return;
+        }
+
+        ZonedDateTime start = startsAt.atZoneSameInstant(ReservationRules.COSTA_RICA_ZONE).truncatedTo(ChronoUnit.MINUTES);
+        short weekday = (short) (start.getDayOfWeek().getValue() % 7);
+        int from = weekday * MINUTES_PER_DAY + start.getHour() * 60 + start.getMinute();
+        long seconds = Duration.between(start, endsAt).getSeconds();
+        long minutes = Math.max(1, (seconds + 59) / 60);
+
+        if (minutes > MINUTES_PER_WEEK || !allSet(from, minutes)) {
+            throw rejection(weekday);
+        }
+    }
+
+    private BusinessException rejection(short weekday) {
+        String times = availableTimes[weekday];
+        if (times.isEmpty()) {
+            return new BusinessException(
+                String.format("El espacio no está disponible los %ss", ReservationRules.getDayName(weekday)));
+        }
+        return new BusinessException(
+            String.format("El espacio solo está disponible los %ss en los siguientes horarios: %s",
+                ReservationRules.getDayName(weekday), times));
+    }
+
+    /**
+     * Comprueba {@code length} bits desde {@code from}, dando la vuelta al final de la semana.
+     */
+    private boolean allSet(int from, long length) {
+        long end = from + length;
+        if (end <= MINUTES_PER_WEEK) {
+            return rangeSet(bits, from, (int) end);
+        }
+        return rangeSet(bits, from, MINUTES_PER_WEEK) && rangeSet(bits, 0, (int) (end - MINUTES_PER_WEEK));
+    }
+
+    // Rango [from, to) comparando palabras completas de 64 bits
+    static boolean rangeSet(long[] bits, int from, int to) {
+        if (from >= to) {
+            return true;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            long mask = firstMask & lastMask;
+            return (bits[firstWord] & mask) == mask;
+        }
+        if ((bits[firstWord] & firstMask) != firstMask) {
+            return false;
+        }
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            if (bits[word] != -1L) {
+                return false;
+            }
+        }
+        return (bits[lastWord] & lastMask) == lastMask;
+    }
+
+    static void setRange(long[] bits, int from, int to) {
+        for (int i = from; i < to; i++) {
+            bits[i >>> 6] |= 1L << i;
+        }
+    }
+
+    static void clearRange(long[] bits, int from, int to) {
+        for (int i = from; i < to; i++) {
+            bits[i >>> 6] &= ~(1L << i);
+        }
+    }
+
+    // Bits encendidos en [from, to), con las mismas máscaras que rangeSet
+    static int countRange(long[] bits, int from, int to) {
+        if (from >= to) {
+            return 0;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            return Long.bitCount(bits[firstWord] & firstMask & lastMask);
+        }
+        int count = Long.bitCount(bits[firstWord] & firstMask);
+        for (int word = firstWord + 1; word < lastWord; word++) {
+            count += Long.bitCount(bits[word]);
+        }
+        return count + Long.bitCount(bits[lastWord] & lastMask);
+    }
+
+    private static int ceilMinute(LocalTime time) {
+        int minute = time.getHour() * 60 + time.getMinute();
+        return time.getSecond() > 0 || time.getNano() > 0 ? minute + 1 : minute;
+    }
+
+    private static int floorMinute(LocalTime time) {
+        // 23:59:59.999999999 es la única forma de expresar "hasta el final del día" con LocalTime
+        if (time.equals(LocalTime.MAX)) {
+            return MINUTES_PER_DAY;
+        }
+        return time.getHour() * 60 + time.getMinute();
+    }
+}
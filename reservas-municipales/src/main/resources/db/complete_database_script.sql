@@ -11,6 +11,7 @@
 -- Extensiones necesarias
 CREATE EXTENSION IF NOT EXISTS citext;
 CREATE EXTENSION IF NOT EXISTS pgcrypto;
+CREATE EXTENSION IF NOT EXISTS btree_gist; -- uuid con = dentro de índices GiST (restricción EXCLUDE)
 
 BEGIN;
 
@@ -59,10 +60,30 @@ CREATE TABLE IF NOT EXISTS space (
   outdoor       boolean NOT NULL DEFAULT false,
   active        boolean NOT NULL DEFAULT true,
   description   text,
+  latitude      double precision CHECK (latitude BETWEEN -90 AND 90),
+  longitude     double precision CHECK (longitude BETWEEN -180 AND 180),
   created_at    timestamptz NOT NULL DEFAULT now(),
   updated_at    timestamptz NOT NULL DEFAULT now()
 );
 
+-- Bases creadas antes de las coordenadas: se agregan las columnas y se extraen de location
+-- cuando tiene la forma "lat,lon" (la que ya interpretaba el servicio del clima)
+ALTER TABLE space ADD COLUMN IF NOT EXISTS latitude double precision;
+ALTER TABLE space ADD COLUMN IF NOT EXISTS longitude double precision;
+-- (CASE garantiza que solo se convierten los textos que cumplen el patrón)
+UPDATE space
+   SET latitude = parsed.lat, longitude = parsed.lon
+  FROM (SELECT space_id,
+               CASE WHEN location ~ '^\s*-?[0-9]+(\.[0-9]+)?\s*,\s*-?[0-9]+(\.[0-9]+)?\s*$'
+                    THEN split_part(location, ',', 1)::double precision END AS lat,
+               CASE WHEN location ~ '^\s*-?[0-9]+(\.[0-9]+)?\s*,\s*-?[0-9]+(\.[0-9]+)?\s*$'
+                    THEN split_part(location, ',', 2)::double precision END AS lon
+          FROM space
+         WHERE latitude IS NULL) parsed
+ WHERE space.space_id = parsed.space_id
+   AND parsed.lat BETWEEN -90 AND 90
+   AND parsed.lon BETWEEN -180 AND 180;
+
 -- Características/Features
 CREATE TABLE IF NOT EXISTS feature (
   feature_id  smallserial PRIMARY KEY,
@@ -125,6 +146,22 @@ CREATE TABLE IF NOT EXISTS space_rate (
 -- 3) RESERVAS (CON CAMPOS QR)
 -- =========================
 
+-- Series de reservas periódicas (cada ocurrencia es una fila de reservation con series_id)
+CREATE TABLE IF NOT EXISTS reservation_series (
+  series_id        uuid PRIMARY KEY DEFAULT gen_random_uuid(),
+  space_id         uuid NOT NULL,
+  user_id          uuid NOT NULL,
+  recurrence_rule  text NOT NULL,
+  first_starts_at  timestamptz NOT NULL,
+  first_ends_at    timestamptz NOT NULL,
+  status           text NOT NULL DEFAULT 'ACTIVE',
+  rate_id          bigint,
+  total_amount     numeric(12,2),
+  currency         char(3) NOT NULL DEFAULT 'CRC',
+  created_at       timestamptz NOT NULL DEFAULT now(),
+  updated_at       timestamptz NOT NULL DEFAULT now()
+);
+
 CREATE TABLE IF NOT EXISTS reservation (
   reservation_id      uuid PRIMARY KEY DEFAULT gen_random_uuid(),
   space_id            uuid NOT NULL,
@@ -139,18 +176,41 @@ CREATE TABLE IF NOT EXISTS reservation (
   total_amount        numeric(12,2),
   currency            char(3) NOT NULL DEFAULT 'CRC',
   
-  -- Campos QR y asistencia
-  qr_code             text,
+  -- Campos QR y asistencia (la imagen QR está en reservation_qr)
   qr_validation_token text,
   attendance_confirmed boolean NOT NULL DEFAULT false,
   attendance_confirmed_at timestamptz,
   confirmed_by_user_id uuid,
   
+  -- Serie periódica a la que pertenece (NULL para reservas individuales)
+  series_id           uuid,
+  
   -- Timestamps
   created_at          timestamptz NOT NULL DEFAULT now(),
   updated_at          timestamptz NOT NULL DEFAULT now()
 );
 
+-- Bases creadas antes de las series periódicas
+ALTER TABLE reservation ADD COLUMN IF NOT EXISTS series_id uuid;
+
+-- Imagen QR (PNG en Base64, 1-2 KB) separada para que los listados no la transfieran
+CREATE TABLE IF NOT EXISTS reservation_qr (
+  reservation_id      uuid PRIMARY KEY REFERENCES reservation(reservation_id) ON DELETE CASCADE,
+  qr_code             text NOT NULL
+);
+
+-- Bases anteriores guardaban la imagen en reservation.qr_code: se copia y se elimina la columna
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'reservation' AND column_name = 'qr_code') THEN
+        INSERT INTO reservation_qr (reservation_id, qr_code)
+        SELECT reservation_id, qr_code FROM reservation WHERE qr_code IS NOT NULL
+        ON CONFLICT (reservation_id) DO NOTHING;
+        ALTER TABLE reservation DROP COLUMN qr_code;
+    END IF;
+END $$;
+
 -- =========================
 -- 4) RESEÑAS
 -- =========================
@@ -167,6 +227,53 @@ CREATE TABLE IF NOT EXISTS review (
   approved_at    timestamptz
 );
 
+-- =========================
+-- 5) NOTIFICACIONES (outbox)
+-- =========================
+
+-- Los IDs los reserva Hibernate de a 50 (allocationSize) para poder agrupar los INSERT en lote;
+-- el INCREMENT BY debe coincidir con el allocationSize de NotificationOutbox
+CREATE SEQUENCE IF NOT EXISTS notification_outbox_seq INCREMENT BY 50;
+
+-- Se escribe en la misma transacción que la reserva; un proceso aparte envía los correos
+CREATE TABLE IF NOT EXISTS notification_outbox (
+  outbox_id        bigint PRIMARY KEY,
+  type             varchar(40) NOT NULL,
+  reservation_id   uuid,
+  user_id          uuid,
+  email            text,
+  payload          text NOT NULL,
+  occurred_at      timestamptz NOT NULL,
+  status           varchar(10) NOT NULL DEFAULT 'PENDING' CHECK (status IN ('PENDING', 'SENT', 'DEAD')),
+  attempts         integer NOT NULL DEFAULT 0,
+  next_attempt_at  timestamptz NOT NULL DEFAULT now(),
+  last_error       text,
+  created_at       timestamptz NOT NULL DEFAULT now(),
+  sent_at          timestamptz
+);
+-- Bases que venían de bigserial: la secuencia sigue después del último ID usado
+SELECT setval('notification_outbox_seq', GREATEST((SELECT last_value FROM notification_outbox_seq),
+                                                  (SELECT COALESCE(MAX(outbox_id), 0) + 50 FROM notification_outbox)));
+ALTER TABLE notification_outbox ALTER COLUMN outbox_id DROP DEFAULT;
+
+-- =========================
+-- 6) ANALÍTICA (rollups)
+-- =========================
+
+-- Totales diarios por espacio y estado, con el día de inicio en hora de Costa Rica.
+-- Los mantiene ReservationRollupService; se puede reconstruir por completo desde reservation.
+CREATE TABLE IF NOT EXISTS reservation_daily_stats (
+  stat_day          date NOT NULL,
+  space_id          uuid NOT NULL,
+  status            varchar(20) NOT NULL,
+  reservation_count integer NOT NULL DEFAULT 0,
+  total_minutes     bigint NOT NULL DEFAULT 0,
+  revenue_cents     bigint NOT NULL DEFAULT 0,
+  attendance_count  integer NOT NULL DEFAULT 0,
+  refreshed_at      timestamptz NOT NULL DEFAULT now(),
+  PRIMARY KEY (stat_day, space_id, status)
+);
+
 -- =========================
 -- FOREIGN KEYS
 -- =========================
@@ -222,6 +329,31 @@ ALTER TABLE reservation
   ADD CONSTRAINT IF NOT EXISTS fk_reservation_confirmed_by_user
   FOREIGN KEY (confirmed_by_user_id) REFERENCES app_user(user_id) ON DELETE SET NULL;
 
+ALTER TABLE reservation
+  ADD CONSTRAINT IF NOT EXISTS fk_reservation_series
+  FOREIGN KEY (series_id) REFERENCES reservation_series(series_id) ON DELETE SET NULL;
+
+-- Series periódicas
+ALTER TABLE reservation_series
+  ADD CONSTRAINT IF NOT EXISTS fk_reservation_series_space
+  FOREIGN KEY (space_id) REFERENCES space(space_id) ON DELETE RESTRICT;
+
+ALTER TABLE reservation_series
+  ADD CONSTRAINT IF NOT EXISTS fk_reservation_series_user
+  FOREIGN KEY (user_id) REFERENCES app_user(user_id) ON DELETE RESTRICT;
+
+-- Rango ocupado por la reserva ('[]' = bordes inclusivos, igual que la verificación de la aplicación)
+ALTER TABLE reservation
+  ADD COLUMN IF NOT EXISTS during tstzrange
+  GENERATED ALWAYS AS (tstzrange(starts_at, ends_at, '[]')) STORED;
+
+-- La BD rechaza (SQLSTATE 23P01) dos reservas activas solapadas en el mismo espacio
+ALTER TABLE reservation DROP CONSTRAINT IF EXISTS ex_reservation_space_overlap;
+ALTER TABLE reservation
+  ADD CONSTRAINT ex_reservation_space_overlap
+  EXCLUDE USING gist (space_id WITH =, during WITH &&)
+  WHERE (status IN ('CONFIRMED', 'PENDING'));
+
 -- Reseñas
 ALTER TABLE review
   ADD CONSTRAINT IF NOT EXISTS fk_review_space
@@ -252,6 +384,7 @@ CREATE INDEX IF NOT EXISTS idx_space_location ON space (location);
 -- Características
 CREATE INDEX IF NOT EXISTS idx_space_image ON space_image (space_id);
 CREATE INDEX IF NOT EXISTS idx_space_schedule_weekday ON space_schedule (space_id, weekday);
+CREATE INDEX IF NOT EXISTS idx_space_closure_range ON space_closure (space_id, starts_at, ends_at);
 
 -- Tarifas
 CREATE INDEX IF NOT EXISTS idx_space_rate_active ON space_rate (space_id, active);
@@ -261,6 +394,9 @@ CREATE INDEX IF NOT EXISTS idx_space_rate_validity ON space_rate (space_id, appl
 CREATE INDEX IF NOT EXISTS idx_reservation_space_time ON reservation (space_id, starts_at, ends_at);
 CREATE INDEX IF NOT EXISTS idx_reservation_user_time ON reservation (user_id, starts_at);
 CREATE INDEX IF NOT EXISTS idx_reservation_status ON reservation (status);
+-- Paginación por cursor (keyset) sobre (starts_at, reservation_id)
+CREATE INDEX IF NOT EXISTS idx_reservation_keyset ON reservation (starts_at, reservation_id);
+CREATE INDEX IF NOT EXISTS idx_reservation_status_keyset ON reservation (status, starts_at, reservation_id);
 CREATE INDEX IF NOT EXISTS idx_reservation_dates ON reservation (starts_at, ends_at);
 
 -- Índices QR y asistencia
@@ -268,6 +404,10 @@ CREATE INDEX IF NOT EXISTS idx_reservation_attendance ON reservation (attendance
 CREATE INDEX IF NOT EXISTS idx_reservation_qr_token ON reservation (qr_validation_token);
 CREATE INDEX IF NOT EXISTS idx_reservation_confirmed_by ON reservation (confirmed_by_user_id);
 
+-- Series periódicas
+CREATE INDEX IF NOT EXISTS idx_reservation_series ON reservation (series_id, starts_at);
+CREATE INDEX IF NOT EXISTS idx_reservation_series_space ON reservation_series (space_id);
+
 -- Reseñas
 CREATE INDEX IF NOT EXISTS idx_review_space ON review (space_id);
 CREATE INDEX IF NOT EXISTS idx_review_user ON review (user_id);
@@ -276,6 +416,13 @@ CREATE INDEX IF NOT EXISTS idx_review_rating ON review (rating);
 CREATE INDEX IF NOT EXISTS idx_review_visible ON review (visible);
 CREATE INDEX IF NOT EXISTS idx_review_created ON review (created_at);
 
+-- Outbox: solo las pendientes, en el orden en que el despachador las toma
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_due ON notification_outbox (next_attempt_at) WHERE status = 'PENDING';
+
+-- Rollups: rangos por espacio (los rangos globales usan la clave primaria); cambios recientes por updated_at
+CREATE INDEX IF NOT EXISTS idx_reservation_daily_stats_space ON reservation_daily_stats (space_id, stat_day);
+CREATE INDEX IF NOT EXISTS idx_reservation_updated ON reservation (updated_at);
+
 -- =========================
 -- DATOS DE PRUEBA
 -- =========================
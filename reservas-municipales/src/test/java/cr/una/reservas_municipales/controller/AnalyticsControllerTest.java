@@ -0,0 +1,149 @@
+package cr.una.reservas_municipales.controller;
+
+import cr.una.reservas_municipales.dto.AnalyticsGroupDTO;
+import cr.una.reservas_municipales.dto.AnalyticsResultDTO;
+import cr.una.reservas_municipales.dto.SpaceUtilizationDTO;
+import cr.una.reservas_municipales.dto.UtilizationReportDTO;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.SpaceNotFoundException;
+import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.service.AnalyticsStore;
+import cr.una.reservas_municipales.service.JwtService;
+import cr.una.reservas_municipales.service.SpaceUtilizationService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(AnalyticsController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class AnalyticsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private SpaceUtilizationService utilizationService;
+
+    @MockitoBean
+    private AnalyticsStore analyticsStore;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @Test
+    void testGetUtilization_Success() throws Exception {
+        UUID spaceId = UUID.randomUUID();
+        double[][] heatmap = new double[7][24];
+        heatmap[1][9] = 75.0;
+        SpaceUtilizationDTO space = new SpaceUtilizationDTO(spaceId, "Cancha", 54000, 27000, 27000, 50.0, 300,
+                "MONDAY", 9, heatmap);
+        UtilizationReportDTO report = new UtilizationReportDTO(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31),
+                54000, 27000, 27000, 50.0, "MONDAY", 9, heatmap, List.of(space));
+        when(utilizationService.getUtilization(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31), null))
+                .thenReturn(report);
+
+        mockMvc.perform(get("/api/admin/analytics/utilization")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-03-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.occupancyRate").value(50.0))
+                .andExpect(jsonPath("$.peakDay").value("MONDAY"))
+                .andExpect(jsonPath("$.hourlyOccupancy[1][9]").value(75.0))
+                .andExpect(jsonPath("$.spaces[0].spaceName").value("Cancha"))
+                .andExpect(jsonPath("$.spaces[0].idleMinutes").value(27000));
+    }
+
+    @Test
+    void testGetUtilization_SingleSpace() throws Exception {
+        UUID spaceId = UUID.randomUUID();
+        when(utilizationService.getUtilization(any(), any(), any())).thenReturn(new UtilizationReportDTO());
+
+        mockMvc.perform(get("/api/admin/analytics/utilization")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-31")
+                        .param("spaceId", spaceId.toString()))
+                .andExpect(status().isOk());
+
+        verify(utilizationService).getUtilization(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), spaceId);
+    }
+
+    @Test
+    void testGetUtilization_InvalidRange() throws Exception {
+        when(utilizationService.getUtilization(any(), any(), any()))
+                .thenThrow(new BusinessException("El rango no puede superar 366 días"));
+
+        mockMvc.perform(get("/api/admin/analytics/utilization")
+                        .param("from", "2020-01-01")
+                        .param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetUtilization_SpaceNotFound() throws Exception {
+        when(utilizationService.getUtilization(any(), any(), any()))
+                .thenThrow(new SpaceNotFoundException("Espacio no encontrado"));
+
+        mockMvc.perform(get("/api/admin/analytics/utilization")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-31")
+                        .param("spaceId", UUID.randomUUID().toString()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testAggregate_Success() throws Exception {
+        AnalyticsResultDTO result = new AnalyticsResultDTO("WEEKDAY", 1000, 40, null, List.of(
+                new AnalyticsGroupDTO("MONDAY", null, 40, 2400, 60000.0, 30, 75.0)));
+        AnalyticsStore.Filter filter = new AnalyticsStore.Filter(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 3, 31),
+                Set.of("CONFIRMED", "COMPLETED"), null, (short) 2);
+        when(analyticsStore.aggregate(AnalyticsStore.Dimension.WEEKDAY, filter)).thenReturn(result);
+
+        mockMvc.perform(get("/api/admin/analytics/aggregate")
+                        .param("groupBy", "weekday")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-03-31")
+                        .param("status", "CONFIRMED", "COMPLETED")
+                        .param("spaceTypeId", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.groupBy").value("WEEKDAY"))
+                .andExpect(jsonPath("$.matchedRows").value(40))
+                .andExpect(jsonPath("$.groups[0].key").value("MONDAY"))
+                .andExpect(jsonPath("$.groups[0].attendanceRate").value(75.0));
+    }
+
+    @Test
+    void testAggregate_DefaultsToTotal() throws Exception {
+        when(analyticsStore.aggregate(eq(AnalyticsStore.Dimension.NONE), any())).thenReturn(new AnalyticsResultDTO());
+
+        mockMvc.perform(get("/api/admin/analytics/aggregate"))
+                .andExpect(status().isOk());
+
+        verify(analyticsStore).aggregate(AnalyticsStore.Dimension.NONE, AnalyticsStore.Filter.all());
+    }
+
+    @Test
+    void testAggregate_InvalidGroupBy() throws Exception {
+        mockMvc.perform(get("/api/admin/analytics/aggregate")
+                        .param("groupBy", "color"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(analyticsStore);
+    }
+}
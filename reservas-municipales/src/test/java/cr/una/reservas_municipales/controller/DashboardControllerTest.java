@@ -1,6 +1,8 @@
 package cr.una.reservas_municipales.controller;
 
 import cr.una.reservas_municipales.dto.*;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.service.DashboardCache;
 import cr.una.reservas_municipales.service.MetricsService;
 import cr.una.reservas_municipales.service.JwtService;
 import cr.una.reservas_municipales.repository.UserRepository;
@@ -12,8 +14,11 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
 import java.util.*;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -28,6 +33,9 @@ class DashboardControllerTest {
     @MockitoBean
     private MetricsService metricsService;
 
+    @MockitoBean
+    private DashboardCache dashboardCache;
+
     @MockitoBean
     private JwtService jwtService;
 
@@ -70,11 +78,12 @@ class DashboardControllerTest {
         topSpace.setReservationCount(45);
         topSpace.setTotalRevenue(500000.0);
         dashboardDTO.setTopSpaces(Arrays.asList(topSpace));
+        dashboardDTO.setComputedAt(OffsetDateTime.parse("2025-03-01T10:00:00-06:00"));
     }
 
     @Test
     void testGetDashboard_Success() throws Exception {
-        when(metricsService.getSimpleDashboard()).thenReturn(dashboardDTO);
+        when(dashboardCache.getDashboard()).thenReturn(dashboardDTO);
 
         mockMvc.perform(get("/api/admin/dashboard"))
                 .andExpect(status().isOk())
@@ -87,9 +96,10 @@ class DashboardControllerTest {
                 .andExpect(jsonPath("$.reservationsByStatus.COMPLETED").value(100))
                 .andExpect(jsonPath("$.revenueMetrics.currentMonthRevenue").value(250000.0))
                 .andExpect(jsonPath("$.topSpaces[0].spaceName").value("Cancha de Fútbol"))
-                .andExpect(jsonPath("$.topSpaces[0].reservationCount").value(45));
+                .andExpect(jsonPath("$.topSpaces[0].reservationCount").value(45))
+                .andExpect(jsonPath("$.computedAt").exists());
 
-        verify(metricsService, times(1)).getSimpleDashboard();
+        verify(dashboardCache, times(1)).getDashboard();
     }
 
     @Test
@@ -100,7 +110,7 @@ class DashboardControllerTest {
         emptyDashboard.setRevenueMetrics(new RevenueMetricsDTO());
         emptyDashboard.setTopSpaces(new ArrayList<>());
 
-        when(metricsService.getSimpleDashboard()).thenReturn(emptyDashboard);
+        when(dashboardCache.getDashboard()).thenReturn(emptyDashboard);
 
         mockMvc.perform(get("/api/admin/dashboard"))
                 .andExpect(status().isOk())
@@ -109,16 +119,96 @@ class DashboardControllerTest {
                 .andExpect(jsonPath("$.revenueMetrics").exists())
                 .andExpect(jsonPath("$.topSpaces").exists());
 
-        verify(metricsService, times(1)).getSimpleDashboard();
+        verify(dashboardCache, times(1)).getDashboard();
     }
 
     @Test
     void testGetDashboard_ServiceException() throws Exception {
-        when(metricsService.getSimpleDashboard()).thenThrow(new RuntimeException("Database error"));
+        when(dashboardCache.getDashboard()).thenThrow(new RuntimeException("Database error"));
 
         mockMvc.perform(get("/api/admin/dashboard"))
                 .andExpect(status().isInternalServerError());
 
-        verify(metricsService, times(1)).getSimpleDashboard();
+        verify(dashboardCache, times(1)).getDashboard();
+    }
+
+    @Test
+    void testGetRangeMetrics_Success() throws Exception {
+        UUID spaceId = UUID.randomUUID();
+        RangeMetricsDTO range = new RangeMetricsDTO(LocalDate.of(2023, 1, 1), LocalDate.of(2025, 12, 31), spaceId,
+                1200, 80, 72000, 350000.0, 900, Map.of("COMPLETED", 1000L), List.of(), null);
+        when(metricsService.getRangeMetrics(LocalDate.of(2023, 1, 1), LocalDate.of(2025, 12, 31), spaceId))
+                .thenReturn(range);
+
+        mockMvc.perform(get("/api/admin/dashboard/range")
+                        .param("from", "2023-01-01")
+                        .param("to", "2025-12-31")
+                        .param("spaceId", spaceId.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.from").value("2023-01-01"))
+                .andExpect(jsonPath("$.totalReservations").value(1200))
+                .andExpect(jsonPath("$.totalMinutes").value(72000))
+                .andExpect(jsonPath("$.reservationsByStatus.COMPLETED").value(1000));
+    }
+
+    @Test
+    void testGetRangeMetrics_AllSpaces() throws Exception {
+        when(metricsService.getRangeMetrics(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), null))
+                .thenReturn(new RangeMetricsDTO());
+
+        mockMvc.perform(get("/api/admin/dashboard/range")
+                        .param("from", "2025-01-01")
+                        .param("to", "2025-01-31"))
+                .andExpect(status().isOk());
+
+        verify(metricsService).getRangeMetrics(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 31), null);
+    }
+
+    @Test
+    void testGetRangeMetrics_InvalidRange() throws Exception {
+        when(metricsService.getRangeMetrics(any(), any(), any()))
+                .thenThrow(new BusinessException("La fecha de inicio debe ser anterior o igual a la fecha de fin"));
+
+        mockMvc.perform(get("/api/admin/dashboard/range")
+                        .param("from", "2025-02-01")
+                        .param("to", "2025-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetRangeMetrics_MalformedDate() throws Exception {
+        mockMvc.perform(get("/api/admin/dashboard/range")
+                .param("from", "01/02/2025")
+                .param("to", "2025-01-01"));
+
+        verify(metricsService, never()).getRangeMetrics(any(), any(), any());
+    }
+
+    @Test
+    void testGetRangeSeries_Monthly() throws Exception {
+        when(metricsService.getRangeSeries(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31), null, "MONTH"))
+                .thenReturn(List.of(new RangePointDTO(LocalDate.of(2024, 1, 1), 40, 2400, 1000.0, 35),
+                        new RangePointDTO(LocalDate.of(2024, 2, 1), 20, 1200, 500.0, 18)));
+
+        mockMvc.perform(get("/api/admin/dashboard/range/series")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-12-31")
+                        .param("granularity", "MONTH"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].periodStart").value("2024-02-01"))
+                .andExpect(jsonPath("$[1].reservations").value(20));
+    }
+
+    @Test
+    void testGetRangeSeries_DefaultsToDaily() throws Exception {
+        when(metricsService.getRangeSeries(any(), any(), any(), any())).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/admin/dashboard/range/series")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-07"))
+                .andExpect(status().isOk());
+
+        verify(metricsService).getRangeSeries(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 7), null, "DAY");
     }
 }
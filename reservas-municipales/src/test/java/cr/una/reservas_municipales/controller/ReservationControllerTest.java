@@ -1,7 +1,12 @@
 package cr.una.reservas_municipales.controller;
 
+import cr.una.reservas_municipales.dto.BatchReservationItemResultDto;
+import cr.una.reservas_municipales.dto.BatchReservationRequestDto;
+import cr.una.reservas_municipales.dto.BatchReservationResultDto;
+import cr.una.reservas_municipales.dto.CursorPageDto;
 import cr.una.reservas_municipales.dto.ReservationDto;
 import cr.una.reservas_municipales.dto.QRValidationDto;
+import cr.una.reservas_municipales.exception.BusinessException;
 import cr.una.reservas_municipales.exception.CancellationNotAllowedException;
 import cr.una.reservas_municipales.repository.UserRepository;
 import cr.una.reservas_municipales.service.ReservationService;
@@ -77,7 +82,7 @@ class ReservationControllerTest {
 
         @Test
         void testGetAllReservations_Exception_InternalServerError() throws Exception {
-                when(reservationService.getAllReservations()).thenThrow(new RuntimeException("boom"));
+                when(reservationService.getAllReservations(isNull(), isNull())).thenThrow(new RuntimeException("boom"));
 
                 mockMvc.perform(get("/api/reservations"))
                                 .andExpect(status().isInternalServerError());
@@ -86,15 +91,65 @@ class ReservationControllerTest {
     @Test
     void testGetAllReservations_Success() throws Exception {
         List<ReservationDto> reservations = Arrays.asList(reservationDto);
-        when(reservationService.getAllReservations()).thenReturn(reservations);
+        when(reservationService.getAllReservations(isNull(), isNull())).thenReturn(new CursorPageDto<>(reservations, null));
 
         mockMvc.perform(get("/api/reservations"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(1))
-                .andExpect(jsonPath("$[0].reservationId").value(reservationId.toString()));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.items[0].reservationId").value(reservationId.toString()))
+                .andExpect(jsonPath("$.nextCursor").isEmpty());
+
+        verify(reservationService, times(1)).getAllReservations(null, null);
+    }
+
+    @Test
+    void testGetAllReservations_NextCursorInBody() throws Exception {
+        when(reservationService.getAllReservations("abc", 1))
+                .thenReturn(new CursorPageDto<>(List.of(reservationDto), "def"));
+
+        mockMvc.perform(get("/api/reservations").param("cursor", "abc").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value("def"));
+    }
+
+    @Test
+    void testGetAllReservations_InvalidCursor_BadRequest() throws Exception {
+        when(reservationService.getAllReservations(eq("roto"), isNull()))
+                .thenThrow(new BusinessException("Cursor de paginación inválido"));
 
-        verify(reservationService, times(1)).getAllReservations();
+        mockMvc.perform(get("/api/reservations").param("cursor", "roto"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testStreamReservations_WritesNdjson() throws Exception {
+        when(reservationExportService.ndjsonWriter(any())).thenAnswer(invocation -> {
+            java.io.OutputStream out = invocation.getArgument(0);
+            return (java.util.function.Consumer<ReservationDto>) dto -> {
+                try {
+                    out.write((dto.getReservationId() + "\n").getBytes());
+                } catch (java.io.IOException e) {
+                    throw new java.io.UncheckedIOException(e);
+                }
+            };
+        });
+        when(reservationService.streamReservations(eq("CONFIRMED"), isNull(), isNull(), isNull(), any()))
+                .thenAnswer(invocation -> {
+                    java.util.function.Consumer<ReservationDto> sink = invocation.getArgument(4);
+                    sink.accept(reservationDto);
+                    return 1L;
+                });
+
+        var result = mockMvc.perform(get("/api/reservations/stream").param("status", "CONFIRMED"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+                .andExpect(content().string(reservationId + "\n"));
     }
 
     @Test
@@ -153,19 +208,19 @@ class ReservationControllerTest {
     @Test
     void testGetReservationsBySpace_Success() throws Exception {
         List<ReservationDto> reservations = Arrays.asList(reservationDto);
-        when(reservationService.getReservationsBySpace(spaceId)).thenReturn(reservations);
+        when(reservationService.getReservationsBySpace(eq(spaceId), isNull(), isNull())).thenReturn(new CursorPageDto<>(reservations, null));
 
         mockMvc.perform(get("/api/reservations/space/{spaceId}", spaceId))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(1));
 
-        verify(reservationService, times(1)).getReservationsBySpace(spaceId);
+        verify(reservationService, times(1)).getReservationsBySpace(spaceId, null, null);
     }
 
         @Test
         void testGetReservationsBySpace_Exception_InternalServerError() throws Exception {
-                when(reservationService.getReservationsBySpace(spaceId)).thenThrow(new RuntimeException("err"));
+                when(reservationService.getReservationsBySpace(eq(spaceId), isNull(), isNull())).thenThrow(new RuntimeException("err"));
 
                 mockMvc.perform(get("/api/reservations/space/{spaceId}", spaceId))
                                 .andExpect(status().isInternalServerError());
@@ -174,19 +229,19 @@ class ReservationControllerTest {
     @Test
     void testGetReservationsByStatus_Success() throws Exception {
         List<ReservationDto> reservations = Arrays.asList(reservationDto);
-        when(reservationService.getReservationsByStatus("PENDING")).thenReturn(reservations);
+        when(reservationService.getReservationsByStatus(eq("PENDING"), isNull(), isNull())).thenReturn(new CursorPageDto<>(reservations, null));
 
         mockMvc.perform(get("/api/reservations/status/PENDING"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray())
-                .andExpect(jsonPath("$.length()").value(1));
+                .andExpect(jsonPath("$.items").isArray())
+                .andExpect(jsonPath("$.items.length()").value(1));
 
-        verify(reservationService, times(1)).getReservationsByStatus("PENDING");
+        verify(reservationService, times(1)).getReservationsByStatus("PENDING", null, null);
     }
 
         @Test
         void testGetReservationsByStatus_Exception_InternalServerError() throws Exception {
-                when(reservationService.getReservationsByStatus("PENDING")).thenThrow(new RuntimeException("err"));
+                when(reservationService.getReservationsByStatus(eq("PENDING"), isNull(), isNull())).thenThrow(new RuntimeException("err"));
 
                 mockMvc.perform(get("/api/reservations/status/PENDING"))
                                 .andExpect(status().isInternalServerError());
@@ -195,22 +250,22 @@ class ReservationControllerTest {
     @Test
     void testGetReservationsInDateRange_Success() throws Exception {
         List<ReservationDto> reservations = Arrays.asList(reservationDto);
-        when(reservationService.getReservationsInDateRange(any(OffsetDateTime.class), any(OffsetDateTime.class)))
-                .thenReturn(reservations);
+        when(reservationService.getReservationsInDateRange(any(OffsetDateTime.class), any(OffsetDateTime.class), isNull(), isNull()))
+                .thenReturn(new CursorPageDto<>(reservations, null));
 
         mockMvc.perform(get("/api/reservations/date-range")
                         .param("startDate", "2025-11-01T00:00:00Z")
                         .param("endDate", "2025-11-30T23:59:59Z"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$").isArray());
+                .andExpect(jsonPath("$.items").isArray());
 
         verify(reservationService, times(1)).getReservationsInDateRange(
-                any(OffsetDateTime.class), any(OffsetDateTime.class));
+                any(OffsetDateTime.class), any(OffsetDateTime.class), isNull(), isNull());
     }
 
     @Test
     void testGetReservationsInDateRange_Exception_InternalServerError() throws Exception {
-        when(reservationService.getReservationsInDateRange(any(OffsetDateTime.class), any(OffsetDateTime.class)))
+        when(reservationService.getReservationsInDateRange(any(OffsetDateTime.class), any(OffsetDateTime.class), isNull(), isNull()))
                 .thenThrow(new RuntimeException("err"));
 
         mockMvc.perform(get("/api/reservations/date-range")
@@ -744,4 +799,45 @@ class ReservationControllerTest {
                 org.junit.jupiter.api.Assertions.assertEquals(200, resp.getStatusCode().value());
                 org.junit.jupiter.api.Assertions.assertNotNull(resp.getBody());
         }
+
+    @Test
+    void testCreateReservationsBatch_AllCreated() throws Exception {
+        BatchReservationRequestDto request = new BatchReservationRequestDto();
+        request.setReservations(List.of(reservationDto));
+
+        when(reservationService.createReservationsBatch(any(BatchReservationRequestDto.class)))
+                .thenReturn(BatchReservationResultDto.builder()
+                        .mode("ALL_OR_NOTHING").total(1).created(1).failed(0)
+                        .items(List.of(BatchReservationItemResultDto.builder()
+                                .index(0).success(true).reservation(reservationDto).build()))
+                        .build());
+
+        mockMvc.perform(post("/api/reservations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.items[0].success").value(true));
+    }
+
+    @Test
+    void testCreateReservationsBatch_PartialIsMultiStatus() throws Exception {
+        BatchReservationRequestDto request = new BatchReservationRequestDto();
+        request.setMode("BEST_EFFORT");
+        request.setReservations(List.of(reservationDto, reservationDto));
+
+        when(reservationService.createReservationsBatch(any(BatchReservationRequestDto.class)))
+                .thenReturn(BatchReservationResultDto.builder()
+                        .mode("BEST_EFFORT").total(2).created(1).failed(1)
+                        .items(List.of(
+                                BatchReservationItemResultDto.builder().index(0).success(true).build(),
+                                BatchReservationItemResultDto.builder().index(1).success(false).error("conflicto").build()))
+                        .build());
+
+        mockMvc.perform(post("/api/reservations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.items[1].error").value("conflicto"));
+    }
 }
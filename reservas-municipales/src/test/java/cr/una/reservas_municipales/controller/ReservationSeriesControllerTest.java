@@ -0,0 +1,132 @@
+package cr.una.reservas_municipales.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.una.reservas_municipales.dto.ReservationSeriesDto;
+import cr.una.reservas_municipales.exception.CancellationNotAllowedException;
+import cr.una.reservas_municipales.service.JwtService;
+import cr.una.reservas_municipales.service.ReservationSeriesService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ReservationSeriesController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class ReservationSeriesControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private ReservationSeriesService reservationSeriesService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private UUID seriesId;
+    private ReservationSeriesDto seriesDto;
+
+    @BeforeEach
+    void setUp() {
+        seriesId = UUID.randomUUID();
+
+        seriesDto = new ReservationSeriesDto();
+        seriesDto.setSpaceId(UUID.randomUUID());
+        seriesDto.setUserId(UUID.randomUUID());
+        seriesDto.setStartsAt(OffsetDateTime.now().plusDays(2));
+        seriesDto.setEndsAt(OffsetDateTime.now().plusDays(2).plusHours(2));
+        seriesDto.setRecurrenceRule("FREQ=WEEKLY;BYDAY=TU;COUNT=4");
+    }
+
+    @Test
+    void testCreateSeries_Success() throws Exception {
+        ReservationSeriesDto created = new ReservationSeriesDto();
+        created.setSeriesId(seriesId);
+        created.setStatus("ACTIVE");
+        created.setOccurrenceCount(4);
+        created.setReservationIds(List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()));
+        when(reservationSeriesService.createSeries(any(ReservationSeriesDto.class))).thenReturn(created);
+
+        mockMvc.perform(post("/api/reservations/series")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(seriesDto)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.seriesId").value(seriesId.toString()))
+                .andExpect(jsonPath("$.occurrenceCount").value(4));
+    }
+
+    @Test
+    void testGetSeries_NotFound() throws Exception {
+        when(reservationSeriesService.getSeries(seriesId)).thenReturn(null);
+
+        mockMvc.perform(get("/api/reservations/series/{seriesId}", seriesId))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testRescheduleSeries_NotFound() throws Exception {
+        when(reservationSeriesService.rescheduleSeries(eq(seriesId), any())).thenReturn(null);
+
+        mockMvc.perform(patch("/api/reservations/series/{seriesId}/reschedule", seriesId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"startTime\":\"19:00:00\",\"endTime\":\"21:00:00\"}"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testCancelSeries_DirectCall() {
+        ReservationSeriesController controller = new ReservationSeriesController(reservationSeriesService);
+        Authentication auth = new TestingAuthenticationToken("admin@example.com", "pw", "ROLE_ADMIN");
+        when(reservationSeriesService.cancelSeries(seriesId, "Fin de temporada", "ADMIN")).thenReturn(3);
+
+        var resp = controller.cancelSeries(seriesId, "Fin de temporada", auth);
+
+        assertEquals(200, resp.getStatusCode().value());
+        assertEquals(3, ((Map<?, ?>) resp.getBody()).get("cancelledOccurrences"));
+    }
+
+    @Test
+    void testCancelSeries_NotAllowed_DirectCall() {
+        ReservationSeriesController controller = new ReservationSeriesController(reservationSeriesService);
+        Authentication auth = new TestingAuthenticationToken("user@example.com", "pw", "ROLE_USER");
+        when(reservationSeriesService.cancelSeries(seriesId, null, "USER"))
+                .thenThrow(new CancellationNotAllowedException("La serie ya está cancelada"));
+
+        var resp = controller.cancelSeries(seriesId, null, auth);
+
+        assertEquals(403, resp.getStatusCode().value());
+    }
+
+    @Test
+    void testCancelSeries_NotFound_DirectCall() {
+        ReservationSeriesController controller = new ReservationSeriesController(reservationSeriesService);
+        Authentication auth = new TestingAuthenticationToken("admin@example.com", "pw", "ROLE_ADMIN");
+        when(reservationSeriesService.cancelSeries(seriesId, null, "ADMIN")).thenReturn(-1);
+
+        assertEquals(404, controller.cancelSeries(seriesId, null, auth).getStatusCode().value());
+    }
+}
@@ -0,0 +1,81 @@
+package cr.una.reservas_municipales.controller;
+
+import cr.una.reservas_municipales.dto.SpaceAvailabilityDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.service.JwtService;
+import cr.una.reservas_municipales.service.SpaceAvailabilityService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SpaceAvailabilityController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class SpaceAvailabilityControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private SpaceAvailabilityService availabilityService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    private final UUID spaceId = UUID.randomUUID();
+
+    @Test
+    void testGetAvailability_Success() throws Exception {
+        OffsetDateTime from = OffsetDateTime.parse("2026-03-16T08:00:00-06:00");
+        OffsetDateTime to = OffsetDateTime.parse("2026-03-16T12:00:00-06:00");
+        when(availabilityService.getAvailability(eq(spaceId), eq(from), eq(to), eq(60)))
+                .thenReturn(new SpaceAvailabilityDto(spaceId, from, to, 60, 4, 3, true, List.of(1, 1, 2)));
+
+        mockMvc.perform(get("/api/spaces/{spaceId}/availability", spaceId)
+                        .param("from", "2026-03-16T08:00:00-06:00")
+                        .param("to", "2026-03-16T12:00:00-06:00")
+                        .param("granularity", "60"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.slotCount").value(4))
+                .andExpect(jsonPath("$.firstRunFree").value(true))
+                .andExpect(jsonPath("$.runs.length()").value(3));
+    }
+
+    @Test
+    void testGetAvailability_DefaultGranularity() throws Exception {
+        when(availabilityService.getAvailability(eq(spaceId), any(), any(), eq(30)))
+                .thenReturn(new SpaceAvailabilityDto());
+
+        mockMvc.perform(get("/api/spaces/{spaceId}/availability", spaceId)
+                        .param("from", "2026-03-16T08:00:00-06:00")
+                        .param("to", "2026-03-16T12:00:00-06:00"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void testGetAvailability_InvalidRange() throws Exception {
+        when(availabilityService.getAvailability(eq(spaceId), any(), any(), eq(30)))
+                .thenThrow(new BusinessException("La fecha de inicio debe ser anterior a la fecha de fin"));
+
+        mockMvc.perform(get("/api/spaces/{spaceId}/availability", spaceId)
+                        .param("from", "2026-03-16T12:00:00-06:00")
+                        .param("to", "2026-03-16T08:00:00-06:00"))
+                .andExpect(status().isBadRequest());
+    }
+}
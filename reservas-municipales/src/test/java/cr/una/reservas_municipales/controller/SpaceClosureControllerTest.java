@@ -0,0 +1,96 @@
+package cr.una.reservas_municipales.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.una.reservas_municipales.dto.CreateClosureDto;
+import cr.una.reservas_municipales.dto.SpaceClosureDto;
+import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.service.JwtService;
+import cr.una.reservas_municipales.service.SpaceClosureService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SpaceClosureController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class SpaceClosureControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private SpaceClosureService closureService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final UUID spaceId = UUID.randomUUID();
+    private final OffsetDateTime startsAt = OffsetDateTime.parse("2026-03-16T08:00:00-06:00");
+
+    @Test
+    void testGetClosures() throws Exception {
+        when(closureService.getClosures(spaceId)).thenReturn(List.of(
+                new SpaceClosureDto(1L, spaceId, "Mantenimiento", startsAt, startsAt.plusDays(1), null)));
+
+        mockMvc.perform(get("/api/spaces/{spaceId}/closures", spaceId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].reason").value("Mantenimiento"));
+    }
+
+    @Test
+    void testCreateClosure() throws Exception {
+        CreateClosureDto dto = new CreateClosureDto("Mantenimiento", startsAt, startsAt.plusDays(1));
+        when(closureService.createClosure(eq(spaceId), any(CreateClosureDto.class))).thenReturn(
+                new SpaceClosureDto(1L, spaceId, "Mantenimiento", startsAt, startsAt.plusDays(1), 3));
+
+        mockMvc.perform(post("/api/spaces/{spaceId}/closures", spaceId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(dto)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.closureId").value(1))
+                .andExpect(jsonPath("$.cancelledReservations").value(3));
+    }
+
+    @Test
+    void testCreateClosure_MissingDates() throws Exception {
+        // @Valid rechaza el cuerpo antes de llegar al servicio
+        mockMvc.perform(post("/api/spaces/{spaceId}/closures", spaceId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"reason\":\"Mantenimiento\"}"));
+
+        verify(closureService, never()).createClosure(any(), any());
+    }
+
+    @Test
+    void testDeleteClosure() throws Exception {
+        when(closureService.deleteClosure(spaceId, 1L)).thenReturn(true);
+        when(closureService.deleteClosure(spaceId, 2L)).thenReturn(false);
+
+        mockMvc.perform(delete("/api/spaces/{spaceId}/closures/{closureId}", spaceId, 1L))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(delete("/api/spaces/{spaceId}/closures/{closureId}", spaceId, 2L))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,7 +1,9 @@
 package cr.una.reservas_municipales.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.una.reservas_municipales.dto.NearbySpaceDto;
 import cr.una.reservas_municipales.dto.SpaceDto;
+import cr.una.reservas_municipales.exception.BusinessException;
 import cr.una.reservas_municipales.repository.UserRepository;
 import cr.una.reservas_municipales.service.JwtService;
 import cr.una.reservas_municipales.service.SpaceService;
@@ -139,7 +141,7 @@ class SpaceControllerTest {
         s.setOutdoor(false);
         s.setActive(true);
 
-        when(spaceService.findAvailableSpaces(anyString(), anyString(), any(), any()))
+        when(spaceService.findAvailableSpaces(anyString(), anyString(), any(), any(), any(), any(), any()))
                 .thenReturn(List.of(s));
 
         mockMvc.perform(get("/api/spaces/available")
@@ -310,6 +312,70 @@ class SpaceControllerTest {
                 .andExpect(status().isInternalServerError());
     }
 
+    @Test
+    void testSearchText_Success() throws Exception {
+        SpaceDto s = new SpaceDto();
+        s.setSpaceId(UUID.randomUUID());
+        s.setName("Salón Comunal");
+
+        when(spaceService.searchText("salon", 5)).thenReturn(List.of(s));
+
+        mockMvc.perform(get("/api/spaces/search/text")
+                        .param("q", "salon")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].name").value("Salón Comunal"));
+    }
+
+    @Test
+    void testSearchText_Exception_InternalServerError() throws Exception {
+        when(spaceService.searchText(any(), any())).thenThrow(new RuntimeException("search failed"));
+
+        mockMvc.perform(get("/api/spaces/search/text").param("q", "salon"))
+                .andExpect(status().isInternalServerError());
+    }
+
+    @Test
+    void testGetNearbySpaces_Success() throws Exception {
+        SpaceDto s = new SpaceDto();
+        s.setSpaceId(UUID.randomUUID());
+        s.setName("Parque La Sabana");
+
+        when(spaceService.findNearbySpaces(eq(9.93), eq(-84.09), eq(3.0), isNull(), isNull(), isNull(), eq(true), isNull(), isNull()))
+                .thenReturn(List.of(new NearbySpaceDto(s, 1.25)));
+
+        mockMvc.perform(get("/api/spaces/nearby")
+                        .param("lat", "9.93")
+                        .param("lon", "-84.09")
+                        .param("radiusKm", "3")
+                        .param("outdoor", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].space.name").value("Parque La Sabana"))
+                .andExpect(jsonPath("$[0].distanceKm").value(1.25));
+    }
+
+    @Test
+    void testGetNearbySpaces_InvalidParams_BadRequest() throws Exception {
+        when(spaceService.findNearbySpaces(anyDouble(), anyDouble(), any(), any(), any(), any(), any(), any(), any()))
+                .thenThrow(new BusinessException("Coordenadas fuera de rango"));
+
+        mockMvc.perform(get("/api/spaces/nearby")
+                        .param("lat", "95")
+                        .param("lon", "-84.09"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetNearbySpaces_Exception_InternalServerError() throws Exception {
+        when(spaceService.findNearbySpaces(anyDouble(), anyDouble(), any(), any(), any(), any(), any(), any(), any()))
+                .thenThrow(new RuntimeException("boom"));
+
+        mockMvc.perform(get("/api/spaces/nearby")
+                        .param("lat", "9.93")
+                        .param("lon", "-84.09"))
+                .andExpect(status().isInternalServerError());
+    }
+
     @Test
     void testSearchSpaces_Exception_InternalServerError() throws Exception {
         when(spaceService.searchSpaces(any(), any(), any(), any(), any(), any(), any()))
@@ -323,7 +389,7 @@ class SpaceControllerTest {
 
     @Test
     void testGetAvailableSpaces_Exception_InternalServerError() throws Exception {
-        when(spaceService.findAvailableSpaces(anyString(), anyString(), any(), any()))
+        when(spaceService.findAvailableSpaces(anyString(), anyString(), any(), any(), any(), any(), any()))
                 .thenThrow(new RuntimeException("availability failed"));
 
         mockMvc.perform(get("/api/spaces/available")
@@ -0,0 +1,125 @@
+package cr.una.reservas_municipales.controller;
+
+import cr.una.reservas_municipales.dto.QuoteDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.SpaceNotFoundException;
+import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.service.JwtService;
+import cr.una.reservas_municipales.service.SpaceRateService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(SpaceQuoteController.class)
+@AutoConfigureMockMvc(addFilters = false)
+class SpaceQuoteControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private SpaceRateService spaceRateService;
+
+    @MockitoBean
+    private JwtService jwtService;
+
+    @MockitoBean
+    private UserRepository userRepository;
+
+    private final UUID spaceId = UUID.randomUUID();
+    private final OffsetDateTime startsAt = OffsetDateTime.parse("2026-03-16T08:00:00-06:00");
+    private final OffsetDateTime endsAt = OffsetDateTime.parse("2026-03-16T10:00:00-06:00");
+
+    private static final String WINDOW = "{\"startsAt\":\"2026-03-16T08:00:00-06:00\",\"endsAt\":\"2026-03-16T10:00:00-06:00\"}";
+
+    @Test
+    void testQuote_Success() throws Exception {
+        when(spaceRateService.quote(eq(spaceId), any(), any()))
+                .thenReturn(new QuoteDto(spaceId, startsAt, endsAt, true, 1L, new BigDecimal("10000.00"), "CRC"));
+
+        mockMvc.perform(post("/api/spaces/{spaceId}/quote", spaceId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(WINDOW))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.priced").value(true))
+                .andExpect(jsonPath("$.totalAmount").value(10000.00))
+                .andExpect(jsonPath("$.currency").value("CRC"));
+    }
+
+    @Test
+    void testQuote_WithoutRate() throws Exception {
+        when(spaceRateService.quote(eq(spaceId), any(), any()))
+                .thenThrow(new BusinessException("El espacio no tiene una tarifa vigente que cubra todo el intervalo"));
+
+        mockMvc.perform(post("/api/spaces/{spaceId}/quote", spaceId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(WINDOW))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testQuote_SpaceNotFound() throws Exception {
+        when(spaceRateService.quote(eq(spaceId), any(), any()))
+                .thenThrow(new SpaceNotFoundException("Espacio no encontrado con ID: " + spaceId));
+
+        mockMvc.perform(post("/api/spaces/{spaceId}/quote", spaceId)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(WINDOW))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testQuote_MissingDates() throws Exception {
+        // @Valid rechaza el cuerpo antes de llegar al servicio
+        mockMvc.perform(post("/api/spaces/{spaceId}/quote", spaceId)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"startsAt\":\"2026-03-16T08:00:00-06:00\"}"));
+
+        verify(spaceRateService, never()).quote(any(), any(), any());
+    }
+
+    @Test
+    void testQuoteBulk_Success() throws Exception {
+        UUID other = UUID.randomUUID();
+        when(spaceRateService.quoteBulk(argThat(request -> request.getSpaceIds().size() == 2
+                && request.getWindows().size() == 1)))
+                .thenReturn(List.of(
+                        new QuoteDto(spaceId, startsAt, endsAt, true, 1L, new BigDecimal("10000.00"), "CRC"),
+                        new QuoteDto(other, startsAt, endsAt, false, null, null, null)));
+
+        mockMvc.perform(post("/api/spaces/quotes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"spaceIds\":[\"" + spaceId + "\",\"" + other + "\"],\"windows\":[" + WINDOW + "]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].priced").value(true))
+                .andExpect(jsonPath("$[1].priced").value(false));
+    }
+
+    @Test
+    void testQuoteBulk_TooManyQuotes() throws Exception {
+        when(spaceRateService.quoteBulk(any()))
+                .thenThrow(new BusinessException("La consulta no puede superar 1000 cotizaciones"));
+
+        mockMvc.perform(post("/api/spaces/quotes")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"spaceIds\":[\"" + spaceId + "\"],\"windows\":[" + WINDOW + "]}"))
+                .andExpect(status().isBadRequest());
+    }
+}
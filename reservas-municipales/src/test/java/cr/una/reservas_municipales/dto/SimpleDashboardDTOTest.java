@@ -17,6 +17,7 @@ class SimpleDashboardDTOTest {
         assertNull(dto.getRevenueMetrics());
         assertNull(dto.getTopSpaces());
         assertNull(dto.getTemporalMetrics());
+        assertNull(dto.getComputedAt());
     }
 
     @Test
@@ -38,7 +39,7 @@ class SimpleDashboardDTOTest {
         );
 
         SimpleDashboardDTO dto = new SimpleDashboardDTO(
-            generalMetrics, byStatus, revenueMetrics, topSpaces, temporalMetrics
+            generalMetrics, byStatus, revenueMetrics, topSpaces, temporalMetrics, null
         );
 
         assertEquals(generalMetrics, dto.getGeneralMetrics());
@@ -161,7 +162,8 @@ class SimpleDashboardDTOTest {
             new HashMap<>(),
             new RevenueMetricsDTO(0.0, 0.0, 0.0),
             new ArrayList<>(),
-            new TemporalMetricsDTO(0L, 0L, 0L, new HashMap<>(), new HashMap<>(), null, null)
+            new TemporalMetricsDTO(0L, 0L, 0L, new HashMap<>(), new HashMap<>(), null, null),
+            null
         );
 
         assertNotNull(dto.getGeneralMetrics());
@@ -179,16 +181,16 @@ class SimpleDashboardDTOTest {
         byStatus.put("CONFIRMED", 50L);
         
         SimpleDashboardDTO dto1 = new SimpleDashboardDTO(
-            general, byStatus, new RevenueMetricsDTO(), new ArrayList<>(), new TemporalMetricsDTO()
+            general, byStatus, new RevenueMetricsDTO(), new ArrayList<>(), new TemporalMetricsDTO(), null
         );
         
         SimpleDashboardDTO dto2 = new SimpleDashboardDTO(
-            general, byStatus, new RevenueMetricsDTO(), new ArrayList<>(), new TemporalMetricsDTO()
+            general, byStatus, new RevenueMetricsDTO(), new ArrayList<>(), new TemporalMetricsDTO(), null
         );
         
         SimpleDashboardDTO dto3 = new SimpleDashboardDTO(
             new GeneralMetricsDTO(200L, 30L, 60L, 40L), new HashMap<>(), 
-            new RevenueMetricsDTO(), new ArrayList<>(), new TemporalMetricsDTO()
+            new RevenueMetricsDTO(), new ArrayList<>(), new TemporalMetricsDTO(), null
         );
 
         assertEquals(dto1, dto2);
@@ -203,7 +205,8 @@ class SimpleDashboardDTOTest {
             new HashMap<>(),
             new RevenueMetricsDTO(),
             new ArrayList<>(),
-            new TemporalMetricsDTO()
+            new TemporalMetricsDTO(),
+            null
         );
         
         String toString = dto.toString();
@@ -269,7 +272,7 @@ class SimpleDashboardDTOTest {
 
     @Test
     void testNullMetrics() {
-        SimpleDashboardDTO dto = new SimpleDashboardDTO(null, null, null, null, null);
+        SimpleDashboardDTO dto = new SimpleDashboardDTO(null, null, null, null, null, null);
 
         assertNull(dto.getGeneralMetrics());
         assertNull(dto.getReservationsByStatus());
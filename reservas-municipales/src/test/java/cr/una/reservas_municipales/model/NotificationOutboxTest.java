@@ -0,0 +1,46 @@
+package cr.una.reservas_municipales.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationOutboxTest {
+
+    @Test
+    void testMappedToOutboxTable() {
+        assertEquals("notification_outbox", NotificationOutbox.class.getAnnotation(Table.class).name());
+    }
+
+    @Test
+    void testNewMessageIsPending() {
+        NotificationOutbox message = new NotificationOutbox();
+
+        assertEquals(NotificationOutbox.Status.PENDING, message.getStatus());
+        assertEquals(0, message.getAttempts());
+        assertNull(message.getSentAt());
+    }
+
+    @Test
+    void testPayloadColumn() throws NoSuchFieldException {
+        Column column = NotificationOutbox.class.getDeclaredField("payload").getAnnotation(Column.class);
+        assertEquals("TEXT", column.columnDefinition());
+        assertFalse(column.nullable());
+    }
+
+    @Test
+    void testIdFromPooledSequenceSoInsertsCanBeBatched() throws NoSuchFieldException {
+        var id = NotificationOutbox.class.getDeclaredField("outboxId");
+        GeneratedValue generated = id.getAnnotation(GeneratedValue.class);
+        SequenceGenerator sequence = id.getAnnotation(SequenceGenerator.class);
+
+        assertEquals(GenerationType.SEQUENCE, generated.strategy());
+        assertEquals("notification_outbox_seq", sequence.sequenceName());
+        // Debe coincidir con el INCREMENT BY de la secuencia en los scripts de BD
+        assertEquals(50, sequence.allocationSize());
+    }
+}
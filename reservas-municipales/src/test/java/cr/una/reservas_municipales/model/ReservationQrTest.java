@@ -0,0 +1,38 @@
+package cr.una.reservas_municipales.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Table;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationQrTest {
+
+    @Test
+    void testMappedToOwnTable() {
+        assertEquals("reservation_qr", ReservationQr.class.getAnnotation(Table.class).name());
+    }
+
+    @Test
+    void testQrCodeColumn() throws NoSuchFieldException {
+        Field field = ReservationQr.class.getDeclaredField("qrCode");
+        Column column = field.getAnnotation(Column.class);
+        assertEquals("TEXT", column.columnDefinition());
+        assertFalse(column.nullable());
+    }
+
+    @Test
+    void testIsNewUntilPersistedOrLoaded() {
+        UUID reservationId = UUID.randomUUID();
+        ReservationQr qr = new ReservationQr(reservationId, "QR");
+
+        assertTrue(qr.isNew());
+        assertEquals(reservationId, qr.getId());
+
+        qr.markNotNew();
+        assertFalse(qr.isNew());
+    }
+}
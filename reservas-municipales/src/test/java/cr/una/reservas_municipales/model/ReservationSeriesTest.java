@@ -0,0 +1,56 @@
+package cr.una.reservas_municipales.model;
+
+import jakarta.persistence.*;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ReservationSeries
+ */
+class ReservationSeriesTest {
+
+    @Test
+    void testEntityAndTableAnnotations() {
+        assertTrue(ReservationSeries.class.isAnnotationPresent(Entity.class));
+        assertEquals("reservation_series", ReservationSeries.class.getAnnotation(Table.class).name());
+    }
+
+    @Test
+    void testSeriesIdIsId() throws NoSuchFieldException {
+        Field field = ReservationSeries.class.getDeclaredField("seriesId");
+        assertTrue(field.isAnnotationPresent(Id.class));
+        assertEquals("series_id", field.getAnnotation(Column.class).name());
+    }
+
+    @Test
+    void testSettersAndGetters() {
+        ReservationSeries series = new ReservationSeries();
+        UUID id = UUID.randomUUID();
+        OffsetDateTime now = OffsetDateTime.now();
+
+        series.setSeriesId(id);
+        series.setRecurrenceRule("FREQ=WEEKLY;BYDAY=TU;COUNT=26");
+        series.setFirstStartsAt(now);
+        series.setFirstEndsAt(now.plusHours(2));
+        series.setStatus("ACTIVE");
+        series.setTotalAmount(new BigDecimal("5000.00"));
+        series.setCurrency("CRC");
+
+        assertEquals(id, series.getSeriesId());
+        assertEquals("FREQ=WEEKLY;BYDAY=TU;COUNT=26", series.getRecurrenceRule());
+        assertEquals(now.plusHours(2), series.getFirstEndsAt());
+        assertEquals("ACTIVE", series.getStatus());
+    }
+
+    @Test
+    void testReservationHasSeriesColumn() throws NoSuchFieldException {
+        Field field = Reservation.class.getDeclaredField("seriesId");
+        assertEquals("series_id", field.getAnnotation(Column.class).name());
+    }
+}
@@ -63,11 +63,9 @@ class ReservationTest {
     }
 
     @Test
-    void testQrCodeField() throws NoSuchFieldException {
-        Field field = Reservation.class.getDeclaredField("qrCode");
-        assertTrue(field.isAnnotationPresent(Column.class));
-        Column column = field.getAnnotation(Column.class);
-        assertEquals("TEXT", column.columnDefinition());
+    void testQrImageIsNotMappedOnReservation() {
+        // La imagen QR vive en ReservationQr para que las consultas de reservas no la transfieran
+        assertThrows(NoSuchFieldException.class, () -> Reservation.class.getDeclaredField("qrCode"));
     }
 
     @Test
@@ -120,4 +118,18 @@ class ReservationTest {
         reservation.setRateId(123L);
         assertEquals(123L, reservation.getRateId());
     }
+
+    @Test
+    void testIsNew_UntilLoadedOrPersisted() {
+        Reservation reservation = new Reservation();
+        UUID id = UUID.randomUUID();
+        reservation.setReservationId(id);
+
+        assertTrue(reservation.isNew());
+        assertEquals(id, reservation.getId());
+
+        reservation.markNotNew();
+
+        assertFalse(reservation.isNew());
+    }
 }
@@ -132,4 +132,10 @@ class SpaceTest {
             Space.class.getDeclaredField("updatedAt");
         });
     }
+
+    @Test
+    void testCoordinateColumns() throws NoSuchFieldException {
+        assertEquals("latitude", Space.class.getDeclaredField("latitude").getAnnotation(Column.class).name());
+        assertEquals("longitude", Space.class.getDeclaredField("longitude").getAnnotation(Column.class).name());
+    }
 }
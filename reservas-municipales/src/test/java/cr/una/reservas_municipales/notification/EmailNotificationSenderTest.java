@@ -6,20 +6,24 @@ import jakarta.mail.internet.MimeMessage;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.time.OffsetDateTime;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
@@ -36,11 +40,11 @@ class EmailNotificationSenderTest {
     @Mock
     private MimeMessage mimeMessage;
 
-    @InjectMocks
     private EmailNotificationSender emailSender;
 
     @BeforeEach
     void setUp() {
+        emailSender = new EmailNotificationSender(mailSender, new MailTemplateEngine("classpath:templates/mail/", false));
         ReflectionTestUtils.setField(emailSender, "from", "no-reply@test.com");
         ReflectionTestUtils.setField(emailSender, "adminCopy", "admin@test.com");
         when(mailSender.createMimeMessage()).thenReturn(mimeMessage);
@@ -609,4 +613,48 @@ class EmailNotificationSenderTest {
                 .hasCauseInstanceOf(MessagingException.class);
         }
     }
+
+    @Test
+    void testSendAllUsesSingleConnection() {
+        Session session = Session.getInstance(new Properties());
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(session));
+
+        NotificationEvent first = batchEvent("uno@test.com");
+        NotificationEvent second = batchEvent("dos@test.com");
+        NotificationEvent noRecipient = batchEvent(null);
+
+        Map<NotificationEvent, Exception> failures = emailSender.sendAll(List.of(first, second, noRecipient));
+
+        assertTrue(failures.isEmpty());
+        ArgumentCaptor<MimeMessage[]> messages = ArgumentCaptor.forClass(MimeMessage[].class);
+        verify(mailSender, times(1)).send(messages.capture());
+        verify(mailSender, never()).send(any(MimeMessage.class));
+        assertEquals(2, messages.getValue().length);
+    }
+
+    @Test
+    void testSendAllConnectionFailureFailsWholeBatch() {
+        Session session = Session.getInstance(new Properties());
+        when(mailSender.createMimeMessage()).thenAnswer(invocation -> new MimeMessage(session));
+        doThrow(new MailSendException("Mail server connection failed"))
+            .when(mailSender).send(any(MimeMessage[].class));
+
+        NotificationEvent first = batchEvent("uno@test.com");
+        NotificationEvent second = batchEvent("dos@test.com");
+
+        Map<NotificationEvent, Exception> failures = emailSender.sendAll(List.of(first, second));
+
+        assertEquals(2, failures.size());
+        assertTrue(failures.containsKey(first));
+        assertTrue(failures.containsKey(second));
+    }
+
+    private NotificationEvent batchEvent(String email) {
+        return NotificationEvent.builder()
+            .type(NotificationType.RESERVATION_CANCELLED)
+            .email(email)
+            .data(Map.of("spaceName", "Cancha", "reason", "Cierre"))
+            .occurredAt(OffsetDateTime.now())
+            .build();
+    }
 }
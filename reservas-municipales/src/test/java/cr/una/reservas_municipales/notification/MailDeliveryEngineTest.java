@@ -0,0 +1,213 @@
+package cr.una.reservas_municipales.notification;
+
+import jakarta.mail.Address;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de MailDeliveryEngine contra un servidor SMTP simulado: cada conexión cuesta
+ * {@code connectMillis} y cada mensaje {@code perMessageMillis}, como un relé real.
+ */
+class MailDeliveryEngineTest {
+
+    private static final MailTemplateEngine TEMPLATES = new MailTemplateEngine("classpath:templates/mail/", false);
+
+    private MailDeliveryEngine engine;
+
+    @AfterEach
+    void tearDown() {
+        if (engine != null) {
+            engine.shutdown();
+        }
+    }
+
+    @Test
+    void testSendsSeveralMessagesPerConnection() throws Exception {
+        StandInSmtp smtp = new StandInSmtp(0, 0);
+        engine = new MailDeliveryEngine(sender(smtp), 2, 20, 8, 1000, 50);
+
+        Map<NotificationEvent, Exception> failures = engine.deliver(events(45));
+
+        assertTrue(failures.isEmpty());
+        assertEquals(3, smtp.connections.get());
+        assertEquals(45, smtp.messages.get());
+        assertEquals(45, engine.deliveredCount());
+        assertEquals(3, engine.connectionCount());
+    }
+
+    @Test
+    void testReportsOnlyRejectedRecipients() throws Exception {
+        StandInSmtp smtp = new StandInSmtp(0, 0);
+        engine = new MailDeliveryEngine(sender(smtp), 1, 10, 4, 1000, 10);
+        List<NotificationEvent> events = new ArrayList<>(events(3));
+        NotificationEvent rejected = event("rechazado@test.com");
+        events.add(rejected);
+
+        Map<NotificationEvent, Exception> failures = engine.deliver(events);
+
+        assertEquals(1, failures.size());
+        assertTrue(failures.containsKey(rejected));
+        assertEquals(3, engine.deliveredCount());
+        assertEquals(1, engine.failedCount());
+    }
+
+    @Test
+    void testParallelBatchesBeatOneByOne() throws Exception {
+        int total = 200;
+        StandInSmtp sequentialSmtp = new StandInSmtp(20, 1);
+        EmailNotificationSender sequential = sender(sequentialSmtp);
+        long started = System.nanoTime();
+        for (NotificationEvent event : events(total)) {
+            sequential.send(event);
+        }
+        long sequentialMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        StandInSmtp pooledSmtp = new StandInSmtp(20, 1);
+        engine = new MailDeliveryEngine(sender(pooledSmtp), 4, 20, 8, 10_000, 20);
+        started = System.nanoTime();
+        assertTrue(engine.deliver(events(total)).isEmpty());
+        long pooledMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        System.out.printf("SMTP simulado, %d correos: uno a uno %d ms (%d conexiones), motor %d ms (%d conexiones)%n",
+                total, sequentialMs, sequentialSmtp.connections.get(), pooledMs, pooledSmtp.connections.get());
+        assertEquals(total, sequentialSmtp.connections.get());
+        assertEquals(10, pooledSmtp.connections.get());
+        assertTrue(pooledMs * 4 < sequentialMs, "El motor debe ser varias veces más rápido");
+    }
+
+    @Test
+    void testThrottlesToProviderRate() throws Exception {
+        StandInSmtp smtp = new StandInSmtp(0, 0);
+        engine = new MailDeliveryEngine(sender(smtp), 4, 5, 8, 20, 5);
+
+        long started = System.nanoTime();
+        engine.deliver(events(15));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        // 5 en ráfaga y 10 más a 20/s: al menos ~500 ms aunque haya 4 conexiones libres
+        assertTrue(elapsedMs >= 400, "Se esperaba throttling, tardó " + elapsedMs + " ms");
+        assertEquals(15, smtp.messages.get());
+    }
+
+    @Test
+    void testFullQueueBlocksProducer() throws Exception {
+        StandInSmtp smtp = new StandInSmtp(0, 0);
+        smtp.gate = new CountDownLatch(1);
+        engine = new MailDeliveryEngine(sender(smtp), 1, 1, 1, 1000, 10);
+
+        CompletableFuture<Map<NotificationEvent, Exception>> result = CompletableFuture.supplyAsync(() -> {
+            try {
+                return engine.deliver(events(4));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // Un lote en el trabajador bloqueado y uno en la cola: los demás esperan al productor
+        TimeUnit.MILLISECONDS.sleep(200);
+        assertFalse(result.isDone());
+        assertTrue(engine.queuedChunks() <= 1);
+
+        smtp.gate.countDown();
+        assertTrue(result.get(5, TimeUnit.SECONDS).isEmpty());
+        assertEquals(4, smtp.connections.get());
+    }
+
+    private static EmailNotificationSender sender(JavaMailSenderImpl smtp) {
+        EmailNotificationSender sender = new EmailNotificationSender(smtp, TEMPLATES);
+        ReflectionTestUtils.setField(sender, "from", "no-reply@test.com");
+        ReflectionTestUtils.setField(sender, "adminCopy", "");
+        return sender;
+    }
+
+    private static List<NotificationEvent> events(int count) {
+        List<NotificationEvent> events = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            events.add(event("user" + i + "@test.com"));
+        }
+        return events;
+    }
+
+    private static NotificationEvent event(String email) {
+        return NotificationEvent.builder()
+                .type(NotificationType.RESERVATION_CANCELLED)
+                .email(email)
+                .data(Map.of("spaceName", "Cancha", "reason", "Cierre del espacio"))
+                .occurredAt(OffsetDateTime.now())
+                .build();
+    }
+
+    /**
+     * Relé SMTP en memoria: una llamada a doSend es una conexión.
+     */
+    private static class StandInSmtp extends JavaMailSenderImpl {
+        private final long connectMillis;
+        private final long perMessageMillis;
+        private final AtomicInteger connections = new AtomicInteger();
+        private final AtomicInteger messages = new AtomicInteger();
+        private volatile CountDownLatch gate;
+
+        StandInSmtp(long connectMillis, long perMessageMillis) {
+            this.connectMillis = connectMillis;
+            this.perMessageMillis = perMessageMillis;
+        }
+
+        @Override
+        protected void doSend(MimeMessage[] mimeMessages, Object[] originalMessages) {
+            connections.incrementAndGet();
+            pause(connectMillis);
+            if (gate != null) {
+                try {
+                    gate.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            Map<Object, Exception> failed = new LinkedHashMap<>();
+            for (MimeMessage message : mimeMessages) {
+                pause(perMessageMillis);
+                try {
+                    Address[] to = message.getAllRecipients();
+                    if (to[0].toString().startsWith("rechazado")) {
+                        failed.put(message, new MessagingException("550 buzón inexistente"));
+                        continue;
+                    }
+                } catch (MessagingException e) {
+                    failed.put(message, e);
+                    continue;
+                }
+                messages.incrementAndGet();
+            }
+            if (!failed.isEmpty()) {
+                throw new MailSendException(failed);
+            }
+        }
+
+        private static void pause(long millis) {
+            if (millis > 0) {
+                try {
+                    TimeUnit.MILLISECONDS.sleep(millis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+}
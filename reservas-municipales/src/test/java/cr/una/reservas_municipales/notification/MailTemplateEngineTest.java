@@ -0,0 +1,151 @@
+package cr.una.reservas_municipales.notification;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para MailTemplateEngine
+ */
+class MailTemplateEngineTest {
+
+    private static final String LOCATION = "classpath:templates/mail/";
+
+    @Test
+    void testEveryNotificationTypeHasTemplate() {
+        MailTemplateEngine engine = new MailTemplateEngine(LOCATION, false);
+
+        for (NotificationType type : NotificationType.values()) {
+            assertTrue(engine.hasTemplate(EmailNotificationSender.templateName(type)), type.name());
+        }
+    }
+
+    @Test
+    void testRendersTemplateWithEscapedValues() {
+        MailTemplateEngine engine = new MailTemplateEngine(LOCATION, false);
+
+        String html = engine.render("reservation-cancelled", Map.of(
+                "reason", "Mantenimiento <urgente>",
+                "spaceName", "Salón Comunal",
+                "startsAt", "2025-11-01T10:00-06:00",
+                "endsAt", "2025-11-01T12:00-06:00"));
+
+        assertTrue(html.startsWith("<!DOCTYPE html>"));
+        assertTrue(html.contains("Mantenimiento &lt;urgente&gt;"));
+        assertTrue(html.contains("Salón Comunal"));
+        assertFalse(html.contains("{{"));
+    }
+
+    @Test
+    void testBufferIsReusedBetweenRenders() {
+        MailTemplateEngine engine = new MailTemplateEngine(LOCATION, false);
+
+        String first = engine.render("qr-validated", Map.of("spaceName", "Cancha", "startsAt", "10:00"));
+        String second = engine.render("qr-validated", Map.of("spaceName", "Piscina", "startsAt", "11:00"));
+
+        assertTrue(first.contains("Cancha"));
+        assertTrue(second.contains("Piscina"));
+        assertFalse(second.contains("Cancha"));
+    }
+
+    @Test
+    void testUnknownTemplate() {
+        MailTemplateEngine engine = new MailTemplateEngine(LOCATION, false);
+
+        assertThrows(IllegalArgumentException.class, () -> engine.render("no-existe", Map.of()));
+    }
+
+    @Test
+    void testHotReloadPicksUpEditedFile(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("saludo.html");
+        Files.writeString(file, "<p>Hola {{userName}}</p>", StandardCharsets.UTF_8);
+        MailTemplateEngine reloading = new MailTemplateEngine(dir.toUri() + "/", true);
+        MailTemplateEngine cached = new MailTemplateEngine(dir.toUri() + "/", false);
+
+        Files.writeString(file, "<p>Buenas {{userName}}</p>", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+
+        assertEquals("<p>Buenas Ana</p>", reloading.render("saludo", Map.of("userName", "Ana")));
+        assertEquals("<p>Hola Ana</p>", cached.render("saludo", Map.of("userName", "Ana")));
+    }
+
+    @Test
+    void testHotReloadKeepsPreviousVersionOnBrokenEdit(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("saludo.html");
+        Files.writeString(file, "<p>Hola {{userName}}</p>", StandardCharsets.UTF_8);
+        MailTemplateEngine engine = new MailTemplateEngine(dir.toUri() + "/", true);
+
+        Files.writeString(file, "<p>Hola {{userName</p>", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 5_000));
+
+        assertEquals("<p>Hola Ana</p>", engine.render("saludo", Map.of("userName", "Ana")));
+    }
+
+    /**
+     * Compara el costo de render de cada plantilla contra la implementación anterior
+     * ({@code String.formatted} sobre el mismo HTML) y verifica que ambas producen lo mismo.
+     * No es un benchmark riguroso: solo da el orden de magnitud en la salida del build.
+     */
+    @Test
+    void testRenderCostAgainstStringFormatted() throws Exception {
+        MailTemplateEngine engine = new MailTemplateEngine(LOCATION, false);
+        Map<String, Object> values = new HashMap<>(Map.of(
+                "spaceName", "Salón Comunal", "startsAt", "2025-11-01T10:00-06:00", "endsAt", "2025-11-01T12:00-06:00",
+                "oldStatus", "PENDING", "newStatus", "CONFIRMED", "reason", "Lluvia fuerte", "userName", "Ana Pérez",
+                "oldRole", "USER", "roleColor", "#ea580c", "roleColorDark", "#c2410c"));
+        values.put("roleEmoji", "⭐");
+        values.put("newRoleName", "Supervisor");
+        values.put("permissions", "<ul><li>Validación de códigos QR</li></ul>");
+
+        Pattern slot = Pattern.compile("\\{\\{\\{?\\s*(\\w+)\\s*}?}}");
+        for (NotificationType type : NotificationType.values()) {
+            String name = EmailNotificationSender.templateName(type);
+            String source = new String(getClass().getResourceAsStream("/templates/mail/" + name + ".html").readAllBytes(),
+                    StandardCharsets.UTF_8);
+            List<Object> args = new ArrayList<>();
+            Matcher matcher = slot.matcher(source.replace("%", "%%"));
+            StringBuilder legacySource = new StringBuilder();
+            while (matcher.find()) {
+                args.add(values.get(matcher.group(1)));
+                matcher.appendReplacement(legacySource, "%s");
+            }
+            matcher.appendTail(legacySource);
+            String format = legacySource.toString();
+            Object[] formatArgs = args.toArray();
+
+            assertEquals(format.formatted(formatArgs), engine.render(name, values), name);
+
+            long legacyNs = measure(() -> format.formatted(formatArgs));
+            long compiledNs = measure(() -> engine.render(name, values));
+            System.out.printf("Plantilla %-28s String.formatted %6d ns/op, precompilada %6d ns/op%n",
+                    name, legacyNs, compiledNs);
+        }
+    }
+
+    private static long measure(java.util.function.Supplier<String> render) {
+        int sink = 0;
+        for (int i = 0; i < 20_000; i++) {
+            sink += render.get().length();
+        }
+        int iterations = 50_000;
+        long started = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            sink += render.get().length();
+        }
+        long perOp = (System.nanoTime() - started) / iterations;
+        assertTrue(sink > 0);
+        return perOp;
+    }
+}
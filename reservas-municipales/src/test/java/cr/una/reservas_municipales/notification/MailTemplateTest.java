@@ -0,0 +1,69 @@
+package cr.una.reservas_municipales.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para MailTemplate
+ */
+class MailTemplateTest {
+
+    @Test
+    void testRendersSlotsBetweenLiterals() {
+        MailTemplate template = MailTemplate.compile("<p>{{spaceName}} de {{ startsAt }} a {{endsAt}}</p>");
+
+        assertEquals("<p>Cancha de 10:00 a 12:00</p>",
+                render(template, Map.of("spaceName", "Cancha", "startsAt", "10:00", "endsAt", "12:00")));
+        assertEquals(Set.of("spaceName", "startsAt", "endsAt"), template.slotNames());
+    }
+
+    @Test
+    void testEscapesValuesButNotRawSlots() {
+        MailTemplate template = MailTemplate.compile("<p>{{reason}}</p>{{{permissions}}}");
+
+        String html = render(template, Map.of(
+                "reason", "<script>alert('x')</script> & \"más\"",
+                "permissions", "<ul><li>Reservar</li></ul>"));
+
+        assertEquals("<p>&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt; &amp; &quot;más&quot;</p>"
+                + "<ul><li>Reservar</li></ul>", html);
+    }
+
+    @Test
+    void testMissingValueRendersEmpty() {
+        assertEquals("<b></b>", render(MailTemplate.compile("<b>{{userName}}</b>"), Map.of()));
+    }
+
+    @Test
+    void testAppendsToExistingBuffer() {
+        StringBuilder buffer = new StringBuilder("prefijo|");
+        MailTemplate.compile("{{a}}").renderTo(buffer, Map.of("a", 1));
+
+        assertEquals("prefijo|1", buffer.toString());
+    }
+
+    @Test
+    void testTemplateWithoutSlots() {
+        MailTemplate template = MailTemplate.compile("width:100%; sin marcadores");
+
+        assertEquals("width:100%; sin marcadores", render(template, Map.of()));
+        assertTrue(template.slotNames().isEmpty());
+    }
+
+    @Test
+    void testRejectsMalformedSlots() {
+        assertThrows(IllegalArgumentException.class, () -> MailTemplate.compile("<p>{{spaceName</p>"));
+        assertThrows(IllegalArgumentException.class, () -> MailTemplate.compile("<p>{{ }}</p>"));
+        assertThrows(IllegalArgumentException.class, () -> MailTemplate.compile("<p>{{a-b}}</p>"));
+    }
+
+    private static String render(MailTemplate template, Map<String, ?> values) {
+        StringBuilder buffer = new StringBuilder();
+        template.renderTo(buffer, values);
+        return buffer.toString();
+    }
+}
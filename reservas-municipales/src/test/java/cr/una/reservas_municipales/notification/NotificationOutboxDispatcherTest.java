@@ -0,0 +1,218 @@
+package cr.una.reservas_municipales.notification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.una.reservas_municipales.model.NotificationOutbox;
+import cr.una.reservas_municipales.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para NotificationOutboxDispatcher
+ */
+@ExtendWith(MockitoExtension.class)
+class NotificationOutboxDispatcherTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    @Mock
+    private MailDeliveryEngine deliveryEngine;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private NotificationOutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new NotificationOutboxDispatcher(outboxRepository, deliveryEngine, new ObjectMapper(),
+                transactionManager, 2, 3, 60_000, 1_000, 5_000, 10);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void testDispatchBatch_SendsAndMarksSent() throws Exception {
+        NotificationOutbox first = message(1L, 0);
+        NotificationOutbox second = message(2L, 0);
+        when(outboxRepository.lockDue(any(OffsetDateTime.class), eq(2))).thenReturn(List.of(first, second));
+        when(deliveryEngine.deliver(anyList())).thenReturn(new IdentityHashMap<>());
+
+        assertEquals(2, dispatcher.dispatchBatch());
+
+        verify(outboxRepository).lease(eq(List.of(1L, 2L)), any(OffsetDateTime.class));
+        ArgumentCaptor<List<NotificationEvent>> events = ArgumentCaptor.captor();
+        verify(deliveryEngine).deliver(events.capture());
+        assertEquals(2, events.getValue().size());
+        NotificationEvent event = events.getValue().get(0);
+        assertEquals(NotificationType.RESERVATION_CREATED, event.getType());
+        assertEquals("Cancha", event.getData().get("spaceName"));
+        assertEquals("user@test.com", event.getEmail());
+
+        verify(outboxRepository).markSent(eq(List.of(1L, 2L)), any(OffsetDateTime.class));
+    }
+
+    @Test
+    void testDispatchBatch_EmptyDoesNothing() {
+        when(outboxRepository.lockDue(any(OffsetDateTime.class), anyInt())).thenReturn(List.of());
+
+        assertEquals(0, dispatcher.dispatchBatch());
+
+        verify(outboxRepository, never()).lease(any(), any());
+        verifyNoInteractions(deliveryEngine);
+    }
+
+    @Test
+    void testDispatchBatch_FailureIsRescheduledWithBackoff() throws Exception {
+        NotificationOutbox ok = message(6L, 0);
+        NotificationOutbox failing = message(7L, 0);
+        when(outboxRepository.lockDue(any(OffsetDateTime.class), anyInt())).thenReturn(List.of(ok, failing));
+        when(deliveryEngine.deliver(anyList())).thenAnswer(invocation -> {
+            List<NotificationEvent> events = invocation.getArgument(0);
+            Map<NotificationEvent, Exception> failures = new IdentityHashMap<>();
+            failures.put(events.get(1), new RuntimeException("SMTP caído"));
+            return failures;
+        });
+
+        OffsetDateTime before = OffsetDateTime.now();
+        dispatcher.dispatchBatch();
+
+        ArgumentCaptor<OffsetDateTime> nextAttempt = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(outboxRepository).reschedule(eq(7L), nextAttempt.capture(), eq("SMTP caído"));
+        assertFalse(nextAttempt.getValue().isBefore(before.plusSeconds(1)));
+        verify(outboxRepository).markSent(eq(List.of(6L)), any(OffsetDateTime.class));
+        verify(outboxRepository, never()).markDead(any(), any());
+    }
+
+    @Test
+    void testDispatchBatch_LastAttemptGoesToDeadLetter() throws Exception {
+        NotificationOutbox failing = message(9L, 2);
+        when(outboxRepository.lockDue(any(OffsetDateTime.class), anyInt())).thenReturn(List.of(failing));
+        when(deliveryEngine.deliver(anyList())).thenAnswer(invocation -> {
+            List<NotificationEvent> events = invocation.getArgument(0);
+            Map<NotificationEvent, Exception> failures = new IdentityHashMap<>();
+            failures.put(events.get(0), new RuntimeException("buzón inexistente"));
+            return failures;
+        });
+
+        dispatcher.dispatchBatch();
+
+        verify(outboxRepository).markDead(9L, "buzón inexistente");
+        verify(outboxRepository, never()).reschedule(any(), any(), any());
+    }
+
+    @Test
+    void testDispatchBatch_UnreadablePayloadIsNotDelivered() throws Exception {
+        NotificationOutbox broken = message(4L, 0);
+        broken.setPayload("{no es json");
+        when(outboxRepository.lockDue(any(OffsetDateTime.class), anyInt())).thenReturn(List.of(broken));
+        when(deliveryEngine.deliver(anyList())).thenReturn(new IdentityHashMap<>());
+
+        dispatcher.dispatchBatch();
+
+        verify(deliveryEngine).deliver(List.of());
+        verify(outboxRepository).reschedule(eq(4L), any(OffsetDateTime.class), anyString());
+    }
+
+    @Test
+    void testDispatchPending_DrainsWhileBatchesAreFull() throws Exception {
+        when(outboxRepository.lockDue(any(OffsetDateTime.class), anyInt()))
+                .thenReturn(List.of(message(1L, 0), message(2L, 0)))
+                .thenReturn(List.of(message(3L, 0)));
+        when(deliveryEngine.deliver(anyList())).thenReturn(new IdentityHashMap<>());
+
+        dispatcher.dispatchPending();
+
+        verify(outboxRepository, times(2)).lockDue(any(OffsetDateTime.class), eq(2));
+        verify(deliveryEngine, times(2)).deliver(anyList());
+    }
+
+    @Test
+    void testDispatchPending_SwallowsRepositoryErrors() {
+        when(outboxRepository.lockDue(any(OffsetDateTime.class), anyInt())).thenThrow(new RuntimeException("BD caída"));
+
+        assertDoesNotThrow(() -> dispatcher.dispatchPending());
+        verifyNoInteractions(deliveryEngine);
+    }
+
+    @Test
+    void testStart_BlockedDeliveryDoesNotDelayScheduledJobs() throws Exception {
+        CountDownLatch delivering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        String[] deliveryThread = new String[1];
+        when(outboxRepository.lockDue(any(OffsetDateTime.class), anyInt()))
+                .thenReturn(List.of(message(1L, 0)))
+                .thenReturn(List.of());
+        when(deliveryEngine.deliver(anyList())).thenAnswer(invocation -> {
+            deliveryThread[0] = Thread.currentThread().getName();
+            delivering.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new IdentityHashMap<>();
+        });
+        // Como el planificador de @Scheduled por defecto: un solo hilo
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(1);
+        scheduler.initialize();
+        try {
+            dispatcher.start();
+            assertTrue(delivering.await(5, TimeUnit.SECONDS));
+
+            // Con la entrega bloqueada, otro job programado (p. ej. la auto-cancelación) corre igual
+            CountDownLatch otherJob = new CountDownLatch(1);
+            scheduler.schedule(otherJob::countDown, Instant.now());
+            assertTrue(otherJob.await(2, TimeUnit.SECONDS));
+            assertEquals("notification-outbox", deliveryThread[0]);
+        } finally {
+            release.countDown();
+            scheduler.shutdown();
+        }
+        assertFalse(NotificationOutboxDispatcher.class.getMethod("dispatchPending").isAnnotationPresent(Scheduled.class));
+    }
+
+    @Test
+    void testBackoffDoublesUpToMax() {
+        assertEquals(Duration.ofSeconds(1), dispatcher.backoff(1));
+        assertEquals(Duration.ofSeconds(2), dispatcher.backoff(2));
+        assertEquals(Duration.ofSeconds(4), dispatcher.backoff(3));
+        assertEquals(Duration.ofSeconds(5), dispatcher.backoff(4));
+        assertEquals(Duration.ofSeconds(5), dispatcher.backoff(60));
+    }
+
+    private NotificationOutbox message(Long id, int attempts) {
+        NotificationOutbox message = new NotificationOutbox();
+        message.setOutboxId(id);
+        message.setType(NotificationType.RESERVATION_CREATED);
+        message.setReservationId(UUID.randomUUID());
+        message.setUserId(UUID.randomUUID());
+        message.setEmail("user@test.com");
+        message.setPayload("{\"spaceName\":\"Cancha\",\"startsAt\":\"2025-11-01T10:00-06:00\"}");
+        message.setOccurredAt(OffsetDateTime.now());
+        message.setAttempts(attempts);
+        return message;
+    }
+}
@@ -0,0 +1,102 @@
+package cr.una.reservas_municipales.notification;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import cr.una.reservas_municipales.model.NotificationOutbox;
+import cr.una.reservas_municipales.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para OutboxNotificationSender
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxNotificationSenderTest {
+
+    @Mock
+    private NotificationOutboxRepository outboxRepository;
+
+    private OutboxNotificationSender sender;
+
+    @BeforeEach
+    void setUp() {
+        sender = new OutboxNotificationSender(outboxRepository, new ObjectMapper());
+    }
+
+    @Test
+    void testSendEnqueuesInsteadOfMailing() throws Exception {
+        UUID reservationId = UUID.randomUUID();
+        OffsetDateTime startsAt = OffsetDateTime.of(2025, 11, 1, 10, 0, 0, 0, ZoneOffset.ofHours(-6));
+        OffsetDateTime occurredAt = OffsetDateTime.now();
+
+        sender.send(NotificationEvent.builder()
+                .type(NotificationType.RESERVATION_CREATED)
+                .reservationId(reservationId)
+                .email("user@test.com")
+                .data(Map.of("spaceName", "Cancha", "startsAt", startsAt))
+                .occurredAt(occurredAt)
+                .build());
+
+        ArgumentCaptor<NotificationOutbox> captor = ArgumentCaptor.forClass(NotificationOutbox.class);
+        verify(outboxRepository).save(captor.capture());
+        NotificationOutbox saved = captor.getValue();
+        assertEquals(NotificationType.RESERVATION_CREATED, saved.getType());
+        assertEquals(reservationId, saved.getReservationId());
+        assertEquals("user@test.com", saved.getEmail());
+        assertEquals(occurredAt, saved.getOccurredAt());
+        assertEquals(NotificationOutbox.Status.PENDING, saved.getStatus());
+        assertEquals(0, saved.getAttempts());
+        assertNotNull(saved.getNextAttemptAt());
+
+        // Las fechas se guardan con el mismo texto que el correo mostraba antes
+        Map<?, ?> payload = new ObjectMapper().readValue(saved.getPayload(), Map.class);
+        assertEquals("Cancha", payload.get("spaceName"));
+        assertEquals(startsAt.toString(), payload.get("startsAt"));
+    }
+
+    @Test
+    void testSendWithoutDataOrTimestamp() {
+        sender.send(NotificationEvent.builder()
+                .type(NotificationType.USER_ROLE_CHANGED)
+                .email("user@test.com")
+                .build());
+
+        ArgumentCaptor<NotificationOutbox> captor = ArgumentCaptor.forClass(NotificationOutbox.class);
+        verify(outboxRepository).save(captor.capture());
+        assertEquals("{}", captor.getValue().getPayload());
+        assertNotNull(captor.getValue().getOccurredAt());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testSendBatchSavesAllAtOnce() {
+        sender.sendBatch(List.of(
+                NotificationEvent.builder().type(NotificationType.RESERVATION_CANCELLED).email("a@test.com").build(),
+                NotificationEvent.builder().type(NotificationType.RESERVATION_CANCELLED).email("b@test.com").build()));
+
+        ArgumentCaptor<List<NotificationOutbox>> captor = ArgumentCaptor.forClass(List.class);
+        verify(outboxRepository).saveAll(captor.capture());
+        verify(outboxRepository, never()).save(any());
+        assertEquals(List.of("a@test.com", "b@test.com"),
+                captor.getValue().stream().map(NotificationOutbox::getEmail).toList());
+    }
+
+    @Test
+    void testSendBatchEmptyDoesNothing() {
+        sender.sendBatch(List.of());
+
+        verifyNoInteractions(outboxRepository);
+    }
+}
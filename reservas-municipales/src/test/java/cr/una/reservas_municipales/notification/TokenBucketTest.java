@@ -0,0 +1,59 @@
+package cr.una.reservas_municipales.notification;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para TokenBucket
+ */
+class TokenBucketTest {
+
+    @Test
+    void testBurstThenRefillAtRate() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(5, 10, clock::get);
+
+        assertTrue(bucket.tryAcquire(5));
+        assertFalse(bucket.tryAcquire(1));
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(100));
+        assertTrue(bucket.tryAcquire(1));
+        assertFalse(bucket.tryAcquire(1));
+    }
+
+    @Test
+    void testNeverExceedsCapacity() {
+        AtomicLong clock = new AtomicLong();
+        TokenBucket bucket = new TokenBucket(3, 10, clock::get);
+
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        assertTrue(bucket.tryAcquire(3));
+        assertFalse(bucket.tryAcquire(1));
+    }
+
+    @Test
+    void testAcquireWaitsForTokens() throws InterruptedException {
+        TokenBucket bucket = new TokenBucket(2, 20);
+        bucket.acquire(2);
+
+        long started = System.nanoTime();
+        bucket.acquire(2);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+
+        assertTrue(elapsedMs >= 80, "Debe esperar ~100 ms por dos fichas a 20/s, esperó " + elapsedMs);
+    }
+
+    @Test
+    void testRejectsInvalidRequests() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(5, 0));
+
+        TokenBucket bucket = new TokenBucket(5, 10);
+        assertThrows(IllegalArgumentException.class, () -> bucket.tryAcquire(6));
+        assertThrows(IllegalArgumentException.class, () -> bucket.acquire(0));
+    }
+}
@@ -0,0 +1,39 @@
+package cr.una.reservas_municipales.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.lang.reflect.Method;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para NotificationOutboxRepository
+ */
+class NotificationOutboxRepositoryTest {
+
+    @Test
+    void testLockDueSkipsLockedRows() throws NoSuchMethodException {
+        Method method = NotificationOutboxRepository.class.getMethod("lockDue", OffsetDateTime.class, int.class);
+        Query query = method.getAnnotation(Query.class);
+
+        assertTrue(query.nativeQuery());
+        assertTrue(query.value().contains("FOR UPDATE SKIP LOCKED"));
+        assertTrue(query.value().contains("status = 'PENDING'"));
+    }
+
+    @Test
+    void testStateTransitionsAreBulkUpdates() throws NoSuchMethodException {
+        assertNotNull(NotificationOutboxRepository.class
+                .getMethod("lease", Collection.class, OffsetDateTime.class).getAnnotation(Modifying.class));
+        assertNotNull(NotificationOutboxRepository.class
+                .getMethod("markSent", Collection.class, OffsetDateTime.class).getAnnotation(Modifying.class));
+        assertNotNull(NotificationOutboxRepository.class
+                .getMethod("reschedule", Long.class, OffsetDateTime.class, String.class).getAnnotation(Modifying.class));
+        assertNotNull(NotificationOutboxRepository.class
+                .getMethod("markDead", Long.class, String.class).getAnnotation(Modifying.class));
+    }
+}
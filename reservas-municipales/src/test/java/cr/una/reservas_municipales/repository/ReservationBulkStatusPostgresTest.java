@@ -0,0 +1,146 @@
+package cr.una.reservas_municipales.repository;
+
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.data.domain.PageRequest;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * UPDATE ... RETURNING de la auto-cancelación y el auto-completado contra PostgreSQL real: H2 no
+ * soporta RETURNING ni to_char con zona horaria. Se omite si no hay Docker disponible.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class ReservationBulkStatusPostgresTest {
+
+    private static final String REASON = "Cancelada automáticamente - No se confirmó antes de la hora de inicio";
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private SpaceRepository spaceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final OffsetDateTime now = OffsetDateTime.parse("2025-03-10T12:00:00-06:00");
+
+    private Space cancha;
+
+    @BeforeEach
+    void setUp() {
+        cancha = new Space();
+        cancha.setSpaceId(UUID.randomUUID());
+        cancha.setName("Cancha");
+        cancha.setSpaceTypeId((short) 1);
+        cancha.setCapacity(10);
+        cancha.setLocation("Centro");
+        cancha.setActive(true);
+        cancha.setCreatedAt(now);
+        cancha.setUpdatedAt(now);
+        spaceRepository.save(cancha);
+    }
+
+    @Test
+    void testCancelExpiredPending_ReturnsOnlyRowsStillPending() {
+        Reservation expired = reservation("PENDING", "2025-03-03T09:00:00-06:00");
+        Reservation confirmed = reservation("CONFIRMED", "2025-03-03T10:00:00-06:00");
+        Reservation future = reservation("PENDING", "2025-03-11T09:00:00-06:00");
+        entityManager.flush();
+
+        List<ReservationView> batch = reservationRepository.findExpiredPendingViews(now, PageRequest.of(0, 10));
+        assertEquals(List.of(expired.getReservationId()), batch.stream().map(ReservationView::reservationId).toList());
+
+        List<UUID> cancelled = reservationRepository.cancelExpiredPending(
+                List.of(expired.getReservationId(), confirmed.getReservationId(), future.getReservationId()),
+                now, REASON, true, "America/Costa_Rica");
+        assertEquals(List.of(expired.getReservationId()), cancelled);
+
+        entityManager.clear();
+        Reservation stored = reservationRepository.findById(expired.getReservationId()).orElseThrow();
+        assertEquals("CANCELLED", stored.getStatus());
+        assertEquals(REASON + " (03/03/2025 09:00)", stored.getCancelReason());
+        assertEquals(now.toInstant(), stored.getUpdatedAt().toInstant());
+        assertEquals("CONFIRMED", reservationRepository.findById(confirmed.getReservationId()).orElseThrow().getStatus());
+        assertEquals("PENDING", reservationRepository.findById(future.getReservationId()).orElseThrow().getStatus());
+
+        // Una segunda pasada ya no encuentra la fila en PENDING
+        assertEquals(List.of(), reservationRepository.cancelExpiredPending(List.of(expired.getReservationId()),
+                now, REASON, true, "America/Costa_Rica"));
+    }
+
+    @Test
+    void testCancelExpiredPending_WithoutStartTimeKeepsReason() {
+        Reservation expired = reservation("PENDING", "2025-03-03T09:00:00-06:00");
+        entityManager.flush();
+
+        reservationRepository.cancelExpiredPending(List.of(expired.getReservationId()), now, "Manual", false,
+                "America/Costa_Rica");
+
+        entityManager.clear();
+        assertEquals("Manual", reservationRepository.findById(expired.getReservationId()).orElseThrow().getCancelReason());
+    }
+
+    @Test
+    void testCompleteFinishedConfirmed_ReturnsOnlyFinishedConfirmed() {
+        Reservation finished = reservation("CONFIRMED", "2025-03-10T08:00:00-06:00");
+        Reservation inGrace = reservation("CONFIRMED", "2025-03-10T10:30:00-06:00");
+        Reservation pending = reservation("PENDING", "2025-03-10T08:00:00-06:00");
+        entityManager.flush();
+        OffsetDateTime endedBefore = now.minusHours(1);
+
+        List<ReservationView> batch = reservationRepository.findFinishedConfirmedViews(endedBefore, PageRequest.of(0, 10));
+        assertEquals(List.of(finished.getReservationId()), batch.stream().map(ReservationView::reservationId).toList());
+
+        List<UUID> completed = reservationRepository.completeFinishedConfirmed(
+                List.of(finished.getReservationId(), inGrace.getReservationId(), pending.getReservationId()),
+                endedBefore, now);
+        assertEquals(List.of(finished.getReservationId()), completed);
+
+        entityManager.clear();
+        assertEquals("COMPLETED", reservationRepository.findById(finished.getReservationId()).orElseThrow().getStatus());
+        assertEquals("CONFIRMED", reservationRepository.findById(inGrace.getReservationId()).orElseThrow().getStatus());
+    }
+
+    private Reservation reservation(String status, String startsAt) {
+        OffsetDateTime start = OffsetDateTime.parse(startsAt);
+        Reservation reservation = new Reservation();
+        reservation.setReservationId(UUID.randomUUID());
+        reservation.setSpaceId(cancha.getSpaceId());
+        reservation.setUserId(UUID.randomUUID());
+        reservation.setStartsAt(start);
+        reservation.setEndsAt(start.plusHours(2));
+        reservation.setStatus(status);
+        reservation.setTotalAmount(new BigDecimal("10000"));
+        reservation.setCurrency("CRC");
+        reservation.setCreatedAt(start.minusDays(7));
+        reservation.setUpdatedAt(start.minusDays(7));
+        return reservationRepository.save(reservation);
+    }
+}
@@ -0,0 +1,80 @@
+package cr.una.reservas_municipales.repository;
+
+import cr.una.reservas_municipales.model.ReservationDailyStat;
+import cr.una.reservas_municipales.model.ReservationDailyStatId;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ReservationDailyStatRepository
+ */
+class ReservationDailyStatRepositoryTest {
+
+    @Test
+    void testIsInterface() {
+        assertTrue(ReservationDailyStatRepository.class.isInterface());
+    }
+
+    @Test
+    void testGenericTypes() {
+        Type[] interfaces = ReservationDailyStatRepository.class.getGenericInterfaces();
+        
+        boolean found = false;
+        for (Type iface : interfaces) {
+            if (iface instanceof ParameterizedType paramType && paramType.getRawType().equals(JpaRepository.class)) {
+                Type[] typeArgs = paramType.getActualTypeArguments();
+                assertEquals(ReservationDailyStat.class, typeArgs[0]);
+                assertEquals(ReservationDailyStatId.class, typeArgs[1]);
+                found = true;
+            }
+        }
+        assertTrue(found);
+    }
+
+    @Test
+    void testHasDeleteDaysMethod() throws NoSuchMethodException {
+        Method method = ReservationDailyStatRepository.class.getMethod("deleteDays", LocalDate.class, LocalDate.class);
+        assertEquals(int.class, method.getReturnType());
+        assertTrue(method.isAnnotationPresent(Modifying.class));
+        assertTrue(method.getAnnotation(Query.class).value().startsWith("DELETE"));
+    }
+
+    @Test
+    void testHasFindLastRefreshMethod() throws NoSuchMethodException {
+        Method method = ReservationDailyStatRepository.class.getMethod("findLastRefresh");
+        assertEquals(OffsetDateTime.class, method.getReturnType());
+    }
+
+    @Test
+    void testHasRangeAggregateMethods() throws NoSuchMethodException {
+        Method byStatus = ReservationDailyStatRepository.class.getMethod("sumByStatus",
+                LocalDate.class, LocalDate.class, UUID.class);
+        Method byDay = ReservationDailyStatRepository.class.getMethod("sumByDay",
+                LocalDate.class, LocalDate.class, UUID.class);
+        Method top = ReservationDailyStatRepository.class.getMethod("findTopSpaces",
+                LocalDate.class, LocalDate.class, Pageable.class);
+
+        assertEquals(List.class, byStatus.getReturnType());
+        assertTrue(byStatus.getAnnotation(Query.class).value().contains("GROUP BY s.status"));
+        assertTrue(byDay.getAnnotation(Query.class).value().contains("ORDER BY s.statDay"));
+        assertTrue(top.getAnnotation(Query.class).value().contains("JOIN Space"));
+    }
+
+    @Test
+    void testPackageStructure() {
+        assertEquals("cr.una.reservas_municipales.repository", ReservationDailyStatRepository.class.getPackageName());
+    }
+}
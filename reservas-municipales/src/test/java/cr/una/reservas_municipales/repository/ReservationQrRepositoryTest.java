@@ -0,0 +1,37 @@
+package cr.una.reservas_municipales.repository;
+
+import cr.una.reservas_municipales.model.ReservationQr;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ReservationQrRepository
+ */
+class ReservationQrRepositoryTest {
+
+    @Test
+    void testExtendsJpaRepositoryKeyedByReservationId() {
+        ParameterizedType jpaRepository = null;
+        for (Type iface : ReservationQrRepository.class.getGenericInterfaces()) {
+            if (iface instanceof ParameterizedType paramType && paramType.getRawType().equals(JpaRepository.class)) {
+                jpaRepository = paramType;
+            }
+        }
+
+        assertNotNull(jpaRepository);
+        assertEquals(ReservationQr.class, jpaRepository.getActualTypeArguments()[0]);
+        assertEquals(UUID.class, jpaRepository.getActualTypeArguments()[1]);
+    }
+
+    @Test
+    void testHasNoCustomMethods() {
+        // Solo se accede por ID: la imagen QR nunca forma parte de un listado
+        assertEquals(0, ReservationQrRepository.class.getDeclaredMethods().length);
+    }
+}
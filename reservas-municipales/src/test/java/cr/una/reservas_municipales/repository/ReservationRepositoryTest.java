@@ -1,16 +1,26 @@
 package cr.una.reservas_municipales.repository;
 
 import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.repository.projection.CreatedCounts;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import cr.una.reservas_municipales.repository.projection.RevenueTotals;
+import org.hibernate.jpa.HibernateHints;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.time.OffsetDateTime;
+import java.util.Arrays;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -64,13 +74,6 @@ class ReservationRepositoryTest {
         assertEquals(List.class, method.getReturnType());
     }
 
-    @Test
-    void testHasFindBySpaceIdMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("findBySpaceIdOrderByStartsAtDesc", UUID.class);
-        assertNotNull(method);
-        assertEquals(List.class, method.getReturnType());
-    }
-
     @Test
     void testHasCountBySpaceIdMethod() throws NoSuchMethodException {
         Method method = ReservationRepository.class.getMethod("countBySpaceId", UUID.class);
@@ -79,83 +82,195 @@ class ReservationRepositoryTest {
     }
 
     @Test
-    void testHasFindByStatusMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("findByStatusOrderByStartsAtDesc", String.class);
+    void testHasFindConflictingReservationsMethod() throws NoSuchMethodException {
+        Method method = ReservationRepository.class.getMethod("findConflictingReservations", UUID.class, OffsetDateTime.class, OffsetDateTime.class);
         assertNotNull(method);
         assertEquals(List.class, method.getReturnType());
+        assertTrue(method.isAnnotationPresent(Query.class));
     }
 
     @Test
-    void testHasFindConflictingReservationsMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("findConflictingReservations", UUID.class, OffsetDateTime.class, OffsetDateTime.class);
+    void testHasCountGroupedByStatusMethod() throws NoSuchMethodException {
+        Method method = ReservationRepository.class.getMethod("countGroupedByStatus");
         assertNotNull(method);
         assertEquals(List.class, method.getReturnType());
         assertTrue(method.isAnnotationPresent(Query.class));
     }
 
     @Test
-    void testHasFindReservationsInDateRangeMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("findReservationsInDateRange", OffsetDateTime.class, OffsetDateTime.class);
+    void testHasSumRevenueByMonthMethod() throws NoSuchMethodException {
+        Method method = ReservationRepository.class.getMethod("sumRevenueByMonth",
+                OffsetDateTime.class, OffsetDateTime.class, OffsetDateTime.class);
         assertNotNull(method);
-        assertTrue(method.isAnnotationPresent(Query.class));
+        assertEquals(RevenueTotals.class, method.getReturnType());
+        assertTrue(method.getAnnotation(Query.class).value().contains("FILTER"));
     }
 
     @Test
-    void testHasFindOccupiedSpaceIdsMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("findOccupiedSpaceIds", OffsetDateTime.class, OffsetDateTime.class);
+    void testHasFindTopSpacesByReservationCountMethod() throws NoSuchMethodException {
+        Method method = ReservationRepository.class.getMethod("findTopSpacesByReservationCount", Pageable.class);
         assertNotNull(method);
         assertEquals(List.class, method.getReturnType());
-        assertTrue(method.isAnnotationPresent(Query.class));
+        assertTrue(method.getAnnotation(Query.class).value().contains("ORDER BY count(r) DESC"));
     }
 
     @Test
-    void testHasCountByStatusMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("countByStatus", String.class);
+    void testHasCountCreatedSinceMethod() throws NoSuchMethodException {
+        Method method = ReservationRepository.class.getMethod("countCreatedSince",
+                OffsetDateTime.class, OffsetDateTime.class, OffsetDateTime.class);
         assertNotNull(method);
-        assertEquals(long.class, method.getReturnType());
+        assertEquals(CreatedCounts.class, method.getReturnType());
+        assertTrue(method.isAnnotationPresent(Query.class));
     }
 
     @Test
-    void testHasCountByStatusInMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("countByStatusIn", List.class);
-        assertNotNull(method);
-        assertEquals(long.class, method.getReturnType());
+    void testHasStartHistogramMethods() throws NoSuchMethodException {
+        Method byDay = ReservationRepository.class.getMethod("countByStartDayOfWeek", OffsetDateTime.class, OffsetDateTime.class);
+        Method byHour = ReservationRepository.class.getMethod("countByStartHour", OffsetDateTime.class, OffsetDateTime.class);
+        assertTrue(byDay.getAnnotation(Query.class).value().contains("GROUP BY extract(day of week"));
+        assertTrue(byHour.getAnnotation(Query.class).value().contains("GROUP BY extract(hour"));
     }
 
     @Test
-    void testHasFindByCreatedAtBetweenMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("findByCreatedAtBetween", OffsetDateTime.class, OffsetDateTime.class);
-        assertNotNull(method);
-        assertEquals(List.class, method.getReturnType());
+    void testHasRollupSourceMethods() throws NoSuchMethodException {
+        Method views = ReservationRepository.class.getMethod("findViewsStartingBetween", OffsetDateTime.class, OffsetDateTime.class);
+        Method updated = ReservationRepository.class.getMethod("findStartsAtUpdatedSince", OffsetDateTime.class);
+        Method first = ReservationRepository.class.getMethod("findFirstStartsAt");
+        Method last = ReservationRepository.class.getMethod("findLastStartsAt");
+
+        assertTrue(views.getAnnotation(Query.class).value().startsWith(ReservationRepository.VIEW_SELECT));
+        assertTrue(updated.getAnnotation(Query.class).value().contains("r.updatedAt >= :since"));
+        assertEquals(OffsetDateTime.class, first.getReturnType());
+        assertEquals(OffsetDateTime.class, last.getReturnType());
     }
 
     @Test
-    void testHasFindBySpaceIdForMetricsMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("findBySpaceId", UUID.class);
-        assertNotNull(method);
+    void testHasFindOccupyingSlotsBetweenMethod() throws NoSuchMethodException {
+        Method method = ReservationRepository.class.getMethod("findOccupyingSlotsBetween",
+                OffsetDateTime.class, OffsetDateTime.class, UUID.class);
+        String query = method.getAnnotation(Query.class).value();
+
+        assertTrue(query.contains("'COMPLETED'"));
+        assertTrue(query.contains(":spaceId IS NULL"));
         assertEquals(List.class, method.getReturnType());
     }
 
     @Test
-    void testHasCountByCreatedAtGreaterThanEqualMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("countByCreatedAtGreaterThanEqual", OffsetDateTime.class);
-        assertNotNull(method);
-        assertEquals(long.class, method.getReturnType());
+    void testHasAutoStatusChunkQueries() throws NoSuchMethodException {
+        Method pending = ReservationRepository.class.getMethod("findExpiredPendingViews",
+                OffsetDateTime.class, Pageable.class);
+        Method finished = ReservationRepository.class.getMethod("findFinishedConfirmedViews",
+                OffsetDateTime.class, Pageable.class);
+
+        assertTrue(pending.getAnnotation(Query.class).value().startsWith(ReservationRepository.VIEW_SELECT));
+        assertTrue(pending.getAnnotation(Query.class).value().contains("r.status = 'PENDING'"));
+        assertTrue(finished.getAnnotation(Query.class).value().startsWith(ReservationRepository.VIEW_SELECT));
+        assertTrue(finished.getAnnotation(Query.class).value().contains("r.status = 'CONFIRMED'"));
+        assertEquals(List.class, pending.getReturnType());
+        assertEquals(List.class, finished.getReturnType());
     }
 
     @Test
-    void testHasFindByStartsAtBetweenMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("findByStartsAtBetween", OffsetDateTime.class, OffsetDateTime.class);
-        assertNotNull(method);
-        assertEquals(List.class, method.getReturnType());
+    void testHasAutoStatusBulkUpdatesWithReturning() throws NoSuchMethodException {
+        Method cancel = ReservationRepository.class.getMethod("cancelExpiredPending",
+                List.class, OffsetDateTime.class, String.class, boolean.class, String.class);
+        Method complete = ReservationRepository.class.getMethod("completeFinishedConfirmed",
+                List.class, OffsetDateTime.class, OffsetDateTime.class);
+
+        for (Method method : List.of(cancel, complete)) {
+            Query query = method.getAnnotation(Query.class);
+            assertTrue(query.nativeQuery());
+            assertTrue(query.value().startsWith("UPDATE reservation"));
+            assertTrue(query.value().endsWith("RETURNING reservation_id"));
+            // Sin @Modifying: el RETURNING se lee como resultado de la consulta
+            assertFalse(method.isAnnotationPresent(Modifying.class));
+            assertTrue(method.isAnnotationPresent(Transactional.class));
+            assertEquals(List.class, method.getReturnType());
+        }
+        assertTrue(cancel.getAnnotation(Query.class).value().contains("status = 'PENDING' AND starts_at < :now"));
+        assertTrue(complete.getAnnotation(Query.class).value().contains("status = 'CONFIRMED' AND ends_at < :endedBefore"));
     }
 
     @Test
-    void testHasFindExpiredPendingReservationsMethod() throws NoSuchMethodException {
-        Method method = ReservationRepository.class.getMethod("findExpiredPendingReservations", OffsetDateTime.class);
-        assertNotNull(method);
-        assertEquals(List.class, method.getReturnType());
-        assertTrue(method.isAnnotationPresent(Query.class));
+    void testHasSeriesBulkUpdateMethods() throws NoSuchMethodException {
+        Method cancel = ReservationRepository.class.getMethod("cancelSeriesFrom",
+                UUID.class, OffsetDateTime.class, String.class, OffsetDateTime.class);
+        Method shift = ReservationRepository.class.getMethod("shiftSeriesFrom",
+                UUID.class, OffsetDateTime.class, long.class, long.class, OffsetDateTime.class);
+
+        assertEquals(int.class, cancel.getReturnType());
+        assertTrue(cancel.isAnnotationPresent(Modifying.class));
+        assertEquals(int.class, shift.getReturnType());
+        assertTrue(shift.isAnnotationPresent(Modifying.class));
+        assertTrue(shift.getAnnotation(Query.class).nativeQuery());
+    }
+
+    @Test
+    void testHasSeriesRemainingOccurrencesMethod() throws NoSuchMethodException {
+        Method method = ReservationRepository.class.getMethod("existsBySeriesIdAndStatusInAndStartsAtGreaterThanEqual",
+                UUID.class, List.class, OffsetDateTime.class);
+
+        assertEquals(boolean.class, method.getReturnType());
+    }
+
+    @Test
+    void testHasClosureBulkCancelMethod() throws NoSuchMethodException {
+        Method cancel = ReservationRepository.class.getMethod("cancelActiveInRange",
+                UUID.class, OffsetDateTime.class, OffsetDateTime.class, String.class, OffsetDateTime.class);
+
+        assertEquals(int.class, cancel.getReturnType());
+        assertTrue(cancel.isAnnotationPresent(Modifying.class));
+        assertFalse(cancel.getAnnotation(Query.class).nativeQuery());
+    }
+
+    @Test
+    void testHasKeysetPaginationMethods() throws NoSuchMethodException {
+        Method all = ReservationRepository.class.getMethod("findPageBefore",
+                OffsetDateTime.class, UUID.class, Pageable.class);
+        Method byStatus = ReservationRepository.class.getMethod("findPageByStatusBefore",
+                String.class, OffsetDateTime.class, UUID.class, Pageable.class);
+        Method bySpace = ReservationRepository.class.getMethod("findPageBySpaceBefore",
+                UUID.class, OffsetDateTime.class, UUID.class, Pageable.class);
+        Method inRange = ReservationRepository.class.getMethod("findPageInDateRangeAfter",
+                OffsetDateTime.class, OffsetDateTime.class, OffsetDateTime.class, UUID.class, Pageable.class);
+
+        for (Method method : List.of(all, byStatus, bySpace, inRange)) {
+            assertEquals(List.class, method.getReturnType());
+            assertTrue(method.getGenericReturnType().getTypeName().endsWith("<" + ReservationView.class.getName() + ">"));
+            assertTrue(method.getAnnotation(Query.class).value().contains("r.reservationId"),
+                    method.getName() + " debe desempatar por reservationId");
+        }
+    }
+
+    @Test
+    void testListingProjectionNeverSelectsQrImage() throws NoSuchMethodException {
+        Method method = ReservationRepository.class.getMethod("findViewsByUserId", UUID.class);
+
+        assertTrue(method.getGenericReturnType().getTypeName().endsWith("<" + ReservationView.class.getName() + ">"));
+        assertTrue(ReservationRepository.VIEW_SELECT.contains(ReservationView.class.getName()));
+        assertFalse(ReservationRepository.VIEW_SELECT.toLowerCase().contains("qrcode"));
+    }
+
+    @Test
+    void testHasStreamingMethodWithFetchSize() throws NoSuchMethodException {
+        Method method = ReservationRepository.class.getMethod("streamFiltered",
+                String.class, UUID.class, OffsetDateTime.class, OffsetDateTime.class);
+
+        assertEquals(Stream.class, method.getReturnType());
+        QueryHints hints = method.getAnnotation(QueryHints.class);
+        assertNotNull(hints);
+        assertTrue(Arrays.stream(hints.value())
+                .anyMatch(hint -> hint.name().equals(HibernateHints.HINT_FETCH_SIZE)));
+    }
+
+    @Test
+    void testHasStreamAllViewsMethodWithFetchSize() throws NoSuchMethodException {
+        Method method = ReservationRepository.class.getMethod("streamAllViews");
+
+        assertEquals(Stream.class, method.getReturnType());
+        assertEquals(ReservationRepository.VIEW_SELECT, method.getAnnotation(Query.class).value());
+        assertTrue(Arrays.stream(method.getAnnotation(QueryHints.class).value())
+                .anyMatch(hint -> hint.name().equals(HibernateHints.HINT_FETCH_SIZE)));
     }
 
     @Test
@@ -7,6 +7,9 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -58,9 +61,24 @@ class SpaceClosureRepositoryTest {
     }
 
     @Test
-    void testHasNoCustomMethods() {
+    void testHasRangeQueryMethod() throws NoSuchMethodException {
+        Method method = SpaceClosureRepository.class.getMethod(
+                "findBySpaceIdAndStartsAtLessThanEqualAndEndsAtGreaterThanEqual",
+                UUID.class, OffsetDateTime.class, OffsetDateTime.class);
+        assertNotNull(method);
+        assertEquals(List.class, method.getReturnType());
+    }
+
+    @Test
+    void testHasClosureIndexLoader() throws NoSuchMethodException {
+        Method bySpace = SpaceClosureRepository.class.getMethod("findBySpaceIdOrderByStartsAtAsc", UUID.class);
+        assertEquals(List.class, bySpace.getReturnType());
+    }
+
+    @Test
+    void testHasTwoCustomMethods() {
         Method[] methods = SpaceClosureRepository.class.getDeclaredMethods();
-        assertEquals(0, methods.length);
+        assertEquals(2, methods.length);
     }
 
     @Test
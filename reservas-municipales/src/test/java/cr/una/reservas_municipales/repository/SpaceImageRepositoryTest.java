@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -61,6 +62,13 @@ class SpaceImageRepositoryTest {
         assertEquals(List.class, method.getReturnType());
     }
 
+    @Test
+    void testHasFindBySpaceIdInOrderByOrdAscMethod() throws NoSuchMethodException {
+        Method method = SpaceImageRepository.class.getMethod("findBySpaceIdInOrderByOrdAsc", Collection.class);
+        assertNotNull(method);
+        assertEquals(List.class, method.getReturnType());
+    }
+
     @Test
     void testHasCountBySpaceIdMethod() throws NoSuchMethodException {
         Method method = SpaceImageRepository.class.getMethod("countBySpaceId", UUID.class);
@@ -76,9 +84,9 @@ class SpaceImageRepositoryTest {
     }
 
     @Test
-    void testHasThreeCustomMethods() {
+    void testHasFourCustomMethods() {
         Method[] methods = SpaceImageRepository.class.getDeclaredMethods();
-        assertEquals(3, methods.length);
+        assertEquals(4, methods.length);
     }
 
     @Test
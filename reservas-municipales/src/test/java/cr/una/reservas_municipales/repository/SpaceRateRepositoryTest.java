@@ -58,9 +58,13 @@ class SpaceRateRepositoryTest {
     }
 
     @Test
-    void testHasNoCustomMethods() {
-        Method[] methods = SpaceRateRepository.class.getDeclaredMethods();
-        assertEquals(0, methods.length);
+    void testHasActiveRateFinders() throws NoSuchMethodException {
+        Method bySpace = SpaceRateRepository.class.getMethod("findBySpaceIdAndActiveTrue", java.util.UUID.class);
+        Method bySpaces = SpaceRateRepository.class.getMethod("findBySpaceIdInAndActiveTrue", java.util.Collection.class);
+
+        assertEquals(java.util.List.class, bySpace.getReturnType());
+        assertEquals(java.util.List.class, bySpaces.getReturnType());
+        assertEquals(2, SpaceRateRepository.class.getDeclaredMethods().length);
     }
 
     @Test
@@ -3,10 +3,13 @@ package cr.una.reservas_municipales.repository;
 import cr.una.reservas_municipales.model.Space;
 import org.junit.jupiter.api.Test;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -59,9 +62,18 @@ class SpaceRepositoryTest {
     }
 
     @Test
-    void testHasNoCustomMethods() {
+    void testHasFindAvailableMethod() throws NoSuchMethodException {
+        Method method = SpaceRepository.class.getMethod("findAvailable", OffsetDateTime.class, OffsetDateTime.class,
+                Short.class, Integer.class, String.class, int.class, int.class);
+        assertNotNull(method);
+        assertEquals(List.class, method.getReturnType());
+        assertNotNull(method.getAnnotation(Query.class));
+    }
+
+    @Test
+    void testHasOneCustomMethod() {
         Method[] methods = SpaceRepository.class.getDeclaredMethods();
-        assertEquals(0, methods.length);
+        assertEquals(1, methods.length);
     }
 
     @Test
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import java.lang.reflect.Method;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -90,9 +91,16 @@ class SpaceScheduleRepositoryTest {
     }
 
     @Test
-    void testHasFiveCustomMethods() {
+    void testHasFindBySpace_SpaceIdInMethod() throws NoSuchMethodException {
+        Method method = SpaceScheduleRepository.class.getMethod("findBySpace_SpaceIdIn", Collection.class);
+        assertNotNull(method);
+        assertEquals(List.class, method.getReturnType());
+    }
+
+    @Test
+    void testHasSixCustomMethods() {
         Method[] methods = SpaceScheduleRepository.class.getDeclaredMethods();
-        assertEquals(5, methods.length);
+        assertEquals(6, methods.length);
     }
 
     @Test
@@ -0,0 +1,303 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.AnalyticsGroupDTO;
+import cr.una.reservas_municipales.dto.AnalyticsResultDTO;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.SpaceType;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.SpaceImageRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import cr.una.reservas_municipales.repository.SpaceTypeRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AnalyticsStoreTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private SpaceRepository spaceRepository;
+
+    @Mock
+    private SpaceImageRepository spaceImageRepository;
+
+    @Mock
+    private SpaceTypeRepository spaceTypeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private AnalyticsStore store;
+
+    private Space cancha;
+    private Space salon;
+
+    @BeforeEach
+    void setUp() {
+        SpaceCatalog catalog = new SpaceCatalog(spaceRepository, spaceImageRepository, 5);
+        store = new AnalyticsStore(reservationRepository, catalog, spaceTypeRepository, transactionManager, true);
+
+        cancha = space("Cancha", (short) 1);
+        salon = space("Salón", (short) 2);
+        lenient().when(spaceRepository.findAll()).thenReturn(List.of(cancha, salon));
+        lenient().when(spaceImageRepository.findBySpaceIdInOrderByOrdAsc(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void testAggregate_LoadsOnDemandAndGroupsBySpaceType() {
+        when(reservationRepository.streamAllViews()).thenReturn(Stream.of(
+                view(cancha, at(3, 9, 0), 60, "CONFIRMED", "10000.00", true),
+                view(cancha, at(4, 9, 0), 90, "COMPLETED", "15000.50", false),
+                view(salon, at(5, 18, 0), 120, "CONFIRMED", "40000.00", true),
+                view(cancha, at(6, 9, 0), 60, "CANCELLED", null, false)));
+        when(spaceTypeRepository.findAll()).thenReturn(List.of(type((short) 1, "Deportivo"), type((short) 2, "Salón comunal")));
+
+        AnalyticsResultDTO result = store.aggregate(AnalyticsStore.Dimension.SPACE_TYPE, AnalyticsStore.Filter.all());
+
+        assertTrue(store.isReady());
+        assertEquals("SPACE_TYPE", result.getGroupBy());
+        assertEquals(4, result.getScannedRows());
+        assertEquals(4, result.getMatchedRows());
+        assertNotNull(result.getLoadedAt());
+        assertEquals(2, result.getGroups().size());
+
+        AnalyticsGroupDTO deportivo = result.getGroups().get(0);
+        assertEquals("1", deportivo.getKey());
+        assertEquals("Deportivo", deportivo.getLabel());
+        assertEquals(3, deportivo.getReservations());
+        assertEquals(210, deportivo.getMinutes());
+        assertEquals(25000.50, deportivo.getAmount(), 0.001);
+        assertEquals(1, deportivo.getAttended());
+        assertEquals(33.33, deportivo.getAttendanceRate(), 0.001);
+
+        AnalyticsGroupDTO comunal = result.getGroups().get(1);
+        assertEquals("Salón comunal", comunal.getLabel());
+        assertEquals(100.0, comunal.getAttendanceRate(), 0.001);
+
+        // Una segunda consulta no vuelve a leer la BD
+        store.aggregate(AnalyticsStore.Dimension.NONE, AnalyticsStore.Filter.all());
+        verify(reservationRepository, times(1)).streamAllViews();
+    }
+
+    @Test
+    void testAggregate_WeekdayAndHourUseCostaRicaTime() {
+        when(reservationRepository.streamAllViews()).thenReturn(Stream.of(
+                // Lunes 23:30 en Costa Rica, martes en UTC
+                view(cancha, at(3, 23, 30), 60, "CONFIRMED", "1000", false),
+                view(cancha, at(9, 7, 0), 60, "CONFIRMED", "1000", false),
+                view(salon, at(9, 7, 45), 60, "CONFIRMED", "1000", false)));
+        store.reload();
+
+        List<AnalyticsGroupDTO> weekdays = store.aggregate(AnalyticsStore.Dimension.WEEKDAY,
+                AnalyticsStore.Filter.all()).getGroups();
+        List<AnalyticsGroupDTO> hours = store.aggregate(AnalyticsStore.Dimension.HOUR,
+                AnalyticsStore.Filter.all()).getGroups();
+
+        assertEquals(List.of("MONDAY", "SUNDAY"), weekdays.stream().map(AnalyticsGroupDTO::getKey).toList());
+        assertEquals(1, weekdays.get(0).getReservations());
+        assertEquals(2, weekdays.get(1).getReservations());
+        assertEquals(List.of("7", "23"), hours.stream().map(AnalyticsGroupDTO::getKey).toList());
+    }
+
+    @Test
+    void testAggregate_FiltersByRangeStatusAndSpace() {
+        when(reservationRepository.streamAllViews()).thenReturn(Stream.of(
+                view(cancha, at(3, 9, 0), 60, "CONFIRMED", "1000", false),
+                view(cancha, at(9, 23, 0), 60, "CANCELLED", "2000", false),
+                view(cancha, at(10, 1, 0), 60, "CONFIRMED", "4000", false),
+                view(salon, at(4, 9, 0), 60, "CONFIRMED", "8000", false)));
+        store.reload();
+
+        AnalyticsStore.Filter week = new AnalyticsStore.Filter(LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 9),
+                null, null, null);
+        assertEquals(3, store.aggregate(AnalyticsStore.Dimension.NONE, week).getMatchedRows());
+
+        AnalyticsResultDTO confirmedCancha = store.aggregate(AnalyticsStore.Dimension.STATUS,
+                new AnalyticsStore.Filter(LocalDate.of(2025, 3, 3), LocalDate.of(2025, 3, 9),
+                        Set.of("CONFIRMED"), cancha.getSpaceId(), null));
+        assertEquals(1, confirmedCancha.getMatchedRows());
+        assertEquals("CONFIRMED", confirmedCancha.getGroups().get(0).getKey());
+        assertEquals(1000.0, confirmedCancha.getGroups().get(0).getAmount(), 0.001);
+
+        AnalyticsResultDTO bySpaceType = store.aggregate(AnalyticsStore.Dimension.SPACE,
+                new AnalyticsStore.Filter(null, null, null, null, (short) 2));
+        assertEquals(1, bySpaceType.getGroups().size());
+        assertEquals("Salón", bySpaceType.getGroups().get(0).getLabel());
+
+        assertEquals(0, store.aggregate(AnalyticsStore.Dimension.NONE,
+                new AnalyticsStore.Filter(null, null, Set.of("PENDING"), null, null)).getMatchedRows());
+        assertEquals(0, store.aggregate(AnalyticsStore.Dimension.NONE,
+                new AnalyticsStore.Filter(null, null, null, UUID.randomUUID(), null)).getMatchedRows());
+    }
+
+    @Test
+    void testAggregate_MonthAndLeadTimeBuckets() {
+        when(reservationRepository.streamAllViews()).thenReturn(Stream.of(
+                view(cancha, at(3, 9, 0), at(3, 8, 0), "CANCELLED"),
+                view(cancha, at(10, 9, 0), at(8, 9, 0), "CANCELLED"),
+                view(cancha, at(31, 9, 0), at(1, 9, 0), "CONFIRMED"),
+                view(cancha, LocalDateTime.of(2025, 5, 2, 9, 0), LocalDateTime.of(2025, 3, 1, 9, 0), "CONFIRMED")));
+        store.reload();
+
+        List<AnalyticsGroupDTO> months = store.aggregate(AnalyticsStore.Dimension.MONTH,
+                AnalyticsStore.Filter.all()).getGroups();
+        assertEquals(List.of("2025-03", "2025-05"), months.stream().map(AnalyticsGroupDTO::getKey).toList());
+        assertEquals(3, months.get(0).getReservations());
+
+        List<AnalyticsGroupDTO> cancellations = store.aggregate(AnalyticsStore.Dimension.LEAD_TIME,
+                new AnalyticsStore.Filter(null, null, Set.of("CANCELLED"), null, null)).getGroups();
+        assertEquals(List.of("<1", "1-2"), cancellations.stream().map(AnalyticsGroupDTO::getKey).toList());
+
+        List<AnalyticsGroupDTO> all = store.aggregate(AnalyticsStore.Dimension.LEAD_TIME,
+                AnalyticsStore.Filter.all()).getGroups();
+        assertEquals(List.of("<1", "1-2", "30+"), all.stream().map(AnalyticsGroupDTO::getKey).toList());
+        assertEquals(2, all.get(2).getReservations());
+    }
+
+    @Test
+    void testOnReservationChanged_UpsertsAndDeletesRows() {
+        ReservationView first = view(cancha, at(3, 9, 0), 60, "PENDING", "1000", false);
+        when(reservationRepository.streamAllViews()).thenReturn(Stream.of(first));
+        store.reload();
+
+        ReservationView created = view(salon, at(4, 9, 0), 60, "CONFIRMED", "2000", false);
+        store.onReservationChanged(new ReservationChangedEvent(null, created));
+        store.onReservationChanged(new ReservationChangedEvent(first, first.cancelled("Lluvia", OffsetDateTime.now())));
+
+        List<AnalyticsGroupDTO> statuses = store.aggregate(AnalyticsStore.Dimension.STATUS,
+                AnalyticsStore.Filter.all()).getGroups();
+        assertEquals(2, statuses.size());
+        assertTrue(statuses.stream().noneMatch(group -> group.getKey().equals("PENDING")));
+
+        store.onReservationChanged(new ReservationChangedEvent(created, null));
+        AnalyticsResultDTO afterDelete = store.aggregate(AnalyticsStore.Dimension.STATUS, AnalyticsStore.Filter.all());
+        assertEquals(1, afterDelete.getMatchedRows());
+        assertEquals("CANCELLED", afterDelete.getGroups().get(0).getKey());
+    }
+
+    @Test
+    void testReload_ReplaysChangesReceivedWhileLoading() {
+        ReservationView loaded = view(cancha, at(3, 9, 0), 60, "CONFIRMED", "1000", false);
+        ReservationView concurrent = view(salon, at(4, 9, 0), 60, "CONFIRMED", "2000", false);
+        when(reservationRepository.streamAllViews()).thenAnswer(invocation -> Stream.of(loaded)
+                .peek(view -> store.onReservationChanged(new ReservationChangedEvent(null, concurrent))));
+
+        store.reload();
+
+        assertEquals(2, store.aggregate(AnalyticsStore.Dimension.NONE, AnalyticsStore.Filter.all()).getMatchedRows());
+    }
+
+    @Test
+    void testAggregate_ScansSeveralChunksInParallel() {
+        int rows = AnalyticsStore.CHUNK_ROWS * 2 + 123;
+        List<ReservationView> views = new ArrayList<>(rows);
+        IntStream.range(0, rows).forEach(i -> views.add(view(i % 2 == 0 ? cancha : salon,
+                at(3 + i % 7, 8 + i % 10, 0), 30, i % 3 == 0 ? "CANCELLED" : "CONFIRMED", "100", i % 4 == 0)));
+        when(reservationRepository.streamAllViews()).thenReturn(views.stream());
+        store.reload();
+
+        AnalyticsResultDTO result = store.aggregate(AnalyticsStore.Dimension.WEEKDAY,
+                new AnalyticsStore.Filter(null, null, Set.of("CONFIRMED"), null, null));
+
+        long confirmed = IntStream.range(0, rows).filter(i -> i % 3 != 0).count();
+        long attended = IntStream.range(0, rows).filter(i -> i % 3 != 0 && i % 4 == 0).count();
+        assertEquals(rows, result.getScannedRows());
+        assertEquals(confirmed, result.getMatchedRows());
+        assertEquals(7, result.getGroups().size());
+        assertEquals(confirmed * 30, result.getGroups().stream().mapToLong(AnalyticsGroupDTO::getMinutes).sum());
+        assertEquals(confirmed * 100.0, result.getGroups().stream().mapToDouble(AnalyticsGroupDTO::getAmount).sum(),
+                0.001);
+        assertEquals(attended, result.getGroups().stream().mapToLong(AnalyticsGroupDTO::getAttended).sum());
+    }
+
+    @Test
+    void testAggregate_Disabled() {
+        AnalyticsStore disabled = new AnalyticsStore(reservationRepository,
+                new SpaceCatalog(spaceRepository, spaceImageRepository, 5), spaceTypeRepository, transactionManager,
+                false);
+
+        disabled.warmUp();
+        disabled.onReservationChanged(new ReservationChangedEvent(null,
+                view(cancha, at(3, 9, 0), 60, "CONFIRMED", "1000", false)));
+
+        assertFalse(disabled.isReady());
+        assertThrows(BusinessException.class,
+                () -> disabled.aggregate(AnalyticsStore.Dimension.NONE, AnalyticsStore.Filter.all()));
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void testAggregate_InvalidArguments() {
+        assertThrows(BusinessException.class, () -> AnalyticsStore.Dimension.parse("color"));
+        assertEquals(AnalyticsStore.Dimension.LEAD_TIME, AnalyticsStore.Dimension.parse("lead_time"));
+        assertEquals(AnalyticsStore.Dimension.NONE, AnalyticsStore.Dimension.parse(null));
+        assertThrows(BusinessException.class, () -> store.aggregate(AnalyticsStore.Dimension.NONE,
+                new AnalyticsStore.Filter(LocalDate.of(2025, 3, 9), LocalDate.of(2025, 3, 3), null, null, null)));
+        verifyNoInteractions(reservationRepository);
+    }
+
+    private static Space space(String name, short spaceTypeId) {
+        Space space = new Space();
+        space.setSpaceId(UUID.randomUUID());
+        space.setName(name);
+        space.setSpaceTypeId(spaceTypeId);
+        space.setCapacity(10);
+        space.setActive(true);
+        return space;
+    }
+
+    private static SpaceType type(short id, String name) {
+        SpaceType type = new SpaceType();
+        type.setSpaceTypeId(id);
+        type.setName(name);
+        return type;
+    }
+
+    private static ReservationView view(Space space, OffsetDateTime startsAt, int minutes, String status,
+                                        String amount, boolean attended) {
+        return new ReservationView(UUID.randomUUID(), space.getSpaceId(), UUID.randomUUID(), startsAt,
+                startsAt.plusMinutes(minutes), status, null, null, amount == null ? null : new BigDecimal(amount),
+                "CRC", startsAt.minusDays(10), null, null, attended, null, null);
+    }
+
+    private static ReservationView view(Space space, OffsetDateTime startsAt, OffsetDateTime createdAt, String status) {
+        return new ReservationView(UUID.randomUUID(), space.getSpaceId(), UUID.randomUUID(), startsAt,
+                startsAt.plusHours(1), status, null, null, BigDecimal.ONE, "CRC", createdAt, null, null, false,
+                null, null);
+    }
+
+    private static ReservationView view(Space space, LocalDateTime startsAt, LocalDateTime createdAt, String status) {
+        return view(space, local(startsAt), local(createdAt), status);
+    }
+
+    private static OffsetDateTime at(int day, int hour, int minute) {
+        return local(LocalDateTime.of(2025, 3, 1, hour, minute).plusDays(day - 1));
+    }
+
+    private static OffsetDateTime local(LocalDateTime dateTime) {
+        return dateTime.atZone(ReservationRules.COSTA_RICA_ZONE).toOffsetDateTime();
+    }
+}
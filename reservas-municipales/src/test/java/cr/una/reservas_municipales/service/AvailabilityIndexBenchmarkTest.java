@@ -0,0 +1,123 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara la verificación de conflictos del índice contra la consulta que reemplaza
+ * ({@code findConflictingReservations}) sobre los mismos datos en H2: ambas deben dar la misma
+ * respuesta para cada intervalo consultado. No es un benchmark riguroso (H2 en memoria es más
+ * rápido que un viaje a PostgreSQL): solo da el orden de magnitud en la salida del build.
+ */
+@DataJpaTest
+@Import(AvailabilityIndex.class)
+class AvailabilityIndexBenchmarkTest {
+
+    private static final int SPACES = 20;
+    private static final int RESERVATIONS_PER_SPACE = 100;
+    private static final int PROBES = 500;
+
+    @Autowired
+    private AvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private final List<UUID> spaces = new ArrayList<>();
+    private OffsetDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        base = OffsetDateTime.now(ZoneOffset.UTC).plusDays(1).withHour(0).withMinute(0).withSecond(0).withNano(0);
+        List<Reservation> reservations = new ArrayList<>();
+        for (int s = 0; s < SPACES; s++) {
+            UUID spaceId = UUID.randomUUID();
+            spaces.add(spaceId);
+            // Una reserva de 2 horas cada 5 horas: la mitad de las consultas choca
+            for (int i = 0; i < RESERVATIONS_PER_SPACE; i++) {
+                OffsetDateTime start = base.plusHours(5L * i);
+                Reservation reservation = new Reservation();
+                reservation.setReservationId(UUID.randomUUID());
+                reservation.setSpaceId(spaceId);
+                reservation.setUserId(UUID.randomUUID());
+                reservation.setStartsAt(start);
+                reservation.setEndsAt(start.plusHours(2));
+                reservation.setStatus(i % 2 == 0 ? "CONFIRMED" : "PENDING");
+                reservation.setCurrency("CRC");
+                reservation.setAttendanceConfirmed(false);
+                reservation.setCreatedAt(base);
+                reservation.setUpdatedAt(base);
+                reservations.add(reservation);
+            }
+        }
+        reservationRepository.saveAll(reservations);
+        entityManager.flush();
+        entityManager.clear();
+        availabilityIndex.warmUp();
+    }
+
+    @Test
+    void testIndexMatchesConflictQuery() {
+        Random random = new Random(42);
+        List<UUID> probeSpaces = new ArrayList<>(PROBES);
+        List<OffsetDateTime> probeStarts = new ArrayList<>(PROBES);
+        for (int i = 0; i < PROBES; i++) {
+            probeSpaces.add(spaces.get(random.nextInt(SPACES)));
+            probeStarts.add(base.plusMinutes(30L * random.nextInt(RESERVATIONS_PER_SPACE * 10)));
+        }
+
+        int conflicts = 0;
+        for (int i = 0; i < PROBES; i++) {
+            OffsetDateTime start = probeStarts.get(i);
+            assertTrue(availabilityIndex.covers(start));
+            boolean inIndex = availabilityIndex.hasConflict(probeSpaces.get(i), start, start.plusHours(1), null);
+            boolean inDatabase = !reservationRepository
+                    .findConflictingReservations(probeSpaces.get(i), start, start.plusHours(1)).isEmpty();
+            assertEquals(inDatabase, inIndex, "intervalo " + start);
+            conflicts += inIndex ? 1 : 0;
+            entityManager.clear();
+        }
+        assertTrue(conflicts > 0 && conflicts < PROBES);
+
+        long queryNs = measure(i -> !reservationRepository.findConflictingReservations(
+                probeSpaces.get(i), probeStarts.get(i), probeStarts.get(i).plusHours(1)).isEmpty());
+        long indexNs = measure(i -> availabilityIndex.hasConflict(
+                probeSpaces.get(i), probeStarts.get(i), probeStarts.get(i).plusHours(1), null));
+        System.out.printf("Conflicto con %d reservas: consulta H2 %8d ns/op, índice %6d ns/op%n",
+                SPACES * RESERVATIONS_PER_SPACE, queryNs, indexNs);
+    }
+
+    private long measure(java.util.function.IntPredicate check) {
+        int sink = 0;
+        for (int i = 0; i < PROBES; i++) {
+            sink += check.test(i) ? 1 : 0;
+        }
+        entityManager.clear();
+        long started = System.nanoTime();
+        for (int i = 0; i < PROBES; i++) {
+            sink += check.test(i) ? 1 : 0;
+        }
+        long perOp = (System.nanoTime() - started) / PROBES;
+        entityManager.clear();
+        assertTrue(sink > 0);
+        return perOp;
+    }
+}
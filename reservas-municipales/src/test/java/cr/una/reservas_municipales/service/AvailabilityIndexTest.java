@@ -0,0 +1,233 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationSlot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AvailabilityIndexTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @InjectMocks
+    private AvailabilityIndex availabilityIndex;
+
+    private UUID spaceId;
+    private OffsetDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        spaceId = UUID.randomUUID();
+        base = OffsetDateTime.now(ZoneOffset.UTC).plusDays(1).withHour(8).withMinute(0).withSecond(0).withNano(0);
+        when(reservationRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of());
+        availabilityIndex.warmUp();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testWarmUp_LoadsActiveSlots() {
+        UUID reservationId = UUID.randomUUID();
+        ReservationSlot slot = mock(ReservationSlot.class);
+        when(slot.getReservationId()).thenReturn(reservationId);
+        when(slot.getSpaceId()).thenReturn(spaceId);
+        when(slot.getStartsAt()).thenReturn(base);
+        when(slot.getEndsAt()).thenReturn(base.plusHours(2));
+        when(reservationRepository.findActiveSlotsEndingAfter(any())).thenReturn(List.of(slot));
+
+        availabilityIndex.warmUp();
+
+        assertTrue(availabilityIndex.isReady());
+        assertEquals(1, availabilityIndex.size());
+        assertTrue(availabilityIndex.hasConflict(spaceId, base.plusHours(1), base.plusHours(3), null));
+    }
+
+    @Test
+    void testWarmUp_Disabled_NotReady() {
+        AvailabilityIndex disabled = new AvailabilityIndex(reservationRepository);
+        ReflectionTestUtils.setField(disabled, "enabled", false);
+
+        disabled.warmUp();
+
+        assertFalse(disabled.isReady());
+        assertFalse(disabled.covers(base));
+    }
+
+    @Test
+    void testCovers_OnlyFromWarmUpOnwards() {
+        assertTrue(availabilityIndex.covers(base));
+        assertFalse(availabilityIndex.covers(OffsetDateTime.now().minusHours(1)));
+        assertFalse(availabilityIndex.covers(null));
+    }
+
+    @Test
+    void testHasConflict_SameSemanticsAsQuery() {
+        availabilityIndex.track(reservation(UUID.randomUUID(), base, base.plusHours(2), "CONFIRMED"));
+
+        // Solapamiento parcial y contenido
+        assertTrue(availabilityIndex.hasConflict(spaceId, base.minusHours(1), base.plusMinutes(30), null));
+        assertTrue(availabilityIndex.hasConflict(spaceId, base.plusMinutes(30), base.plusHours(1), null));
+        // Bordes inclusivos, igual que "startsAt <= :endsAt AND endsAt >= :startsAt"
+        assertTrue(availabilityIndex.hasConflict(spaceId, base.plusHours(2), base.plusHours(3), null));
+        assertTrue(availabilityIndex.hasConflict(spaceId, base.minusHours(1), base, null));
+        // Sin solapamiento
+        assertFalse(availabilityIndex.hasConflict(spaceId, base.plusHours(3), base.plusHours(4), null));
+        assertFalse(availabilityIndex.hasConflict(UUID.randomUUID(), base, base.plusHours(2), null));
+    }
+
+    @Test
+    void testHasConflict_LongIntervalBeforeShortOnes() {
+        availabilityIndex.track(reservation(UUID.randomUUID(), base, base.plusHours(10), "PENDING"));
+        availabilityIndex.track(reservation(UUID.randomUUID(), base.plusHours(1), base.plusHours(2), "PENDING"));
+
+        // El intervalo corto no solapa, pero el largo que empezó antes sí
+        assertTrue(availabilityIndex.hasConflict(spaceId, base.plusHours(5), base.plusHours(6), null));
+    }
+
+    @Test
+    void testHasConflict_ExcludesOwnReservation() {
+        UUID reservationId = UUID.randomUUID();
+        availabilityIndex.track(reservation(reservationId, base, base.plusHours(2), "CONFIRMED"));
+
+        assertFalse(availabilityIndex.hasConflict(spaceId, base, base.plusHours(1), reservationId));
+    }
+
+    @Test
+    void testTrack_NonBlockingStatusRemovesInterval() {
+        UUID reservationId = UUID.randomUUID();
+        availabilityIndex.track(reservation(reservationId, base, base.plusHours(2), "PENDING"));
+        availabilityIndex.track(reservation(reservationId, base, base.plusHours(2), "CANCELLED"));
+
+        assertEquals(0, availabilityIndex.size());
+        assertFalse(availabilityIndex.hasConflict(spaceId, base, base.plusHours(2), null));
+    }
+
+    @Test
+    void testTrack_RescheduleMovesInterval() {
+        UUID reservationId = UUID.randomUUID();
+        availabilityIndex.track(reservation(reservationId, base, base.plusHours(2), "CONFIRMED"));
+        availabilityIndex.track(reservation(reservationId, base.plusHours(5), base.plusHours(6), "CONFIRMED"));
+
+        assertEquals(1, availabilityIndex.size());
+        assertFalse(availabilityIndex.hasConflict(spaceId, base, base.plusHours(2), null));
+        assertTrue(availabilityIndex.hasConflict(spaceId, base.plusHours(5), base.plusHours(6), null));
+    }
+
+    @Test
+    void testUntrack_RemovesInterval() {
+        UUID reservationId = UUID.randomUUID();
+        availabilityIndex.track(reservation(reservationId, base, base.plusHours(2), "CONFIRMED"));
+
+        availabilityIndex.untrack(reservationId);
+
+        assertEquals(0, availabilityIndex.size());
+        assertFalse(availabilityIndex.hasConflict(spaceId, base, base.plusHours(2), null));
+    }
+
+    @Test
+    void testVersion_ChangesWithEveryUpdateOfTheSpace() {
+        UUID reservationId = UUID.randomUUID();
+        long initial = availabilityIndex.version(spaceId);
+
+        availabilityIndex.track(reservation(reservationId, base, base.plusHours(2), "CONFIRMED"));
+        long afterCreate = availabilityIndex.version(spaceId);
+        availabilityIndex.track(reservation(reservationId, base, base.plusHours(2), "CANCELLED"));
+
+        assertTrue(afterCreate > initial);
+        assertTrue(availabilityIndex.version(spaceId) > afterCreate);
+        assertEquals(0, availabilityIndex.version(UUID.randomUUID()));
+    }
+
+    @Test
+    void testTrack_InsideTransaction_AppliedOnlyAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        availabilityIndex.track(reservation(UUID.randomUUID(), base, base.plusHours(2), "CONFIRMED"));
+        assertFalse(availabilityIndex.hasConflict(spaceId, base, base.plusHours(2), null));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertTrue(availabilityIndex.hasConflict(spaceId, base, base.plusHours(2), null));
+    }
+
+    @Test
+    void testSpaceTimeline_KeepsManyIntervalsSorted() {
+        for (int i = 20; i > 0; i--) {
+            availabilityIndex.track(reservation(UUID.randomUUID(), base.plusHours(i * 3L), base.plusHours(i * 3L + 1), "CONFIRMED"));
+        }
+
+        assertEquals(20, availabilityIndex.size());
+        assertTrue(availabilityIndex.hasConflict(spaceId, base.plusHours(30), base.plusHours(30).plusMinutes(10), null));
+        assertFalse(availabilityIndex.hasConflict(spaceId, base.plusHours(31).plusMinutes(1), base.plusHours(32).plusMinutes(59), null));
+    }
+
+    @Test
+    void testTrackInterval_AppliesActiveSlot() {
+        UUID reservationId = UUID.randomUUID();
+
+        availabilityIndex.track(reservationId, spaceId, base, base.plusHours(1));
+
+        assertTrue(availabilityIndex.hasConflict(spaceId, base, base.plusMinutes(30), null));
+        assertFalse(availabilityIndex.hasConflict(spaceId, base, base.plusMinutes(30), reservationId));
+    }
+
+    @Test
+    void testSpaceTimelineOf_BuildsFromUnsortedSlots() {
+        List<ReservationSlot> slots = List.of(
+                slot(base.plusHours(5), base.plusHours(6)),
+                slot(base, base.plusHours(1)),
+                slot(base.plusHours(2), base.plusHours(3)));
+
+        AvailabilityIndex.SpaceTimeline timeline = AvailabilityIndex.SpaceTimeline.of(slots);
+
+        assertEquals(3, timeline.size());
+        assertTrue(timeline.overlaps(base.plusHours(2).plusMinutes(30).toEpochSecond(),
+                base.plusHours(4).toEpochSecond(), null));
+        assertFalse(timeline.overlaps(base.plusHours(3).plusMinutes(1).toEpochSecond(),
+                base.plusHours(4).toEpochSecond(), null));
+    }
+
+    private ReservationSlot slot(OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        ReservationSlot slot = mock(ReservationSlot.class);
+        when(slot.getReservationId()).thenReturn(UUID.randomUUID());
+        when(slot.getStartsAt()).thenReturn(startsAt);
+        when(slot.getEndsAt()).thenReturn(endsAt);
+        return slot;
+    }
+
+    private Reservation reservation(UUID reservationId, OffsetDateTime startsAt, OffsetDateTime endsAt, String status) {
+        Reservation reservation = new Reservation();
+        reservation.setReservationId(reservationId);
+        reservation.setSpaceId(spaceId);
+        reservation.setStartsAt(startsAt);
+        reservation.setEndsAt(endsAt);
+        reservation.setStatus(status);
+        return reservation;
+    }
+}
@@ -0,0 +1,95 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.model.SpaceClosure;
+import cr.una.reservas_municipales.repository.SpaceClosureRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ClosureIndexTest {
+
+    @Mock
+    private SpaceClosureRepository closureRepository;
+
+    private ClosureIndex closureIndex;
+
+    private final UUID spaceId = UUID.randomUUID();
+    private final OffsetDateTime base = OffsetDateTime.of(2026, 3, 16, 8, 0, 0, 0, ZoneOffset.ofHours(-6));
+
+    @BeforeEach
+    void setUp() {
+        closureIndex = new ClosureIndex(closureRepository, 100, 10);
+    }
+
+    private SpaceClosure closure(UUID space, OffsetDateTime startsAt, OffsetDateTime endsAt, String reason) {
+        SpaceClosure closure = new SpaceClosure();
+        closure.setSpaceId(space);
+        closure.setStartsAt(startsAt);
+        closure.setEndsAt(endsAt);
+        closure.setReason(reason);
+        return closure;
+    }
+
+    @Test
+    void testValidateRejectsOverlapWithReason() {
+        when(closureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId))
+                .thenReturn(List.of(closure(spaceId, base, base.plusDays(1), "Mantenimiento")));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> closureIndex.validate(spaceId, base.plusHours(2), base.plusHours(3)));
+        assertEquals("El espacio está cerrado del 16/03/2026 08:00 al 17/03/2026 08:00: Mantenimiento", ex.getMessage());
+    }
+
+    @Test
+    void testClosedIntervalsTouchingEndpointsOverlap() {
+        when(closureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId))
+                .thenReturn(List.of(closure(spaceId, base, base.plusHours(2), null)));
+
+        assertTrue(closureIndex.findOverlap(spaceId, base.plusHours(2), base.plusHours(3)).isPresent());
+        assertTrue(closureIndex.findOverlap(spaceId, base.minusHours(1), base).isPresent());
+        assertFalse(closureIndex.findOverlap(spaceId, base.plusHours(2).plusSeconds(1), base.plusHours(3)).isPresent());
+        verify(closureRepository, times(1)).findBySpaceIdOrderByStartsAtAsc(spaceId);
+    }
+
+    @Test
+    void testLongClosureFoundBehindShorterOnes() {
+        List<SpaceClosure> closures = new ArrayList<>();
+        closures.add(closure(spaceId, base, base.plusDays(30), "Remodelación"));
+        for (int i = 1; i <= 10; i++) {
+            closures.add(closure(spaceId, base.plusDays(i), base.plusDays(i).plusHours(1), "Evento " + i));
+        }
+        when(closureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId)).thenReturn(closures);
+
+        SpaceClosure found = closureIndex.findOverlap(spaceId, base.plusDays(12), base.plusDays(12).plusHours(1)).orElseThrow();
+        assertEquals("Remodelación", found.getReason());
+        assertEquals(1, closureIndex.get(spaceId).overlappingAll(
+                base.plusDays(12).toEpochSecond(), base.plusDays(12).plusHours(1).toEpochSecond()).size());
+        assertEquals(2, closureIndex.get(spaceId).overlappingAll(
+                base.plusDays(3).toEpochSecond(), base.plusDays(3).plusMinutes(30).toEpochSecond()).size());
+    }
+
+    @Test
+    void testInvalidateReloads() {
+        when(closureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId))
+                .thenReturn(List.of())
+                .thenReturn(List.of(closure(spaceId, base, base.plusHours(2), null)));
+
+        assertDoesNotThrow(() -> closureIndex.validate(spaceId, base, base.plusHours(1)));
+        closureIndex.invalidate(spaceId);
+
+        assertThrows(BusinessException.class, () -> closureIndex.validate(spaceId, base, base.plusHours(1)));
+    }
+}
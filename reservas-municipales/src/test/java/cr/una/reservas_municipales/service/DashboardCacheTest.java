@@ -0,0 +1,162 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.GeneralMetricsDTO;
+import cr.una.reservas_municipales.dto.RevenueMetricsDTO;
+import cr.una.reservas_municipales.dto.SimpleDashboardDTO;
+import cr.una.reservas_municipales.dto.TemporalMetricsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCacheTest {
+
+    @Mock
+    private MetricsService metricsService;
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(metricsService.computeCounts()).thenReturn(counts(10), counts(20));
+        lenient().when(metricsService.computeRevenue()).thenReturn(new RevenueMetricsDTO(100.0, 50.0, 100.0));
+        lenient().when(metricsService.computeTopSpaces()).thenReturn(List.of());
+        lenient().when(metricsService.computeTemporal()).thenReturn(new TemporalMetricsDTO());
+    }
+
+    @Test
+    void testGetDashboard_FirstCallLoadsEverySection() {
+        DashboardCache cache = new DashboardCache(metricsService, 30, 60, 300, 600, scheduled::add);
+
+        SimpleDashboardDTO dashboard = cache.getDashboard();
+
+        assertEquals(10, dashboard.getGeneralMetrics().getTotalReservations());
+        assertEquals(100.0, dashboard.getRevenueMetrics().getCurrentMonthRevenue());
+        assertNotNull(dashboard.getTemporalMetrics());
+        assertNotNull(dashboard.getComputedAt());
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    void testGetDashboard_FreshSectionsAreNotRecomputed() {
+        DashboardCache cache = new DashboardCache(metricsService, 30, 60, 300, 600, scheduled::add);
+
+        cache.getDashboard();
+        cache.getDashboard();
+        cache.getDashboard();
+
+        verify(metricsService, times(1)).computeCounts();
+        verify(metricsService, times(1)).computeTemporal();
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    void testGetDashboard_StaleSectionServedWhileOneRefreshRuns() {
+        // Conteos siempre vencidos; el resto nunca
+        DashboardCache cache = new DashboardCache(metricsService, 0, 600, 600, 600, scheduled::add);
+        SimpleDashboardDTO first = cache.getDashboard();
+
+        SimpleDashboardDTO second = cache.getDashboard();
+        SimpleDashboardDTO third = cache.getDashboard();
+
+        // Valor anterior mientras el refresco está pendiente, y un solo refresco programado
+        assertEquals(10, second.getGeneralMetrics().getTotalReservations());
+        assertEquals(10, third.getGeneralMetrics().getTotalReservations());
+        assertEquals(1, scheduled.size());
+        verify(metricsService, times(1)).computeCounts();
+
+        scheduled.get(0).run();
+        SimpleDashboardDTO refreshed = cache.getDashboard();
+
+        assertEquals(20, refreshed.getGeneralMetrics().getTotalReservations());
+        verify(metricsService, times(2)).computeCounts();
+        verify(metricsService, times(1)).computeRevenue();
+        // computedAt es el de la sección más antigua: ahora ingresos, de la primera carga
+        assertFalse(refreshed.getComputedAt().isBefore(first.getComputedAt()));
+        assertFalse(refreshed.getComputedAt().isAfter(OffsetDateTime.now()));
+    }
+
+    @Test
+    void testGetDashboard_FailedRefreshKeepsValueAndRetries() {
+        when(metricsService.computeCounts()).thenReturn(counts(10))
+                .thenThrow(new RuntimeException("Database error"))
+                .thenReturn(counts(30));
+        DashboardCache cache = new DashboardCache(metricsService, 0, 600, 600, 600, Runnable::run);
+
+        cache.getDashboard();
+        SimpleDashboardDTO afterFailure = cache.getDashboard();
+        SimpleDashboardDTO afterRetry = cache.getDashboard();
+
+        assertEquals(10, afterFailure.getGeneralMetrics().getTotalReservations());
+        assertEquals(10, afterRetry.getGeneralMetrics().getTotalReservations());
+        assertEquals(30, cache.getDashboard().getGeneralMetrics().getTotalReservations());
+    }
+
+    @Test
+    void testGetDashboard_RejectedRefreshIsRetried() {
+        List<Runnable> accepted = new ArrayList<>();
+        int[] calls = {0};
+        DashboardCache cache = new DashboardCache(metricsService, 0, 600, 600, 600, task -> {
+            if (calls[0]++ == 0) {
+                throw new RejectedExecutionException("Sin hilos");
+            }
+            accepted.add(task);
+        });
+
+        cache.getDashboard();
+        cache.getDashboard();
+        cache.getDashboard();
+
+        assertEquals(1, accepted.size());
+    }
+
+    @Test
+    void testGetDashboard_ConcurrentFirstLoadComputesOnce() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(metricsService.computeCounts()).thenAnswer(invocation -> {
+            started.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return counts(10);
+        });
+        DashboardCache cache = new DashboardCache(metricsService, 30, 60, 300, 600, scheduled::add);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<SimpleDashboardDTO>> results = new ArrayList<>();
+            results.add(executor.submit(cache::getDashboard));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(cache::getDashboard));
+            }
+            release.countDown();
+
+            for (Future<SimpleDashboardDTO> result : results) {
+                assertEquals(10, result.get(5, TimeUnit.SECONDS).getGeneralMetrics().getTotalReservations());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(metricsService, times(1)).computeCounts();
+    }
+
+    private static MetricsService.DashboardCounts counts(long total) {
+        return new MetricsService.DashboardCounts(new GeneralMetricsDTO(total, 3, 5, 1),
+                Map.of("CONFIRMED", 1L));
+    }
+}
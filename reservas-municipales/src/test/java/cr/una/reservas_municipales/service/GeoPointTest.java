@@ -0,0 +1,58 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.Space;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeoPointTest {
+
+    @Test
+    void testParseLatLon() {
+        assertEquals(Optional.of(new GeoPoint(9.934739, -84.087502)), GeoPoint.parse("9.934739, -84.087502"));
+        assertEquals(Optional.of(new GeoPoint(10, -84)), GeoPoint.parse(" 10 ,-84 "));
+    }
+
+    @Test
+    void testParseRejectsTextAndOutOfRange() {
+        assertTrue(GeoPoint.parse(null).isEmpty());
+        assertTrue(GeoPoint.parse("Centro de la ciudad").isEmpty());
+        assertTrue(GeoPoint.parse("abc, def").isEmpty());
+        assertTrue(GeoPoint.parse("1,2,3").isEmpty());
+        assertTrue(GeoPoint.parse("95, -84").isEmpty());
+        assertTrue(GeoPoint.parse("9.9, -184").isEmpty());
+    }
+
+    @Test
+    void testOfRequiresBothCoordinates() {
+        assertTrue(GeoPoint.of(9.9, null).isEmpty());
+        assertTrue(GeoPoint.of(null, -84.0).isEmpty());
+        assertEquals(Optional.of(new GeoPoint(9.9, -84.0)), GeoPoint.of(9.9, -84.0));
+        assertThrows(IllegalArgumentException.class, () -> new GeoPoint(91, 0));
+    }
+
+    @Test
+    void testOfSpacePrefersColumnsOverLocation() {
+        Space space = new Space();
+        space.setLocation("9.93, -84.08");
+        assertEquals(Optional.of(new GeoPoint(9.93, -84.08)), GeoPoint.of(space));
+
+        space.setLatitude(10.0);
+        space.setLongitude(-84.2);
+        assertEquals(Optional.of(new GeoPoint(10.0, -84.2)), GeoPoint.of(space));
+    }
+
+    @Test
+    void testDistanceKm() {
+        // San José - Alajuela, unos 16,5 km en línea recta
+        GeoPoint sanJose = new GeoPoint(9.9281, -84.0907);
+        GeoPoint alajuela = new GeoPoint(10.0163, -84.2116);
+
+        assertEquals(16.4, sanJose.distanceKm(alajuela), 0.5);
+        assertEquals(sanJose.distanceKm(alajuela), alajuela.distanceKm(sanJose), 1e-9);
+        assertEquals(0, sanJose.distanceKm(sanJose), 1e-9);
+        assertEquals(111.2, new GeoPoint(0, 0).distanceKm(new GeoPoint(1, 0)), 0.1);
+    }
+}
@@ -0,0 +1,218 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationCountRow;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MetricsAggregatorTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @InjectMocks
+    private MetricsAggregator metricsAggregator;
+
+    private final UUID spaceA = UUID.randomUUID();
+    private final UUID spaceB = UUID.randomUUID();
+    private final OffsetDateTime createdAt = OffsetDateTime.now(ZoneId.systemDefault());
+    private final YearMonth month = YearMonth.from(createdAt);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(metricsAggregator, "enabled", true);
+    }
+
+    @Test
+    void testNotReadyBeforeLoad() {
+        assertFalse(metricsAggregator.isReady());
+
+        // Los eventos previos a la carga se ignoran; la carga ya los incluye
+        metricsAggregator.onReservationChanged(ReservationChangedEvent.created(reservation(spaceA, "PENDING", null)));
+
+        assertFalse(metricsAggregator.isReady());
+    }
+
+    @Test
+    void testReload_SeedsFromGroupedRows() {
+        seed();
+
+        assertTrue(metricsAggregator.isReady());
+        assertEquals(10, metricsAggregator.totalReservations());
+        assertEquals(4, metricsAggregator.countByStatus("CONFIRMED"));
+        assertEquals(6, metricsAggregator.countByStatus("PENDING"));
+        assertEquals(0, metricsAggregator.countByStatus("COMPLETED"));
+        assertEquals(10, metricsAggregator.activeReservations());
+        assertEquals(250_050, metricsAggregator.revenueCents(month));
+        assertEquals(0, metricsAggregator.revenueCents(month.minusMonths(1)));
+        verify(reservationRepository, times(1)).countBySpaceStatusAndMonth();
+    }
+
+    @Test
+    void testWarmUp_Disabled() {
+        ReflectionTestUtils.setField(metricsAggregator, "enabled", false);
+
+        metricsAggregator.warmUp();
+
+        assertFalse(metricsAggregator.isReady());
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void testCreatedEvent_AddsCountsAndRevenue() {
+        seed();
+
+        metricsAggregator.onReservationChanged(
+                ReservationChangedEvent.created(reservation(spaceB, "CONFIRMED", new BigDecimal("100.00"))));
+
+        assertEquals(11, metricsAggregator.totalReservations());
+        assertEquals(5, metricsAggregator.countByStatus("CONFIRMED"));
+        assertEquals(260_050, metricsAggregator.revenueCents(month));
+    }
+
+    @Test
+    void testCancelEvent_MovesStatusAndRemovesRevenue() {
+        seed();
+        Reservation reservation = reservation(spaceA, "CONFIRMED", new BigDecimal("500.50"));
+        ReservationView before = ReservationView.of(reservation);
+        reservation.setStatus("CANCELLED");
+
+        metricsAggregator.onReservationChanged(ReservationChangedEvent.changed(before, reservation));
+
+        assertEquals(10, metricsAggregator.totalReservations());
+        assertEquals(3, metricsAggregator.countByStatus("CONFIRMED"));
+        assertEquals(1, metricsAggregator.countByStatus("CANCELLED"));
+        assertEquals(200_000, metricsAggregator.revenueCents(month));
+        assertEquals(200_000, metricsAggregator.topSpaces(1).get(0).revenueCents());
+    }
+
+    @Test
+    void testDeletedEvent_SubtractsEverything() {
+        seed();
+        ReservationView pending = ReservationView.of(reservation(spaceB, "PENDING", null));
+
+        metricsAggregator.onReservationChanged(ReservationChangedEvent.deleted(pending));
+
+        assertEquals(9, metricsAggregator.totalReservations());
+        assertEquals(5, metricsAggregator.countByStatus("PENDING"));
+        assertEquals(2, metricsAggregator.topSpaces(5).get(1).reservationCount());
+    }
+
+    @Test
+    void testReload_ReplaysEventsReceivedWhileLoading() {
+        seed();
+        ReservationChangedEvent created = ReservationChangedEvent.created(
+                reservation(spaceB, "CONFIRMED", new BigDecimal("100.00")));
+        when(reservationRepository.countBySpaceStatusAndMonth()).thenAnswer(invocation -> {
+            // Llega mientras corre el GROUP BY, que no lo ve
+            metricsAggregator.onReservationChanged(created);
+            return List.of(new ReservationCountRow(spaceA, "CONFIRMED", month.getYear(), month.getMonthValue(),
+                    4L, new BigDecimal("2500.50")));
+        });
+
+        metricsAggregator.reload();
+
+        assertEquals(5, metricsAggregator.totalReservations());
+        assertEquals(5, metricsAggregator.countByStatus("CONFIRMED"));
+        assertEquals(260_050, metricsAggregator.revenueCents(month));
+
+        // Después de la carga los eventos ya no se acumulan para la siguiente
+        when(reservationRepository.countBySpaceStatusAndMonth()).thenReturn(List.of());
+        metricsAggregator.reload();
+        assertEquals(0, metricsAggregator.totalReservations());
+    }
+
+    @Test
+    void testReload_FailureKeepsCurrentCounters() {
+        seed();
+        when(reservationRepository.countBySpaceStatusAndMonth()).thenThrow(new IllegalStateException("sin conexión"));
+
+        assertThrows(IllegalStateException.class, metricsAggregator::reload);
+        metricsAggregator.onReservationChanged(
+                ReservationChangedEvent.created(reservation(spaceB, "PENDING", null)));
+
+        assertEquals(11, metricsAggregator.totalReservations());
+    }
+
+    @Test
+    void testTopSpaces_OrdersByCountAndLimits() {
+        List<ReservationCountRow> rows = new ArrayList<>();
+        List<UUID> spaces = new ArrayList<>();
+        for (int i = 1; i <= 8; i++) {
+            UUID spaceId = UUID.randomUUID();
+            spaces.add(spaceId);
+            rows.add(new ReservationCountRow(spaceId, "CONFIRMED", month.getYear(), month.getMonthValue(),
+                    (long) i, BigDecimal.valueOf(i)));
+        }
+        when(reservationRepository.countBySpaceStatusAndMonth()).thenReturn(rows);
+        metricsAggregator.reload();
+
+        List<MetricsAggregator.SpaceTotals> top = metricsAggregator.topSpaces(3);
+
+        assertEquals(3, top.size());
+        assertEquals(spaces.get(7), top.get(0).spaceId());
+        assertEquals(spaces.get(6), top.get(1).spaceId());
+        assertEquals(spaces.get(5), top.get(2).spaceId());
+        assertEquals(800, top.get(0).revenueCents());
+        assertTrue(metricsAggregator.topSpaces(0).isEmpty());
+        assertEquals(8, metricsAggregator.topSpaces(20).size());
+    }
+
+    @Test
+    void testTopSpaces_TiesBrokenByRevenue() {
+        when(reservationRepository.countBySpaceStatusAndMonth()).thenReturn(List.of(
+                new ReservationCountRow(spaceA, "CONFIRMED", month.getYear(), month.getMonthValue(), 2L, new BigDecimal("10")),
+                new ReservationCountRow(spaceB, "COMPLETED", month.getYear(), month.getMonthValue(), 2L, new BigDecimal("30"))));
+        metricsAggregator.reload();
+
+        List<MetricsAggregator.SpaceTotals> top = metricsAggregator.topSpaces(1);
+
+        assertEquals(1, top.size());
+        assertEquals(spaceB, top.get(0).spaceId());
+    }
+
+    @Test
+    void testToCents() {
+        assertEquals(0, MetricsAggregator.toCents(null));
+        assertEquals(1_050, MetricsAggregator.toCents(new BigDecimal("10.5")));
+        assertEquals(1_001, MetricsAggregator.toCents(new BigDecimal("10.005")));
+    }
+
+    private void seed() {
+        when(reservationRepository.countBySpaceStatusAndMonth()).thenReturn(List.of(
+                new ReservationCountRow(spaceA, "CONFIRMED", month.getYear(), month.getMonthValue(), 4L, new BigDecimal("2500.50")),
+                new ReservationCountRow(spaceB, "PENDING", month.getYear(), month.getMonthValue(), 3L, null),
+                new ReservationCountRow(spaceB, "CANCELLED", month.getYear(), month.getMonthValue(), 0L, null),
+                new ReservationCountRow(spaceA, "PENDING", null, null, 3L, null)));
+        metricsAggregator.reload();
+    }
+
+    private Reservation reservation(UUID spaceId, String status, BigDecimal amount) {
+        Reservation reservation = new Reservation();
+        reservation.setReservationId(UUID.randomUUID());
+        reservation.setSpaceId(spaceId);
+        reservation.setStatus(status);
+        reservation.setTotalAmount(amount);
+        reservation.setCreatedAt(createdAt);
+        return reservation;
+    }
+}
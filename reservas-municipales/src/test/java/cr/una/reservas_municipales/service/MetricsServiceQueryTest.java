@@ -0,0 +1,164 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.SimpleDashboardDTO;
+import cr.una.reservas_municipales.dto.TemporalMetricsDTO;
+import cr.una.reservas_municipales.dto.TopSpaceDTO;
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ejecuta las consultas agregadas del dashboard contra H2: verifica los resultados frente a lo que
+ * calcularía Java sobre las mismas filas y que el dashboard completo use una sentencia por sección,
+ * sin importar cuántas reservas haya.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import(MetricsService.class)
+class MetricsServiceQueryTest {
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private SpaceRepository spaceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // Sin cargar: el dashboard usa las consultas
+    @MockitoBean
+    private MetricsAggregator metricsAggregator;
+
+    private final OffsetDateTime now = OffsetDateTime.now(ZoneId.systemDefault());
+    private final OffsetDateTime lastMonth = YearMonth.from(now).atDay(1)
+            .atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime().minusDays(3);
+    private final List<Reservation> saved = new ArrayList<>();
+
+    private Space busy;
+    private Space quiet;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        busy = space("Cancha");
+        quiet = space("Salón");
+        space("Sin reservas");
+
+        OffsetDateTime monday = now.with(java.time.DayOfWeek.MONDAY).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        reservation(busy, "CONFIRMED", "100.00", now, monday);
+        reservation(busy, "COMPLETED", "50.50", now, monday.plusHours(1));
+        reservation(busy, "PENDING", "999.00", now, monday);
+        reservation(busy, "CANCELLED", "10.00", lastMonth, monday.plusDays(4));
+        reservation(quiet, "CONFIRMED", "40.00", lastMonth, monday.plusDays(4).withHour(18));
+        reservation(quiet, "COMPLETED", null, lastMonth, monday.plusDays(4).withHour(18));
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testDashboard_MatchesRowsWithOneStatementPerSection() {
+        SimpleDashboardDTO dashboard = metricsService.getSimpleDashboard();
+
+        // estados + espacios + usuarios + ingresos + top + creadas + día + hora
+        assertEquals(8, statistics.getPrepareStatementCount());
+
+        assertEquals(6, dashboard.getGeneralMetrics().getTotalReservations());
+        assertEquals(3, dashboard.getGeneralMetrics().getActiveReservations());
+        assertEquals(2L, dashboard.getReservationsByStatus().get("CONFIRMED"));
+        assertEquals(1L, dashboard.getReservationsByStatus().get("CANCELLED"));
+
+        assertEquals(150.50, dashboard.getRevenueMetrics().getCurrentMonthRevenue(), 0.001);
+        assertEquals(40.00, dashboard.getRevenueMetrics().getLastMonthRevenue(), 0.001);
+
+        List<TopSpaceDTO> top = dashboard.getTopSpaces();
+        assertEquals(3, top.size());
+        assertEquals("Cancha", top.get(0).getSpaceName());
+        assertEquals(4, top.get(0).getReservationCount());
+        assertEquals(150.50, top.get(0).getTotalRevenue(), 0.001);
+        assertEquals("Salón", top.get(1).getSpaceName());
+        assertEquals(40.00, top.get(1).getTotalRevenue(), 0.001);
+        // El espacio sin reservas completa el top en cero
+        assertEquals("Sin reservas", top.get(2).getSpaceName());
+        assertEquals(0, top.get(2).getReservationCount());
+        assertEquals(0.0, top.get(2).getTotalRevenue(), 0.001);
+    }
+
+    @Test
+    void testTemporalMetrics_MatchJavaGrouping() {
+        TemporalMetricsDTO temporal = metricsService.getSimpleDashboard().getTemporalMetrics();
+
+        OffsetDateTime todayStart = now.toLocalDate().atStartOfDay(ZoneId.systemDefault()).toOffsetDateTime();
+        assertEquals(countCreatedSince(todayStart), temporal.getReservationsToday());
+        assertEquals(countCreatedSince(now.minusDays(7)), temporal.getReservationsThisWeek());
+        assertEquals(countCreatedSince(now.minusDays(30)), temporal.getReservationsThisMonth());
+
+        assertEquals(3L, temporal.getReservationsByDayOfWeek().get("MONDAY"));
+        assertEquals(3L, temporal.getReservationsByDayOfWeek().get("FRIDAY"));
+        assertEquals(3L, temporal.getReservationsByHour().get(9));
+        assertEquals(2L, temporal.getReservationsByHour().get(18));
+        assertEquals(1L, temporal.getReservationsByHour().get(10));
+    }
+
+    private long countCreatedSince(OffsetDateTime from) {
+        return saved.stream().filter(r -> !r.getCreatedAt().isBefore(from)).count();
+    }
+
+    private Space space(String name) {
+        Space space = new Space();
+        space.setSpaceId(UUID.randomUUID());
+        space.setName(name);
+        space.setSpaceTypeId((short) 1);
+        space.setCapacity(10);
+        space.setLocation("Centro");
+        space.setActive(true);
+        space.setCreatedAt(now);
+        space.setUpdatedAt(now);
+        return spaceRepository.save(space);
+    }
+
+    private void reservation(Space space, String status, String amount, OffsetDateTime createdAt,
+                             OffsetDateTime startsAt) {
+        Reservation reservation = new Reservation();
+        reservation.setReservationId(UUID.randomUUID());
+        reservation.setSpaceId(space.getSpaceId());
+        reservation.setUserId(UUID.randomUUID());
+        reservation.setStartsAt(startsAt);
+        reservation.setEndsAt(startsAt.plusHours(1));
+        reservation.setStatus(status);
+        reservation.setTotalAmount(amount == null ? null : new BigDecimal(amount));
+        reservation.setCurrency("CRC");
+        reservation.setCreatedAt(createdAt);
+        reservation.setUpdatedAt(createdAt);
+        saved.add(reservationRepository.save(reservation));
+    }
+}
@@ -1,17 +1,39 @@
 package cr.una.reservas_municipales.service;
 
 import cr.una.reservas_municipales.dto.*;
+import cr.una.reservas_municipales.exception.BusinessException;
 import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.repository.ReservationDailyStatRepository;
 import cr.una.reservas_municipales.repository.ReservationRepository;
 import cr.una.reservas_municipales.repository.SpaceRepository;
 import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.repository.projection.BucketCount;
+import cr.una.reservas_municipales.repository.projection.CreatedCounts;
+import cr.una.reservas_municipales.repository.projection.DailyRollup;
+import cr.una.reservas_municipales.repository.projection.RevenueTotals;
+import cr.una.reservas_municipales.repository.projection.RollupTotals;
+import cr.una.reservas_municipales.repository.projection.SpaceRollup;
+import cr.una.reservas_municipales.repository.projection.SpaceUsageRow;
+import cr.una.reservas_municipales.repository.projection.StatusCount;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
- 
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -29,6 +51,12 @@ class MetricsServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private MetricsAggregator metricsAggregator;
+
+    @Mock
+    private ReservationDailyStatRepository dailyStatRepository;
+
     @InjectMocks
     private MetricsService metricsService;
 
@@ -39,43 +67,27 @@ class MetricsServiceTest {
     @BeforeEach
     void setUp() {
         spaceA = new Space();
-        spaceA.setSpaceId(java.util.UUID.randomUUID());
+        spaceA.setSpaceId(UUID.randomUUID());
         spaceA.setName("Cancha");
 
         spaceB = new Space();
-        spaceB.setSpaceId(java.util.UUID.randomUUID());
+        spaceB.setSpaceId(UUID.randomUUID());
         spaceB.setName("Gimnasio");
 
         spaceC = new Space();
-        spaceC.setSpaceId(java.util.UUID.randomUUID());
+        spaceC.setSpaceId(UUID.randomUUID());
         spaceC.setName("Auditorio");
     }
 
     @Test
     void testGetSimpleDashboard_Success() {
         // Arrange
-        when(reservationRepository.count()).thenReturn(100L);
+        when(reservationRepository.countGroupedByStatus()).thenReturn(List.of(
+                new StatusCount("CONFIRMED", 10L), new StatusCount("PENDING", 5L),
+                new StatusCount("CANCELLED", 2L), new StatusCount("COMPLETED", 1L)));
         when(spaceRepository.count()).thenReturn(20L);
         when(userRepository.count()).thenReturn(50L);
-        when(reservationRepository.countByStatusIn(anyList())).thenReturn(75L);
-
-        // By status (needed to avoid NPEs deeper)
-        when(reservationRepository.countByStatus("CONFIRMED")).thenReturn(10L);
-        when(reservationRepository.countByStatus("PENDING")).thenReturn(5L);
-        when(reservationRepository.countByStatus("CANCELLED")).thenReturn(2L);
-        when(reservationRepository.countByStatus("COMPLETED")).thenReturn(1L);
-
-        // Revenue
-        when(reservationRepository.findByCreatedAtBetween(any(), any()))
-                .thenReturn(java.util.List.of())
-                .thenReturn(java.util.List.of());
-
-        // Top spaces
-        when(spaceRepository.findAll()).thenReturn(java.util.List.of());
-
-        // Temporal metrics
-        when(reservationRepository.countByCreatedAtGreaterThanEqual(any())).thenReturn(0L, 0L, 0L);
-        when(reservationRepository.findByStartsAtBetween(any(), any())).thenReturn(java.util.List.of());
+        stubEmptyRevenueTopAndTemporal();
 
         // Act
         SimpleDashboardDTO result = metricsService.getSimpleDashboard();
@@ -83,7 +95,9 @@ class MetricsServiceTest {
         // Assert
         assertNotNull(result);
         assertNotNull(result.getGeneralMetrics());
-        verify(reservationRepository, atLeastOnce()).count();
+        assertEquals(18L, result.getGeneralMetrics().getTotalReservations());
+        assertEquals(15L, result.getGeneralMetrics().getActiveReservations());
+        verify(reservationRepository, times(1)).countGroupedByStatus();
         verify(spaceRepository, atLeastOnce()).count();
         verify(userRepository, atLeastOnce()).count();
     }
@@ -91,91 +105,119 @@ class MetricsServiceTest {
     @Test
     void testGetSimpleDashboard_EmptyData() {
         // Arrange
-        when(reservationRepository.count()).thenReturn(0L);
+        when(reservationRepository.countGroupedByStatus()).thenReturn(List.of());
         when(spaceRepository.count()).thenReturn(0L);
         when(userRepository.count()).thenReturn(0L);
-        when(reservationRepository.countByStatusIn(anyList())).thenReturn(0L);
-
-    when(reservationRepository.countByStatus(anyString())).thenReturn(0L);
-    when(reservationRepository.findByCreatedAtBetween(any(), any()))
-        .thenReturn(java.util.List.of())
-        .thenReturn(java.util.List.of());
-    when(spaceRepository.findAll()).thenReturn(java.util.List.of());
-    when(reservationRepository.countByCreatedAtGreaterThanEqual(any())).thenReturn(0L, 0L, 0L);
-    when(reservationRepository.findByStartsAtBetween(any(), any())).thenReturn(java.util.List.of());
+        stubEmptyRevenueTopAndTemporal();
 
         // Act
         SimpleDashboardDTO result = metricsService.getSimpleDashboard();
 
         // Assert
         assertNotNull(result);
-        assertNotNull(result.getGeneralMetrics());
+        assertEquals(0L, result.getGeneralMetrics().getTotalReservations());
+        assertEquals(0L, result.getReservationsByStatus().get("COMPLETED"));
+        assertEquals(0.0, result.getRevenueMetrics().getPercentageChange());
+        assertEquals("N/A", result.getTemporalMetrics().getMostPopularDay());
+        assertEquals(0, result.getTemporalMetrics().getMostPopularHour());
+    }
+
+    @Test
+    void testGetSimpleDashboard_UsesAggregatorWhenReady() {
+        java.time.YearMonth currentMonth = java.time.YearMonth.now();
+        when(metricsAggregator.isReady()).thenReturn(true);
+        when(metricsAggregator.totalReservations()).thenReturn(40L);
+        when(metricsAggregator.activeReservations()).thenReturn(15L);
+        when(metricsAggregator.countByStatus(anyString())).thenAnswer(inv -> switch ((String) inv.getArgument(0)) {
+            case "CONFIRMED" -> 10L;
+            case "PENDING" -> 5L;
+            case "CANCELLED" -> 20L;
+            default -> 5L;
+        });
+        when(metricsAggregator.revenueCents(any())).thenAnswer(inv ->
+                currentMonth.equals(inv.getArgument(0)) ? 150_050L : 100_000L);
+        when(metricsAggregator.topSpaces(5)).thenReturn(List.of(
+                new MetricsAggregator.SpaceTotals(spaceB.getSpaceId(), 7, 2_500L),
+                new MetricsAggregator.SpaceTotals(spaceA.getSpaceId(), 3, 0L)));
+        when(spaceRepository.findAllById(anyList())).thenReturn(List.of(spaceA, spaceB));
+        Space idle = new Space();
+        idle.setSpaceId(UUID.randomUUID());
+        idle.setName("Salón");
+        when(spaceRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(List.of(spaceA, idle, spaceB)));
+        when(spaceRepository.count()).thenReturn(3L);
+        when(userRepository.count()).thenReturn(9L);
+        when(reservationRepository.countCreatedSince(any(), any(), any())).thenReturn(new CreatedCounts(0L, 0L, 0L));
+        when(reservationRepository.countByStartDayOfWeek(any(), any())).thenReturn(List.of());
+        when(reservationRepository.countByStartHour(any(), any())).thenReturn(List.of());
+
+        SimpleDashboardDTO result = metricsService.getSimpleDashboard();
+
+        assertEquals(40L, result.getGeneralMetrics().getTotalReservations());
+        assertEquals(15L, result.getGeneralMetrics().getActiveReservations());
+        assertEquals(20L, result.getReservationsByStatus().get("CANCELLED"));
+        assertEquals(1500.50, result.getRevenueMetrics().getCurrentMonthRevenue());
+        assertEquals(1000.0, result.getRevenueMetrics().getLastMonthRevenue());
+        assertEquals(50.05, result.getRevenueMetrics().getPercentageChange());
+        // Los espacios sin reservas completan el top en cero
+        assertEquals(3, result.getTopSpaces().size());
+        assertEquals("Gimnasio", result.getTopSpaces().get(0).getSpaceName());
+        assertEquals(25.0, result.getTopSpaces().get(0).getTotalRevenue());
+        assertEquals("Salón", result.getTopSpaces().get(2).getSpaceName());
+        assertEquals(0L, result.getTopSpaces().get(2).getReservationCount());
+        // Sin consultas de agregados para las secciones que cubre el agregador
+        verify(reservationRepository, never()).countGroupedByStatus();
+        verify(reservationRepository, never()).sumRevenueByMonth(any(), any(), any());
+        verify(reservationRepository, never()).findTopSpacesByReservationCount(any());
+        verify(spaceRepository, never()).findAll();
     }
 
     // ===== Additional comprehensive tests to hit all lines/branches =====
 
     @Test
     void testGetSimpleDashboard_AggregatesAllSections_Comprehensive() {
-    // General metrics
-    when(reservationRepository.count()).thenReturn(100L);
+    // General metrics y distribución por estado
+    when(reservationRepository.countGroupedByStatus()).thenReturn(List.of(
+        new StatusCount("CONFIRMED", 40L), new StatusCount("PENDING", 20L),
+        new StatusCount("CANCELLED", 25L), new StatusCount("COMPLETED", 15L)));
     when(spaceRepository.count()).thenReturn(10L);
     when(userRepository.count()).thenReturn(50L);
-    when(reservationRepository.countByStatusIn(anyList())).thenReturn(60L);
-
-    // By status
-    when(reservationRepository.countByStatus("CONFIRMED")).thenReturn(40L);
-    when(reservationRepository.countByStatus("PENDING")).thenReturn(20L);
-    when(reservationRepository.countByStatus("CANCELLED")).thenReturn(25L);
-    when(reservationRepository.countByStatus("COMPLETED")).thenReturn(15L);
-
-    // Revenue (two calls current/last)
-    java.util.List<cr.una.reservas_municipales.model.Reservation> current = java.util.List.of(
-        resWithAmount("CONFIRMED", 100),
-        resWithAmount("COMPLETED", 50),
-        resWithAmount("PENDING", 999)
-    );
-    java.util.List<cr.una.reservas_municipales.model.Reservation> last = java.util.List.of(
-        resWithAmount("CONFIRMED", 50),
-        resWithAmount("COMPLETED", 50)
-    );
-    when(reservationRepository.findByCreatedAtBetween(any(), any()))
-        .thenReturn(current)
-        .thenReturn(last);
+
+    // Revenue
+    when(reservationRepository.sumRevenueByMonth(any(), any(), any()))
+        .thenReturn(new RevenueTotals(new BigDecimal("150"), new BigDecimal("100")));
 
     // Top spaces
-    when(spaceRepository.findAll()).thenReturn(java.util.List.of(spaceA, spaceB));
-    when(reservationRepository.findBySpaceId(spaceA.getSpaceId())).thenReturn(
-        java.util.List.of(resWithAmount("CONFIRMED", 100), resWithAmount("CANCELLED", 10))
-    );
-    when(reservationRepository.findBySpaceId(spaceB.getSpaceId())).thenReturn(
-        java.util.List.of(resWithAmount("COMPLETED", 70))
-    );
+    when(reservationRepository.findTopSpacesByReservationCount(any())).thenReturn(List.of(
+        new SpaceUsageRow(spaceA.getSpaceId(), spaceA.getName(), 2L, new BigDecimal("100")),
+        new SpaceUsageRow(spaceB.getSpaceId(), spaceB.getName(), 1L, new BigDecimal("70"))));
 
     // Temporal metrics
-    when(reservationRepository.countByCreatedAtGreaterThanEqual(any())).thenReturn(5L, 20L, 80L);
-    java.time.OffsetDateTime now = java.time.OffsetDateTime.now();
-    cr.una.reservas_municipales.model.Reservation r1 = new cr.una.reservas_municipales.model.Reservation(); r1.setStartsAt(now.with(java.time.DayOfWeek.MONDAY));
-    cr.una.reservas_municipales.model.Reservation r2 = new cr.una.reservas_municipales.model.Reservation(); r2.setStartsAt(now.with(java.time.DayOfWeek.MONDAY).withHour(10));
-    cr.una.reservas_municipales.model.Reservation r3 = new cr.una.reservas_municipales.model.Reservation(); r3.setStartsAt(now.with(java.time.DayOfWeek.FRIDAY).withHour(10));
-    when(reservationRepository.findByStartsAtBetween(any(), any())).thenReturn(java.util.List.of(r1, r2, r3));
+    when(reservationRepository.countCreatedSince(any(), any(), any())).thenReturn(new CreatedCounts(5L, 20L, 80L));
+    when(reservationRepository.countByStartDayOfWeek(any(), any())).thenReturn(List.of(
+        new BucketCount(2, 2L), new BucketCount(6, 1L)));
+    when(reservationRepository.countByStartHour(any(), any())).thenReturn(List.of(
+        new BucketCount(10, 2L), new BucketCount(8, 1L)));
 
     SimpleDashboardDTO dto = metricsService.getSimpleDashboard();
     assertNotNull(dto);
+    assertEquals(100L, dto.getGeneralMetrics().getTotalReservations());
+    assertEquals(60L, dto.getGeneralMetrics().getActiveReservations());
+    assertEquals(25L, dto.getReservationsByStatus().get("CANCELLED"));
     assertEquals(150.0, dto.getRevenueMetrics().getCurrentMonthRevenue());
     assertEquals(100.0, dto.getRevenueMetrics().getLastMonthRevenue());
     assertEquals(50.0, dto.getRevenueMetrics().getPercentageChange());
     assertEquals(2, dto.getTopSpaces().size());
+    assertEquals(80L, dto.getTemporalMetrics().getReservationsThisMonth());
+    assertEquals("MONDAY", dto.getTemporalMetrics().getMostPopularDay());
+    assertEquals(10, dto.getTemporalMetrics().getMostPopularHour());
     }
 
     @Test
     void testCalculateRevenueMetrics_LastRevenueZero_CurrentPositive_Percentage100() {
-    java.util.List<cr.una.reservas_municipales.model.Reservation> current = java.util.List.of(resWithAmount("CONFIRMED", 80));
-    java.util.List<cr.una.reservas_municipales.model.Reservation> last = java.util.List.of();
-    when(reservationRepository.findByCreatedAtBetween(any(), any()))
-        .thenReturn(current)
-        .thenReturn(last);
+    when(reservationRepository.sumRevenueByMonth(any(), any(), any()))
+        .thenReturn(new RevenueTotals(new BigDecimal("80"), null));
 
-    RevenueMetricsDTO metrics = org.springframework.test.util.ReflectionTestUtils.invokeMethod(metricsService, "calculateRevenueMetrics");
+    RevenueMetricsDTO metrics = ReflectionTestUtils.invokeMethod(metricsService, "calculateRevenueMetrics");
     assertNotNull(metrics);
     assertEquals(80.0, metrics.getCurrentMonthRevenue());
     assertEquals(0.0, metrics.getLastMonthRevenue());
@@ -184,15 +226,10 @@ class MetricsServiceTest {
 
     @Test
     void testCalculateRevenueMetrics_LastRevenuePositive_RoundedPercentage() {
-    java.util.List<cr.una.reservas_municipales.model.Reservation> current = java.util.List.of(
-        resWithAmount("CONFIRMED", 33), resWithAmount("COMPLETED", 34)
-    );
-    java.util.List<cr.una.reservas_municipales.model.Reservation> last = java.util.List.of(resWithAmount("CONFIRMED", 50));
-    when(reservationRepository.findByCreatedAtBetween(any(), any()))
-        .thenReturn(current)
-        .thenReturn(last);
-
-    RevenueMetricsDTO metrics = org.springframework.test.util.ReflectionTestUtils.invokeMethod(metricsService, "calculateRevenueMetrics");
+    when(reservationRepository.sumRevenueByMonth(any(), any(), any()))
+        .thenReturn(new RevenueTotals(new BigDecimal("67"), new BigDecimal("50")));
+
+    RevenueMetricsDTO metrics = ReflectionTestUtils.invokeMethod(metricsService, "calculateRevenueMetrics");
     assertNotNull(metrics);
     assertEquals(67.0, metrics.getCurrentMonthRevenue());
     assertEquals(50.0, metrics.getLastMonthRevenue());
@@ -200,83 +237,62 @@ class MetricsServiceTest {
     }
 
     @Test
-    void testCalculateRevenueMetrics_FiltersOnlyConfirmedAndCompleted() {
-        // Arrange: include mixed statuses with large amounts for PENDING/CANCELLED to ensure exclusion
-        java.util.List<cr.una.reservas_municipales.model.Reservation> current = java.util.List.of(
-            resWithAmount("CONFIRMED", 10),
-            resWithAmount("COMPLETED", 20),
-            resWithAmount("PENDING", 1000),
-            resWithAmount("CANCELLED", 2000)
-        );
-        java.util.List<cr.una.reservas_municipales.model.Reservation> last = java.util.List.of(
-            resWithAmount("CONFIRMED", 5),
-            resWithAmount("COMPLETED", 5),
-            resWithAmount("PENDING", 500),
-            resWithAmount("CANCELLED", 500)
-        );
-
-        when(reservationRepository.findByCreatedAtBetween(any(), any()))
-            .thenReturn(current)
-            .thenReturn(last);
-
-        // Act
-        RevenueMetricsDTO metrics = org.springframework.test.util.ReflectionTestUtils
-            .invokeMethod(metricsService, "calculateRevenueMetrics");
-
-        // Assert: only CONFIRMED + COMPLETED are summed
-        assertNotNull(metrics);
-        assertEquals(30.0, metrics.getCurrentMonthRevenue()); // 10 + 20
-        assertEquals(10.0, metrics.getLastMonthRevenue());    // 5 + 5
-        assertEquals(200.0, metrics.getPercentageChange());   // ((30-10)/10)*100 = 200
+    void testCalculateRevenueMetrics_QueriesContiguousMonths() {
+    when(reservationRepository.sumRevenueByMonth(any(), any(), any())).thenReturn(new RevenueTotals(null, null));
+
+    ReflectionTestUtils.invokeMethod(metricsService, "calculateRevenueMetrics");
+
+    ArgumentCaptor<OffsetDateTime> previous = ArgumentCaptor.forClass(OffsetDateTime.class);
+    ArgumentCaptor<OffsetDateTime> current = ArgumentCaptor.forClass(OffsetDateTime.class);
+    ArgumentCaptor<OffsetDateTime> next = ArgumentCaptor.forClass(OffsetDateTime.class);
+    verify(reservationRepository).sumRevenueByMonth(previous.capture(), current.capture(), next.capture());
+    assertEquals(1, current.getValue().getDayOfMonth());
+    assertEquals(0, current.getValue().getHour());
+    assertEquals(current.getValue().minusMonths(1), previous.getValue());
+    assertEquals(current.getValue().plusMonths(1), next.getValue());
     }
 
     @Test
-    void testCalculateTopSpaces_SortsAndLimits() {
-    when(spaceRepository.findAll()).thenReturn(java.util.List.of(spaceA, spaceB, spaceC));
-    when(reservationRepository.findBySpaceId(spaceA.getSpaceId())).thenReturn(
-        java.util.List.of(resWithAmount("CONFIRMED", 10), resWithAmount("COMPLETED", 10))
-    );
-    when(reservationRepository.findBySpaceId(spaceB.getSpaceId())).thenReturn(
-        java.util.List.of(resWithAmount("CONFIRMED", 5))
-    );
-    when(reservationRepository.findBySpaceId(spaceC.getSpaceId())).thenReturn(
-        java.util.List.of(resWithAmount("CONFIRMED", 1), resWithAmount("COMPLETED", 1), resWithAmount("CANCELLED", 100))
-    );
-
-    java.util.List<TopSpaceDTO> top2 = org.springframework.test.util.ReflectionTestUtils.invokeMethod(metricsService, "calculateTopSpaces", 2);
+    void testCalculateTopSpaces_MapsRowsAndLimits() {
+    when(reservationRepository.findTopSpacesByReservationCount(any())).thenReturn(List.of(
+        new SpaceUsageRow(spaceC.getSpaceId(), spaceC.getName(), 3L, new BigDecimal("2")),
+        new SpaceUsageRow(spaceA.getSpaceId(), spaceA.getName(), 2L, null)));
+
+    List<TopSpaceDTO> top2 = ReflectionTestUtils.invokeMethod(metricsService, "calculateTopSpaces", 2);
     assertNotNull(top2);
     assertEquals(2, top2.size());
     assertEquals(spaceC.getName(), top2.get(0).getSpaceName());
     assertEquals(3, top2.get(0).getReservationCount());
-    assertEquals(spaceA.getName(), top2.get(1).getSpaceName());
-    assertEquals(2, top2.get(1).getReservationCount());
     assertEquals(2.0, top2.get(0).getTotalRevenue());
-    assertEquals(20.0, top2.get(1).getTotalRevenue());
+    assertEquals(spaceA.getName(), top2.get(1).getSpaceName());
+    assertEquals(0.0, top2.get(1).getTotalRevenue());
+
+    ArgumentCaptor<Pageable> page = ArgumentCaptor.forClass(Pageable.class);
+    verify(reservationRepository).findTopSpacesByReservationCount(page.capture());
+    assertEquals(0, page.getValue().getPageNumber());
+    assertEquals(2, page.getValue().getPageSize());
     }
 
     @Test
     void testCalculateReservationsByStatus_ReturnsMap() {
-    when(reservationRepository.countByStatus("CONFIRMED")).thenReturn(1L);
-    when(reservationRepository.countByStatus("PENDING")).thenReturn(2L);
-    when(reservationRepository.countByStatus("CANCELLED")).thenReturn(3L);
-    when(reservationRepository.countByStatus("COMPLETED")).thenReturn(4L);
+    Map<String, Long> counts = Map.of("CONFIRMED", 1L, "PENDING", 2L, "CANCELLED", 3L, "OTHER", 9L);
 
-    java.util.Map<String, Long> map = org.springframework.test.util.ReflectionTestUtils.invokeMethod(metricsService, "calculateReservationsByStatus");
+    Map<String, Long> map = ReflectionTestUtils.invokeMethod(metricsService, "calculateReservationsByStatus", counts);
     assertNotNull(map);
+    assertEquals(4, map.size());
     assertEquals(1L, map.get("CONFIRMED"));
     assertEquals(2L, map.get("PENDING"));
     assertEquals(3L, map.get("CANCELLED"));
-    assertEquals(4L, map.get("COMPLETED"));
+    assertEquals(0L, map.get("COMPLETED"));
     }
 
     @Test
     void testCalculateGeneralMetrics_ComputesActive() {
-    when(reservationRepository.count()).thenReturn(200L);
     when(spaceRepository.count()).thenReturn(20L);
     when(userRepository.count()).thenReturn(100L);
-    when(reservationRepository.countByStatusIn(anyList())).thenReturn(70L);
+    Map<String, Long> counts = Map.of("CONFIRMED", 50L, "PENDING", 20L, "CANCELLED", 100L, "COMPLETED", 30L);
 
-    GeneralMetricsDTO dto = org.springframework.test.util.ReflectionTestUtils.invokeMethod(metricsService, "calculateGeneralMetrics");
+    GeneralMetricsDTO dto = ReflectionTestUtils.invokeMethod(metricsService, "calculateGeneralMetrics", counts);
     assertNotNull(dto);
     assertEquals(200L, dto.getTotalReservations());
     assertEquals(20L, dto.getTotalSpaces());
@@ -286,42 +302,135 @@ class MetricsServiceTest {
 
     @Test
     void testCalculateTemporalMetrics_GroupsAndFindsPopular() {
-    when(reservationRepository.countByCreatedAtGreaterThanEqual(any())).thenReturn(3L, 7L, 30L);
-
-    java.time.OffsetDateTime mon8dt = java.time.OffsetDateTime.parse("2024-01-01T08:00:00Z"); // Tuesday actually; switch to known Monday date
-    java.time.OffsetDateTime mon9dt = java.time.OffsetDateTime.parse("2024-01-08T09:00:00Z"); // Monday
-    java.time.OffsetDateTime fri9dt = java.time.OffsetDateTime.parse("2024-01-05T09:00:00Z"); // Friday
-
-    cr.una.reservas_municipales.model.Reservation mon8 = new cr.una.reservas_municipales.model.Reservation(); mon8.setStartsAt(mon8dt);
-    cr.una.reservas_municipales.model.Reservation mon9 = new cr.una.reservas_municipales.model.Reservation(); mon9.setStartsAt(mon9dt);
-    cr.una.reservas_municipales.model.Reservation fri9 = new cr.una.reservas_municipales.model.Reservation(); fri9.setStartsAt(fri9dt);
-    cr.una.reservas_municipales.model.Reservation fri9b = new cr.una.reservas_municipales.model.Reservation(); fri9b.setStartsAt(fri9dt);
-    when(reservationRepository.findByStartsAtBetween(any(), any())).thenReturn(java.util.List.of(mon8, mon9, fri9, fri9b));
-
-    TemporalMetricsDTO tm = org.springframework.test.util.ReflectionTestUtils.invokeMethod(metricsService, "calculateTemporalMetrics");
+    when(reservationRepository.countCreatedSince(any(), any(), any())).thenReturn(new CreatedCounts(3L, 7L, 30L));
+    // 2 = lunes, 6 = viernes
+    when(reservationRepository.countByStartDayOfWeek(any(), any())).thenReturn(List.of(
+        new BucketCount(2, 2L), new BucketCount(6, 2L)));
+    when(reservationRepository.countByStartHour(any(), any())).thenReturn(List.of(
+        new BucketCount(8, 1L), new BucketCount(9, 3L)));
+
+    TemporalMetricsDTO tm = ReflectionTestUtils.invokeMethod(metricsService, "calculateTemporalMetrics");
     assertNotNull(tm);
     assertEquals(3L, tm.getReservationsToday());
     assertEquals(7L, tm.getReservationsThisWeek());
     assertEquals(30L, tm.getReservationsThisMonth());
     long totalByDay = tm.getReservationsByDayOfWeek().values().stream().mapToLong(Long::longValue).sum();
     assertEquals(4L, totalByDay);
-    long fri = tm.getReservationsByDayOfWeek().getOrDefault("FRIDAY", 0L);
-    long mon = tm.getReservationsByDayOfWeek().getOrDefault("MONDAY", 0L);
-    assertEquals(2L, fri);
-    assertEquals(2L, mon);
+    assertEquals(2L, tm.getReservationsByDayOfWeek().getOrDefault("FRIDAY", 0L));
+    assertEquals(2L, tm.getReservationsByDayOfWeek().getOrDefault("MONDAY", 0L));
     assertEquals(3L, tm.getReservationsByHour().get(9));
-    assertTrue(java.util.Set.of("FRIDAY","MONDAY").contains(tm.getMostPopularDay()));
+    assertTrue(Set.of("FRIDAY", "MONDAY").contains(tm.getMostPopularDay()));
     assertEquals(9, tm.getMostPopularHour());
     }
 
+    @Test
+    void testDayOfWeek_MapsSundayFirst() {
+    assertEquals(DayOfWeek.SUNDAY, MetricsService.dayOfWeek(1));
+    assertEquals(DayOfWeek.MONDAY, MetricsService.dayOfWeek(2));
+    assertEquals(DayOfWeek.SATURDAY, MetricsService.dayOfWeek(7));
+    }
+
+    // ===== Métricas por rango desde los rollups diarios =====
+
+    @Test
+    void testGetRangeMetrics_SumsRollupsByStatus() {
+    LocalDate from = LocalDate.of(2023, 1, 1);
+    LocalDate to = LocalDate.of(2025, 12, 31);
+    when(dailyStatRepository.sumByStatus(from, to, null)).thenReturn(List.of(
+        new RollupTotals("CONFIRMED", 10L, 600L, 50_000L, 0L),
+        new RollupTotals("COMPLETED", 30L, 1800L, 150_050L, 28L),
+        new RollupTotals("CANCELLED", 5L, 300L, 99_900L, 0L),
+        new RollupTotals("PENDING", 2L, 120L, null, null)));
+    when(dailyStatRepository.findTopSpaces(eq(from), eq(to), any())).thenReturn(List.of(
+        new SpaceRollup(spaceA.getSpaceId(), spaceA.getName(), 40L, 200_050L)));
+    OffsetDateTime refreshed = OffsetDateTime.now();
+    when(dailyStatRepository.findLastRefresh()).thenReturn(refreshed);
+
+    RangeMetricsDTO range = metricsService.getRangeMetrics(from, to, null);
+
+    assertEquals(47L, range.getTotalReservations());
+    assertEquals(12L, range.getActiveReservations());
+    assertEquals(2820L, range.getTotalMinutes());
+    assertEquals(2000.50, range.getTotalRevenue(), 0.001);
+    assertEquals(28L, range.getAttendanceCount());
+    assertEquals(5L, range.getReservationsByStatus().get("CANCELLED"));
+    assertEquals(1, range.getTopSpaces().size());
+    assertEquals(2000.50, range.getTopSpaces().get(0).getTotalRevenue(), 0.001);
+    assertEquals(refreshed, range.getDataAsOf());
+    verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void testGetRangeMetrics_SingleSpaceSkipsTopSpaces() {
+    LocalDate day = LocalDate.of(2025, 3, 1);
+    when(dailyStatRepository.sumByStatus(day, day, spaceB.getSpaceId())).thenReturn(List.of());
+
+    RangeMetricsDTO range = metricsService.getRangeMetrics(day, day, spaceB.getSpaceId());
+
+    assertEquals(0L, range.getTotalReservations());
+    assertEquals(0L, range.getReservationsByStatus().get("CONFIRMED"));
+    assertTrue(range.getTopSpaces().isEmpty());
+    verify(dailyStatRepository, never()).findTopSpaces(any(), any(), any());
+    }
+
+    @Test
+    void testGetRangeMetrics_RejectsInvalidRanges() {
+    LocalDate day = LocalDate.of(2025, 3, 1);
+    assertThrows(BusinessException.class, () -> metricsService.getRangeMetrics(day, day.minusDays(1), null));
+    assertThrows(BusinessException.class, () -> metricsService.getRangeMetrics(null, day, null));
+    assertThrows(BusinessException.class, () -> metricsService.getRangeMetrics(day, day.plusYears(11), null));
+    verifyNoInteractions(dailyStatRepository);
+    }
+
+    @Test
+    void testGetRangeSeries_Daily() {
+    LocalDate from = LocalDate.of(2025, 1, 30);
+    LocalDate to = LocalDate.of(2025, 2, 2);
+    when(dailyStatRepository.sumByDay(from, to, null)).thenReturn(List.of(
+        new DailyRollup(LocalDate.of(2025, 1, 30), 3L, 180L, 10_000L, 2L),
+        new DailyRollup(LocalDate.of(2025, 2, 2), 1L, 60L, null, 0L)));
+
+    List<RangePointDTO> series = metricsService.getRangeSeries(from, to, null, "day");
+
+    assertEquals(2, series.size());
+    assertEquals(LocalDate.of(2025, 1, 30), series.get(0).getPeriodStart());
+    assertEquals(100.0, series.get(0).getRevenue(), 0.001);
+    assertEquals(0.0, series.get(1).getRevenue(), 0.001);
+    }
+
+    @Test
+    void testGetRangeSeries_MonthlyBucketsDays() {
+    LocalDate from = LocalDate.of(2025, 1, 1);
+    LocalDate to = LocalDate.of(2025, 2, 28);
+    when(dailyStatRepository.sumByDay(from, to, spaceA.getSpaceId())).thenReturn(List.of(
+        new DailyRollup(LocalDate.of(2025, 1, 3), 3L, 180L, 10_000L, 2L),
+        new DailyRollup(LocalDate.of(2025, 1, 20), 2L, 120L, 5_000L, 1L),
+        new DailyRollup(LocalDate.of(2025, 2, 14), 1L, 60L, 2_500L, 1L)));
+
+    List<RangePointDTO> series = metricsService.getRangeSeries(from, to, spaceA.getSpaceId(), "MONTH");
+
+    assertEquals(2, series.size());
+    assertEquals(LocalDate.of(2025, 1, 1), series.get(0).getPeriodStart());
+    assertEquals(5L, series.get(0).getReservations());
+    assertEquals(300L, series.get(0).getMinutes());
+    assertEquals(150.0, series.get(0).getRevenue(), 0.001);
+    assertEquals(3L, series.get(0).getAttendance());
+    assertEquals(LocalDate.of(2025, 2, 1), series.get(1).getPeriodStart());
+    }
+
+    @Test
+    void testGetRangeSeries_RejectsUnknownGranularity() {
+    LocalDate day = LocalDate.of(2025, 3, 1);
+    assertThrows(BusinessException.class, () -> metricsService.getRangeSeries(day, day, null, "WEEK"));
+    verifyNoInteractions(dailyStatRepository);
+    }
+
     // helper
-    private cr.una.reservas_municipales.model.Reservation resWithAmount(String status, double amount) {
-    cr.una.reservas_municipales.model.Reservation r = new cr.una.reservas_municipales.model.Reservation();
-    r.setStatus(status);
-    r.setTotalAmount(amount == 0 ? null : java.math.BigDecimal.valueOf(amount));
-    r.setCreatedAt(java.time.OffsetDateTime.now());
-    r.setStartsAt(java.time.OffsetDateTime.now());
-    r.setEndsAt(java.time.OffsetDateTime.now().plusHours(1));
-    return r;
+    private void stubEmptyRevenueTopAndTemporal() {
+    when(reservationRepository.sumRevenueByMonth(any(), any(), any())).thenReturn(new RevenueTotals(null, null));
+    when(reservationRepository.findTopSpacesByReservationCount(any())).thenReturn(List.of());
+    when(reservationRepository.countCreatedSince(any(), any(), any())).thenReturn(new CreatedCounts(0L, 0L, 0L));
+    when(reservationRepository.countByStartDayOfWeek(any(), any())).thenReturn(List.of());
+    when(reservationRepository.countByStartHour(any(), any())).thenReturn(List.of());
     }
 }
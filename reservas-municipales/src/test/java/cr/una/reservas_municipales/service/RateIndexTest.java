@@ -0,0 +1,111 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.model.SpaceRate;
+import cr.una.reservas_municipales.repository.SpaceRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RateIndexTest {
+
+    @Mock
+    private SpaceRateRepository rateRepository;
+
+    private RateIndex rateIndex;
+
+    private final UUID spaceId = UUID.randomUUID();
+    private final OffsetDateTime base = OffsetDateTime.of(2026, 3, 16, 8, 0, 0, 0, ZoneOffset.ofHours(-6));
+
+    @BeforeEach
+    void setUp() {
+        rateIndex = new RateIndex(rateRepository, 100, 10);
+    }
+
+    private SpaceRate hourly(UUID space, long id, String price) {
+        SpaceRate rate = new SpaceRate();
+        rate.setRateId(id);
+        rate.setSpaceId(space);
+        rate.setUnit("HOUR");
+        rate.setBlockMinutes(60);
+        rate.setPrice(new BigDecimal(price));
+        rate.setCurrency("CRC");
+        rate.setAppliesFrom(LocalDate.of(2026, 1, 1));
+        rate.setActive(true);
+        return rate;
+    }
+
+    @Test
+    void testQuoteCompilesOncePerSpace() {
+        when(rateRepository.findBySpaceIdAndActiveTrue(spaceId)).thenReturn(List.of(hourly(spaceId, 1, "5000")));
+
+        assertEquals(1_000_000L, rateIndex.quote(spaceId, base, base.plusHours(2)).orElseThrow().amountMinor());
+        assertEquals(500_000L, rateIndex.quote(spaceId, base, base.plusHours(1)).orElseThrow().amountMinor());
+
+        verify(rateRepository, times(1)).findBySpaceIdAndActiveTrue(spaceId);
+    }
+
+    @Test
+    void testQuoteEmptyWithoutRates() {
+        when(rateRepository.findBySpaceIdAndActiveTrue(spaceId)).thenReturn(List.of());
+
+        assertTrue(rateIndex.quote(spaceId, base, base.plusHours(1)).isEmpty());
+    }
+
+    @Test
+    void testPriceEmptyOnlyWithoutRates() {
+        when(rateRepository.findBySpaceIdAndActiveTrue(spaceId)).thenReturn(List.of());
+
+        assertTrue(rateIndex.price(spaceId, base, base.plusHours(1)).isEmpty());
+    }
+
+    @Test
+    void testPriceRejectsWindowNotCovered() {
+        SpaceRate rate = hourly(spaceId, 1, "5000");
+        rate.setAppliesTo(LocalDate.of(2026, 3, 16));
+        when(rateRepository.findBySpaceIdAndActiveTrue(spaceId)).thenReturn(List.of(rate));
+
+        assertEquals(500_000L, rateIndex.price(spaceId, base, base.plusHours(1)).orElseThrow().amountMinor());
+        // Termina el día siguiente, fuera de la vigencia de la tarifa
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> rateIndex.price(spaceId, base, base.plusDays(1)));
+        assertEquals(RateIndex.NOT_COVERED_MESSAGE, exception.getMessage());
+    }
+
+    @Test
+    void testTimelinesLoadMissingSpacesInOneQuery() {
+        UUID other = UUID.randomUUID();
+        UUID withoutRates = UUID.randomUUID();
+        when(rateRepository.findBySpaceIdAndActiveTrue(spaceId)).thenReturn(List.of(hourly(spaceId, 1, "5000")));
+        when(rateRepository.findBySpaceIdInAndActiveTrue(any())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            assertEquals(Set.of(other, withoutRates), Set.copyOf(ids));
+            return List.of(hourly(other, 2, "3000"));
+        });
+        rateIndex.quote(spaceId, base, base.plusHours(1));
+
+        Map<UUID, RateTimeline> timelines = rateIndex.timelines(Set.of(spaceId, other, withoutRates));
+
+        assertEquals(3, timelines.size());
+        assertEquals(300_000L, timelines.get(other).quote(base, base.plusHours(1)).amountMinor());
+        assertTrue(timelines.get(withoutRates).isEmpty());
+        verify(rateRepository, times(1)).findBySpaceIdInAndActiveTrue(any());
+    }
+}
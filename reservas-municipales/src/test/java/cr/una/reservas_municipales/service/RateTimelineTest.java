@@ -0,0 +1,154 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.SpaceRate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateTimelineTest {
+
+    private static final ZoneOffset CR = ZoneOffset.ofHours(-6);
+
+    private final UUID spaceId = UUID.randomUUID();
+
+    private SpaceRate rate(long id, String unit, String price, LocalDate from, LocalDate to) {
+        SpaceRate rate = new SpaceRate();
+        rate.setRateId(id);
+        rate.setSpaceId(spaceId);
+        rate.setName("Base");
+        rate.setUnit(unit);
+        rate.setBlockMinutes(60);
+        rate.setPrice(new BigDecimal(price));
+        rate.setCurrency("CRC");
+        rate.setAppliesFrom(from);
+        rate.setAppliesTo(to);
+        rate.setActive(true);
+        return rate;
+    }
+
+    private static OffsetDateTime at(int month, int day, int hour, int minute) {
+        return OffsetDateTime.of(2026, month, day, hour, minute, 0, 0, CR);
+    }
+
+    private static LocalDate date(int month, int day) {
+        return LocalDate.of(2026, month, day);
+    }
+
+    @Test
+    void testHourlyRateChargesStartedHours() {
+        RateTimeline timeline = RateTimeline.compile(List.of(rate(1, "HOUR", "5000.00", date(1, 1), null)));
+
+        RateTimeline.Quote quote = timeline.quote(at(3, 16, 8, 0), at(3, 16, 10, 30));
+
+        assertEquals(1_500_000L, quote.amountMinor());
+        assertEquals(new BigDecimal("15000.00"), quote.amount());
+        assertEquals(1L, quote.rateId());
+        assertEquals("CRC", quote.currency());
+        assertEquals(1_000_000L, timeline.quote(at(3, 16, 8, 0), at(3, 16, 10, 0)).amountMinor());
+    }
+
+    @Test
+    void testBlockRateChargesStartedBlocks() {
+        SpaceRate block = rate(1, "BLOCK", "3000.50", date(1, 1), null);
+        block.setBlockMinutes(90);
+        RateTimeline timeline = RateTimeline.compile(List.of(block));
+
+        assertEquals(600_100L, timeline.quote(at(3, 16, 8, 0), at(3, 16, 11, 0)).amountMinor());
+        assertEquals(900_150L, timeline.quote(at(3, 16, 8, 0), at(3, 16, 11, 1)).amountMinor());
+    }
+
+    @Test
+    void testDailyRateCountsCalendarDaysTouched() {
+        RateTimeline timeline = RateTimeline.compile(List.of(rate(1, "DAY", "20000", date(1, 1), null)));
+
+        assertEquals(2_000_000L, timeline.quote(at(3, 16, 22, 0), at(3, 16, 23, 0)).amountMinor());
+        // Terminar a medianoche no cobra el día siguiente
+        assertEquals(4_000_000L, timeline.quote(at(3, 16, 8, 0), at(3, 18, 0, 0)).amountMinor());
+        assertEquals(6_000_000L, timeline.quote(at(3, 16, 8, 0), at(3, 18, 0, 1)).amountMinor());
+    }
+
+    @Test
+    void testSeasonalRateOverridesBaseAndSplitsCrossingWindows() {
+        RateTimeline timeline = RateTimeline.compile(List.of(
+                rate(1, "HOUR", "5000", date(1, 1), null),
+                rate(2, "HOUR", "3000", date(3, 10), date(3, 20))));
+
+        assertEquals(2L, timeline.quote(at(3, 15, 8, 0), at(3, 15, 9, 0)).rateId());
+        assertEquals(300_000L, timeline.quote(at(3, 15, 8, 0), at(3, 15, 9, 0)).amountMinor());
+        assertEquals(500_000L, timeline.quote(at(3, 21, 8, 0), at(3, 21, 9, 0)).amountMinor());
+
+        // 2 h con la tarifa de temporada y 2 h con la base
+        RateTimeline.Quote crossing = timeline.quote(at(3, 20, 22, 0), at(3, 21, 2, 0));
+        assertEquals(2L, crossing.rateId());
+        assertEquals(1_600_000L, crossing.amountMinor());
+    }
+
+    @Test
+    void testDatesUseCostaRicaTime() {
+        RateTimeline timeline = RateTimeline.compile(List.of(
+                rate(1, "HOUR", "5000", date(1, 1), null),
+                rate(2, "HOUR", "3000", date(3, 21), null)));
+
+        // 03:00 UTC del 21 son las 21:00 del 20 en Costa Rica
+        OffsetDateTime startsAt = OffsetDateTime.of(2026, 3, 21, 3, 0, 0, 0, ZoneOffset.UTC);
+        assertEquals(1L, timeline.quote(startsAt, startsAt.plusHours(1)).rateId());
+    }
+
+    @Test
+    void testLatestAppliesFromThenHighestIdWins() {
+        RateTimeline timeline = RateTimeline.compile(List.of(
+                rate(5, "HOUR", "4000", date(3, 1), null),
+                rate(3, "HOUR", "1000", date(3, 1), null),
+                rate(9, "HOUR", "9000", date(2, 1), null)));
+
+        assertEquals(5L, timeline.quote(at(3, 16, 8, 0), at(3, 16, 9, 0)).rateId());
+        assertEquals(9L, timeline.quote(at(2, 16, 8, 0), at(2, 16, 9, 0)).rateId());
+    }
+
+    @Test
+    void testUncoveredWindowsHaveNoQuote() {
+        RateTimeline timeline = RateTimeline.compile(List.of(
+                rate(1, "HOUR", "5000", date(3, 1), date(3, 10)),
+                rate(2, "HOUR", "5000", date(3, 15), date(3, 31))));
+
+        assertNull(timeline.quote(at(2, 28, 8, 0), at(2, 28, 9, 0)));
+        assertNull(timeline.quote(at(3, 12, 8, 0), at(3, 12, 9, 0)));
+        assertNull(timeline.quote(at(3, 10, 23, 0), at(3, 11, 1, 0)));
+        assertNull(timeline.quote(at(4, 1, 8, 0), at(4, 1, 9, 0)));
+        assertNotNull(timeline.quote(at(3, 31, 8, 0), at(3, 31, 9, 0)));
+        assertNull(timeline.quote(at(3, 16, 9, 0), at(3, 16, 9, 0)));
+    }
+
+    @Test
+    void testMixedCurrenciesHaveNoQuote() {
+        SpaceRate dollars = rate(2, "HOUR", "10", date(3, 21), null);
+        dollars.setCurrency("USD");
+        RateTimeline timeline = RateTimeline.compile(List.of(rate(1, "HOUR", "5000", date(1, 1), null), dollars));
+
+        assertEquals("USD", timeline.quote(at(3, 22, 8, 0), at(3, 22, 9, 0)).currency());
+        assertNull(timeline.quote(at(3, 20, 23, 0), at(3, 21, 1, 0)));
+    }
+
+    @Test
+    void testUnusableRatesAreIgnored() {
+        SpaceRate inactive = rate(1, "HOUR", "5000", date(1, 1), null);
+        inactive.setActive(false);
+        SpaceRate noBlock = rate(2, "BLOCK", "5000", date(1, 1), null);
+        noBlock.setBlockMinutes(0);
+        SpaceRate unknown = rate(3, "WEEK", "5000", date(1, 1), null);
+        SpaceRate reversed = rate(4, "HOUR", "5000", date(3, 1), date(2, 1));
+
+        RateTimeline timeline = RateTimeline.compile(List.of(inactive, noBlock, unknown, reversed));
+
+        assertTrue(timeline.isEmpty());
+        assertSame(RateTimeline.EMPTY, RateTimeline.compile(List.of()));
+        assertNull(timeline.quote(at(3, 16, 8, 0), at(3, 16, 9, 0)));
+    }
+}
@@ -0,0 +1,82 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecurrenceRuleTest {
+
+    private static final ZoneId CR = ZoneId.of("America/Costa_Rica");
+
+    private OffsetDateTime at(int year, int month, int day, int hour) {
+        return LocalDateTime.of(year, month, day, hour, 0).atZone(CR).toOffsetDateTime();
+    }
+
+    @Test
+    void testWeekly_ByDayUntil_EveryTuesday() {
+        // 2026-11-03 es martes
+        List<OffsetDateTime> starts = RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=TU;UNTIL=20261201")
+                .expand(at(2026, 11, 3, 18), 200);
+
+        assertEquals(5, starts.size());
+        assertTrue(starts.stream().allMatch(s -> s.getDayOfWeek() == DayOfWeek.TUESDAY));
+        assertTrue(starts.stream().allMatch(s -> s.toLocalTime().equals(LocalTime.of(18, 0))));
+        assertEquals(LocalDate.of(2026, 12, 1), starts.get(4).toLocalDate());
+    }
+
+    @Test
+    void testWeekly_SeveralDays_SkipsDaysBeforeFirst() {
+        // Inicia un miércoles: el lunes de esa semana no cuenta
+        List<OffsetDateTime> starts = RecurrenceRule.parse("RRULE:FREQ=WEEKLY;BYDAY=MO,WE;COUNT=4")
+                .expand(at(2026, 11, 4, 9), 200);
+
+        assertEquals(List.of(
+                LocalDate.of(2026, 11, 4), LocalDate.of(2026, 11, 9),
+                LocalDate.of(2026, 11, 11), LocalDate.of(2026, 11, 16)),
+                starts.stream().map(OffsetDateTime::toLocalDate).toList());
+    }
+
+    @Test
+    void testDaily_WithInterval() {
+        List<OffsetDateTime> starts = RecurrenceRule.parse("FREQ=DAILY;INTERVAL=2;COUNT=3")
+                .expand(at(2026, 11, 1, 8), 200);
+
+        assertEquals(at(2026, 11, 5, 8), starts.get(2));
+    }
+
+    @Test
+    void testMonthly_SkipsMonthsWithoutDay() {
+        List<OffsetDateTime> starts = RecurrenceRule.parse("FREQ=MONTHLY;COUNT=3")
+                .expand(at(2027, 1, 31, 10), 200);
+
+        assertEquals(List.of(LocalDate.of(2027, 1, 31), LocalDate.of(2027, 3, 31), LocalDate.of(2027, 5, 31)),
+                starts.stream().map(OffsetDateTime::toLocalDate).toList());
+    }
+
+    @Test
+    void testExpand_RejectsTooManyOccurrences() {
+        RecurrenceRule rule = RecurrenceRule.parse("FREQ=DAILY;COUNT=500");
+
+        assertThrows(BusinessException.class, () -> rule.expand(at(2026, 11, 1, 8), 100));
+    }
+
+    @Test
+    void testParse_InvalidRules() {
+        assertThrows(BusinessException.class, () -> RecurrenceRule.parse(""));
+        assertThrows(BusinessException.class, () -> RecurrenceRule.parse("FREQ=YEARLY;COUNT=2"));
+        assertThrows(BusinessException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY"));
+        assertThrows(BusinessException.class, () -> RecurrenceRule.parse("FREQ=DAILY;BYDAY=MO;COUNT=2"));
+        assertThrows(BusinessException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;BYDAY=XX;COUNT=2"));
+        assertThrows(BusinessException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;COUNT=0"));
+        assertThrows(BusinessException.class, () -> RecurrenceRule.parse("FREQ=WEEKLY;UNTIL=2026"));
+    }
+}
@@ -1,23 +1,39 @@
 package cr.una.reservas_municipales.service;
 
-import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.User;
+import cr.una.reservas_municipales.notification.NotificationEvent;
+import cr.una.reservas_municipales.notification.NotificationSender;
+import cr.una.reservas_municipales.notification.NotificationType;
 import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.SpaceImageRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.time.OffsetDateTime;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,223 +42,274 @@ class ReservationAutoStatusServiceTest {
     @Mock
     private ReservationRepository reservationRepository;
 
-    @InjectMocks
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SpaceRepository spaceRepository;
+
+    @Mock
+    private SpaceImageRepository spaceImageRepository;
+
+    @Mock
+    private NotificationSender notificationSender;
+
     private ReservationAutoStatusService autoStatusService;
 
-    private Reservation expiredPendingReservation;
-    private Reservation futurePendingReservation;
-    private Reservation expiredConfirmedReservation;
+    private ReservationView expiredPending;
 
     @BeforeEach
     void setUp() {
-        // Reserva pendiente expirada (hace 1 hora)
-        expiredPendingReservation = new Reservation();
-        expiredPendingReservation.setReservationId(UUID.randomUUID());
-        expiredPendingReservation.setUserId(UUID.randomUUID());
-        expiredPendingReservation.setSpaceId(UUID.randomUUID());
-        expiredPendingReservation.setStartsAt(OffsetDateTime.now().minusHours(1));
-        expiredPendingReservation.setEndsAt(OffsetDateTime.now().plusHours(1));
-        expiredPendingReservation.setStatus("PENDING");
-        expiredPendingReservation.setTotalAmount(new BigDecimal("15000"));
-        expiredPendingReservation.setCurrency("CRC");
-        expiredPendingReservation.setCreatedAt(OffsetDateTime.now().minusDays(1));
-        expiredPendingReservation.setUpdatedAt(OffsetDateTime.now().minusDays(1));
-
-        // Reserva pendiente futura (en 2 horas)
-        futurePendingReservation = new Reservation();
-        futurePendingReservation.setReservationId(UUID.randomUUID());
-        futurePendingReservation.setUserId(UUID.randomUUID());
-        futurePendingReservation.setSpaceId(UUID.randomUUID());
-        futurePendingReservation.setStartsAt(OffsetDateTime.now().plusHours(2));
-        futurePendingReservation.setEndsAt(OffsetDateTime.now().plusHours(4));
-        futurePendingReservation.setStatus("PENDING");
-        futurePendingReservation.setTotalAmount(new BigDecimal("20000"));
-        futurePendingReservation.setCurrency("CRC");
-
-        // Reserva confirmada expirada (no debe cancelarse)
-        expiredConfirmedReservation = new Reservation();
-        expiredConfirmedReservation.setReservationId(UUID.randomUUID());
-        expiredConfirmedReservation.setUserId(UUID.randomUUID());
-        expiredConfirmedReservation.setSpaceId(UUID.randomUUID());
-        expiredConfirmedReservation.setStartsAt(OffsetDateTime.now().minusHours(1));
-        expiredConfirmedReservation.setEndsAt(OffsetDateTime.now().plusHours(1));
-        expiredConfirmedReservation.setStatus("CONFIRMED");
-        expiredConfirmedReservation.setTotalAmount(new BigDecimal("25000"));
-        expiredConfirmedReservation.setCurrency("CRC");
+        autoStatusService = service(500, true);
+        lenient().when(userRepository.findAllById(any())).thenReturn(List.of());
+        lenient().when(spaceRepository.findAll()).thenReturn(List.of());
+        // Pendiente que empezaba el lunes 3 de marzo de 2025 a las 09:00 en Costa Rica
+        expiredPending = view("PENDING",
+                LocalDateTime.of(2025, 3, 3, 9, 0).atZone(ReservationRules.COSTA_RICA_ZONE).toOffsetDateTime());
     }
 
     @Test
     void testAutoCancelExpiredPendingReservations_Success() {
-        // Arrange
-        List<Reservation> expiredReservations = Arrays.asList(expiredPendingReservation);
-        when(reservationRepository.findExpiredPendingReservations(any(OffsetDateTime.class)))
-                .thenReturn(expiredReservations);
-        when(reservationRepository.saveAll(anyList())).thenReturn(expiredReservations);
+        OffsetDateTime beforeRun = OffsetDateTime.now();
+        when(reservationRepository.findExpiredPendingViews(any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(expiredPending));
+        when(reservationRepository.cancelExpiredPending(anyList(), any(OffsetDateTime.class), anyString(),
+                anyBoolean(), anyString()))
+                .thenReturn(List.of(expiredPending.reservationId()));
 
-        // Act
         autoStatusService.autoCancelExpiredPendingReservations();
 
-        // Assert
-        verify(reservationRepository, times(1)).findExpiredPendingReservations(any(OffsetDateTime.class));
-        verify(reservationRepository, times(1)).saveAll(anyList());
-        assertEquals("CANCELLED", expiredPendingReservation.getStatus());
-        assertNotNull(expiredPendingReservation.getCancelReason());
-        assertTrue(expiredPendingReservation.getCancelReason().contains("Cancelada automáticamente"));
+        verify(reservationRepository).cancelExpiredPending(eq(List.of(expiredPending.reservationId())),
+                any(OffsetDateTime.class), eq("Cancelada automáticamente - No se confirmó antes de la hora de inicio"),
+                eq(true), eq("America/Costa_Rica"));
+        verify(availabilityIndex).untrack(expiredPending.reservationId());
+
+        ReservationChangedEvent event = publishedEvents(1).get(0);
+        assertSame(expiredPending, event.before());
+        assertEquals("CANCELLED", event.after().status());
+        // El motivo del evento coincide con el que arma el UPDATE: hora de inicio local
+        assertEquals("Cancelada automáticamente - No se confirmó antes de la hora de inicio (03/03/2025 09:00)",
+                event.after().cancelReason());
+        assertFalse(event.after().updatedAt().isBefore(beforeRun));
+    }
+
+    @Test
+    void testAutoCancelExpiredPendingReservations_EnqueuesCancellationEmails() {
+        User user = user(expiredPending.userId());
+        Space space = new Space();
+        space.setSpaceId(expiredPending.spaceId());
+        space.setName("Cancha");
+        space.setSpaceTypeId((short) 1);
+        space.setCapacity(10);
+        space.setActive(true);
+        when(spaceRepository.findAll()).thenReturn(List.of(space));
+        when(spaceImageRepository.findBySpaceIdInOrderByOrdAsc(any())).thenReturn(List.of());
+        when(userRepository.findAllById(Set.of(expiredPending.userId()))).thenReturn(List.of(user));
+        when(reservationRepository.findExpiredPendingViews(any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(expiredPending));
+        when(reservationRepository.cancelExpiredPending(anyList(), any(OffsetDateTime.class), anyString(),
+                anyBoolean(), anyString()))
+                .thenReturn(List.of(expiredPending.reservationId()));
+
+        autoStatusService.autoCancelExpiredPendingReservations();
+
+        List<NotificationEvent> notifications = sentNotifications();
+        assertEquals(1, notifications.size());
+        NotificationEvent notification = notifications.get(0);
+        assertEquals(NotificationType.RESERVATION_CANCELLED, notification.getType());
+        assertEquals(expiredPending.reservationId(), notification.getReservationId());
+        assertEquals("user@test.com", notification.getEmail());
+        assertEquals("Cancha", notification.getData().get("spaceName"));
+        assertTrue(notification.getData().get("reason").toString().endsWith("(03/03/2025 09:00)"));
     }
 
     @Test
     void testAutoCancelExpiredPendingReservations_NoExpiredReservations() {
-        // Arrange
-        when(reservationRepository.findExpiredPendingReservations(any(OffsetDateTime.class)))
+        when(reservationRepository.findExpiredPendingViews(any(OffsetDateTime.class), any(Pageable.class)))
                 .thenReturn(Collections.emptyList());
 
-        // Act
         autoStatusService.autoCancelExpiredPendingReservations();
 
-        // Assert
-        verify(reservationRepository, times(1)).findExpiredPendingReservations(any(OffsetDateTime.class));
-        verify(reservationRepository, never()).saveAll(anyList());
+        verify(reservationRepository, never()).cancelExpiredPending(anyList(), any(), anyString(), anyBoolean(), anyString());
+        verifyNoInteractions(eventPublisher, availabilityIndex);
+    }
+
+    @Test
+    void testAutoCancelExpiredPendingReservations_ProcessesBacklogInChunks() {
+        autoStatusService = service(2, true);
+        ReservationView second = view("PENDING", OffsetDateTime.now().minusHours(2));
+        ReservationView third = view("PENDING", OffsetDateTime.now().minusHours(1));
+        when(reservationRepository.findExpiredPendingViews(any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(expiredPending, second), List.of(third));
+        when(reservationRepository.cancelExpiredPending(anyList(), any(OffsetDateTime.class), anyString(),
+                anyBoolean(), anyString()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        autoStatusService.autoCancelExpiredPendingReservations();
+
+        ArgumentCaptor<Pageable> pages = ArgumentCaptor.forClass(Pageable.class);
+        verify(reservationRepository, times(2)).findExpiredPendingViews(any(OffsetDateTime.class), pages.capture());
+        // Cada lote sale del conjunto al cancelarse: siempre se pide la primera página
+        pages.getAllValues().forEach(page -> {
+            assertEquals(0, page.getPageNumber());
+            assertEquals(2, page.getPageSize());
+        });
+        verify(reservationRepository, times(2)).cancelExpiredPending(anyList(), any(OffsetDateTime.class),
+                anyString(), anyBoolean(), anyString());
+        verify(transactionManager, times(2)).commit(any());
+        assertEquals(3, publishedEvents(3).size());
+    }
+
+    @Test
+    void testAutoCancelExpiredPendingReservations_OnlyPublishesReturnedIds() {
+        // La segunda se confirmó entre la lectura y el UPDATE
+        ReservationView confirmedMeanwhile = view("PENDING", OffsetDateTime.now().minusHours(1));
+        when(reservationRepository.findExpiredPendingViews(any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(expiredPending, confirmedMeanwhile));
+        when(reservationRepository.cancelExpiredPending(anyList(), any(OffsetDateTime.class), anyString(),
+                anyBoolean(), anyString()))
+                .thenReturn(List.of(expiredPending.reservationId()));
+
+        autoStatusService.autoCancelExpiredPendingReservations();
+
+        assertEquals(expiredPending.reservationId(), publishedEvents(1).get(0).before().reservationId());
+        verify(availabilityIndex, never()).untrack(confirmedMeanwhile.reservationId());
     }
 
     @Test
-    void testAutoCancelExpiredPendingReservations_MultipleReservations() {
-        // Arrange
-        Reservation secondExpired = new Reservation();
-        secondExpired.setReservationId(UUID.randomUUID());
-        secondExpired.setUserId(UUID.randomUUID());
-        secondExpired.setSpaceId(UUID.randomUUID());
-        secondExpired.setStartsAt(OffsetDateTime.now().minusHours(2));
-        secondExpired.setEndsAt(OffsetDateTime.now());
-        secondExpired.setStatus("PENDING");
-        secondExpired.setCreatedAt(OffsetDateTime.now().minusDays(1));
-        secondExpired.setUpdatedAt(OffsetDateTime.now().minusDays(1));
-
-        List<Reservation> expiredReservations = Arrays.asList(expiredPendingReservation, secondExpired);
-        when(reservationRepository.findExpiredPendingReservations(any(OffsetDateTime.class)))
-                .thenReturn(expiredReservations);
-        when(reservationRepository.saveAll(anyList())).thenReturn(expiredReservations);
-
-        // Act
+    void testAutoCancelExpiredPendingReservations_StopsWhenFullChunkUpdatesNothing() {
+        autoStatusService = service(1, true);
+        when(reservationRepository.findExpiredPendingViews(any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(expiredPending));
+        when(reservationRepository.cancelExpiredPending(anyList(), any(OffsetDateTime.class), anyString(),
+                anyBoolean(), anyString()))
+                .thenReturn(List.of());
+
         autoStatusService.autoCancelExpiredPendingReservations();
 
-        // Assert
-        verify(reservationRepository, times(1)).saveAll(anyList());
-        assertEquals("CANCELLED", expiredPendingReservation.getStatus());
-        assertEquals("CANCELLED", secondExpired.getStatus());
+        verify(reservationRepository, times(1)).findExpiredPendingViews(any(OffsetDateTime.class), any(Pageable.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test
-    void testAutoCancelExpiredPendingReservations_SaveAllException() {
-        // Arrange
-        List<Reservation> expiredReservations = Arrays.asList(expiredPendingReservation);
-        when(reservationRepository.findExpiredPendingReservations(any(OffsetDateTime.class)))
-                .thenReturn(expiredReservations);
-        when(reservationRepository.saveAll(anyList())).thenThrow(new RuntimeException("Database error"));
-
-        // Act - No debe lanzar excepción, solo logear
+    void testAutoCancelExpiredPendingReservations_UpdateException() {
+        when(reservationRepository.findExpiredPendingViews(any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(expiredPending));
+        when(reservationRepository.cancelExpiredPending(anyList(), any(OffsetDateTime.class), anyString(),
+                anyBoolean(), anyString()))
+                .thenThrow(new RuntimeException("Database error"));
+
+        // No debe lanzar excepción, solo logear
         assertDoesNotThrow(() -> autoStatusService.autoCancelExpiredPendingReservations());
 
-        // Assert
-        verify(reservationRepository, times(1)).findExpiredPendingReservations(any(OffsetDateTime.class));
-        verify(reservationRepository, times(1)).saveAll(anyList());
+        verify(transactionManager).rollback(any());
+        verifyNoInteractions(eventPublisher, availabilityIndex);
     }
 
     @Test
     void testManualAutoCancelExpiredReservations_Success() {
-        // Arrange
-        List<Reservation> expiredReservations = Arrays.asList(expiredPendingReservation);
-        when(reservationRepository.findExpiredPendingReservations(any(OffsetDateTime.class)))
-                .thenReturn(expiredReservations);
-        when(reservationRepository.saveAll(anyList())).thenReturn(expiredReservations);
+        when(reservationRepository.findExpiredPendingViews(any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(expiredPending));
+        when(reservationRepository.cancelExpiredPending(anyList(), any(OffsetDateTime.class), anyString(),
+                anyBoolean(), anyString()))
+                .thenReturn(List.of(expiredPending.reservationId()));
 
-        // Act
         int result = autoStatusService.manualAutoCancelExpiredReservations();
 
-        // Assert
         assertEquals(1, result);
-        verify(reservationRepository, times(1)).findExpiredPendingReservations(any(OffsetDateTime.class));
-        verify(reservationRepository, times(1)).saveAll(anyList());
-        assertEquals("CANCELLED", expiredPendingReservation.getStatus());
-        assertTrue(expiredPendingReservation.getCancelReason().contains("manualmente por sistema"));
+        verify(reservationRepository).cancelExpiredPending(anyList(), any(OffsetDateTime.class),
+                eq("Cancelada manualmente por sistema - No confirmada antes de hora de inicio"), eq(false), anyString());
+        assertTrue(publishedEvents(1).get(0).after().cancelReason().contains("manualmente por sistema"));
     }
 
     @Test
     void testManualAutoCancelExpiredReservations_NoExpiredReservations() {
-        // Arrange
-        when(reservationRepository.findExpiredPendingReservations(any(OffsetDateTime.class)))
+        when(reservationRepository.findExpiredPendingViews(any(OffsetDateTime.class), any(Pageable.class)))
                 .thenReturn(Collections.emptyList());
 
-        // Act
         int result = autoStatusService.manualAutoCancelExpiredReservations();
 
-        // Assert
         assertEquals(0, result);
-        verify(reservationRepository, times(1)).findExpiredPendingReservations(any(OffsetDateTime.class));
-        verify(reservationRepository, never()).saveAll(anyList());
+        verify(reservationRepository, never()).cancelExpiredPending(anyList(), any(), anyString(), anyBoolean(), anyString());
     }
 
     @Test
-    void testAutoCancelExpiredPendingReservations_UpdatedAtIsSet() {
-        // Arrange
-        OffsetDateTime beforeUpdate = OffsetDateTime.now();
-        List<Reservation> expiredReservations = Arrays.asList(expiredPendingReservation);
-        when(reservationRepository.findExpiredPendingReservations(any(OffsetDateTime.class)))
-                .thenReturn(expiredReservations);
-        when(reservationRepository.saveAll(anyList())).thenReturn(expiredReservations);
-
-        // Act
-        autoStatusService.autoCancelExpiredPendingReservations();
-
-        // Assert
-        assertNotNull(expiredPendingReservation.getUpdatedAt());
-        assertTrue(expiredPendingReservation.getUpdatedAt().isAfter(beforeUpdate) || 
-                   expiredPendingReservation.getUpdatedAt().isEqual(beforeUpdate));
+    void testAutoCompleteFinishedReservations_Success() {
+        ReservationView finished = view("CONFIRMED", OffsetDateTime.now().minusHours(4));
+        when(userRepository.findAllById(Set.of(finished.userId()))).thenReturn(List.of(user(finished.userId())));
+        when(reservationRepository.findFinishedConfirmedViews(any(OffsetDateTime.class), any(Pageable.class)))
+                .thenReturn(List.of(finished));
+        when(reservationRepository.completeFinishedConfirmed(anyList(), any(OffsetDateTime.class), any(OffsetDateTime.class)))
+                .thenReturn(List.of(finished.reservationId()));
+
+        autoStatusService.autoCompleteFinishedReservations();
+
+        ArgumentCaptor<OffsetDateTime> endedBefore = ArgumentCaptor.forClass(OffsetDateTime.class);
+        ArgumentCaptor<OffsetDateTime> now = ArgumentCaptor.forClass(OffsetDateTime.class);
+        verify(reservationRepository).completeFinishedConfirmed(eq(List.of(finished.reservationId())),
+                endedBefore.capture(), now.capture());
+        // Margen de 60 minutos para validar el QR después del fin
+        assertEquals(now.getValue().minusMinutes(60), endedBefore.getValue());
+
+        ReservationChangedEvent event = publishedEvents(1).get(0);
+        assertEquals("CONFIRMED", event.before().status());
+        assertEquals("COMPLETED", event.after().status());
+        assertEquals(now.getValue(), event.after().updatedAt());
+        verify(availabilityIndex).untrack(finished.reservationId());
+
+        NotificationEvent notification = sentNotifications().get(0);
+        assertEquals(NotificationType.RESERVATION_STATUS_CHANGED, notification.getType());
+        assertEquals("COMPLETED", notification.getData().get("newStatus"));
+        assertEquals("user@test.com", notification.getEmail());
     }
 
     @Test
-    void testAutoCancelExpiredPendingReservations_CancelReasonContainsDate() {
-        // Arrange
-        List<Reservation> expiredReservations = Arrays.asList(expiredPendingReservation);
-        when(reservationRepository.findExpiredPendingReservations(any(OffsetDateTime.class)))
-                .thenReturn(expiredReservations);
-        when(reservationRepository.saveAll(anyList())).thenReturn(expiredReservations);
-
-        // Act
-        autoStatusService.autoCancelExpiredPendingReservations();
+    void testAutoCompleteFinishedReservations_Disabled() {
+        autoStatusService = service(500, false);
+
+        autoStatusService.autoCompleteFinishedReservations();
 
-        // Assert
-        assertNotNull(expiredPendingReservation.getCancelReason());
-        assertTrue(expiredPendingReservation.getCancelReason().contains("Cancelada automáticamente"));
-        assertTrue(expiredPendingReservation.getCancelReason().contains("No se confirmó antes de la hora de inicio"));
-        // Debe contener una fecha en formato dd/MM/yyyy HH:mm
-        assertTrue(expiredPendingReservation.getCancelReason().matches(".*\\d{2}/\\d{2}/\\d{4} \\d{2}:\\d{2}.*"));
+        verifyNoInteractions(reservationRepository, eventPublisher, transactionManager, notificationSender);
     }
 
-    @Test
-    void testAutoCancelExpiredPendingReservations_PreparationException_Handled() {
-        // Arrange: reserva con startsAt null para provocar excepción al formatear fecha en cancelReason
-        Reservation badReservation = new Reservation();
-        badReservation.setReservationId(UUID.randomUUID());
-        badReservation.setUserId(UUID.randomUUID());
-        badReservation.setSpaceId(UUID.randomUUID());
-        badReservation.setStartsAt(null); // causará NPE al formatear
-        badReservation.setEndsAt(OffsetDateTime.now().plusHours(1));
-        badReservation.setStatus("PENDING");
-        badReservation.setCurrency("CRC");
-        // updatedAt queda null para verificar que no se seteó por la excepción
-
-        List<Reservation> expiredReservations = Arrays.asList(badReservation);
-        when(reservationRepository.findExpiredPendingReservations(any(OffsetDateTime.class)))
-                .thenReturn(expiredReservations);
-        when(reservationRepository.saveAll(anyList())).thenReturn(expiredReservations);
-
-        // Act: no debe lanzar excepción aunque falle la preparación de una reserva
-        assertDoesNotThrow(() -> autoStatusService.autoCancelExpiredPendingReservations());
+    private ReservationAutoStatusService service(int chunkSize, boolean autoComplete) {
+        return new ReservationAutoStatusService(reservationRepository, availabilityIndex, eventPublisher,
+                userRepository, new SpaceCatalog(spaceRepository, spaceImageRepository, 5), notificationSender,
+                transactionManager, chunkSize, autoComplete, 60);
+    }
+
+    private List<NotificationEvent> sentNotifications() {
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<NotificationEvent>> batches = ArgumentCaptor.forClass(List.class);
+        verify(notificationSender).sendBatch(batches.capture());
+        return batches.getValue();
+    }
+
+    private static User user(UUID userId) {
+        User user = new User();
+        user.setUserId(userId);
+        user.setEmail("user@test.com");
+        return user;
+    }
+
+    private List<ReservationChangedEvent> publishedEvents(int expected) {
+        ArgumentCaptor<ReservationChangedEvent> events = ArgumentCaptor.forClass(ReservationChangedEvent.class);
+        verify(eventPublisher, times(expected)).publishEvent(events.capture());
+        return events.getAllValues();
+    }
 
-        // Assert: se debe intentar guardar, y la reserva quedó con estado cancelado, pero sin cancelReason/updatedAt
-        verify(reservationRepository, times(1)).saveAll(anyList());
-        assertEquals("CANCELLED", badReservation.getStatus(), "Debe marcar estado CANCELLED antes del fallo");
-        assertNull(badReservation.getCancelReason(), "No debe establecer cancelReason cuando falla el formateo");
-        assertNull(badReservation.getUpdatedAt(), "No debe actualizar updatedAt si falló antes");
+    private static ReservationView view(String status, OffsetDateTime startsAt) {
+        return new ReservationView(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), startsAt,
+                startsAt.plusHours(2), status, null, null, new BigDecimal("15000"), "CRC",
+                startsAt.minusDays(1), startsAt.minusDays(1), null, false, null, null);
     }
 }
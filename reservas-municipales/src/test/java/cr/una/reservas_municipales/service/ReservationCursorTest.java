@@ -0,0 +1,44 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import org.junit.jupiter.api.Test;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationCursorTest {
+
+    @Test
+    void testEncodeDecodeRoundTrip() {
+        UUID reservationId = UUID.randomUUID();
+        OffsetDateTime startsAt = OffsetDateTime.of(2026, 3, 14, 18, 30, 0, 0, ZoneOffset.ofHours(-6));
+        ReservationView reservation = new ReservationView(reservationId, null, null, startsAt, null, null, null,
+                null, null, null, null, null, null, null, null, null);
+
+        String encoded = ReservationCursor.of(reservation).encode();
+        ReservationCursor decoded = ReservationCursor.decode(encoded, ReservationCursor.FIRST_DESCENDING);
+
+        assertEquals(startsAt, decoded.startsAt());
+        assertEquals(reservationId, decoded.reservationId());
+        assertFalse(encoded.contains("="), "El cursor debe ser seguro para URLs");
+    }
+
+    @Test
+    void testDecodeAbsentReturnsDefault() {
+        OffsetDateTime start = OffsetDateTime.now();
+
+        assertSame(ReservationCursor.FIRST_DESCENDING, ReservationCursor.decode(null, ReservationCursor.FIRST_DESCENDING));
+        assertEquals(start, ReservationCursor.decode(" ", ReservationCursor.firstAscending(start)).startsAt());
+    }
+
+    @Test
+    void testDecodeInvalidCursor() {
+        assertThrows(BusinessException.class, () -> ReservationCursor.decode("%%%", ReservationCursor.FIRST_DESCENDING));
+        assertThrows(BusinessException.class, () -> ReservationCursor.decode("c2luLXNlcGFyYWRvcg", ReservationCursor.FIRST_DESCENDING));
+        assertThrows(BusinessException.class, () -> ReservationCursor.decode("eHx5", ReservationCursor.FIRST_DESCENDING));
+    }
+}
@@ -1,5 +1,6 @@
 package cr.una.reservas_municipales.service;
 
+import cr.una.reservas_municipales.dto.ReservationDto;
 import cr.una.reservas_municipales.dto.ReservationSummaryDto;
 import cr.una.reservas_municipales.dto.ReservationWithSpaceDto;
 import org.apache.poi.ss.usermodel.*;
@@ -7,12 +8,15 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -20,6 +24,26 @@ class ReservationExportServiceTest {
 
     private final ReservationExportService service = new ReservationExportService();
 
+    @Test
+    void ndjsonWriter_WritesOneJsonObjectPerLine() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Consumer<ReservationDto> writer = service.ndjsonWriter(out);
+        ReservationDto first = new ReservationDto();
+        first.setReservationId(UUID.randomUUID());
+        first.setStartsAt(OffsetDateTime.parse("2026-05-01T08:00:00-06:00"));
+        ReservationDto second = new ReservationDto();
+        second.setReservationId(UUID.randomUUID());
+
+        writer.accept(first);
+        writer.accept(second);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("{") && lines[0].contains(first.getReservationId().toString()));
+        assertTrue(lines[0].contains("\"startsAt\":\"2026-05-01T08:00:00-06:00\""));
+        assertTrue(lines[1].contains(second.getReservationId().toString()));
+    }
+
     private XSSFWorkbook wbFromBytes(byte[] bytes) throws IOException {
         return new XSSFWorkbook(new ByteArrayInputStream(bytes));
     }
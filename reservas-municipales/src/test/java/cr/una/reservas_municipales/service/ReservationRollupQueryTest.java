@@ -0,0 +1,186 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.RangeMetricsDTO;
+import cr.una.reservas_municipales.dto.RangePointDTO;
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.repository.ReservationDailyStatRepository;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Reconstruye reservation_daily_stats contra H2 y consulta rangos de varios años: los totales deben
+ * coincidir con las reservas y cada consulta de rango debe costar un número fijo de sentencias.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({ReservationRollupService.class, MetricsService.class})
+class ReservationRollupQueryTest {
+
+    @Autowired
+    private ReservationRollupService rollupService;
+
+    @Autowired
+    private MetricsService metricsService;
+
+    @Autowired
+    private ReservationRepository reservationRepository;
+
+    @Autowired
+    private ReservationDailyStatRepository statRepository;
+
+    @Autowired
+    private SpaceRepository spaceRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private MetricsAggregator metricsAggregator;
+
+    private Space cancha;
+    private Space salon;
+    private Reservation toCancel;
+
+    @BeforeEach
+    void setUp() {
+        cancha = space("Cancha");
+        salon = space("Salón");
+
+        reservation(cancha, "COMPLETED", "2023-05-10T08:00:00-06:00", 120, "100.00", true);
+        reservation(cancha, "COMPLETED", "2023-05-10T23:30:00-06:00", 30, "25.50", false);
+        reservation(cancha, "CANCELLED", "2024-01-15T10:00:00-06:00", 60, "80.00", false);
+        toCancel = reservation(cancha, "CONFIRMED", "2025-02-01T09:00:00-06:00", 90, "60.00", false);
+        reservation(salon, "PENDING", "2025-02-01T18:00:00-06:00", 180, null, false);
+        reservation(salon, "COMPLETED", "2025-02-20T18:00:00-06:00", 60, "40.00", true);
+
+        rollupService.rebuildAll();
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void testRebuild_WritesOneRowPerDaySpaceAndStatus() {
+        assertEquals(5, statRepository.count());
+        assertNotNull(statRepository.findLastRefresh());
+    }
+
+    @Test
+    void testRangeMetrics_MultiYear() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        RangeMetricsDTO range = metricsService.getRangeMetrics(LocalDate.of(2023, 1, 1), LocalDate.of(2025, 12, 31), null);
+
+        // totales por estado + top de espacios + fecha de actualización
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertEquals(6, range.getTotalReservations());
+        assertEquals(2, range.getActiveReservations());
+        assertEquals(540, range.getTotalMinutes());
+        assertEquals(225.50, range.getTotalRevenue(), 0.001);
+        assertEquals(2, range.getAttendanceCount());
+        assertEquals(3L, range.getReservationsByStatus().get("COMPLETED"));
+        assertEquals("Cancha", range.getTopSpaces().get(0).getSpaceName());
+        assertEquals(4, range.getTopSpaces().get(0).getReservationCount());
+        assertEquals(185.50, range.getTopSpaces().get(0).getTotalRevenue(), 0.001);
+    }
+
+    @Test
+    void testRangeMetrics_SingleSpaceAndPartialRange() {
+        RangeMetricsDTO range = metricsService.getRangeMetrics(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 2, 10),
+                salon.getSpaceId());
+
+        assertEquals(1, range.getTotalReservations());
+        assertEquals(1L, range.getReservationsByStatus().get("PENDING"));
+        assertEquals(0.0, range.getTotalRevenue(), 0.001);
+        assertTrue(range.getTopSpaces().isEmpty());
+    }
+
+    @Test
+    void testRangeSeries_DailyAndMonthly() {
+        List<RangePointDTO> daily = metricsService.getRangeSeries(LocalDate.of(2023, 5, 1), LocalDate.of(2023, 5, 31),
+                null, "DAY");
+        assertEquals(1, daily.size());
+        // Las 23:30 de Costa Rica cuentan para el mismo día
+        assertEquals(LocalDate.of(2023, 5, 10), daily.get(0).getPeriodStart());
+        assertEquals(2, daily.get(0).getReservations());
+        assertEquals(125.50, daily.get(0).getRevenue(), 0.001);
+
+        List<RangePointDTO> monthly = metricsService.getRangeSeries(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 12, 31),
+                null, "MONTH");
+        assertEquals(1, monthly.size());
+        assertEquals(LocalDate.of(2025, 2, 1), monthly.get(0).getPeriodStart());
+        assertEquals(3, monthly.get(0).getReservations());
+        assertEquals(100.00, monthly.get(0).getRevenue(), 0.001);
+    }
+
+    @Test
+    void testRecomputeDays_ReflectsEdits() {
+        Reservation reservation = reservationRepository.findById(toCancel.getReservationId()).orElseThrow();
+        reservation.setStatus("CANCELLED");
+        reservationRepository.save(reservation);
+        entityManager.flush();
+
+        rollupService.recomputeDays(List.of(LocalDate.of(2025, 2, 1)));
+        entityManager.flush();
+        entityManager.clear();
+
+        RangeMetricsDTO range = metricsService.getRangeMetrics(LocalDate.of(2025, 2, 1), LocalDate.of(2025, 2, 1), null);
+        assertEquals(2, range.getTotalReservations());
+        assertEquals(0L, range.getReservationsByStatus().get("CONFIRMED"));
+        assertEquals(1L, range.getReservationsByStatus().get("CANCELLED"));
+        assertEquals(0.0, range.getTotalRevenue(), 0.001);
+    }
+
+    private Space space(String name) {
+        OffsetDateTime now = OffsetDateTime.now();
+        Space space = new Space();
+        space.setSpaceId(UUID.randomUUID());
+        space.setName(name);
+        space.setSpaceTypeId((short) 1);
+        space.setCapacity(10);
+        space.setLocation("Centro");
+        space.setActive(true);
+        space.setCreatedAt(now);
+        space.setUpdatedAt(now);
+        return spaceRepository.save(space);
+    }
+
+    private Reservation reservation(Space space, String status, String startsAt, int minutes, String amount,
+                                    boolean attended) {
+        OffsetDateTime start = OffsetDateTime.parse(startsAt);
+        Reservation reservation = new Reservation();
+        reservation.setReservationId(UUID.randomUUID());
+        reservation.setSpaceId(space.getSpaceId());
+        reservation.setUserId(UUID.randomUUID());
+        reservation.setStartsAt(start);
+        reservation.setEndsAt(start.plusMinutes(minutes));
+        reservation.setStatus(status);
+        reservation.setTotalAmount(amount == null ? null : new BigDecimal(amount));
+        reservation.setCurrency("CRC");
+        reservation.setAttendanceConfirmed(attended);
+        reservation.setCreatedAt(start.minusDays(7));
+        reservation.setUpdatedAt(start.minusDays(7));
+        return reservationRepository.save(reservation);
+    }
+}
@@ -0,0 +1,225 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.ReservationDailyStat;
+import cr.una.reservas_municipales.repository.ReservationDailyStatRepository;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationRollupServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private ReservationDailyStatRepository statRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ReservationRollupService rollupService;
+
+    private final UUID spaceA = UUID.randomUUID();
+    private final UUID spaceB = UUID.randomUUID();
+    private final LocalDate day = LocalDate.of(2025, 3, 1);
+
+    @BeforeEach
+    void setUp() {
+        rollupService = new ReservationRollupService(reservationRepository, statRepository, transactionManager,
+                true, 31, 35, 90, 300);
+    }
+
+    @Test
+    void testRecomputeRange_AggregatesByCostaRicaDaySpaceAndStatus() {
+        OffsetDateTime morning = OffsetDateTime.parse("2025-03-01T08:00:00-06:00");
+        // 23:30 en Costa Rica ya es el 2 de marzo en UTC, pero cuenta para el 1
+        OffsetDateTime lateNight = OffsetDateTime.parse("2025-03-02T05:30:00Z");
+        when(reservationRepository.findViewsStartingBetween(any(), any())).thenReturn(List.of(
+                view(spaceA, "COMPLETED", morning, morning.plusHours(2), "100.00", true),
+                view(spaceA, "COMPLETED", lateNight, lateNight.plusMinutes(30), "50.50", false),
+                view(spaceA, "CANCELLED", morning, morning.plusHours(1), null, false),
+                view(spaceB, "COMPLETED", morning, morning.plusMinutes(90), "20.00", true)));
+
+        int rows = rollupService.recomputeRange(day, day);
+
+        assertEquals(3, rows);
+        verify(statRepository).deleteDays(day, day);
+        verify(reservationRepository).findViewsStartingBetween(
+                OffsetDateTime.parse("2025-03-01T00:00:00-06:00"), OffsetDateTime.parse("2025-03-02T00:00:00-06:00"));
+        List<ReservationDailyStat> saved = savedStats();
+        ReservationDailyStat completedA = saved.stream()
+                .filter(s -> s.getSpaceId().equals(spaceA) && s.getStatus().equals("COMPLETED"))
+                .findFirst().orElseThrow();
+        assertEquals(day, completedA.getStatDay());
+        assertEquals(2, completedA.getReservationCount());
+        assertEquals(150, completedA.getTotalMinutes());
+        assertEquals(15_050, completedA.getRevenueCents());
+        assertEquals(1, completedA.getAttendanceCount());
+        assertNotNull(completedA.getRefreshedAt());
+        assertTrue(completedA.isNew());
+    }
+
+    @Test
+    void testRecomputeRange_SplitsIntoChunks() {
+        when(reservationRepository.findViewsStartingBetween(any(), any())).thenReturn(List.of());
+
+        rollupService.recomputeRange(day, day.plusDays(69));
+
+        verify(statRepository).deleteDays(day, day.plusDays(30));
+        verify(statRepository).deleteDays(day.plusDays(31), day.plusDays(61));
+        verify(statRepository).deleteDays(day.plusDays(62), day.plusDays(69));
+        verify(transactionManager, times(3)).commit(any());
+    }
+
+    @Test
+    void testRecomputeDays_GroupsConsecutiveDays() {
+        when(reservationRepository.findViewsStartingBetween(any(), any())).thenReturn(List.of());
+
+        rollupService.recomputeDays(Set.of(day.plusDays(10), day, day.plusDays(2), day.plusDays(1)));
+
+        verify(statRepository).deleteDays(day, day.plusDays(2));
+        verify(statRepository).deleteDays(day.plusDays(10), day.plusDays(10));
+        verify(statRepository, times(2)).deleteDays(any(), any());
+    }
+
+    @Test
+    void testInitialize_EmptyTableRebuildsFromFirstReservation() {
+        when(statRepository.findLastRefresh()).thenReturn(null);
+        when(reservationRepository.findFirstStartsAt()).thenReturn(OffsetDateTime.parse("2025-03-01T10:00:00-06:00"));
+        when(reservationRepository.findLastStartsAt()).thenReturn(OffsetDateTime.parse("2025-03-03T10:00:00-06:00"));
+        when(reservationRepository.findViewsStartingBetween(any(), any())).thenReturn(List.of());
+
+        rollupService.initialize();
+
+        verify(statRepository).deleteDays(day, day.plusDays(2));
+    }
+
+    @Test
+    void testInitialize_ExistingRollupsOnlySetWatermark() {
+        OffsetDateTime lastRefresh = OffsetDateTime.parse("2025-03-01T10:00:00-06:00");
+        when(statRepository.findLastRefresh()).thenReturn(lastRefresh);
+        when(reservationRepository.findStartsAtUpdatedSince(any())).thenReturn(List.of());
+
+        rollupService.initialize();
+        rollupService.refreshIncremental();
+
+        verify(reservationRepository, never()).findFirstStartsAt();
+        verify(reservationRepository).findStartsAtUpdatedSince(lastRefresh.minusSeconds(300));
+        verify(statRepository, never()).deleteDays(any(), any());
+    }
+
+    @Test
+    void testInitialize_Disabled() {
+        rollupService = new ReservationRollupService(reservationRepository, statRepository, transactionManager,
+                false, 31, 35, 90, 300);
+
+        rollupService.initialize();
+        rollupService.refreshIncremental();
+        rollupService.repairRecent();
+
+        verifyNoInteractions(reservationRepository, statRepository);
+    }
+
+    @Test
+    void testRefreshIncremental_BeforeInitializeDoesNothing() {
+        rollupService.refreshIncremental();
+
+        verifyNoInteractions(reservationRepository, statRepository);
+    }
+
+    @Test
+    void testRefreshIncremental_RecomputesEventAndUpdatedDays() {
+        initializeWithWatermark();
+        OffsetDateTime eventStart = OffsetDateTime.parse("2025-03-01T08:00:00-06:00");
+        rollupService.onReservationChanged(new ReservationChangedEvent(
+                view(spaceA, "CONFIRMED", eventStart, eventStart.plusHours(1), null, false), null));
+        when(reservationRepository.findStartsAtUpdatedSince(any()))
+                .thenReturn(List.of(OffsetDateTime.parse("2025-03-05T08:00:00-06:00")));
+        when(reservationRepository.findViewsStartingBetween(any(), any())).thenReturn(List.of());
+
+        rollupService.refreshIncremental();
+
+        verify(statRepository).deleteDays(day, day);
+        verify(statRepository).deleteDays(day.plusDays(4), day.plusDays(4));
+    }
+
+    @Test
+    void testRefreshIncremental_FailedDaysAreRetried() {
+        initializeWithWatermark();
+        OffsetDateTime eventStart = OffsetDateTime.parse("2025-03-01T08:00:00-06:00");
+        rollupService.onReservationChanged(ReservationChangedEvent.deleted(
+                view(spaceA, "PENDING", eventStart, eventStart.plusHours(1), null, false)));
+        when(reservationRepository.findStartsAtUpdatedSince(any())).thenReturn(List.of());
+        when(statRepository.deleteDays(day, day)).thenThrow(new RuntimeException("Database error")).thenReturn(0);
+        when(reservationRepository.findViewsStartingBetween(any(), any())).thenReturn(List.of());
+
+        rollupService.refreshIncremental();
+        rollupService.refreshIncremental();
+
+        verify(statRepository, times(2)).deleteDays(day, day);
+        verify(statRepository, times(1)).saveAll(anyCollection());
+    }
+
+    @Test
+    void testRepairRecent_RecomputesWindowAroundToday() {
+        when(reservationRepository.findViewsStartingBetween(any(), any())).thenReturn(List.of());
+        LocalDate today = LocalDate.now(ReservationRules.COSTA_RICA_ZONE);
+
+        rollupService.repairRecent();
+
+        ArgumentCaptor<LocalDate> from = ArgumentCaptor.forClass(LocalDate.class);
+        ArgumentCaptor<LocalDate> to = ArgumentCaptor.forClass(LocalDate.class);
+        verify(statRepository, atLeastOnce()).deleteDays(from.capture(), to.capture());
+        assertEquals(today.minusDays(35), from.getAllValues().get(0));
+        assertEquals(today.plusDays(90), to.getAllValues().get(to.getAllValues().size() - 1));
+    }
+
+    @Test
+    void testDay_UsesCostaRicaZone() {
+        assertEquals(day, ReservationRollupService.day(OffsetDateTime.parse("2025-03-02T05:59:00Z")));
+        assertEquals(day.plusDays(1), ReservationRollupService.day(OffsetDateTime.parse("2025-03-02T06:00:00Z")));
+    }
+
+    private void initializeWithWatermark() {
+        when(statRepository.findLastRefresh()).thenReturn(OffsetDateTime.now());
+        rollupService.initialize();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ReservationDailyStat> savedStats() {
+        ArgumentCaptor<Iterable<ReservationDailyStat>> captor = ArgumentCaptor.forClass(Iterable.class);
+        verify(statRepository).saveAll(captor.capture());
+        List<ReservationDailyStat> stats = new ArrayList<>();
+        captor.getValue().forEach(stats::add);
+        stats.sort(Comparator.comparing(ReservationDailyStat::getStatus));
+        return stats;
+    }
+
+    private ReservationView view(UUID spaceId, String status, OffsetDateTime startsAt, OffsetDateTime endsAt,
+                                 String amount, boolean attended) {
+        return new ReservationView(UUID.randomUUID(), spaceId, UUID.randomUUID(), startsAt, endsAt, status, null,
+                null, amount == null ? null : new BigDecimal(amount), "CRC", startsAt.minusDays(1),
+                startsAt.minusDays(1), null, attended, null, null);
+    }
+}
@@ -0,0 +1,53 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.model.SpaceSchedule;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservationRulesTest {
+
+    // 2026-11-03 es martes (weekday 2)
+    private final OffsetDateTime tuesdayTen = LocalDateTime.of(2026, 11, 3, 10, 0)
+            .atZone(ReservationRules.COSTA_RICA_ZONE).toOffsetDateTime();
+
+    @Test
+    void testOverlaps_IsInclusive() {
+        assertTrue(ReservationRules.overlaps(tuesdayTen, tuesdayTen.plusHours(1),
+                tuesdayTen.plusHours(1), tuesdayTen.plusHours(2)));
+        assertFalse(ReservationRules.overlaps(tuesdayTen, tuesdayTen.plusHours(1),
+                tuesdayTen.plusHours(1).plusSeconds(1), tuesdayTen.plusHours(2)));
+    }
+
+    @Test
+    void testValidateSchedule_WithPreloadedSchedules() {
+        SpaceSchedule tuesday = new SpaceSchedule(1L, null, (short) 2, LocalTime.of(8, 0), LocalTime.of(12, 0));
+
+        assertDoesNotThrow(() -> ReservationRules.validateSchedule(List.of(), tuesdayTen, tuesdayTen.plusHours(5)));
+        assertDoesNotThrow(() -> ReservationRules.validateSchedule(List.of(tuesday), tuesdayTen, tuesdayTen.plusHours(2)));
+
+        BusinessException outside = assertThrows(BusinessException.class,
+                () -> ReservationRules.validateSchedule(List.of(tuesday), tuesdayTen, tuesdayTen.plusHours(3)));
+        assertTrue(outside.getMessage().contains("08:00 - 12:00"));
+
+        BusinessException otherDay = assertThrows(BusinessException.class,
+                () -> ReservationRules.validateSchedule(List.of(tuesday), tuesdayTen.plusDays(1), tuesdayTen.plusDays(1).plusHours(1)));
+        assertEquals("El espacio no está disponible los miércoles", otherDay.getMessage());
+    }
+
+    @Test
+    void testIsExclusionViolation() {
+        assertTrue(ReservationRules.isExclusionViolation(new DataIntegrityViolationException("overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01"))));
+        assertFalse(ReservationRules.isExclusionViolation(new DataIntegrityViolationException("fk",
+                new SQLException("violates foreign key constraint", "23503"))));
+    }
+}
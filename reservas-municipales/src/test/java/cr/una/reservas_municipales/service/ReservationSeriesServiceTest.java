@@ -0,0 +1,500 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.RescheduleSeriesDto;
+import cr.una.reservas_municipales.dto.ReservationSeriesDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.CancellationNotAllowedException;
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.model.ReservationSeries;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.SpaceClosure;
+import cr.una.reservas_municipales.model.SpaceSchedule;
+import cr.una.reservas_municipales.model.User;
+import cr.una.reservas_municipales.notification.NotificationEvent;
+import cr.una.reservas_municipales.notification.NotificationSender;
+import cr.una.reservas_municipales.repository.ReservationQrRepository;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.ReservationSeriesRepository;
+import cr.una.reservas_municipales.repository.SpaceClosureRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import cr.una.reservas_municipales.repository.SpaceScheduleRepository;
+import cr.una.reservas_municipales.repository.UserRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationSlot;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationSeriesServiceTest {
+
+    private static final ZoneId CR = ZoneId.of("America/Costa_Rica");
+
+    @Mock
+    private ReservationSeriesRepository seriesRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private ReservationQrRepository reservationQrRepository;
+
+    @Mock
+    private SpaceRepository spaceRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SpaceScheduleRepository spaceScheduleRepository;
+
+    @Mock
+    private SpaceClosureRepository spaceClosureRepository;
+
+    @Mock
+    private QRCodeService qrCodeService;
+
+    @Mock
+    private NotificationSender notificationSender;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private RateIndex rateIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SpaceLockRegistry spaceLockRegistry = new SpaceLockRegistry(16, 1000, true);
+
+    @InjectMocks
+    private ReservationSeriesService reservationSeriesService;
+
+    private UUID spaceId;
+    private UUID userId;
+    private Space space;
+    private User user;
+    private OffsetDateTime firstTuesday;
+
+    @BeforeEach
+    void setUp() {
+        // Índices reales sobre los repositorios simulados, como en ReservationServiceTest
+        ReflectionTestUtils.setField(reservationSeriesService, "scheduleIndex", new ScheduleIndex(spaceScheduleRepository, 100, 10));
+        ReflectionTestUtils.setField(reservationSeriesService, "closureIndex", new ClosureIndex(spaceClosureRepository, 100, 10));
+        spaceId = UUID.randomUUID();
+        userId = UUID.randomUUID();
+
+        space = new Space();
+        space.setSpaceId(spaceId);
+        space.setName("Cancha Multiuso");
+
+        user = new User();
+        user.setUserId(userId);
+        user.setEmail("liga@test.com");
+
+        LocalDateTime nextTuesday = LocalDateTime.now(CR).plusWeeks(1)
+                .with(java.time.temporal.TemporalAdjusters.next(java.time.DayOfWeek.TUESDAY))
+                .withHour(18).withMinute(0).withSecond(0).withNano(0);
+        firstTuesday = nextTuesday.atZone(CR).toOffsetDateTime();
+    }
+
+    private ReservationSeriesDto seriesDto(String rule) {
+        ReservationSeriesDto dto = new ReservationSeriesDto();
+        dto.setSpaceId(spaceId);
+        dto.setUserId(userId);
+        dto.setStartsAt(firstTuesday);
+        dto.setEndsAt(firstTuesday.plusHours(2));
+        dto.setRecurrenceRule(rule);
+        return dto;
+    }
+
+    private void stubSpaceAndUser() {
+        when(spaceRepository.findById(spaceId)).thenReturn(Optional.of(space));
+        when(userRepository.findById(userId)).thenReturn(Optional.of(user));
+    }
+
+    private ReservationView view(UUID reservationId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        return new ReservationView(reservationId, spaceId, userId, startsAt, endsAt, "PENDING", null, null,
+                null, "CRC", OffsetDateTime.now(), OffsetDateTime.now(), null, false, null, null);
+    }
+
+    private ReservationView priced(ReservationView view, Long rateId, String amount) {
+        return new ReservationView(view.reservationId(), view.spaceId(), view.userId(), view.startsAt(), view.endsAt(),
+                view.status(), null, rateId, new BigDecimal(amount), "CRC", view.createdAt(), view.updatedAt(),
+                null, false, null, null);
+    }
+
+    private ReservationSlot slot(UUID reservationId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        ReservationSlot slot = mock(ReservationSlot.class);
+        lenient().when(slot.getReservationId()).thenReturn(reservationId);
+        lenient().when(slot.getStartsAt()).thenReturn(startsAt);
+        lenient().when(slot.getEndsAt()).thenReturn(endsAt);
+        return slot;
+    }
+
+    private ReservationSeries activeSeries(UUID seriesId) {
+        ReservationSeries series = new ReservationSeries();
+        series.setSeriesId(seriesId);
+        series.setSpaceId(spaceId);
+        series.setUserId(userId);
+        series.setRecurrenceRule("FREQ=WEEKLY;BYDAY=TU;COUNT=4");
+        series.setFirstStartsAt(firstTuesday);
+        series.setFirstEndsAt(firstTuesday.plusHours(2));
+        series.setStatus("ACTIVE");
+        series.setCurrency("CRC");
+        return series;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateSeries_ValidatesOnceAndInsertsInBulk() {
+        // Arrange
+        stubSpaceAndUser();
+        when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of());
+        when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId))
+                .thenReturn(List.of());
+        when(reservationRepository.findActiveSlotsInRange(eq(spaceId), any(), any())).thenReturn(List.of());
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(qrCodeService.generateQRCode(any(), any(), any())).thenReturn("QR");
+
+        // Act
+        ReservationSeriesDto result = reservationSeriesService.createSeries(seriesDto("FREQ=WEEKLY;BYDAY=TU;COUNT=26"));
+
+        // Assert
+        assertEquals(26, result.getOccurrenceCount());
+        assertEquals("ACTIVE", result.getStatus());
+        ArgumentCaptor<List<Reservation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(reservationRepository, times(1)).saveAll(captor.capture());
+        List<Reservation> occurrences = captor.getValue();
+        assertTrue(occurrences.stream().allMatch(r -> result.getSeriesId().equals(r.getSeriesId())));
+        assertTrue(occurrences.stream().allMatch(r -> "PENDING".equals(r.getStatus())));
+        assertEquals(firstTuesday.plusWeeks(25), occurrences.get(25).getStartsAt());
+        verify(reservationRepository, times(1)).findActiveSlotsInRange(spaceId, firstTuesday, firstTuesday.plusWeeks(25).plusHours(2));
+        verify(spaceScheduleRepository, times(1)).findBySpace_SpaceId(spaceId);
+        verify(seriesRepository).saveAndFlush(any(ReservationSeries.class));
+        verify(reservationRepository, never()).save(any());
+        verify(reservationQrRepository, times(1)).saveAll(argThat(codes -> ((List<?>) codes).size() == 26));
+        verify(availabilityIndex, times(26)).track(any(Reservation.class));
+        verify(notificationSender, times(1)).send(any(NotificationEvent.class));
+    }
+
+    @Test
+    void testCreateSeries_ConflictWithExistingReservation() {
+        // Arrange
+        stubSpaceAndUser();
+        when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of());
+        when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId))
+                .thenReturn(List.of());
+        ReservationSlot existing = slot(UUID.randomUUID(), firstTuesday.plusWeeks(2).plusHours(1), firstTuesday.plusWeeks(2).plusHours(3));
+        when(reservationRepository.findActiveSlotsInRange(eq(spaceId), any(), any())).thenReturn(List.of(existing));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> reservationSeriesService.createSeries(seriesDto("FREQ=WEEKLY;BYDAY=TU;COUNT=4")));
+        assertTrue(exception.getMessage().contains(firstTuesday.plusWeeks(2).toLocalDate().toString()));
+        verify(reservationRepository, never()).saveAll(anyList());
+        verify(seriesRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testCreateSeries_OccurrenceOutsideScheduleOrClosed() {
+        // Arrange
+        stubSpaceAndUser();
+        SpaceSchedule tuesdays = new SpaceSchedule(1L, space, (short) 2, LocalTime.of(17, 0), LocalTime.of(21, 0));
+        when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of(tuesdays));
+        SpaceClosure closure = new SpaceClosure();
+        closure.setSpaceId(spaceId);
+        closure.setStartsAt(firstTuesday.plusWeeks(1).minusHours(6));
+        closure.setEndsAt(firstTuesday.plusWeeks(1).plusHours(6));
+        when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId))
+                .thenReturn(List.of(closure));
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> reservationSeriesService.createSeries(seriesDto("FREQ=WEEKLY;BYDAY=TU;COUNT=3")));
+        assertTrue(exception.getMessage().startsWith("El espacio está cerrado en las fechas"));
+        verify(reservationRepository, never()).findActiveSlotsInRange(any(), any(), any());
+    }
+
+    @Test
+    void testCreateSeries_InvalidRule() {
+        stubSpaceAndUser();
+
+        assertThrows(BusinessException.class,
+                () -> reservationSeriesService.createSeries(seriesDto("FREQ=HOURLY;COUNT=3")));
+        verify(reservationRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testCancelSeries_SingleBulkUpdate() {
+        // Arrange
+        UUID seriesId = UUID.randomUUID();
+        ReservationSeries series = activeSeries(seriesId);
+        when(seriesRepository.findById(seriesId)).thenReturn(Optional.of(series));
+        List<ReservationView> future = List.of(
+                view(UUID.randomUUID(), firstTuesday, firstTuesday.plusHours(2)),
+                view(UUID.randomUUID(), firstTuesday.plusWeeks(1), firstTuesday.plusWeeks(1).plusHours(2)));
+        when(reservationRepository.findActiveViewsBySeries(eq(seriesId), any())).thenReturn(future);
+        when(reservationRepository.cancelSeriesFrom(eq(seriesId), any(), eq("Fin de temporada"), any())).thenReturn(2);
+        stubSpaceAndUser();
+
+        // Act
+        int cancelled = reservationSeriesService.cancelSeries(seriesId, "Fin de temporada", "ADMIN");
+
+        // Assert
+        assertEquals(2, cancelled);
+        assertEquals("CANCELLED", series.getStatus());
+        verify(reservationRepository, never()).existsBySeriesIdAndStatusInAndStartsAtGreaterThanEqual(any(), any(), any());
+        verify(reservationRepository, never()).save(any());
+        verify(availabilityIndex, times(2)).untrack(any());
+        verify(notificationSender, times(1)).send(any(NotificationEvent.class));
+        ArgumentCaptor<ReservationChangedEvent> events = ArgumentCaptor.forClass(ReservationChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals("PENDING", events.getValue().before().status());
+        assertEquals("CANCELLED", events.getValue().after().status());
+        assertEquals("Fin de temporada", events.getValue().after().cancelReason());
+    }
+
+    @Test
+    void testCancelSeries_NonAdminKeepsOccurrencesInsideWindow() {
+        // Arrange
+        UUID seriesId = UUID.randomUUID();
+        ReservationSeries series = activeSeries(seriesId);
+        when(seriesRepository.findById(seriesId)).thenReturn(Optional.of(series));
+        when(reservationRepository.findActiveViewsBySeries(eq(seriesId), any())).thenReturn(List.of());
+        when(reservationRepository.cancelSeriesFrom(eq(seriesId), any(), isNull(), any())).thenReturn(3);
+        when(reservationRepository.existsBySeriesIdAndStatusInAndStartsAtGreaterThanEqual(eq(seriesId), anyList(), any()))
+                .thenReturn(true);
+        ArgumentCaptor<OffsetDateTime> from = ArgumentCaptor.forClass(OffsetDateTime.class);
+
+        // Act
+        int cancelled = reservationSeriesService.cancelSeries(seriesId, null, "USER");
+
+        // Assert
+        assertEquals(3, cancelled);
+        verify(reservationRepository).cancelSeriesFrom(eq(seriesId), from.capture(), isNull(), any());
+        assertTrue(from.getValue().isAfter(OffsetDateTime.now().plusHours(23)));
+        // La ocurrencia dentro del plazo sigue activa, y la serie también
+        assertEquals("ACTIVE", series.getStatus());
+        verify(seriesRepository, never()).save(any());
+    }
+
+    @Test
+    void testCancelSeries_NonAdminCancelsSeriesWhenNothingRemains() {
+        // Arrange
+        UUID seriesId = UUID.randomUUID();
+        ReservationSeries series = activeSeries(seriesId);
+        when(seriesRepository.findById(seriesId)).thenReturn(Optional.of(series));
+        when(reservationRepository.findActiveViewsBySeries(eq(seriesId), any())).thenReturn(List.of());
+        when(reservationRepository.existsBySeriesIdAndStatusInAndStartsAtGreaterThanEqual(eq(seriesId), anyList(), any()))
+                .thenReturn(false);
+
+        // Act
+        reservationSeriesService.cancelSeries(seriesId, null, "USER");
+
+        // Assert
+        assertEquals("CANCELLED", series.getStatus());
+        verify(seriesRepository).save(series);
+    }
+
+    @Test
+    void testCancelSeries_NotFoundAndAlreadyCancelled() {
+        UUID missing = UUID.randomUUID();
+        UUID cancelledId = UUID.randomUUID();
+        ReservationSeries cancelled = activeSeries(cancelledId);
+        cancelled.setStatus("CANCELLED");
+        when(seriesRepository.findById(missing)).thenReturn(Optional.empty());
+        when(seriesRepository.findById(cancelledId)).thenReturn(Optional.of(cancelled));
+
+        assertEquals(-1, reservationSeriesService.cancelSeries(missing, null, "ADMIN"));
+        assertThrows(CancellationNotAllowedException.class,
+                () -> reservationSeriesService.cancelSeries(cancelledId, null, "ADMIN"));
+    }
+
+    @Test
+    void testRescheduleSeries_ShiftsWithSingleUpdate() {
+        // Arrange
+        UUID seriesId = UUID.randomUUID();
+        ReservationSeries series = activeSeries(seriesId);
+        when(seriesRepository.findById(seriesId)).thenReturn(Optional.of(series));
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        when(reservationRepository.findActiveViewsBySeries(eq(seriesId), any())).thenReturn(List.of(
+                view(first, firstTuesday, firstTuesday.plusHours(2)),
+                view(second, firstTuesday.plusWeeks(1), firstTuesday.plusWeeks(1).plusHours(2))));
+        when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of());
+        when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId))
+                .thenReturn(List.of());
+        // Las ocurrencias propias aparecen en el rango pero no cuentan como conflicto
+        List<ReservationSlot> ownSlots = List.of(
+                slot(first, firstTuesday, firstTuesday.plusHours(2)),
+                slot(second, firstTuesday.plusWeeks(1), firstTuesday.plusWeeks(1).plusHours(2)));
+        when(reservationRepository.findActiveSlotsInRange(eq(spaceId), any(), any())).thenReturn(ownSlots);
+        when(reservationRepository.shiftSeriesFrom(eq(seriesId), any(), anyLong(), anyLong(), any())).thenReturn(2);
+
+        // Act
+        ReservationSeriesDto result = reservationSeriesService.rescheduleSeries(seriesId,
+                new RescheduleSeriesDto(LocalTime.of(19, 0), LocalTime.of(21, 30)));
+
+        // Assert
+        assertNotNull(result);
+        verify(reservationRepository).shiftSeriesFrom(eq(seriesId), any(), eq(3600L), eq(5400L), any());
+        verify(reservationRepository, never()).save(any());
+        verify(availabilityIndex).track(first, spaceId, firstTuesday.plusHours(1), firstTuesday.plusHours(3).plusMinutes(30));
+        assertEquals(firstTuesday.plusHours(1), series.getFirstStartsAt());
+        ArgumentCaptor<ReservationChangedEvent> events = ArgumentCaptor.forClass(ReservationChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        ReservationChangedEvent moved = events.getAllValues().get(0);
+        assertEquals(firstTuesday, moved.before().startsAt());
+        assertEquals(firstTuesday.plusHours(1), moved.after().startsAt());
+        assertEquals(firstTuesday.plusHours(3).plusMinutes(30), moved.after().endsAt());
+        assertEquals(first, moved.after().reservationId());
+        assertEquals("PENDING", moved.after().status());
+    }
+
+    @Test
+    void testRescheduleSeries_ConflictWithOtherReservation() {
+        // Arrange
+        UUID seriesId = UUID.randomUUID();
+        when(seriesRepository.findById(seriesId)).thenReturn(Optional.of(activeSeries(seriesId)));
+        when(reservationRepository.findActiveViewsBySeries(eq(seriesId), any()))
+                .thenReturn(List.of(view(UUID.randomUUID(), firstTuesday, firstTuesday.plusHours(2))));
+        when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of());
+        when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId))
+                .thenReturn(List.of());
+        ReservationSlot other = slot(UUID.randomUUID(), firstTuesday.plusHours(3), firstTuesday.plusHours(4));
+        when(reservationRepository.findActiveSlotsInRange(eq(spaceId), any(), any())).thenReturn(List.of(other));
+
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> reservationSeriesService.rescheduleSeries(seriesId,
+                new RescheduleSeriesDto(LocalTime.of(20, 0), LocalTime.of(22, 0))));
+        verify(reservationRepository, never()).shiftSeriesFrom(any(), any(), anyLong(), anyLong(), any());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateSeries_PricesEachOccurrenceServerSide() {
+        // El cliente envía un monto arbitrario; cada ocurrencia se cobra con la tarifa de su fecha
+        stubSpaceAndUser();
+        when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of());
+        when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId))
+                .thenReturn(List.of());
+        when(reservationRepository.findActiveSlotsInRange(eq(spaceId), any(), any())).thenReturn(List.of());
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(rateIndex.price(eq(spaceId), any(), any()))
+                .thenReturn(Optional.of(new RateTimeline.Quote(7L, 1_000_000L, "CRC")));
+        when(rateIndex.price(spaceId, firstTuesday.plusWeeks(2), firstTuesday.plusWeeks(2).plusHours(2)))
+                .thenReturn(Optional.of(new RateTimeline.Quote(8L, 1_500_000L, "CRC")));
+        ReservationSeriesDto dto = seriesDto("FREQ=WEEKLY;BYDAY=TU;COUNT=3");
+        dto.setTotalAmount(new BigDecimal("1.00"));
+        dto.setCurrency("USD");
+
+        ReservationSeriesDto result = reservationSeriesService.createSeries(dto);
+
+        ArgumentCaptor<List<Reservation>> captor = ArgumentCaptor.forClass(List.class);
+        verify(reservationRepository).saveAll(captor.capture());
+        List<Reservation> occurrences = captor.getValue();
+        assertEquals(new BigDecimal("10000.00"), occurrences.get(0).getTotalAmount());
+        assertEquals(7L, occurrences.get(0).getRateId());
+        assertEquals(new BigDecimal("15000.00"), occurrences.get(2).getTotalAmount());
+        assertEquals(8L, occurrences.get(2).getRateId());
+        assertTrue(occurrences.stream().allMatch(r -> "CRC".equals(r.getCurrency())));
+        assertEquals(new BigDecimal("10000.00"), result.getTotalAmount());
+        assertEquals("CRC", result.getCurrency());
+    }
+
+    @Test
+    void testCreateSeries_OccurrenceWithoutCoveringRateRejectsSeries() {
+        stubSpaceAndUser();
+        when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of());
+        when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId))
+                .thenReturn(List.of());
+        when(rateIndex.price(eq(spaceId), any(), any()))
+                .thenReturn(Optional.of(new RateTimeline.Quote(7L, 1_000_000L, "CRC")));
+        when(rateIndex.price(spaceId, firstTuesday.plusWeeks(1), firstTuesday.plusWeeks(1).plusHours(2)))
+                .thenThrow(new BusinessException(RateIndex.NOT_COVERED_MESSAGE));
+        ReservationSeriesDto dto = seriesDto("FREQ=WEEKLY;BYDAY=TU;COUNT=3");
+        dto.setTotalAmount(new BigDecimal("1.00"));
+
+        BusinessException exception = assertThrows(BusinessException.class, () -> reservationSeriesService.createSeries(dto));
+
+        assertTrue(exception.getMessage().startsWith("Ocurrencia del " + firstTuesday.plusWeeks(1).toLocalDate()));
+        verify(reservationRepository, never()).saveAll(anyList());
+        verify(seriesRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testRescheduleSeries_LongerOccurrencesAreRequoted() {
+        // Arrange
+        UUID seriesId = UUID.randomUUID();
+        ReservationSeries series = activeSeries(seriesId);
+        when(seriesRepository.findById(seriesId)).thenReturn(Optional.of(series));
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        ReservationView firstView = priced(view(first, firstTuesday, firstTuesday.plusHours(2)), 7L, "10000.00");
+        ReservationView secondView = priced(view(second, firstTuesday.plusWeeks(1), firstTuesday.plusWeeks(1).plusHours(2)), 7L, "15000.00");
+        when(reservationRepository.findActiveViewsBySeries(eq(seriesId), any())).thenReturn(List.of(firstView, secondView));
+        when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of());
+        when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId))
+                .thenReturn(List.of());
+        when(reservationRepository.findActiveSlotsInRange(eq(spaceId), any(), any())).thenReturn(List.of());
+        // Tres horas a 5000 la hora; la segunda ocurrencia ya tenía ese precio y no se vuelve a escribir
+        when(rateIndex.price(eq(spaceId), any(), any()))
+                .thenReturn(Optional.of(new RateTimeline.Quote(7L, 1_500_000L, "CRC")));
+        Reservation stored = new Reservation();
+        stored.setReservationId(first);
+        stored.setRateId(7L);
+        stored.setTotalAmount(new BigDecimal("10000.00"));
+        stored.setCurrency("CRC");
+        when(reservationRepository.findAllById(argThat(ids -> ids != null && Set.copyOf((java.util.Collection<?>) ids).equals(Set.of(first)))))
+                .thenReturn(List.of(stored));
+
+        // Act
+        reservationSeriesService.rescheduleSeries(seriesId, new RescheduleSeriesDto(LocalTime.of(18, 0), LocalTime.of(21, 0)));
+
+        // Assert
+        verify(reservationRepository).shiftSeriesFrom(eq(seriesId), any(), eq(0L), eq(3600L), any());
+        verify(reservationRepository).saveAll(List.of(stored));
+        assertEquals(new BigDecimal("15000.00"), stored.getTotalAmount());
+        assertEquals(new BigDecimal("15000.00"), series.getTotalAmount());
+        ArgumentCaptor<ReservationChangedEvent> events = ArgumentCaptor.forClass(ReservationChangedEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(events.capture());
+        assertEquals(new BigDecimal("15000.00"), events.getAllValues().get(0).after().totalAmount());
+        assertEquals(new BigDecimal("15000.00"), events.getAllValues().get(1).after().totalAmount());
+    }
+
+    @Test
+    void testGetSeries_NotFound() {
+        UUID seriesId = UUID.randomUUID();
+        when(seriesRepository.findById(seriesId)).thenReturn(Optional.empty());
+
+        assertNull(reservationSeriesService.getSeries(seriesId));
+    }
+}
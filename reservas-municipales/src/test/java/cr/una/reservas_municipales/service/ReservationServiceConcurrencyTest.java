@@ -0,0 +1,225 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.ReservationDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.notification.NotificationSender;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import cr.una.reservas_municipales.repository.SpaceScheduleRepository;
+import cr.una.reservas_municipales.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Prueba de estrés de createReservation con varios hilos sobre un "repositorio" en memoria
+ * que simula la latencia entre la verificación de conflictos y el INSERT.
+ */
+@Slf4j
+@ExtendWith(MockitoExtension.class)
+class ReservationServiceConcurrencyTest {
+
+    private static final int THREADS = 16;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private SpaceRepository spaceRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private SpaceScheduleRepository spaceScheduleRepository;
+
+    @Mock
+    private QRCodeService qrCodeService;
+
+    @Mock
+    private NotificationSender notificationSender;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ScheduleIndex scheduleIndex;
+
+    @Mock
+    private ClosureIndex closureIndex;
+
+    @Mock
+    private RateIndex rateIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SpaceLockRegistry spaceLockRegistry = new SpaceLockRegistry(64, 5000, true);
+
+    @InjectMocks
+    private ReservationService reservationService;
+
+    private final List<Reservation> table = new CopyOnWriteArrayList<>();
+    private OffsetDateTime base;
+
+    @BeforeEach
+    void setUp() {
+        base = OffsetDateTime.now(ZoneOffset.UTC).plusDays(3).withNano(0);
+
+        when(spaceRepository.existsById(any())).thenReturn(true);
+        when(userRepository.existsById(any())).thenReturn(true);
+        when(reservationRepository.findConflictingReservations(any(), any(), any())).thenAnswer(invocation -> {
+            UUID spaceId = invocation.getArgument(0);
+            OffsetDateTime startsAt = invocation.getArgument(1);
+            OffsetDateTime endsAt = invocation.getArgument(2);
+            return table.stream()
+                    .filter(r -> r.getSpaceId().equals(spaceId))
+                    .filter(r -> !r.getStartsAt().isAfter(endsAt) && !r.getEndsAt().isBefore(startsAt))
+                    .collect(Collectors.toList());
+        });
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
+            // Ventana entre la verificación y la inserción, donde ocurre la doble reserva sin candado
+            Thread.sleep(1);
+            Reservation reservation = invocation.getArgument(0);
+            table.add(reservation);
+            return reservation;
+        });
+    }
+
+    @Test
+    void testConcurrentCreatesForSameSlot_ExactlyOneWins() throws Exception {
+        UUID spaceId = UUID.randomUUID();
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        reservationService.createReservation(dto(spaceId, base, base.plusHours(2)));
+                    } catch (BusinessException e) {
+                        rejected.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, table.size());
+        assertEquals(THREADS - 1, rejected.get());
+    }
+
+    @Test
+    void testConcurrentCreatesAcrossSpaces_NoDoubleBookingsAndThroughput() throws Exception {
+        int spaces = 32;
+        int slotsPerSpace = 20;
+        List<UUID> spaceIds = new ArrayList<>();
+        for (int i = 0; i < spaces; i++) {
+            spaceIds.add(UUID.randomUUID());
+        }
+
+        // Cada franja horaria se solicita dos veces: una debe ganar y la otra ser rechazada
+        List<ReservationDto> requests = new ArrayList<>();
+        for (UUID spaceId : spaceIds) {
+            for (int slot = 0; slot < slotsPerSpace; slot++) {
+                OffsetDateTime startsAt = base.plusHours(slot * 3L);
+                requests.add(dto(spaceId, startsAt, startsAt.plusHours(2)));
+                requests.add(dto(spaceId, startsAt.plusMinutes(30), startsAt.plusHours(1)));
+            }
+        }
+
+        AtomicInteger rejected = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long startNanos = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (ReservationDto request : requests) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        reservationService.createReservation(request);
+                    } catch (BusinessException e) {
+                        rejected.incrementAndGet();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        double seconds = (System.nanoTime() - startNanos) / 1_000_000_000.0;
+
+        assertEquals(spaces * slotsPerSpace, table.size());
+        assertEquals(spaces * slotsPerSpace, rejected.get());
+        assertNoOverlaps();
+
+        log.info("Stress test: {} intentos, {} creadas en {} s ({} creaciones/s con {} hilos)",
+                requests.size(), table.size(), String.format("%.3f", seconds),
+                String.format("%.0f", table.size() / seconds), THREADS);
+    }
+
+    private void assertNoOverlaps() {
+        Map<UUID, List<Reservation>> bySpace = table.stream()
+                .collect(Collectors.groupingBy(Reservation::getSpaceId));
+        for (List<Reservation> reservations : bySpace.values()) {
+            for (int i = 0; i < reservations.size(); i++) {
+                for (int j = i + 1; j < reservations.size(); j++) {
+                    Reservation a = reservations.get(i);
+                    Reservation b = reservations.get(j);
+                    boolean overlap = !a.getStartsAt().isAfter(b.getEndsAt()) && !a.getEndsAt().isBefore(b.getStartsAt());
+                    assertFalse(overlap, "Doble reserva detectada en el espacio " + a.getSpaceId());
+                }
+            }
+        }
+    }
+
+    private ReservationDto dto(UUID spaceId, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        ReservationDto dto = new ReservationDto();
+        dto.setSpaceId(spaceId);
+        dto.setUserId(UUID.randomUUID());
+        dto.setStartsAt(startsAt);
+        dto.setEndsAt(endsAt);
+        dto.setStatus("PENDING");
+        dto.setTotalAmount(new BigDecimal("1000.00"));
+        dto.setCurrency("CRC");
+        return dto;
+    }
+}
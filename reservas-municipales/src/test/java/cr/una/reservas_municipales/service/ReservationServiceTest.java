@@ -1,28 +1,44 @@
 package cr.una.reservas_municipales.service;
 
+import cr.una.reservas_municipales.dto.BatchReservationItemResultDto;
+import cr.una.reservas_municipales.dto.BatchReservationRequestDto;
+import cr.una.reservas_municipales.dto.BatchReservationResultDto;
+import cr.una.reservas_municipales.dto.CursorPageDto;
 import cr.una.reservas_municipales.dto.ReservationDto;
 import cr.una.reservas_municipales.dto.ReservationSummaryDto;
 import cr.una.reservas_municipales.dto.ReservationWithSpaceDto;
 import cr.una.reservas_municipales.exception.BusinessException;
 import cr.una.reservas_municipales.exception.CancellationNotAllowedException;
 import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.model.ReservationQr;
 import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.SpaceSchedule;
 import cr.una.reservas_municipales.model.User;
+import cr.una.reservas_municipales.repository.ReservationQrRepository;
 import cr.una.reservas_municipales.repository.ReservationRepository;
 import cr.una.reservas_municipales.repository.SpaceRepository;
 import cr.una.reservas_municipales.repository.UserRepository;
 import cr.una.reservas_municipales.repository.SpaceScheduleRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationSlot;
+import cr.una.reservas_municipales.repository.projection.ReservationView;
 import cr.una.reservas_municipales.notification.NotificationSender;
 import cr.una.reservas_municipales.notification.NotificationEvent;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalTime;
 import java.time.OffsetDateTime;
 import java.time.ZoneId;
@@ -34,9 +50,10 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -57,9 +74,27 @@ class ReservationServiceTest {
     @Mock
     private QRCodeService qrCodeService;
 
+    @Mock
+    private ClosureIndex closureIndex;
+
+    @Mock
+    private RateIndex rateIndex;
+
     @Mock
     private NotificationSender notificationSender;
 
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ReservationQrRepository reservationQrRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SpaceLockRegistry spaceLockRegistry = new SpaceLockRegistry(16, 1000, true);
+
     @InjectMocks
     private ReservationService reservationService;
 
@@ -79,6 +114,8 @@ class ReservationServiceTest {
 
         // Configurar el valor mínimo de horas antes de cancelación
         ReflectionTestUtils.setField(reservationService, "minHoursBeforeCancellation", 24L);
+        // Índice real sobre el repositorio simulado: las pruebas de horario ejercitan el mapa de bits
+        ReflectionTestUtils.setField(reservationService, "scheduleIndex", new ScheduleIndex(spaceScheduleRepository, 100, 10));
 
         // Setup test entities
         testSpace = new Space();
@@ -114,25 +151,94 @@ class ReservationServiceTest {
         testReservationDto.setCurrency("CRC");
     }
 
+    private static ReservationView view(Reservation r) {
+        return new ReservationView(r.getReservationId(), r.getSpaceId(), r.getUserId(), r.getStartsAt(),
+                r.getEndsAt(), r.getStatus(), r.getCancelReason(), r.getRateId(), r.getTotalAmount(),
+                r.getCurrency(), r.getCreatedAt(), r.getUpdatedAt(), r.getQrValidationToken(),
+                r.getAttendanceConfirmed(), r.getAttendanceConfirmedAt(), r.getConfirmedByUserId());
+    }
+
     @Test
     void testGetAllReservations_Success() {
         // Arrange
-        List<Reservation> mockReservations = Arrays.asList(testReservation);
-        when(reservationRepository.findAll()).thenReturn(mockReservations);
+        when(reservationRepository.findPageBefore(any(), any(), any(Pageable.class))).thenReturn(List.of(view(testReservation)));
 
         // Act
-        List<ReservationDto> result = reservationService.getAllReservations();
+        CursorPageDto<ReservationDto> result = reservationService.getAllReservations(null, null);
 
         // Assert
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(reservationRepository, times(1)).findAll();
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+        verify(reservationRepository, times(1)).findPageBefore(any(), any(), eq(PageRequest.ofSize(101)));
+        verify(reservationRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetAllReservations_NextCursorContinuesAfterLastItem() {
+        // Arrange - se piden 2 y el repositorio devuelve 3, hay más páginas
+        Reservation second = new Reservation();
+        second.setReservationId(UUID.randomUUID());
+        second.setSpaceId(testSpaceId);
+        second.setUserId(testUserId);
+        second.setStartsAt(testReservation.getStartsAt().minusDays(1));
+        second.setEndsAt(testReservation.getEndsAt().minusDays(1));
+        Reservation third = new Reservation();
+        third.setReservationId(UUID.randomUUID());
+        third.setStartsAt(testReservation.getStartsAt().minusDays(2));
+        when(reservationRepository.findPageBefore(any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(view(testReservation), view(second), view(third)))
+                .thenReturn(List.of(view(third)));
+
+        // Act
+        CursorPageDto<ReservationDto> first = reservationService.getAllReservations(null, 2);
+        CursorPageDto<ReservationDto> next = reservationService.getAllReservations(first.getNextCursor(), 2);
+
+        // Assert
+        assertEquals(2, first.getItems().size());
+        assertNotNull(first.getNextCursor());
+        assertEquals(1, next.getItems().size());
+        assertNull(next.getNextCursor());
+        verify(reservationRepository).findPageBefore(second.getStartsAt(), second.getReservationId(), PageRequest.ofSize(3));
+    }
+
+    @Test
+    void testGetAllReservations_LimitIsCapped() {
+        when(reservationRepository.findPageBefore(any(), any(), any(Pageable.class))).thenReturn(List.of());
+
+        reservationService.getAllReservations(null, 1_000_000);
+
+        verify(reservationRepository).findPageBefore(any(), any(), eq(PageRequest.ofSize(501)));
+    }
+
+    @Test
+    void testGetAllReservations_InvalidCursor() {
+        assertThrows(BusinessException.class, () -> reservationService.getAllReservations("no-es-un-cursor", 10));
+        verify(reservationRepository, never()).findPageBefore(any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void testStreamReservations_ConvertsEachRow() {
+        // Arrange
+        when(reservationRepository.streamFiltered(eq("CONFIRMED"), isNull(), any(), any()))
+                .thenReturn(java.util.stream.Stream.of(view(testReservation), view(testReservation)));
+        List<ReservationDto> received = new java.util.ArrayList<>();
+
+        // Act
+        long count = reservationService.streamReservations("CONFIRMED", null, null, null, received::add);
+
+        // Assert
+        assertEquals(2, count);
+        assertEquals(2, received.size());
+        assertNull(received.get(0).getQrCode());
     }
 
     @Test
     void testGetReservationById_Success() {
         // Arrange
         when(reservationRepository.findById(testReservationId)).thenReturn(Optional.of(testReservation));
+        when(reservationQrRepository.findById(testReservationId))
+                .thenReturn(Optional.of(new ReservationQr(testReservationId, "QR_BASE64")));
 
         // Act
         ReservationDto result = reservationService.getReservationById(testReservationId);
@@ -141,6 +247,7 @@ class ReservationServiceTest {
         assertNotNull(result);
         assertEquals(testReservationId, result.getReservationId());
         assertEquals(testSpaceId, result.getSpaceId());
+        assertEquals("QR_BASE64", result.getQrCode());
         verify(reservationRepository, times(1)).findById(testReservationId);
     }
 
@@ -160,8 +267,7 @@ class ReservationServiceTest {
     @Test
     void testGetReservationsByUser_Success() {
         // Arrange
-        List<Reservation> mockReservations = Arrays.asList(testReservation);
-        when(reservationRepository.findByUserIdOrderByStartsAtDesc(testUserId)).thenReturn(mockReservations);
+        when(reservationRepository.findViewsByUserId(testUserId)).thenReturn(List.of(view(testReservation)));
 
         // Act
         List<ReservationDto> result = reservationService.getReservationsByUser(testUserId);
@@ -170,7 +276,9 @@ class ReservationServiceTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testUserId, result.get(0).getUserId());
-        verify(reservationRepository, times(1)).findByUserIdOrderByStartsAtDesc(testUserId);
+        assertNull(result.get(0).getQrCode());
+        verify(reservationRepository, times(1)).findViewsByUserId(testUserId);
+        verify(reservationRepository, never()).findByUserIdOrderByStartsAtDesc(any());
     }
 
     @Test
@@ -288,7 +396,7 @@ class ReservationServiceTest {
     @Test
     void testDeleteReservation_Success() {
         // Arrange
-        when(reservationRepository.existsById(testReservationId)).thenReturn(true);
+        when(reservationRepository.findViewById(testReservationId)).thenReturn(Optional.of(ReservationView.of(testReservation)));
         doNothing().when(reservationRepository).deleteById(testReservationId);
 
         // Act
@@ -297,12 +405,16 @@ class ReservationServiceTest {
         // Assert
         assertTrue(result);
         verify(reservationRepository, times(1)).deleteById(testReservationId);
+        ArgumentCaptor<ReservationChangedEvent> event = ArgumentCaptor.forClass(ReservationChangedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertEquals("CONFIRMED", event.getValue().before().status());
+        assertNull(event.getValue().after());
     }
 
     @Test
     void testDeleteReservation_NotFound() {
         // Arrange
-        when(reservationRepository.existsById(testReservationId)).thenReturn(false);
+        when(reservationRepository.findViewById(testReservationId)).thenReturn(Optional.empty());
 
         // Act
         boolean result = reservationService.deleteReservation(testReservationId);
@@ -381,33 +493,33 @@ class ReservationServiceTest {
     @Test
     void testGetReservationsBySpace_Success() {
         // Arrange
-        List<Reservation> mockReservations = Arrays.asList(testReservation);
-        when(reservationRepository.findBySpaceIdOrderByStartsAtDesc(testSpaceId)).thenReturn(mockReservations);
+        when(reservationRepository.findPageBySpaceBefore(eq(testSpaceId), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(view(testReservation)));
 
         // Act
-        List<ReservationDto> result = reservationService.getReservationsBySpace(testSpaceId);
+        List<ReservationDto> result = reservationService.getReservationsBySpace(testSpaceId, null, null).getItems();
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(testSpaceId, result.get(0).getSpaceId());
-        verify(reservationRepository, times(1)).findBySpaceIdOrderByStartsAtDesc(testSpaceId);
+        verify(reservationRepository, times(1)).findPageBySpaceBefore(eq(testSpaceId), any(), any(), any(Pageable.class));
     }
 
     @Test
     void testGetReservationsByStatus_Success() {
         // Arrange
-        List<Reservation> mockReservations = Arrays.asList(testReservation);
-        when(reservationRepository.findByStatusOrderByStartsAtDesc("CONFIRMED")).thenReturn(mockReservations);
+        when(reservationRepository.findPageByStatusBefore(eq("CONFIRMED"), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(view(testReservation)));
 
         // Act
-        List<ReservationDto> result = reservationService.getReservationsByStatus("CONFIRMED");
+        List<ReservationDto> result = reservationService.getReservationsByStatus("CONFIRMED", null, null).getItems();
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals("CONFIRMED", result.get(0).getStatus());
-        verify(reservationRepository, times(1)).findByStatusOrderByStartsAtDesc("CONFIRMED");
+        verify(reservationRepository, times(1)).findPageByStatusBefore(eq("CONFIRMED"), any(), any(), any(Pageable.class));
     }
 
     @Test
@@ -415,16 +527,18 @@ class ReservationServiceTest {
         // Arrange
         OffsetDateTime startDate = OffsetDateTime.now();
         OffsetDateTime endDate = OffsetDateTime.now().plusDays(7);
-        List<Reservation> mockReservations = Arrays.asList(testReservation);
-        when(reservationRepository.findReservationsInDateRange(startDate, endDate)).thenReturn(mockReservations);
+        when(reservationRepository.findPageInDateRangeAfter(eq(startDate), eq(endDate), any(), any(), any(Pageable.class)))
+                .thenReturn(List.of(view(testReservation)));
 
         // Act
-        List<ReservationDto> result = reservationService.getReservationsInDateRange(startDate, endDate);
+        List<ReservationDto> result = reservationService.getReservationsInDateRange(startDate, endDate, null, null).getItems();
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(reservationRepository, times(1)).findReservationsInDateRange(startDate, endDate);
+        // La primera página arranca en el inicio del rango
+        verify(reservationRepository, times(1)).findPageInDateRangeAfter(
+                eq(startDate), eq(endDate), eq(startDate), any(UUID.class), any(Pageable.class));
     }
 
     @Test
@@ -434,7 +548,6 @@ class ReservationServiceTest {
         lenient().when(userRepository.existsById(testUserId)).thenReturn(true);
         lenient().when(reservationRepository.findConflictingReservations(any(), any(), any()))
             .thenReturn(Arrays.asList(testReservation));
-        lenient().when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(false);
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -445,13 +558,31 @@ class ReservationServiceTest {
         verify(reservationRepository, never()).save(any());
     }
 
+    @Test
+    void testCreateReservation_SpaceClosed() {
+        // Arrange
+        when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
+        when(userRepository.existsById(testUserId)).thenReturn(true);
+        when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
+        doThrow(new BusinessException("El espacio está cerrado del 01/03/2026 08:00 al 02/03/2026 08:00"))
+                .when(closureIndex).validate(eq(testSpaceId), any(), any());
+
+        // Act & Assert
+        BusinessException exception = assertThrows(BusinessException.class, () -> {
+            reservationService.createReservation(testReservationDto);
+        });
+
+        assertTrue(exception.getMessage().contains("cerrado"));
+        verify(reservationRepository, never()).saveAndFlush(any());
+        verify(reservationRepository, never()).save(any());
+    }
+
     @Test
     void testCreateReservation_WithQRCodeGeneration() throws Exception {
         // Arrange
         when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
         when(userRepository.existsById(testUserId)).thenReturn(true);
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(false);
         when(qrCodeService.generateQRCode(any(), any(), any())).thenReturn("QR_CODE_123");
         when(qrCodeService.generateValidationToken(any())).thenReturn("TOKEN_123");
         when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
@@ -463,8 +594,10 @@ class ReservationServiceTest {
 
         // Assert
         assertNotNull(result);
+        assertEquals("QR_CODE_123", result.getQrCode());
         verify(qrCodeService, times(1)).generateQRCode(any(), any(), any());
         verify(qrCodeService, times(1)).generateValidationToken(any());
+        verify(reservationQrRepository, times(1)).saveAll(anyList());
         verify(notificationSender, times(1)).send(any());
     }
 
@@ -474,7 +607,6 @@ class ReservationServiceTest {
         when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
         when(userRepository.existsById(testUserId)).thenReturn(true);
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(false);
         when(qrCodeService.generateQRCode(any(), any(), any())).thenThrow(new RuntimeException("QR Error"));
         when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
         when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
@@ -485,7 +617,9 @@ class ReservationServiceTest {
 
         // Assert - Should not fail the entire operation
         assertNotNull(result);
+        assertNull(result.getQrCode());
         verify(reservationRepository, times(1)).save(any(Reservation.class));
+        verify(reservationQrRepository, never()).saveAll(anyList());
     }
 
     @Test
@@ -532,7 +666,6 @@ class ReservationServiceTest {
         updateDto.setEndsAt(OffsetDateTime.now().plusDays(3).plusHours(2));
         
         lenient().when(reservationRepository.findById(testReservationId)).thenReturn(Optional.of(testReservation));
-        lenient().when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(false);
         lenient().when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
         lenient().when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
         lenient().when(userRepository.findById(testUserId)).thenReturn(Optional.of(testUser));
@@ -698,6 +831,7 @@ class ReservationServiceTest {
         assertNotNull(result);
         assertEquals("NEW_QR_CODE", result);
         verify(reservationRepository, times(1)).save(any(Reservation.class));
+        verify(reservationQrRepository).save(argThat(qr -> "NEW_QR_CODE".equals(qr.getQrCode())));
     }
 
     @Test
@@ -802,7 +936,6 @@ class ReservationServiceTest {
         when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
         when(userRepository.existsById(testUserId)).thenReturn(true);
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(false);
         when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
             Reservation saved = invocation.getArgument(0);
             assertEquals("PENDING", saved.getStatus());
@@ -816,6 +949,56 @@ class ReservationServiceTest {
         verify(reservationRepository, times(1)).save(any(Reservation.class));
     }
 
+    @Test
+    void testCreateReservation_PricedServerSide() {
+        // El cliente envía un monto arbitrario; se cobra el de la tarifa vigente
+        testReservationDto.setTotalAmount(new BigDecimal("1.00"));
+        testReservationDto.setCurrency("USD");
+        when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
+        when(userRepository.existsById(testUserId)).thenReturn(true);
+        when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
+        when(rateIndex.price(testSpaceId, testReservationDto.getStartsAt(), testReservationDto.getEndsAt()))
+                .thenReturn(Optional.of(new RateTimeline.Quote(7L, 1_000_000L, "CRC")));
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ReservationDto result = reservationService.createReservation(testReservationDto);
+
+        assertEquals(new BigDecimal("10000.00"), result.getTotalAmount());
+        assertEquals("CRC", result.getCurrency());
+        assertEquals(7L, result.getRateId());
+    }
+
+    @Test
+    void testCreateReservation_KeepsClientAmountWhenSpaceHasNoRates() {
+        testReservationDto.setTotalAmount(new BigDecimal("2500.00"));
+        when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
+        when(userRepository.existsById(testUserId)).thenReturn(true);
+        when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
+        when(rateIndex.price(any(), any(), any())).thenReturn(Optional.empty());
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ReservationDto result = reservationService.createReservation(testReservationDto);
+
+        assertEquals(new BigDecimal("2500.00"), result.getTotalAmount());
+        assertNull(result.getRateId());
+    }
+
+    @Test
+    void testCreateReservation_RatesNotCoveringWindow_Rejected() {
+        // El espacio tiene tarifas pero ninguna cubre el intervalo: no se acepta el monto del cliente
+        testReservationDto.setTotalAmount(new BigDecimal("1.00"));
+        when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
+        when(userRepository.existsById(testUserId)).thenReturn(true);
+        when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
+        when(rateIndex.price(any(), any(), any())).thenThrow(new BusinessException(RateIndex.NOT_COVERED_MESSAGE));
+
+        BusinessException exception = assertThrows(BusinessException.class,
+                () -> reservationService.createReservation(testReservationDto));
+
+        assertEquals(RateIndex.NOT_COVERED_MESSAGE, exception.getMessage());
+        verify(reservationRepository, never()).save(any(Reservation.class));
+    }
+
     @Test
     void testCreateReservation_EmptyStatusSetsToPending() {
         // Arrange
@@ -823,7 +1006,6 @@ class ReservationServiceTest {
         when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
         when(userRepository.existsById(testUserId)).thenReturn(true);
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(false);
         when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
             Reservation saved = invocation.getArgument(0);
             assertEquals("PENDING", saved.getStatus());
@@ -844,7 +1026,6 @@ class ReservationServiceTest {
         when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
         when(userRepository.existsById(testUserId)).thenReturn(true);
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(false);
         when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
             Reservation saved = invocation.getArgument(0);
             assertEquals("CRC", saved.getCurrency());
@@ -865,7 +1046,6 @@ class ReservationServiceTest {
         when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
         when(userRepository.existsById(testUserId)).thenReturn(true);
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(false);
         when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
             Reservation saved = invocation.getArgument(0);
             assertEquals("CRC", saved.getCurrency());
@@ -890,7 +1070,6 @@ class ReservationServiceTest {
         conflictingReservation.setReservationId(UUID.randomUUID());
         
         when(reservationRepository.findById(testReservationId)).thenReturn(Optional.of(testReservation));
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(false);
         when(reservationRepository.findConflictingReservations(any(), any(), any()))
             .thenReturn(Arrays.asList(conflictingReservation));
 
@@ -913,8 +1092,6 @@ class ReservationServiceTest {
         // Existing reservation to update
         when(reservationRepository.findById(testReservationId)).thenReturn(Optional.of(testReservation));
 
-        // Skip schedule validation complexity
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(false);
 
         // Return a conflict list that contains ONLY the same reservation (same id)
         // The filter `.filter(r -> !r.getReservationId().equals(id))` should remove it
@@ -932,26 +1109,57 @@ class ReservationServiceTest {
     }
 
     @Test
-    void testUpdateReservation_UpdateCurrencyAndRateId() {
-        // Arrange
+    void testUpdateReservation_IgnoresClientPricing() {
+        // El cliente no puede fijar el monto ni la tarifa de una reserva existente
         ReservationDto updateDto = new ReservationDto();
+        updateDto.setTotalAmount(new BigDecimal("1.00"));
         updateDto.setCurrency("USD");
         updateDto.setRateId(123L);
         
         when(reservationRepository.findById(testReservationId)).thenReturn(Optional.of(testReservation));
-        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> {
-            Reservation saved = invocation.getArgument(0);
-            assertEquals("USD", saved.getCurrency());
-            assertEquals(123L, saved.getRateId());
-            return saved;
-        });
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-        // Act
         ReservationDto result = reservationService.updateReservation(testReservationId, updateDto);
 
-        // Assert
-        assertNotNull(result);
-        verify(reservationRepository, times(1)).save(any(Reservation.class));
+        assertEquals(new BigDecimal("15000.00"), result.getTotalAmount());
+        assertEquals("CRC", result.getCurrency());
+        assertNull(result.getRateId());
+        verify(rateIndex, never()).price(any(), any(), any());
+    }
+
+    @Test
+    void testUpdateReservation_NewDatesWithoutCoveringRate_Rejected() {
+        ReservationDto updateDto = new ReservationDto();
+        updateDto.setStartsAt(testReservation.getStartsAt().plusDays(1));
+        updateDto.setEndsAt(testReservation.getStartsAt().plusDays(1).plusHours(3));
+        
+        when(reservationRepository.findById(testReservationId)).thenReturn(Optional.of(testReservation));
+        when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
+        when(rateIndex.price(testSpaceId, updateDto.getStartsAt(), updateDto.getEndsAt()))
+                .thenThrow(new BusinessException(RateIndex.NOT_COVERED_MESSAGE));
+
+        assertThrows(BusinessException.class, () -> reservationService.updateReservation(testReservationId, updateDto));
+        verify(reservationRepository, never()).save(any(Reservation.class));
+    }
+
+    @Test
+    void testUpdateReservation_NewDatesRequotes() {
+        ReservationDto updateDto = new ReservationDto();
+        updateDto.setStartsAt(testReservation.getStartsAt().plusDays(1));
+        updateDto.setEndsAt(testReservation.getStartsAt().plusDays(1).plusHours(3));
+        updateDto.setTotalAmount(new BigDecimal("1.00"));
+        
+        when(reservationRepository.findById(testReservationId)).thenReturn(Optional.of(testReservation));
+        when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
+        when(rateIndex.price(testSpaceId, updateDto.getStartsAt(), updateDto.getEndsAt()))
+                .thenReturn(Optional.of(new RateTimeline.Quote(9L, 3_000_000L, "CRC")));
+        when(reservationRepository.save(any(Reservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ReservationDto result = reservationService.updateReservation(testReservationId, updateDto);
+
+        assertEquals(new BigDecimal("30000.00"), result.getTotalAmount());
+        assertEquals("CRC", result.getCurrency());
+        assertEquals(9L, result.getRateId());
     }
 
     @Test
@@ -999,9 +1207,7 @@ class ReservationServiceTest {
         when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
         when(userRepository.existsById(testUserId)).thenReturn(true);
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(true);
-        when(spaceScheduleRepository.findBySpace_SpaceIdAndWeekday(eq(testSpaceId), anyShort()))
-            .thenReturn(Arrays.asList(schedule));
+        when(spaceScheduleRepository.findBySpace_SpaceId(testSpaceId)).thenReturn(Arrays.asList(schedule));
         when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
 
         // Act
@@ -1009,7 +1215,7 @@ class ReservationServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(spaceScheduleRepository, times(1)).findBySpace_SpaceIdAndWeekday(eq(testSpaceId), anyShort());
+        verify(spaceScheduleRepository, times(1)).findBySpace_SpaceId(testSpaceId);
     }
 
     @Test
@@ -1030,9 +1236,8 @@ class ReservationServiceTest {
         when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
         when(userRepository.existsById(testUserId)).thenReturn(true);
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(true);
-        when(spaceScheduleRepository.findBySpace_SpaceIdAndWeekday(eq(testSpaceId), anyShort()))
-            .thenReturn(Arrays.asList()); // No schedules for Sunday
+        when(spaceScheduleRepository.findBySpace_SpaceId(testSpaceId)).thenReturn(Arrays.asList(
+                new SpaceSchedule(1L, testSpace, (short) 1, LocalTime.of(8, 0), LocalTime.of(12, 0)))); // Sin horarios el domingo
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -1067,9 +1272,7 @@ class ReservationServiceTest {
         when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
         when(userRepository.existsById(testUserId)).thenReturn(true);
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(true);
-        when(spaceScheduleRepository.findBySpace_SpaceIdAndWeekday(eq(testSpaceId), anyShort()))
-            .thenReturn(Arrays.asList(schedule));
+        when(spaceScheduleRepository.findBySpace_SpaceId(testSpaceId)).thenReturn(Arrays.asList(schedule));
 
         // Act & Assert
         BusinessException exception = assertThrows(BusinessException.class, () -> {
@@ -1086,7 +1289,6 @@ class ReservationServiceTest {
         when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
         when(userRepository.existsById(testUserId)).thenReturn(true);
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(false);
         when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
 
         // Act - Should allow any time when no schedules configured
@@ -1094,7 +1296,7 @@ class ReservationServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(spaceScheduleRepository, never()).findBySpace_SpaceIdAndWeekday(any(), anyShort());
+        verify(spaceScheduleRepository, times(1)).findBySpace_SpaceId(testSpaceId);
     }
 
     @Test
@@ -1120,9 +1322,7 @@ class ReservationServiceTest {
         updateDto.setEndsAt(endsAt);
         
         when(reservationRepository.findById(testReservationId)).thenReturn(Optional.of(testReservation));
-        when(spaceScheduleRepository.existsBySpace_SpaceId(testSpaceId)).thenReturn(true);
-        when(spaceScheduleRepository.findBySpace_SpaceIdAndWeekday(eq(testSpaceId), anyShort()))
-            .thenReturn(Arrays.asList(schedule));
+        when(spaceScheduleRepository.findBySpace_SpaceId(testSpaceId)).thenReturn(Arrays.asList(schedule));
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(Arrays.asList());
         when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
 
@@ -1131,7 +1331,7 @@ class ReservationServiceTest {
 
         // Assert
         assertNotNull(result);
-        verify(spaceScheduleRepository, times(1)).findBySpace_SpaceIdAndWeekday(eq(testSpaceId), anyShort());
+        verify(spaceScheduleRepository, times(1)).findBySpace_SpaceId(testSpaceId);
     }
 
     @Test
@@ -1280,11 +1480,13 @@ class ReservationServiceTest {
         when(spaceRepository.existsById(spaceId)).thenReturn(true);
         when(userRepository.existsById(testUserId)).thenReturn(true);
         when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(List.of());
-        when(spaceScheduleRepository.existsBySpace_SpaceId(spaceId)).thenReturn(true);
+        // Solo hay horario los lunes: cualquier otro día falla con su nombre en el mensaje
+        Space mondayOnly = new Space();
+        mondayOnly.setSpaceId(spaceId);
+        when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of(
+                new SpaceSchedule(1L, mondayOnly, (short) 1, LocalTime.of(8, 0), LocalTime.of(12, 0))));
 
         // Test martes (2) - line 573: No schedule for Tuesday, should fail with "marte"
-        when(spaceScheduleRepository.findBySpace_SpaceIdAndWeekday(eq(spaceId), eq((short) 2)))
-            .thenReturn(List.of()); // Empty = no schedule for this day
         
         OffsetDateTime tuesdayStart = OffsetDateTime.now(ZoneId.of("America/Costa_Rica"))
             .with(java.time.DayOfWeek.TUESDAY).withHour(10).withMinute(0).withSecond(0).withNano(0);
@@ -1300,8 +1502,6 @@ class ReservationServiceTest {
         assertTrue(tuesdayEx.getMessage().contains("marte"));
 
         // Test miércoles (3) - line 574
-        when(spaceScheduleRepository.findBySpace_SpaceIdAndWeekday(eq(spaceId), eq((short) 3)))
-            .thenReturn(List.of());
         
         OffsetDateTime wednesdayStart = OffsetDateTime.now(ZoneId.of("America/Costa_Rica"))
             .with(java.time.DayOfWeek.WEDNESDAY).withHour(10).withMinute(0).withSecond(0).withNano(0);
@@ -1317,8 +1517,6 @@ class ReservationServiceTest {
         assertTrue(wednesdayEx.getMessage().contains("miércole"));
 
         // Test jueves (4) - line 575
-        when(spaceScheduleRepository.findBySpace_SpaceIdAndWeekday(eq(spaceId), eq((short) 4)))
-            .thenReturn(List.of());
         
         OffsetDateTime thursdayStart = OffsetDateTime.now(ZoneId.of("America/Costa_Rica"))
             .with(java.time.DayOfWeek.THURSDAY).withHour(10).withMinute(0).withSecond(0).withNano(0);
@@ -1334,8 +1532,6 @@ class ReservationServiceTest {
         assertTrue(thursdayEx.getMessage().contains("jueve"));
 
         // Test viernes (5) - line 576
-        when(spaceScheduleRepository.findBySpace_SpaceIdAndWeekday(eq(spaceId), eq((short) 5)))
-            .thenReturn(List.of());
         
         OffsetDateTime fridayStart = OffsetDateTime.now(ZoneId.of("America/Costa_Rica"))
             .with(java.time.DayOfWeek.FRIDAY).withHour(10).withMinute(0).withSecond(0).withNano(0);
@@ -1351,8 +1547,6 @@ class ReservationServiceTest {
         assertTrue(fridayEx.getMessage().contains("vierne"));
 
         // Test sábado (6) - line 577
-        when(spaceScheduleRepository.findBySpace_SpaceIdAndWeekday(eq(spaceId), eq((short) 6)))
-            .thenReturn(List.of());
         
         OffsetDateTime saturdayStart = OffsetDateTime.now(ZoneId.of("America/Costa_Rica"))
             .with(java.time.DayOfWeek.SATURDAY).withHour(10).withMinute(0).withSecond(0).withNano(0);
@@ -1368,8 +1562,7 @@ class ReservationServiceTest {
         assertTrue(saturdayEx.getMessage().contains("sábado"));
 
         // Test default case - día desconocido (weekday 99) - line 578
-        // Use reflection to call private getDayName method with invalid weekday
-        String unknownDay = ReflectionTestUtils.invokeMethod(reservationService, "getDayName", (short) 99);
+        String unknownDay = ReservationRules.getDayName((short) 99);
         assertEquals("día desconocido", unknownDay);
     }
 
@@ -1386,9 +1579,7 @@ class ReservationServiceTest {
         schedule.setTimeFrom(LocalTime.of(9, 0));
         schedule.setTimeTo(LocalTime.of(17, 0));
 
-        when(spaceScheduleRepository.existsBySpace_SpaceId(spaceId)).thenReturn(true);
-        when(spaceScheduleRepository.findBySpace_SpaceIdAndWeekday(eq(spaceId), eq((short) 1)))
-            .thenReturn(List.of(schedule));
+        when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of(schedule));
 
         // Reserva que comienza exactamente a las 9:00 (boundary exacto)
         OffsetDateTime mondayStart = OffsetDateTime.now(ZoneId.of("America/Costa_Rica"))
@@ -1408,4 +1599,280 @@ class ReservationServiceTest {
         // Act & Assert - Debe pasar sin excepción
         assertDoesNotThrow(() -> reservationService.createReservation(dto));
     }
+
+    @Test
+    void testCreateReservation_IndexCoversWindow_SkipsConflictQuery() {
+        // Arrange
+        when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
+        when(userRepository.existsById(testUserId)).thenReturn(true);
+        when(availabilityIndex.covers(any())).thenReturn(true);
+        when(availabilityIndex.hasConflict(eq(testSpaceId), any(), any(), isNull())).thenReturn(false);
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
+
+        // Act
+        ReservationDto result = reservationService.createReservation(testReservationDto);
+
+        // Assert
+        assertNotNull(result);
+        verify(reservationRepository, never()).findConflictingReservations(any(), any(), any());
+        verify(availabilityIndex).track(testReservation);
+    }
+
+    @Test
+    void testCreateReservation_IndexReportsConflict_VerifiedAgainstDatabase() {
+        // Arrange
+        when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
+        when(userRepository.existsById(testUserId)).thenReturn(true);
+        when(availabilityIndex.covers(any())).thenReturn(true);
+        when(availabilityIndex.hasConflict(eq(testSpaceId), any(), any(), isNull())).thenReturn(true);
+        when(reservationRepository.findConflictingReservations(any(), any(), any()))
+            .thenReturn(Arrays.asList(testReservation));
+
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> reservationService.createReservation(testReservationDto));
+        verify(reservationRepository, never()).save(any(Reservation.class));
+    }
+
+    @Test
+    void testCreateReservation_IndexFalsePositive_DatabaseAllows() {
+        // Arrange
+        when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
+        when(userRepository.existsById(testUserId)).thenReturn(true);
+        when(availabilityIndex.covers(any())).thenReturn(true);
+        when(availabilityIndex.hasConflict(eq(testSpaceId), any(), any(), isNull())).thenReturn(true);
+        when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(List.of());
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> reservationService.createReservation(testReservationDto));
+    }
+
+    @Test
+    void testDeleteReservation_UntracksFromIndex() {
+        // Arrange
+        when(reservationRepository.findViewById(testReservationId)).thenReturn(Optional.of(ReservationView.of(testReservation)));
+
+        // Act
+        reservationService.deleteReservation(testReservationId);
+
+        // Assert
+        verify(availabilityIndex).untrack(testReservationId);
+    }
+
+    @Test
+    void testCreateReservation_DatabaseExclusionViolation_MapsToBusinessException() {
+        // Arrange
+        when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
+        when(userRepository.existsById(testUserId)).thenReturn(true);
+        when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(List.of());
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
+        doThrow(new DataIntegrityViolationException("overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")))
+            .when(reservationRepository).flush();
+
+        // Act & Assert
+        BusinessException ex = assertThrows(BusinessException.class,
+            () -> reservationService.createReservation(testReservationDto));
+        assertTrue(ex.getMessage().contains("Ya existe una reserva"));
+        verify(availabilityIndex, never()).track(any());
+    }
+
+    @Test
+    void testCreateReservation_ConflictUnseenByIndex_RejectedByExclusionConstraint() {
+        // Otra instancia tomó el horario: el índice local no lo ve y no se consulta la BD, pero el INSERT choca
+        when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
+        when(userRepository.existsById(testUserId)).thenReturn(true);
+        when(availabilityIndex.covers(any())).thenReturn(true);
+        when(availabilityIndex.hasConflict(eq(testSpaceId), any(), any(), isNull())).thenReturn(false);
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
+        doThrow(new DataIntegrityViolationException("overlap",
+                new SQLException("conflicting key value violates exclusion constraint", "23P01")))
+            .when(reservationRepository).flush();
+
+        // Act & Assert
+        assertThrows(BusinessException.class, () -> reservationService.createReservation(testReservationDto));
+        verify(reservationRepository, never()).findConflictingReservations(any(), any(), any());
+        verify(availabilityIndex, never()).track(any());
+    }
+
+    @Test
+    void testCreateReservation_OtherIntegrityViolation_IsRethrown() {
+        // Arrange
+        when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
+        when(userRepository.existsById(testUserId)).thenReturn(true);
+        when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(List.of());
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
+        doThrow(new DataIntegrityViolationException("fk",
+                new SQLException("violates foreign key constraint", "23503")))
+            .when(reservationRepository).flush();
+
+        // Act & Assert
+        assertThrows(DataIntegrityViolationException.class,
+            () -> reservationService.createReservation(testReservationDto));
+    }
+
+    @Test
+    void testCreateReservation_RunsUnderSpaceLock() {
+        // Arrange
+        when(spaceRepository.existsById(testSpaceId)).thenReturn(true);
+        when(userRepository.existsById(testUserId)).thenReturn(true);
+        when(reservationRepository.findConflictingReservations(any(), any(), any())).thenReturn(List.of());
+        when(reservationRepository.save(any(Reservation.class))).thenReturn(testReservation);
+
+        // Act
+        reservationService.createReservation(testReservationDto);
+
+        // Assert
+        verify(spaceLockRegistry).execute(eq(testSpaceId), any());
+    }
+
+    private BatchReservationRequestDto batchRequest(String mode, ReservationDto... reservations) {
+        BatchReservationRequestDto request = new BatchReservationRequestDto();
+        request.setMode(mode);
+        request.setReservations(Arrays.asList(reservations));
+        return request;
+    }
+
+    private ReservationDto batchItem(OffsetDateTime startsAt, int hours) {
+        ReservationDto dto = new ReservationDto();
+        dto.setSpaceId(testSpaceId);
+        dto.setUserId(testUserId);
+        dto.setStartsAt(startsAt);
+        dto.setEndsAt(startsAt.plusHours(hours));
+        dto.setStatus("PENDING");
+        dto.setCurrency("CRC");
+        return dto;
+    }
+
+    private void stubBatchLookups() {
+        when(spaceRepository.findAllById(any())).thenReturn(List.of(testSpace));
+        when(userRepository.findAllById(any())).thenReturn(List.of(testUser));
+        when(spaceScheduleRepository.findBySpace_SpaceIdIn(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void testCreateReservationsBatch_AllCreated_SingleConflictQueryPerSpace() {
+        // Arrange
+        OffsetDateTime base = OffsetDateTime.now().plusDays(3);
+        stubBatchLookups();
+        when(reservationRepository.findActiveSlotsInRange(eq(testSpaceId), any(), any())).thenReturn(List.of());
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        BatchReservationResultDto result = reservationService.createReservationsBatch(batchRequest(
+                "ALL_OR_NOTHING", batchItem(base, 1), batchItem(base.plusHours(2), 1), batchItem(base.plusDays(1), 2)));
+
+        // Assert
+        assertEquals(3, result.getTotal());
+        assertEquals(3, result.getCreated());
+        assertEquals(0, result.getFailed());
+        assertTrue(result.getItems().stream().allMatch(BatchReservationItemResultDto::isSuccess));
+        verify(reservationRepository, times(1)).findActiveSlotsInRange(testSpaceId, base, base.plusDays(1).plusHours(2));
+        verify(reservationRepository, times(1)).saveAll(anyList());
+        verify(reservationRepository, never()).save(any());
+        verify(notificationSender, times(3)).send(any(NotificationEvent.class));
+        verify(availabilityIndex, times(3)).track(any(Reservation.class));
+        verify(spaceLockRegistry).executeAll(eq(java.util.Set.of(testSpaceId)), any());
+    }
+
+    @Test
+    void testCreateReservationsBatch_AllOrNothing_ExistingConflictRejectsWholeBatch() {
+        // Arrange
+        OffsetDateTime base = OffsetDateTime.now().plusDays(3);
+        stubBatchLookups();
+        ReservationSlot existing = mock(ReservationSlot.class);
+        when(existing.getStartsAt()).thenReturn(base.plusMinutes(30));
+        when(existing.getEndsAt()).thenReturn(base.plusMinutes(90));
+        when(reservationRepository.findActiveSlotsInRange(eq(testSpaceId), any(), any())).thenReturn(List.of(existing));
+
+        // Act
+        BatchReservationResultDto result = reservationService.createReservationsBatch(batchRequest(
+                "ALL_OR_NOTHING", batchItem(base, 1), batchItem(base.plusHours(5), 1)));
+
+        // Assert
+        assertEquals(0, result.getCreated());
+        assertEquals(2, result.getFailed());
+        assertEquals("Ya existe una reserva confirmada o pendiente para ese espacio en el horario solicitado",
+                result.getItems().get(0).getError());
+        assertFalse(result.getItems().get(1).isSuccess());
+        assertNotNull(result.getItems().get(1).getError());
+        verify(reservationRepository, never()).saveAll(anyList());
+        verify(notificationSender, never()).send(any());
+    }
+
+    @Test
+    void testCreateReservationsBatch_BestEffort_IntraBatchOverlapAndUnknownSpace() {
+        // Arrange
+        OffsetDateTime base = OffsetDateTime.now().plusDays(3);
+        stubBatchLookups();
+        when(reservationRepository.findActiveSlotsInRange(eq(testSpaceId), any(), any())).thenReturn(List.of());
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        ReservationDto unknownSpace = batchItem(base.plusDays(2), 1);
+        unknownSpace.setSpaceId(UUID.randomUUID());
+
+        // Act
+        BatchReservationResultDto result = reservationService.createReservationsBatch(batchRequest(
+                "BEST_EFFORT", batchItem(base, 2), batchItem(base.plusHours(1), 2), unknownSpace));
+
+        // Assert
+        assertEquals(1, result.getCreated());
+        assertEquals(2, result.getFailed());
+        assertTrue(result.getItems().get(0).isSuccess());
+        assertNotNull(result.getItems().get(0).getReservation().getReservationId());
+        assertEquals("Se solapa con otra reserva del mismo lote para ese espacio", result.getItems().get(1).getError());
+        assertEquals("El espacio especificado no existe", result.getItems().get(2).getError());
+        verify(notificationSender, times(1)).send(any(NotificationEvent.class));
+    }
+
+    @Test
+    void testCreateReservationsBatch_BestEffort_ItemWithoutCoveringRateFails() {
+        // Arrange
+        OffsetDateTime base = OffsetDateTime.now().plusDays(3);
+        stubBatchLookups();
+        ReservationDto uncovered = batchItem(base.plusDays(1), 1);
+        when(rateIndex.price(eq(testSpaceId), any(), any())).thenAnswer(invocation -> {
+            if (uncovered.getStartsAt().equals(invocation.getArgument(1))) {
+                throw new BusinessException(RateIndex.NOT_COVERED_MESSAGE);
+            }
+            return Optional.empty();
+        });
+        when(reservationRepository.findActiveSlotsInRange(eq(testSpaceId), any(), any())).thenReturn(List.of());
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        BatchReservationResultDto result = reservationService.createReservationsBatch(batchRequest(
+                "BEST_EFFORT", batchItem(base, 1), uncovered));
+
+        // Assert
+        assertEquals(1, result.getCreated());
+        assertEquals(RateIndex.NOT_COVERED_MESSAGE, result.getItems().get(1).getError());
+    }
+
+    @Test
+    void testCreateReservationsBatch_UsesPreloadedSchedules() {
+        // Arrange
+        OffsetDateTime base = OffsetDateTime.now(ZoneId.of("America/Costa_Rica")).plusDays(3)
+                .withHour(10).withMinute(0).withSecond(0).withNano(0);
+        short weekday = (short) (base.getDayOfWeek().getValue() % 7);
+        when(spaceRepository.findAllById(any())).thenReturn(List.of(testSpace));
+        when(userRepository.findAllById(any())).thenReturn(List.of(testUser));
+        when(spaceScheduleRepository.findBySpace_SpaceIdIn(any())).thenReturn(List.of(
+                new SpaceSchedule(1L, testSpace, weekday, LocalTime.of(8, 0), LocalTime.of(12, 0))));
+        when(reservationRepository.findActiveSlotsInRange(eq(testSpaceId), any(), any())).thenReturn(List.of());
+        when(reservationRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        BatchReservationResultDto result = reservationService.createReservationsBatch(batchRequest(
+                "BEST_EFFORT", batchItem(base, 1), batchItem(base.plusHours(3), 2)));
+
+        // Assert
+        assertTrue(result.getItems().get(0).isSuccess());
+        assertFalse(result.getItems().get(1).isSuccess());
+        assertTrue(result.getItems().get(1).getError().contains("08:00 - 12:00"));
+        verify(spaceScheduleRepository, never()).findBySpace_SpaceId(any());
+
+        // Un segundo lote sobre el mismo espacio usa los horarios ya compilados
+        reservationService.createReservationsBatch(batchRequest("BEST_EFFORT", batchItem(base.plusDays(7), 1)));
+        verify(spaceScheduleRepository, times(1)).findBySpace_SpaceIdIn(any());
+    }
 }
@@ -0,0 +1,129 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.SpaceSchedule;
+import cr.una.reservas_municipales.repository.SpaceScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScheduleIndexTest {
+
+    @Mock
+    private SpaceScheduleRepository scheduleRepository;
+
+    private ScheduleIndex scheduleIndex;
+
+    private final UUID spaceId = UUID.randomUUID();
+
+    // Lunes 2026-03-16, 09:00-10:00 en Costa Rica
+    private final OffsetDateTime start = LocalDateTime.of(2026, 3, 16, 9, 0)
+            .atZone(ReservationRules.COSTA_RICA_ZONE).toOffsetDateTime();
+    private final OffsetDateTime end = start.plusHours(1);
+
+    @BeforeEach
+    void setUp() {
+        scheduleIndex = new ScheduleIndex(scheduleRepository, 100, 10);
+    }
+
+    private static SpaceSchedule monday(LocalTime from, LocalTime to) {
+        return new SpaceSchedule(1L, null, (short) 1, from, to);
+    }
+
+    @Test
+    void testValidateLoadsScheduleOnce() {
+        when(scheduleRepository.findBySpace_SpaceId(spaceId))
+                .thenReturn(List.of(monday(LocalTime.of(8, 0), LocalTime.of(12, 0))));
+
+        scheduleIndex.validate(spaceId, start, end);
+        scheduleIndex.validate(spaceId, start.plusHours(1), end.plusHours(1));
+
+        verify(scheduleRepository, times(1)).findBySpace_SpaceId(spaceId);
+    }
+
+    @Test
+    void testValidateRejectsOutsideHours() {
+        when(scheduleRepository.findBySpace_SpaceId(spaceId))
+                .thenReturn(List.of(monday(LocalTime.of(8, 0), LocalTime.of(9, 30))));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> scheduleIndex.validate(spaceId, start, end));
+        assertTrue(ex.getMessage().contains("08:00 - 09:30"));
+    }
+
+    @Test
+    void testSpaceWithoutSchedulesAcceptsAnything() {
+        when(scheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of());
+
+        assertDoesNotThrow(() -> scheduleIndex.validate(spaceId, start, start.plusHours(20)));
+        assertTrue(scheduleIndex.get(spaceId).isUnrestricted());
+    }
+
+    @Test
+    void testInvalidateReloadsSchedule() {
+        when(scheduleRepository.findBySpace_SpaceId(spaceId))
+                .thenReturn(List.of())
+                .thenReturn(List.of(monday(LocalTime.of(14, 0), LocalTime.of(18, 0))));
+
+        scheduleIndex.validate(spaceId, start, end);
+        scheduleIndex.invalidate(spaceId);
+
+        assertThrows(BusinessException.class, () -> scheduleIndex.validate(spaceId, start, end));
+        verify(scheduleRepository, times(2)).findBySpace_SpaceId(spaceId);
+    }
+
+    @Test
+    void testInvalidateAllReloadsEverySpace() {
+        UUID otherSpaceId = UUID.randomUUID();
+        when(scheduleRepository.findBySpace_SpaceId(any())).thenReturn(List.of());
+
+        scheduleIndex.get(spaceId);
+        scheduleIndex.get(otherSpaceId);
+        scheduleIndex.invalidateAll();
+        scheduleIndex.get(spaceId);
+        scheduleIndex.get(otherSpaceId);
+
+        verify(scheduleRepository, times(2)).findBySpace_SpaceId(spaceId);
+        verify(scheduleRepository, times(2)).findBySpace_SpaceId(otherSpaceId);
+    }
+
+    @Test
+    void testGetAllLoadsMissingSpacesInOneQuery() {
+        UUID other = UUID.randomUUID();
+        UUID withoutSchedules = UUID.randomUUID();
+        Space otherSpace = new Space();
+        otherSpace.setSpaceId(other);
+        when(scheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of());
+        when(scheduleRepository.findBySpace_SpaceIdIn(any())).thenAnswer(invocation -> {
+            Collection<UUID> ids = invocation.getArgument(0);
+            assertEquals(Set.of(other, withoutSchedules), Set.copyOf(ids));
+            return List.of(new SpaceSchedule(2L, otherSpace, (short) 1, LocalTime.of(8, 0), LocalTime.of(9, 30)));
+        });
+        scheduleIndex.get(spaceId);
+
+        Map<UUID, WeeklySchedule> schedules = scheduleIndex.getAll(Set.of(spaceId, other, withoutSchedules));
+
+        assertEquals(3, schedules.size());
+        assertThrows(BusinessException.class, () -> schedules.get(other).validate(start, end));
+        assertTrue(schedules.get(withoutSchedules).isUnrestricted());
+        scheduleIndex.validate(withoutSchedules, start, end);
+        verify(scheduleRepository, times(1)).findBySpace_SpaceIdIn(any());
+        verify(scheduleRepository, never()).findBySpace_SpaceId(withoutSchedules);
+    }
+}
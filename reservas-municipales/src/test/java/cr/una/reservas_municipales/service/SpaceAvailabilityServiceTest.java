@@ -0,0 +1,155 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.SpaceAvailabilityDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.SpaceNotFoundException;
+import cr.una.reservas_municipales.model.SpaceClosure;
+import cr.una.reservas_municipales.model.SpaceSchedule;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.SpaceClosureRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import cr.una.reservas_municipales.repository.SpaceScheduleRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationSlot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpaceAvailabilityServiceTest {
+
+    @Mock
+    private SpaceRepository spaceRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private SpaceClosureRepository spaceClosureRepository;
+
+    @Mock
+    private SpaceScheduleRepository spaceScheduleRepository;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    private SpaceAvailabilityService availabilityService;
+
+    private final UUID spaceId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        ScheduleIndex scheduleIndex = new ScheduleIndex(spaceScheduleRepository, 100, 10);
+        ClosureIndex closureIndex = new ClosureIndex(spaceClosureRepository, 100, 10);
+        availabilityService = new SpaceAvailabilityService(spaceRepository, reservationRepository,
+                scheduleIndex, closureIndex, availabilityIndex, 31, 100, 5);
+        lenient().when(spaceRepository.existsById(spaceId)).thenReturn(true);
+        lenient().when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of());
+        lenient().when(reservationRepository.findActiveSlotsInRange(eq(spaceId), any(), any())).thenReturn(List.of());
+        lenient().when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId)).thenReturn(List.of());
+    }
+
+    // 2026-03-16 es lunes
+    private static OffsetDateTime at(int dayOfMonth, int hour, int minute) {
+        return LocalDateTime.of(2026, 3, dayOfMonth, hour, minute)
+                .atZone(ReservationRules.COSTA_RICA_ZONE).toOffsetDateTime();
+    }
+
+    private static ReservationSlot slot(OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        ReservationSlot slot = mock(ReservationSlot.class);
+        when(slot.getStartsAt()).thenReturn(startsAt);
+        when(slot.getEndsAt()).thenReturn(endsAt);
+        return slot;
+    }
+
+    @Test
+    void testScheduleAndReservationsProduceRuns() {
+        when(spaceScheduleRepository.findBySpace_SpaceId(spaceId)).thenReturn(List.of(
+                new SpaceSchedule(1L, null, (short) 1, LocalTime.of(8, 0), LocalTime.of(12, 0))));
+        List<ReservationSlot> slots = List.of(slot(at(16, 9, 0), at(16, 10, 0)));
+        when(reservationRepository.findActiveSlotsInRange(eq(spaceId), any(), any())).thenReturn(slots);
+
+        SpaceAvailabilityDto result = availabilityService.getAvailability(spaceId, at(16, 7, 0), at(16, 13, 0), 30);
+
+        // 07:00-08:00 cerrado, 08:00-08:30 libre, 08:30-10:30 ocupado (intervalos cerrados), 10:30-12:00 libre
+        assertEquals(12, result.getSlotCount());
+        assertFalse(result.isFirstRunFree());
+        assertEquals(List.of(2, 1, 4, 3, 2), result.getRuns());
+        assertEquals(4, result.getFreeSlotCount());
+        assertEquals(at(16, 7, 0), result.getFrom());
+        assertEquals(at(16, 13, 0), result.getTo());
+    }
+
+    @Test
+    void testClosureBlocksSlots() {
+        SpaceClosure closure = new SpaceClosure();
+        closure.setSpaceId(spaceId);
+        closure.setStartsAt(at(16, 10, 0).plusSeconds(1));
+        closure.setEndsAt(at(16, 11, 0).minusSeconds(1));
+        when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId)).thenReturn(List.of(closure));
+
+        SpaceAvailabilityDto result = availabilityService.getAvailability(spaceId, at(16, 9, 0), at(16, 12, 0), 60);
+
+        assertTrue(result.isFirstRunFree());
+        assertEquals(List.of(1, 1, 1), result.getRuns());
+    }
+
+    @Test
+    void testRangeAcrossWeeksLoadsEachWeekOnce() {
+        SpaceAvailabilityDto result = availabilityService.getAvailability(spaceId, at(21, 20, 0), at(22, 4, 0), 60);
+        availabilityService.getAvailability(spaceId, at(21, 20, 0), at(22, 4, 0), 120);
+
+        assertEquals(List.of(8), result.getRuns());
+        assertTrue(result.isFirstRunFree());
+        verify(reservationRepository, times(2)).findActiveSlotsInRange(eq(spaceId), any(), any());
+    }
+
+    @Test
+    void testReservationChangeRecomputesWeek() {
+        availabilityService.getAvailability(spaceId, at(16, 8, 0), at(16, 12, 0), 60);
+        when(availabilityIndex.version(spaceId)).thenReturn(1L);
+        List<ReservationSlot> slots = List.of(slot(at(16, 9, 30), at(16, 9, 45)));
+        when(reservationRepository.findActiveSlotsInRange(eq(spaceId), any(), any())).thenReturn(slots);
+
+        SpaceAvailabilityDto result = availabilityService.getAvailability(spaceId, at(16, 8, 0), at(16, 12, 0), 60);
+
+        assertEquals(List.of(1, 1, 2), result.getRuns());
+        verify(reservationRepository, times(2)).findActiveSlotsInRange(eq(spaceId), any(), any());
+    }
+
+    @Test
+    void testStartRoundedUpAndPartialSlotDropped() {
+        SpaceAvailabilityDto result = availabilityService.getAvailability(spaceId,
+                at(16, 8, 0).plusSeconds(20), at(16, 9, 40), 30);
+
+        assertEquals(at(16, 8, 1), result.getFrom());
+        assertEquals(at(16, 9, 31), result.getTo());
+        assertEquals(3, result.getSlotCount());
+    }
+
+    @Test
+    void testInvalidRequests() {
+        assertThrows(BusinessException.class,
+                () -> availabilityService.getAvailability(spaceId, at(16, 10, 0), at(16, 9, 0), 30));
+        assertThrows(BusinessException.class,
+                () -> availabilityService.getAvailability(spaceId, at(16, 8, 0), at(16, 9, 0), 1));
+        assertThrows(BusinessException.class,
+                () -> availabilityService.getAvailability(spaceId, at(1, 8, 0), at(16, 9, 0).plusMonths(1), 30));
+
+        UUID unknown = UUID.randomUUID();
+        assertThrows(SpaceNotFoundException.class,
+                () -> availabilityService.getAvailability(unknown, at(16, 8, 0), at(16, 9, 0), 30));
+    }
+}
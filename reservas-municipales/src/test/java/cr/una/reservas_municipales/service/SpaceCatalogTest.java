@@ -0,0 +1,266 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.NearbySpaceDto;
+import cr.una.reservas_municipales.dto.SpaceDto;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.SpaceImage;
+import cr.una.reservas_municipales.repository.SpaceImageRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpaceCatalogTest {
+
+    @Mock
+    private SpaceRepository spaceRepository;
+
+    @Mock
+    private SpaceImageRepository spaceImageRepository;
+
+    private SpaceCatalog catalog;
+
+    private Space cancha;
+    private Space salon;
+    private Space piscina;
+
+    @BeforeEach
+    void setUp() {
+        catalog = new SpaceCatalog(spaceRepository, spaceImageRepository, 5);
+        cancha = space("Cancha de Fútbol", (short) 1, 50, "Sector Norte", true, true, "Césped sintético");
+        salon = space("Salón Comunal", (short) 2, 120, "Centro", false, true, "Salón para eventos");
+        piscina = space("Piscina", (short) 1, 30, "Sector Sur", true, false, null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static Space space(String name, short type, int capacity, String location,
+                               boolean outdoor, boolean active, String description) {
+        Space space = new Space();
+        space.setSpaceId(UUID.randomUUID());
+        space.setName(name);
+        space.setSpaceTypeId(type);
+        space.setCapacity(capacity);
+        space.setLocation(location);
+        space.setOutdoor(outdoor);
+        space.setActive(active);
+        space.setDescription(description);
+        return space;
+    }
+
+    private static SpaceImage image(UUID spaceId, long imageId, int ord) {
+        SpaceImage image = new SpaceImage();
+        image.setImageId(imageId);
+        image.setSpaceId(spaceId);
+        image.setUrl("https://img/" + imageId + ".jpg");
+        image.setMain(ord == 0);
+        image.setOrd(ord);
+        return image;
+    }
+
+    private void load() {
+        when(spaceRepository.findAll()).thenReturn(List.of(salon, piscina, cancha));
+        when(spaceImageRepository.findBySpaceIdInOrderByOrdAsc(any()))
+                .thenReturn(List.of(image(cancha.getSpaceId(), 1L, 0), image(cancha.getSpaceId(), 2L, 1)));
+    }
+
+    private static List<String> names(List<SpaceDto> spaces) {
+        return spaces.stream().map(SpaceDto::getName).toList();
+    }
+
+    @Test
+    void testSnapshotLoadsOnceAndSortsByName() {
+        load();
+
+        SpaceCatalog.Snapshot first = catalog.snapshot();
+        SpaceCatalog.Snapshot second = catalog.snapshot();
+
+        assertSame(first, second);
+        assertEquals(List.of("Cancha de Fútbol", "Piscina", "Salón Comunal"), names(first.all()));
+        assertEquals(List.of("Cancha de Fútbol", "Salón Comunal"), names(first.active()));
+        assertEquals(2, first.get(cancha.getSpaceId()).orElseThrow().getImages().size());
+        assertTrue(first.get(salon.getSpaceId()).orElseThrow().getImages().isEmpty());
+        assertEquals((short) 2, first.spaceTypeId(salon.getSpaceId()));
+        assertNull(first.spaceTypeId(UUID.randomUUID()));
+        verify(spaceRepository, times(1)).findAll();
+        verify(spaceImageRepository, times(1)).findBySpaceIdInOrderByOrdAsc(any());
+    }
+
+    @Test
+    void testSnapshotListsAreImmutable() {
+        load();
+
+        SpaceCatalog.Snapshot snapshot = catalog.snapshot();
+
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.all().clear());
+        assertThrows(UnsupportedOperationException.class,
+                () -> snapshot.get(cancha.getSpaceId()).orElseThrow().getImages().clear());
+    }
+
+    @Test
+    void testExpiredSnapshotIsReloaded() {
+        catalog = new SpaceCatalog(spaceRepository, spaceImageRepository, 0);
+        load();
+
+        long first = catalog.version();
+        long second = catalog.version();
+
+        assertTrue(second > first);
+        verify(spaceRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testRefreshReplacesSpaceCopyOnWrite() {
+        load();
+        SpaceCatalog.Snapshot before = catalog.snapshot();
+        piscina.setActive(true);
+        piscina.setName("Piscina Olímpica");
+        when(spaceRepository.findById(piscina.getSpaceId())).thenReturn(Optional.of(piscina));
+        when(spaceImageRepository.findBySpaceIdOrderByOrdAsc(piscina.getSpaceId()))
+                .thenReturn(List.of(image(piscina.getSpaceId(), 3L, 0)));
+
+        catalog.refresh(piscina.getSpaceId());
+        SpaceCatalog.Snapshot after = catalog.snapshot();
+
+        assertEquals(before.version() + 1, after.version());
+        assertEquals(List.of("Cancha de Fútbol", "Salón Comunal"), names(before.active()));
+        assertEquals(List.of("Cancha de Fútbol", "Piscina Olímpica", "Salón Comunal"), names(after.active()));
+        assertEquals(1, after.get(piscina.getSpaceId()).orElseThrow().getImages().size());
+        assertSame(before.get(salon.getSpaceId()).orElseThrow(), after.get(salon.getSpaceId()).orElseThrow());
+        verify(spaceRepository, times(1)).findAll();
+    }
+
+    @Test
+    void testRefreshRemovesDeletedSpace() {
+        load();
+        catalog.snapshot();
+        when(spaceRepository.findById(salon.getSpaceId())).thenReturn(Optional.empty());
+
+        catalog.refresh(salon.getSpaceId());
+
+        assertTrue(catalog.snapshot().get(salon.getSpaceId()).isEmpty());
+        assertFalse(catalog.snapshot().nameTaken("Salón Comunal", null));
+    }
+
+    @Test
+    void testInvalidateAllForcesFullReload() {
+        load();
+        long version = catalog.version();
+
+        catalog.invalidateAll();
+
+        assertEquals(version + 1, catalog.version());
+        verify(spaceRepository, times(2)).findAll();
+    }
+
+    @Test
+    void testRefreshBeforeFirstLoadDoesNothing() {
+        catalog.refresh(cancha.getSpaceId());
+
+        verifyNoInteractions(spaceRepository, spaceImageRepository);
+    }
+
+    @Test
+    void testRefreshInsideTransaction_AppliedOnlyAfterCommit() {
+        load();
+        long version = catalog.version();
+        TransactionSynchronizationManager.initSynchronization();
+
+        catalog.refresh(cancha.getSpaceId());
+        assertEquals(version, catalog.version());
+        verify(spaceRepository, never()).findById(any());
+
+        when(spaceRepository.findById(cancha.getSpaceId())).thenReturn(Optional.of(cancha));
+        List<TransactionSynchronization> synchronizations = new ArrayList<>(TransactionSynchronizationManager.getSynchronizations());
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(version + 1, catalog.version());
+    }
+
+    @Test
+    void testNameTakenIgnoresCaseAndExcludedId() {
+        load();
+        SpaceCatalog.Snapshot snapshot = catalog.snapshot();
+
+        assertTrue(snapshot.nameTaken("cancha DE fútbol", null));
+        assertFalse(snapshot.nameTaken("Cancha de Fútbol", cancha.getSpaceId()));
+        assertTrue(snapshot.nameTaken("Cancha de Fútbol", salon.getSpaceId()));
+        assertFalse(snapshot.nameTaken("Gimnasio", null));
+        assertFalse(snapshot.nameTaken(null, null));
+    }
+
+    @Test
+    void testSearchUsesIndexesWithSameFilters() {
+        load();
+        SpaceCatalog.Snapshot snapshot = catalog.snapshot();
+
+        assertEquals(List.of("Cancha de Fútbol", "Piscina"),
+                names(snapshot.search(null, (short) 1, null, null, null, null, false)));
+        assertEquals(List.of("Cancha de Fútbol"),
+                names(snapshot.search(null, (short) 1, null, null, null, null, true)));
+        assertEquals(List.of("Cancha de Fútbol", "Piscina"),
+                names(snapshot.search(null, null, 30, 50, null, null, false)));
+        assertEquals(List.of("Salón Comunal"),
+                names(snapshot.search(null, null, 51, null, null, null, true)));
+        assertEquals(List.of("Salón Comunal"),
+                names(snapshot.search(null, null, null, null, null, false, true)));
+        assertEquals(List.of("Cancha de Fútbol"),
+                names(snapshot.search("  SINTÉTICO ", null, null, null, "norte", null, true)));
+        assertEquals(List.of(),
+                names(snapshot.search(null, null, 200, 100, null, null, false)));
+        assertEquals(List.of(),
+                names(snapshot.search(null, (short) 9, null, null, null, null, false)));
+    }
+
+    @Test
+    void testNearbyUsesCoordinatesFromColumnsOrLocationAndSkipsInactive() {
+        cancha.setLatitude(9.9326);
+        cancha.setLongitude(-84.0795);
+        salon.setLocation("9.9365, -84.1030");
+        piscina.setLatitude(9.9282);
+        piscina.setLongitude(-84.0906);
+        load();
+
+        List<NearbySpaceDto> nearby = catalog.snapshot().nearby(new GeoPoint(9.9281, -84.0907), 5,
+                null, null, null, id -> true, 10);
+
+        assertEquals(List.of("Cancha de Fútbol", "Salón Comunal"), nearby.stream().map(n -> n.getSpace().getName()).toList());
+        assertEquals(9.9365, nearby.get(1).getSpace().getLatitude());
+        assertTrue(catalog.snapshot().nearby(new GeoPoint(9.9281, -84.0907), 5, (short) 2, 200, null, id -> true, 10).isEmpty());
+    }
+
+    @Test
+    void testRefreshMovesSpaceInGeoIndex() {
+        load();
+        catalog.snapshot();
+        cancha.setLatitude(9.9290);
+        cancha.setLongitude(-84.0900);
+        when(spaceRepository.findById(cancha.getSpaceId())).thenReturn(Optional.of(cancha));
+
+        catalog.refresh(cancha.getSpaceId());
+
+        List<NearbySpaceDto> nearby = catalog.snapshot().nearby(new GeoPoint(9.9281, -84.0907), 1,
+                null, null, null, id -> true, 10);
+        assertEquals(List.of("Cancha de Fútbol"), nearby.stream().map(n -> n.getSpace().getName()).toList());
+    }
+}
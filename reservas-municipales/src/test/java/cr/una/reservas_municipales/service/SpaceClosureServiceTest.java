@@ -0,0 +1,191 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.CreateClosureDto;
+import cr.una.reservas_municipales.dto.SpaceClosureDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.SpaceNotFoundException;
+import cr.una.reservas_municipales.model.Reservation;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.SpaceClosure;
+import cr.una.reservas_municipales.model.User;
+import cr.una.reservas_municipales.notification.NotificationEvent;
+import cr.una.reservas_municipales.notification.NotificationSender;
+import cr.una.reservas_municipales.notification.NotificationType;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.SpaceClosureRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import cr.una.reservas_municipales.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpaceClosureServiceTest {
+
+    @Mock
+    private SpaceClosureRepository closureRepository;
+
+    @Mock
+    private SpaceRepository spaceRepository;
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ClosureIndex closureIndex;
+
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Spy
+    private SpaceLockRegistry spaceLockRegistry = new SpaceLockRegistry(16, 1000, true);
+
+    @Mock
+    private NotificationSender notificationSender;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private SpaceClosureService closureService;
+
+    private UUID spaceId;
+    private Space space;
+    private OffsetDateTime startsAt;
+    private OffsetDateTime endsAt;
+
+    @BeforeEach
+    void setUp() {
+        spaceId = UUID.randomUUID();
+        space = new Space();
+        space.setSpaceId(spaceId);
+        space.setName("Gimnasio");
+        startsAt = OffsetDateTime.of(2026, 3, 16, 8, 0, 0, 0, ZoneOffset.ofHours(-6));
+        endsAt = startsAt.plusDays(2);
+    }
+
+    private Reservation reservation(UUID userId, OffsetDateTime start) {
+        Reservation reservation = new Reservation();
+        reservation.setReservationId(UUID.randomUUID());
+        reservation.setSpaceId(spaceId);
+        reservation.setUserId(userId);
+        reservation.setStartsAt(start);
+        reservation.setEndsAt(start.plusHours(2));
+        reservation.setStatus("CONFIRMED");
+        return reservation;
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCreateClosure_CancelsAffectedInOneUpdate() {
+        User user = new User();
+        user.setUserId(UUID.randomUUID());
+        user.setEmail("vecino@test.com");
+        Reservation first = reservation(user.getUserId(), startsAt.plusHours(2));
+        Reservation second = reservation(user.getUserId(), startsAt.plusDays(1));
+
+        when(spaceRepository.findById(spaceId)).thenReturn(Optional.of(space));
+        when(closureRepository.save(any(SpaceClosure.class))).thenAnswer(invocation -> {
+            SpaceClosure closure = invocation.getArgument(0);
+            closure.setClosureId(7L);
+            return closure;
+        });
+        when(reservationRepository.findConflictingReservations(spaceId, startsAt, endsAt)).thenReturn(List.of(first, second));
+        when(reservationRepository.cancelActiveInRange(eq(spaceId), eq(startsAt), eq(endsAt), anyString(), any())).thenReturn(2);
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+
+        SpaceClosureDto result = closureService.createClosure(spaceId, new CreateClosureDto("Inundación", startsAt, endsAt));
+
+        assertEquals(7L, result.getClosureId());
+        assertEquals(2, result.getCancelledReservations());
+        verify(reservationRepository, times(1))
+                .cancelActiveInRange(eq(spaceId), eq(startsAt), eq(endsAt), eq("Espacio cerrado: Inundación"), any());
+        verify(reservationRepository, never()).save(any());
+        verify(availabilityIndex).untrack(first.getReservationId());
+        verify(availabilityIndex).untrack(second.getReservationId());
+        verify(closureIndex).invalidate(spaceId);
+
+        ArgumentCaptor<List<NotificationEvent>> captor = ArgumentCaptor.forClass(List.class);
+        verify(notificationSender, times(1)).sendBatch(captor.capture());
+        verify(notificationSender, never()).send(any());
+        assertEquals(2, captor.getValue().size());
+        assertEquals(NotificationType.RESERVATION_CANCELLED, captor.getValue().get(0).getType());
+        assertEquals("Gimnasio", captor.getValue().get(0).getData().get("spaceName"));
+    }
+
+    @Test
+    void testCreateClosure_NoReservationsAffected() {
+        when(spaceRepository.findById(spaceId)).thenReturn(Optional.of(space));
+        when(closureRepository.save(any(SpaceClosure.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(reservationRepository.findConflictingReservations(spaceId, startsAt, endsAt)).thenReturn(List.of());
+
+        SpaceClosureDto result = closureService.createClosure(spaceId, new CreateClosureDto(null, startsAt, endsAt));
+
+        assertEquals(0, result.getCancelledReservations());
+        verify(reservationRepository, never()).cancelActiveInRange(any(), any(), any(), any(), any());
+        verifyNoInteractions(notificationSender);
+    }
+
+    @Test
+    void testCreateClosure_InvalidRange() {
+        when(spaceRepository.findById(spaceId)).thenReturn(Optional.of(space));
+
+        assertThrows(BusinessException.class,
+                () -> closureService.createClosure(spaceId, new CreateClosureDto(null, endsAt, startsAt)));
+        verify(closureRepository, never()).save(any());
+    }
+
+    @Test
+    void testCreateClosure_SpaceNotFound() {
+        when(spaceRepository.findById(spaceId)).thenReturn(Optional.empty());
+
+        assertThrows(SpaceNotFoundException.class,
+                () -> closureService.createClosure(spaceId, new CreateClosureDto(null, startsAt, endsAt)));
+    }
+
+    @Test
+    void testDeleteClosure_OnlyFromSameSpace() {
+        SpaceClosure closure = new SpaceClosure();
+        closure.setClosureId(3L);
+        closure.setSpaceId(spaceId);
+        when(closureRepository.findById(3L)).thenReturn(Optional.of(closure));
+
+        assertFalse(closureService.deleteClosure(UUID.randomUUID(), 3L));
+        assertTrue(closureService.deleteClosure(spaceId, 3L));
+        verify(closureRepository, times(1)).delete(closure);
+        verify(closureIndex, times(1)).invalidate(spaceId);
+    }
+
+    @Test
+    void testGetClosures() {
+        SpaceClosure closure = new SpaceClosure();
+        closure.setClosureId(3L);
+        closure.setSpaceId(spaceId);
+        when(spaceRepository.existsById(spaceId)).thenReturn(true);
+        when(closureRepository.findBySpaceIdOrderByStartsAtAsc(spaceId)).thenReturn(List.of(closure));
+
+        List<SpaceClosureDto> result = closureService.getClosures(spaceId);
+
+        assertEquals(1, result.size());
+        assertNull(result.get(0).getCancelledReservations());
+    }
+}
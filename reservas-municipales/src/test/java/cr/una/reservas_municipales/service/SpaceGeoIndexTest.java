@@ -0,0 +1,114 @@
+package cr.una.reservas_municipales.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceGeoIndexTest {
+
+    private static final GeoPoint SAN_JOSE = new GeoPoint(9.9281, -84.0907);
+
+    private final UUID centro = UUID.randomUUID();
+    private final UUID sabana = UUID.randomUUID();
+    private final UUID alajuela = UUID.randomUUID();
+    private final UUID liberia = UUID.randomUUID();
+    private SpaceGeoIndex index;
+
+    @BeforeEach
+    void setUp() {
+        Map<UUID, GeoPoint> points = new HashMap<>();
+        points.put(centro, new GeoPoint(9.9326, -84.0795));
+        points.put(sabana, new GeoPoint(9.9365, -84.1030));
+        points.put(alajuela, new GeoPoint(10.0163, -84.2116));
+        points.put(liberia, new GeoPoint(10.6346, -85.4407));
+        index = SpaceGeoIndex.build(points);
+    }
+
+    private List<UUID> nearest(GeoPoint center, double radiusKm, int limit) {
+        return index.nearest(center, radiusKm, id -> true, limit).stream()
+                .map(SpaceGeoIndex.Hit::spaceId)
+                .toList();
+    }
+
+    @Test
+    void testNearestOrderedByDistanceWithinRadius() {
+        assertEquals(List.of(centro, sabana), nearest(SAN_JOSE, 5, 10));
+        assertEquals(List.of(centro, sabana, alajuela), nearest(SAN_JOSE, 20, 10));
+        assertEquals(List.of(centro, sabana, alajuela, liberia), nearest(SAN_JOSE, 200, 10));
+    }
+
+    @Test
+    void testNearestRespectsLimit() {
+        assertEquals(List.of(centro), nearest(SAN_JOSE, 200, 1));
+        assertTrue(nearest(SAN_JOSE, 200, 0).isEmpty());
+    }
+
+    @Test
+    void testHitsCarryDistance() {
+        List<SpaceGeoIndex.Hit> hits = index.nearest(SAN_JOSE, 20, id -> true, 10);
+
+        assertEquals(SAN_JOSE.distanceKm(new GeoPoint(10.0163, -84.2116)), hits.get(2).distanceKm(), 1e-9);
+    }
+
+    @Test
+    void testFilterOnlyCheckedForCandidatesThatCouldEnter() {
+        AtomicInteger checks = new AtomicInteger();
+
+        List<SpaceGeoIndex.Hit> hits = index.nearest(SAN_JOSE, 200, id -> {
+            checks.incrementAndGet();
+            return !id.equals(centro);
+        }, 1);
+
+        assertEquals(sabana, hits.get(0).spaceId());
+        assertEquals(2, checks.get());
+    }
+
+    @Test
+    void testWithMovesAndRemovesSpaces() {
+        SpaceGeoIndex before = index;
+
+        index = before.with(liberia, new GeoPoint(9.9300, -84.0900)).with(centro, null);
+
+        assertEquals(List.of(liberia, sabana), nearest(SAN_JOSE, 5, 10));
+        assertEquals(3, index.size());
+        assertEquals(4, before.size());
+        assertSame(index, index.with(sabana, new GeoPoint(9.9365, -84.1030)));
+    }
+
+    @Test
+    void testMatchesBruteForceAcrossCellsAndAntimeridian() {
+        Random random = new Random(7);
+        Map<UUID, GeoPoint> points = new HashMap<>();
+        for (int i = 0; i < 2000; i++) {
+            points.put(UUID.randomUUID(), new GeoPoint(9.5 + random.nextDouble(), -84.5 + random.nextDouble()));
+        }
+        for (int i = 0; i < 200; i++) {
+            points.put(UUID.randomUUID(), new GeoPoint(-10 + random.nextDouble(), 179.5 + random.nextDouble() * 0.5));
+            points.put(UUID.randomUUID(), new GeoPoint(-10 + random.nextDouble(), -180 + random.nextDouble() * 0.5));
+        }
+        index = SpaceGeoIndex.build(points);
+
+        for (GeoPoint center : List.of(SAN_JOSE, new GeoPoint(9.51, -84.49), new GeoPoint(-9.5, 179.99))) {
+            for (double radius : List.of(1.0, 7.5, 40.0)) {
+                List<UUID> expected = new ArrayList<>(points.keySet()).stream()
+                        .filter(id -> center.distanceKm(points.get(id)) <= radius)
+                        .sorted(Comparator.comparingDouble((UUID id) -> center.distanceKm(points.get(id)))
+                                .thenComparing(id -> id))
+                        .limit(25)
+                        .toList();
+
+                assertEquals(expected, nearest(center, radius, 25), center + " r=" + radius);
+            }
+        }
+    }
+}
@@ -25,6 +25,9 @@ class SpaceImageServiceTest {
     @Mock
     private SpaceRepository spaceRepository;
 
+    @Mock
+    private SpaceCatalog spaceCatalog;
+
     @InjectMocks
     private SpaceImageService service;
 
@@ -227,6 +230,7 @@ class SpaceImageServiceTest {
         boolean ok = service.deleteImage(99L);
         assertThat(ok).isFalse();
         verify(imageRepository, never()).deleteById(anyLong());
+        verifyNoInteractions(spaceCatalog);
     }
 
     @Test
@@ -239,6 +243,7 @@ class SpaceImageServiceTest {
         assertThat(ok).isTrue();
         verify(imageRepository).deleteById(5L);
         verify(imageRepository, never()).findBySpaceIdOrderByOrdAsc(spaceId);
+        verify(spaceCatalog).refresh(spaceId);
     }
 
     @Test
@@ -275,6 +280,7 @@ class SpaceImageServiceTest {
     void deleteAllImagesForSpace_deletesBySpace() {
         service.deleteAllImagesForSpace(spaceId);
         verify(imageRepository).deleteBySpaceId(spaceId);
+        verify(spaceCatalog).refresh(spaceId);
     }
 
     // reorderImages
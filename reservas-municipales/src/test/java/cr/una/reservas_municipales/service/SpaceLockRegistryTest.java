@@ -0,0 +1,173 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceLockRegistryTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testConstructor_InvalidStripes() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceLockRegistry(0, 100, true));
+    }
+
+    @Test
+    void testExecute_ReturnsActionResult() {
+        SpaceLockRegistry registry = new SpaceLockRegistry(8, 100, true);
+
+        String result = registry.execute(UUID.randomUUID(), () -> "ok");
+
+        assertEquals("ok", result);
+    }
+
+    @Test
+    void testExecute_Disabled_RunsWithoutLocking() {
+        SpaceLockRegistry registry = new SpaceLockRegistry(8, 100, false);
+
+        assertEquals(42, registry.execute(UUID.randomUUID(), () -> 42));
+    }
+
+    @Test
+    void testStripeIndex_WithinBoundsAndSpread() {
+        SpaceLockRegistry registry = new SpaceLockRegistry(16, 100, true);
+        Set<Integer> used = new HashSet<>();
+
+        for (int i = 0; i < 500; i++) {
+            int index = registry.stripeIndex(UUID.randomUUID());
+            assertTrue(index >= 0 && index < 16);
+            used.add(index);
+        }
+
+        assertEquals(16, registry.stripeCount());
+        assertEquals(16, used.size());
+    }
+
+    @Test
+    void testExecute_ReleasesLockWhenActionFails() {
+        SpaceLockRegistry registry = new SpaceLockRegistry(1, 100, true);
+        UUID spaceId = UUID.randomUUID();
+
+        assertThrows(IllegalStateException.class, () -> registry.execute(spaceId, () -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("free", registry.execute(spaceId, () -> "free"));
+    }
+
+    @Test
+    void testExecute_TimesOutWhenSpaceIsBusy() throws Exception {
+        SpaceLockRegistry registry = new SpaceLockRegistry(1, 50, true);
+        UUID spaceId = UUID.randomUUID();
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<?> holder = executor.submit(() -> registry.run(spaceId, () -> {
+                holding.countDown();
+                awaitQuietly(release);
+            }));
+            assertTrue(holding.await(1, TimeUnit.SECONDS));
+
+            assertThrows(BusinessException.class, () -> registry.execute(spaceId, () -> "late"));
+
+            release.countDown();
+            holder.get(1, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecute_InsideTransaction_HoldsLockUntilCompletion() throws Exception {
+        SpaceLockRegistry registry = new SpaceLockRegistry(1, 50, true);
+        UUID spaceId = UUID.randomUUID();
+        TransactionSynchronizationManager.initSynchronization();
+
+        registry.run(spaceId, () -> { });
+
+        AtomicBoolean acquiredElsewhere = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> {
+                try {
+                    registry.run(spaceId, () -> { });
+                } catch (BusinessException e) {
+                    acquiredElsewhere.set(false);
+                }
+            }).get(1, TimeUnit.SECONDS);
+            assertFalse(acquiredElsewhere.get());
+
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+            executor.submit(() -> registry.run(spaceId, () -> { })).get(1, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecuteAll_LocksEverySpaceAndReleasesAfterwards() throws Exception {
+        SpaceLockRegistry registry = new SpaceLockRegistry(64, 50, true);
+        List<UUID> spaceIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            registry.executeAll(spaceIds, () -> {
+                for (UUID spaceId : spaceIds) {
+                    Future<?> attempt = executor.submit(() -> registry.execute(spaceId, () -> "late"));
+                    ExecutionException error = assertThrows(ExecutionException.class,
+                            () -> attempt.get(1, TimeUnit.SECONDS));
+                    assertInstanceOf(BusinessException.class, error.getCause());
+                }
+                return null;
+            });
+
+            for (UUID spaceId : spaceIds) {
+                assertEquals("free", executor.submit(() -> registry.execute(spaceId, () -> "free"))
+                        .get(1, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testExecuteAll_EmptyRunsAction() {
+        SpaceLockRegistry registry = new SpaceLockRegistry(8, 50, true);
+
+        assertEquals("ok", registry.executeAll(List.of(), () -> "ok"));
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
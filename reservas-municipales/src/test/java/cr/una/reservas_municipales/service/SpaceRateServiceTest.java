@@ -1,23 +1,34 @@
 package cr.una.reservas_municipales.service;
 
+import cr.una.reservas_municipales.dto.BulkQuoteRequestDto;
+import cr.una.reservas_municipales.dto.QuoteDto;
+import cr.una.reservas_municipales.dto.QuoteWindowDto;
 import cr.una.reservas_municipales.dto.SpaceRateDto;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.SpaceNotFoundException;
 import cr.una.reservas_municipales.model.SpaceRate;
 import cr.una.reservas_municipales.repository.SpaceRateRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -26,11 +37,18 @@ class SpaceRateServiceTest {
     @Mock
     private SpaceRateRepository spaceRateRepository;
 
+    @Mock
+    private SpaceRepository spaceRepository;
+
+    @Mock
+    private RateIndex rateIndex;
+
     @InjectMocks
     private SpaceRateService spaceRateService;
 
     private SpaceRate testRate;
     private UUID testSpaceId;
+    private final OffsetDateTime base = OffsetDateTime.of(2026, 3, 16, 8, 0, 0, 0, ZoneOffset.ofHours(-6));
 
     @BeforeEach
     void setUp() {
@@ -190,4 +208,69 @@ class SpaceRateServiceTest {
         assertEquals("DAY", result.get(1).getUnit());
         assertEquals(1440, result.get(1).getBlockMinutes());
     }
+
+    @Test
+    void testQuote_Success() {
+        when(rateIndex.quote(testSpaceId, base, base.plusHours(2)))
+                .thenReturn(Optional.of(new RateTimeline.Quote(1L, 1_000_000L, "CRC")));
+
+        QuoteDto quote = spaceRateService.quote(testSpaceId, base, base.plusHours(2));
+
+        assertTrue(quote.isPriced());
+        assertEquals(new BigDecimal("10000.00"), quote.getTotalAmount());
+        assertEquals(1L, quote.getRateId());
+        assertEquals("CRC", quote.getCurrency());
+        verify(spaceRepository, never()).existsById(any());
+    }
+
+    @Test
+    void testQuote_InvalidWindow() {
+        assertThrows(BusinessException.class, () -> spaceRateService.quote(testSpaceId, base, base));
+        assertThrows(BusinessException.class, () -> spaceRateService.quote(testSpaceId, null, base));
+        verifyNoInteractions(rateIndex);
+    }
+
+    @Test
+    void testQuote_WithoutRate() {
+        UUID missing = UUID.randomUUID();
+        when(rateIndex.quote(any(), any(), any())).thenReturn(Optional.empty());
+        when(spaceRepository.existsById(any())).thenAnswer(invocation -> testSpaceId.equals(invocation.getArgument(0)));
+
+        assertThrows(BusinessException.class, () -> spaceRateService.quote(testSpaceId, base, base.plusHours(1)));
+        assertThrows(SpaceNotFoundException.class, () -> spaceRateService.quote(missing, base, base.plusHours(1)));
+    }
+
+    @Test
+    void testQuoteBulk_EverySpaceInEveryWindow() {
+        UUID withoutRates = UUID.randomUUID();
+        testRate.setAppliesFrom(LocalDate.of(2026, 1, 1));
+        testRate.setAppliesTo(null);
+        when(rateIndex.timelines(any())).thenReturn(Map.of(
+                testSpaceId, RateTimeline.compile(List.of(testRate)),
+                withoutRates, RateTimeline.EMPTY));
+
+        List<QuoteDto> quotes = spaceRateService.quoteBulk(new BulkQuoteRequestDto(
+                List.of(testSpaceId, withoutRates, testSpaceId),
+                List.of(new QuoteWindowDto(base, base.plusHours(1)), new QuoteWindowDto(base, base.plusMinutes(150)))));
+
+        assertEquals(4, quotes.size());
+        assertEquals(new BigDecimal("5000.00"), quotes.get(0).getTotalAmount());
+        assertEquals(new BigDecimal("15000.00"), quotes.get(1).getTotalAmount());
+        assertEquals(withoutRates, quotes.get(2).getSpaceId());
+        assertFalse(quotes.get(2).isPriced());
+        assertNull(quotes.get(3).getTotalAmount());
+    }
+
+    @Test
+    void testQuoteBulk_RejectsTooManyQuotesAndInvalidWindows() {
+        ReflectionTestUtils.setField(spaceRateService, "maxBulkQuotes", 2);
+
+        assertThrows(BusinessException.class, () -> spaceRateService.quoteBulk(new BulkQuoteRequestDto(
+                List.of(testSpaceId, UUID.randomUUID(), UUID.randomUUID()),
+                List.of(new QuoteWindowDto(base, base.plusHours(1))))));
+        assertThrows(BusinessException.class, () -> spaceRateService.quoteBulk(new BulkQuoteRequestDto(
+                List.of(testSpaceId),
+                List.of(new QuoteWindowDto(base, base.minusHours(1))))));
+        verifyNoInteractions(rateIndex);
+    }
 }
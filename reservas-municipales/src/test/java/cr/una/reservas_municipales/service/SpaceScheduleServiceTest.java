@@ -32,6 +32,9 @@ class SpaceScheduleServiceTest {
     @Mock
     private SpaceRepository spaceRepository;
 
+    @Mock
+    private ScheduleIndex scheduleIndex;
+
     @InjectMocks
     private SpaceScheduleService scheduleService;
 
@@ -109,6 +112,7 @@ class SpaceScheduleServiceTest {
         assertNotNull(result);
         assertEquals(testSpaceId, result.getSpaceId());
         verify(scheduleRepository, times(1)).save(any(SpaceSchedule.class));
+        verify(scheduleIndex).invalidate(testSpaceId);
     }
 
     @Test
@@ -123,6 +127,7 @@ class SpaceScheduleServiceTest {
 
         assertTrue(exception.getMessage().contains("Space not found"));
         verify(scheduleRepository, never()).save(any());
+        verifyNoInteractions(scheduleIndex);
     }
 
     @Test
@@ -215,6 +220,7 @@ class SpaceScheduleServiceTest {
 
         // Assert
         verify(scheduleRepository, times(1)).deleteById(scheduleId);
+        verify(scheduleIndex).invalidateAll();
     }
 
     @Test
@@ -245,6 +251,7 @@ class SpaceScheduleServiceTest {
         // Assert
         verify(scheduleRepository, times(1)).countBySpace_SpaceId(testSpaceId);
         verify(scheduleRepository, times(1)).deleteBySpace_SpaceId(testSpaceId);
+        verify(scheduleIndex).invalidate(testSpaceId);
     }
 
     @Test
@@ -0,0 +1,136 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.model.Space;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpaceSearchIndexTest {
+
+    private Space salon;
+    private Space cancha;
+    private Space gimnasio;
+    private SpaceSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        salon = space("Salón Comunal", "Salón para eventos y reuniones", "Barrio San José");
+        cancha = space("Cancha de Fútbol", "Césped sintético con iluminación", "Sector Norte");
+        gimnasio = space("Polideportivo", "Gimnasio techado con gradería", "Sector Sur");
+        index = SpaceSearchIndex.build(List.of(entry(salon), entry(cancha), entry(gimnasio)));
+    }
+
+    private static Space space(String name, String description, String location) {
+        Space space = new Space();
+        space.setSpaceId(UUID.randomUUID());
+        space.setName(name);
+        space.setDescription(description);
+        space.setLocation(location);
+        space.setActive(true);
+        return space;
+    }
+
+    private static SpaceCatalog.Entry entry(Space space) {
+        return SpaceCatalog.Entry.of(space, List.of());
+    }
+
+    private List<UUID> search(String query) {
+        return index.search(query, SpaceSearchIndex.ALL_FIELDS, id -> true, 10).stream()
+                .map(SpaceSearchIndex.Hit::spaceId)
+                .toList();
+    }
+
+    @Test
+    void testFoldRemovesAccentsCaseAndPunctuation() {
+        assertEquals("salon comunal", SpaceSearchIndex.fold("  Salón, Comunal! "));
+        assertEquals("cesped sintetico", SpaceSearchIndex.fold("CÉSPED sintético"));
+        assertEquals("", SpaceSearchIndex.fold(null));
+    }
+
+    @Test
+    void testTrigramsArePadded() {
+        assertEquals(List.of("  s", " sa", "sal", "al "), List.copyOf(SpaceSearchIndex.trigrams("sal")));
+    }
+
+    @Test
+    void testShortQueryWordsIgnoredWhenLongerOnesPresent() {
+        assertEquals(List.of("cancha", "futbol"), SpaceSearchIndex.queryWords("Cancha de Fútbol"));
+        assertEquals(List.of("de"), SpaceSearchIndex.queryWords("de"));
+        assertEquals(List.of(), SpaceSearchIndex.queryWords("  ¡! "));
+    }
+
+    @Test
+    void testMatchesWithoutAccents() {
+        assertEquals(List.of(salon.getSpaceId()), search("salon"));
+        assertEquals(List.of(cancha.getSpaceId()), search("FUTBOL"));
+    }
+
+    @Test
+    void testToleratesTyposAndPrefixes() {
+        assertEquals(List.of(gimnasio.getSpaceId()), search("gimnacio"));
+        assertEquals(List.of(salon.getSpaceId()), search("salom comunal"));
+        assertEquals(List.of(gimnasio.getSpaceId()), search("polidep"));
+    }
+
+    @Test
+    void testAllQueryWordsMustMatch() {
+        assertEquals(List.of(cancha.getSpaceId()), search("cancha norte"));
+        assertTrue(search("cancha sur").isEmpty());
+        assertTrue(search("texto no en nombre").isEmpty());
+    }
+
+    @Test
+    void testRanksNameAboveDescriptionAndLocation() {
+        Space sectorSpace = space("Sector Infantil", "Juegos para niños", "Parque Central");
+        index = index.with(sectorSpace.getSpaceId(), entry(sectorSpace));
+
+        List<UUID> result = search("sector");
+
+        assertEquals(3, result.size());
+        assertEquals(sectorSpace.getSpaceId(), result.get(0));
+    }
+
+    @Test
+    void testFieldMaskRestrictsFields() {
+        assertTrue(index.search("norte", SpaceSearchIndex.NAME_AND_DESCRIPTION, id -> true, 10).isEmpty());
+        assertEquals(1, index.search("norte", SpaceSearchIndex.ALL_FIELDS, id -> true, 10).size());
+    }
+
+    @Test
+    void testFilterAppliesBeforeLimit() {
+        List<SpaceSearchIndex.Hit> hits = index.search("sector", SpaceSearchIndex.ALL_FIELDS,
+                id -> !id.equals(cancha.getSpaceId()), 1);
+
+        assertEquals(1, hits.size());
+        assertEquals(gimnasio.getSpaceId(), hits.get(0).spaceId());
+    }
+
+    @Test
+    void testWithUpdatesOnlyChangedSpace() {
+        SpaceSearchIndex before = index;
+        cancha.setName("Cancha de Baloncesto");
+
+        SpaceSearchIndex after = before.with(cancha.getSpaceId(), entry(cancha));
+        index = after;
+
+        assertTrue(search("futbol").isEmpty());
+        assertEquals(List.of(cancha.getSpaceId()), search("baloncesto"));
+        assertEquals(List.of(salon.getSpaceId()), search("salon"));
+        assertEquals(3, after.size());
+
+        index = before;
+        assertEquals(List.of(cancha.getSpaceId()), search("futbol"));
+    }
+
+    @Test
+    void testWithNullRemovesSpace() {
+        index = index.with(salon.getSpaceId(), null);
+
+        assertTrue(search("salon").isEmpty());
+        assertEquals(2, index.size());
+    }
+}
@@ -0,0 +1,132 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.SpaceDto;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.SpaceImage;
+import cr.una.reservas_municipales.repository.SpaceImageRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Cuenta las sentencias JDBC de los listados de espacios contra H2: la carga del catálogo y la
+ * búsqueda de disponibles deben usar dos (espacios + imágenes) sin importar cuántos espacios haya,
+ * y las lecturas posteriores del catálogo ninguna. Falla si vuelve el N+1.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Import({SpaceService.class, SpaceCatalog.class})
+class SpaceServiceQueryCountTest {
+
+    private static final int SPACES = 25;
+
+    @Autowired
+    private SpaceService spaceService;
+
+    @Autowired
+    private SpaceRepository spaceRepository;
+
+    @Autowired
+    private SpaceImageRepository spaceImageRepository;
+
+    @Autowired
+    private SpaceCatalog spaceCatalog;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private CloudinaryService cloudinaryService;
+
+    @MockitoBean
+    private AvailabilityIndex availabilityIndex;
+
+    @MockitoBean
+    private ClosureIndex closureIndex;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < SPACES; i++) {
+            Space space = new Space();
+            space.setSpaceId(UUID.randomUUID());
+            space.setName("Espacio " + i);
+            space.setSpaceTypeId((short) 1);
+            space.setCapacity(10 + i);
+            space.setLocation("Sector " + i);
+            space.setActive(true);
+            space.setCreatedAt(now);
+            space.setUpdatedAt(now);
+            spaceRepository.save(space);
+            for (int ord = 0; ord < 2; ord++) {
+                SpaceImage image = new SpaceImage();
+                image.setSpaceId(space.getSpaceId());
+                image.setUrl("https://img/" + i + "/" + ord + ".jpg");
+                image.setMain(ord == 0);
+                image.setOrd(ord);
+                image.setCreatedAt(now);
+                spaceImageRepository.save(image);
+            }
+        }
+        entityManager.flush();
+        entityManager.clear();
+        // El catálogo es un singleton del contexto y sobrevive al rollback de cada prueba
+        spaceCatalog.invalidateAll();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    void testCatalogLoad_UsesTwoStatements() {
+        List<SpaceDto> result = spaceService.listAll();
+
+        assertEquals(SPACES, result.size());
+        assertTrue(result.stream().allMatch(dto -> dto.getImages().size() == 2));
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testCatalogReads_UseNoStatementsOnceLoaded() {
+        spaceService.listAll();
+        statistics.clear();
+
+        assertEquals(SPACES, spaceService.listActiveSpaces().size());
+        List<SpaceDto> found = spaceService.searchSpaces("espacio", null, null, null, "sector", null, true);
+        assertEquals(SPACES, found.size());
+        assertEquals(0, found.get(0).getImages().get(0).getOrd());
+        assertTrue(spaceService.existsByName("ESPACIO 3"));
+        UUID espacio3 = found.stream().filter(dto -> dto.getName().equals("Espacio 3")).findFirst().orElseThrow().getSpaceId();
+        assertFalse(spaceService.existsByNameAndNotId("Espacio 3", espacio3));
+        assertEquals(0, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void testFindAvailableSpaces_UsesTwoStatements() {
+        OffsetDateTime start = OffsetDateTime.now().plusDays(1);
+
+        List<SpaceDto> result = spaceService.findAvailableSpaces(start.toString(), start.plusHours(2).toString(),
+                null, null, null, null, null);
+
+        assertEquals(SPACES, result.size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+    }
+}
@@ -1,13 +1,14 @@
 package cr.una.reservas_municipales.service;
 
+import cr.una.reservas_municipales.dto.NearbySpaceDto;
 import cr.una.reservas_municipales.dto.SpaceDto;
+import cr.una.reservas_municipales.exception.BusinessException;
 import cr.una.reservas_municipales.model.Space;
 import cr.una.reservas_municipales.repository.SpaceRepository;
 import cr.una.reservas_municipales.repository.ReservationRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -21,6 +22,8 @@ import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.mockito.Mockito.lenient;
 
@@ -39,7 +42,14 @@ class SpaceServiceTest {
     @Mock
     private CloudinaryService cloudinaryService;
 
-    @InjectMocks
+    @Mock
+    private AvailabilityIndex availabilityIndex;
+
+    @Mock
+    private ClosureIndex closureIndex;
+
+    private SpaceCatalog spaceCatalog;
+
     private SpaceService spaceService;
 
     private UUID testSpaceId;
@@ -48,6 +58,10 @@ class SpaceServiceTest {
 
     @BeforeEach
     void setUp() {
+        spaceCatalog = new SpaceCatalog(spaceRepository, spaceImageRepository, 5);
+        spaceService = new SpaceService(spaceRepository, reservationRepository, spaceImageRepository,
+                cloudinaryService, spaceCatalog, availabilityIndex, closureIndex);
+
         testSpaceId = UUID.randomUUID();
 
         testSpace = new Space();
@@ -116,6 +130,56 @@ class SpaceServiceTest {
         assertTrue(result.get(0).isActive());
     }
 
+    @Test
+    void testListAll_LoadsImagesInBatches() {
+        // Arrange
+        List<Space> spaces = new ArrayList<>();
+        for (int i = 0; i < SpaceService.IMAGE_BATCH_SIZE + 1; i++) {
+            Space space = new Space();
+            space.setSpaceId(UUID.randomUUID());
+            space.setName("Espacio " + i);
+            space.setActive(true);
+            spaces.add(space);
+        }
+        cr.una.reservas_municipales.model.SpaceImage image = new cr.una.reservas_municipales.model.SpaceImage();
+        image.setImageId(1L);
+        image.setSpaceId(spaces.get(0).getSpaceId());
+        image.setUrl("https://img/1.jpg");
+        image.setOrd(0);
+        when(spaceRepository.findAll()).thenReturn(spaces);
+        when(spaceImageRepository.findBySpaceIdInOrderByOrdAsc(any())).thenReturn(List.of(image), List.of());
+
+        // Act
+        List<SpaceDto> result = spaceService.listAll();
+
+        // Assert
+        assertEquals(SpaceService.IMAGE_BATCH_SIZE + 1, result.size());
+        assertEquals("https://img/1.jpg", result.get(0).getImages().get(0).getUrl());
+        assertTrue(result.get(1).getImages().isEmpty());
+        verify(spaceImageRepository, times(2)).findBySpaceIdInOrderByOrdAsc(any());
+        verify(spaceImageRepository, never()).findBySpaceIdOrderByOrdAsc(any());
+    }
+
+    @Test
+    void testSearchSpaces_LoadsImagesInOneQuery() {
+        // Arrange
+        Space other = new Space();
+        other.setSpaceId(UUID.randomUUID());
+        other.setName("Cancha de Baloncesto");
+        other.setActive(true);
+        other.setCapacity(20);
+        other.setSpaceTypeId((short) 1);
+        when(spaceRepository.findAll()).thenReturn(Arrays.asList(testSpace, other));
+
+        // Act
+        List<SpaceDto> result = spaceService.searchSpaces("cancha", null, null, null, null, null, true);
+
+        // Assert
+        assertEquals(2, result.size());
+        verify(spaceImageRepository, times(1)).findBySpaceIdInOrderByOrdAsc(List.of(testSpaceId, other.getSpaceId()));
+        verify(spaceImageRepository, never()).findBySpaceIdOrderByOrdAsc(any());
+    }
+
     @Test
     void testGetById_Success() {
         // Arrange
@@ -164,6 +228,48 @@ class SpaceServiceTest {
         assertTrue(saved.isActive());
     }
 
+    @Test
+    void testCreateSpace_NormalizesCoordinatesFromLocation() {
+        // Arrange
+        testSpaceDto.setLocation("9.9326, -84.0795");
+        when(spaceRepository.save(any(Space.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        SpaceDto result = spaceService.createSpace(testSpaceDto);
+
+        // Assert
+        assertEquals(9.9326, result.getLatitude());
+        assertEquals(-84.0795, result.getLongitude());
+    }
+
+    @Test
+    void testUpdateSpace_ExplicitCoordinatesWinAndTextLocationClearsThem() {
+        // Arrange
+        testSpace.setLatitude(9.0);
+        testSpace.setLongitude(-84.0);
+        SpaceDto updateDto = new SpaceDto();
+        updateDto.setName("Cancha de Fútbol");
+        updateDto.setCapacity(50);
+        updateDto.setLocation("9.9326, -84.0795");
+        updateDto.setLatitude(10.0163);
+        updateDto.setLongitude(-84.2116);
+        when(spaceRepository.findById(testSpaceId)).thenReturn(Optional.of(testSpace));
+        when(spaceRepository.save(any(Space.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        spaceService.updateSpace(testSpaceId, updateDto);
+        double latitude = testSpace.getLatitude();
+        updateDto.setLatitude(null);
+        updateDto.setLongitude(null);
+        updateDto.setLocation("Sector Sur");
+        spaceService.updateSpace(testSpaceId, updateDto);
+
+        // Assert
+        assertEquals(10.0163, latitude);
+        assertNull(testSpace.getLatitude());
+        assertNull(testSpace.getLongitude());
+    }
+
     @Test
     void testUpdateSpace_Success() {
         // Arrange
@@ -346,6 +452,144 @@ class SpaceServiceTest {
         assertEquals("Cancha de Fútbol", result.get(0).getName());
     }
 
+    @Test
+    void testSearchSpaces_ByNameIgnoresAccentsAndTypos() {
+        // Arrange
+        when(spaceRepository.findAll()).thenReturn(Arrays.asList(testSpace));
+
+        // Act
+        List<SpaceDto> result = spaceService.searchSpaces("FUTBOL", null, null, null, null, null, true);
+        List<SpaceDto> other = spaceService.searchSpaces("piscina", null, null, null, null, null, true);
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(0, other.size());
+    }
+
+    @Test
+    void testSearchText_RanksActiveSpacesAcrossFields() {
+        // Arrange
+        Space salon = new Space();
+        salon.setSpaceId(UUID.randomUUID());
+        salon.setName("Salón Norte");
+        salon.setLocation("Centro");
+        salon.setActive(true);
+        Space inactive = new Space();
+        inactive.setSpaceId(UUID.randomUUID());
+        inactive.setName("Cancha Norte");
+        inactive.setActive(false);
+        when(spaceRepository.findAll()).thenReturn(Arrays.asList(testSpace, salon, inactive));
+
+        // Act
+        List<SpaceDto> result = spaceService.searchText("norte", null);
+        List<SpaceDto> typo = spaceService.searchText("cesped sintetico", null);
+
+        // Assert
+        assertEquals(List.of("Salón Norte", "Cancha de Fútbol"), result.stream().map(SpaceDto::getName).toList());
+        assertEquals(List.of("Cancha de Fútbol"), typo.stream().map(SpaceDto::getName).toList());
+    }
+
+    @Test
+    void testSearchText_AppliesDefaultAndMaxLimit() {
+        // Arrange
+        List<Space> spaces = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            Space space = new Space();
+            space.setSpaceId(UUID.randomUUID());
+            space.setName("Salón " + i);
+            space.setActive(true);
+            spaces.add(space);
+        }
+        when(spaceRepository.findAll()).thenReturn(spaces);
+
+        // Act & Assert
+        assertEquals(10, spaceService.searchText("salon", null).size());
+        assertEquals(10, spaceService.searchText("salon", 0).size());
+        assertEquals(3, spaceService.searchText("salon", 3).size());
+        assertEquals(50, spaceService.searchText("salon", 500).size());
+        assertTrue(spaceService.searchText("  ", null).isEmpty());
+    }
+
+    private Space spaceAt(String name, double latitude, double longitude, boolean outdoor, boolean active) {
+        Space space = new Space();
+        space.setSpaceId(UUID.randomUUID());
+        space.setName(name);
+        space.setSpaceTypeId((short) 1);
+        space.setCapacity(30);
+        space.setLatitude(latitude);
+        space.setLongitude(longitude);
+        space.setOutdoor(outdoor);
+        space.setActive(active);
+        return space;
+    }
+
+    @Test
+    void testFindNearbySpaces_OrdersByDistanceWithFilters() {
+        // Arrange
+        Space plaza = spaceAt("Plaza", 9.9326, -84.0795, true, true);
+        Space gimnasio = spaceAt("Gimnasio", 9.9290, -84.0900, false, true);
+        Space cerrado = spaceAt("Parque Cerrado", 9.9282, -84.0906, true, false);
+        Space alajuela = spaceAt("Parque Alajuela", 10.0163, -84.2116, true, true);
+        testSpace.setLocation("9.9365, -84.1030");
+        when(spaceRepository.findAll()).thenReturn(Arrays.asList(testSpace, plaza, gimnasio, cerrado, alajuela));
+
+        // Act
+        List<NearbySpaceDto> outdoor = spaceService.findNearbySpaces(9.9281, -84.0907, null, null,
+                null, null, true, null, null);
+        List<NearbySpaceDto> wide = spaceService.findNearbySpaces(9.9281, -84.0907, 50.0, 2,
+                null, null, null, null, null);
+
+        // Assert
+        assertEquals(List.of("Plaza", "Cancha de Fútbol"), outdoor.stream().map(n -> n.getSpace().getName()).toList());
+        assertTrue(outdoor.get(0).getDistanceKm() < outdoor.get(1).getDistanceKm());
+        assertEquals(List.of("Gimnasio", "Plaza"), wide.stream().map(n -> n.getSpace().getName()).toList());
+        verify(reservationRepository, never()).findConflictingReservations(any(), any(), any());
+    }
+
+    @Test
+    void testFindNearbySpaces_WithDatesSkipsBookedAndClosedSpaces() {
+        // Arrange
+        Space reservada = spaceAt("Reservada", 9.9282, -84.0907, true, true);
+        Space cerrada = spaceAt("Cerrada", 9.9283, -84.0907, true, true);
+        Space libre = spaceAt("Libre", 9.9290, -84.0907, true, true);
+        when(spaceRepository.findAll()).thenReturn(Arrays.asList(reservada, cerrada, libre));
+        String start = "2030-01-10T10:00:00-06:00";
+        String end = "2030-01-10T12:00:00-06:00";
+        OffsetDateTime startsAt = OffsetDateTime.parse(start);
+        OffsetDateTime endsAt = OffsetDateTime.parse(end);
+        when(availabilityIndex.covers(startsAt)).thenReturn(true);
+        when(availabilityIndex.hasConflict(any(), eq(startsAt), eq(endsAt), isNull()))
+                .thenAnswer(invocation -> reservada.getSpaceId().equals(invocation.getArgument(0)));
+        when(reservationRepository.findConflictingReservations(reservada.getSpaceId(), startsAt, endsAt))
+                .thenReturn(List.of(new cr.una.reservas_municipales.model.Reservation()));
+        when(closureIndex.findOverlap(any(), eq(startsAt), eq(endsAt)))
+                .thenAnswer(invocation -> cerrada.getSpaceId().equals(invocation.getArgument(0))
+                        ? Optional.of(new cr.una.reservas_municipales.model.SpaceClosure())
+                        : Optional.empty());
+
+        // Act
+        List<NearbySpaceDto> result = spaceService.findNearbySpaces(9.9281, -84.0907, 5.0, 10,
+                null, null, null, start, end);
+
+        // Assert
+        assertEquals(List.of("Libre"), result.stream().map(n -> n.getSpace().getName()).toList());
+        verify(reservationRepository, times(1)).findConflictingReservations(any(), any(), any());
+    }
+
+    @Test
+    void testFindNearbySpaces_InvalidInput() {
+        assertThrows(BusinessException.class,
+                () -> spaceService.findNearbySpaces(95, -84, null, null, null, null, null, null, null));
+        assertThrows(BusinessException.class,
+                () -> spaceService.findNearbySpaces(9.9, -84, null, null, null, null, null, "2030-01-10T10:00:00-06:00", null));
+        assertThrows(BusinessException.class,
+                () -> spaceService.findNearbySpaces(9.9, -84, null, null, null, null, null, "mañana", "pasado"));
+        assertThrows(BusinessException.class,
+                () -> spaceService.findNearbySpaces(9.9, -84, null, null, null, null, null,
+                        "2030-01-10T12:00:00-06:00", "2030-01-10T10:00:00-06:00"));
+        verifyNoInteractions(spaceRepository);
+    }
+
     @Test
     void testSearchSpaces_ByCapacity() {
         // Arrange
@@ -578,86 +822,107 @@ class SpaceServiceTest {
         String startDate = OffsetDateTime.now().plusDays(1).toString();
         String endDate = OffsetDateTime.now().plusDays(1).plusHours(2).toString();
         
-        when(spaceRepository.findAll()).thenReturn(Arrays.asList(testSpace));
-        when(reservationRepository.findOccupiedSpaceIds(any(), any())).thenReturn(Arrays.asList());
+        when(spaceRepository.findAvailable(any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(testSpace));
 
         // Act
-        List<SpaceDto> result = spaceService.findAvailableSpaces(startDate, endDate, null, null);
+        List<SpaceDto> result = spaceService.findAvailableSpaces(startDate, endDate, null, null, null, null, null);
 
         // Assert
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(reservationRepository, times(1)).findOccupiedSpaceIds(any(), any());
+        verify(spaceRepository, times(1)).findAvailable(any(), any(), isNull(), isNull(), eq("name"), eq(100), eq(0));
+        verify(spaceRepository, never()).findAll();
+        // La disponibilidad se filtra en la consulta de espacios, sin leer reservas aparte
+        verifyNoInteractions(reservationRepository);
     }
 
     @Test
-    void testFindAvailableSpaces_OccupiedSpace() {
+    void testFindAvailableSpaces_NoneAvailable() {
         // Arrange
         String startDate = OffsetDateTime.now().plusDays(1).toString();
         String endDate = OffsetDateTime.now().plusDays(1).plusHours(2).toString();
-        
-        when(spaceRepository.findAll()).thenReturn(Arrays.asList(testSpace));
-        when(reservationRepository.findOccupiedSpaceIds(any(), any())).thenReturn(Arrays.asList(testSpaceId));
+        when(spaceRepository.findAvailable(any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(new ArrayList<>());
 
         // Act
-        List<SpaceDto> result = spaceService.findAvailableSpaces(startDate, endDate, null, null);
+        List<SpaceDto> result = spaceService.findAvailableSpaces(startDate, endDate, null, null, null, null, null);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(0, result.size()); // Espacio ocupado, no debe aparecer
+        assertEquals(0, result.size());
+        verify(spaceImageRepository, never()).findBySpaceIdInOrderByOrdAsc(any());
     }
 
     @Test
-    void testFindAvailableSpaces_FiltersByMinCapacity() {
+    void testFindAvailableSpaces_PassesFiltersToQuery() {
         // Arrange
-        String startDate = OffsetDateTime.now().plusDays(1).toString();
-        String endDate = OffsetDateTime.now().plusDays(1).plusHours(2).toString();
-        when(spaceRepository.findAll()).thenReturn(Arrays.asList(testSpace));
-        when(reservationRepository.findOccupiedSpaceIds(any(), any())).thenReturn(Arrays.asList());
+        String startDate = "2030-01-10T08:00:00-06:00";
+        String endDate = "2030-01-10T10:00:00-06:00";
+        when(spaceRepository.findAvailable(any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(new ArrayList<>());
 
         // Act
-        List<SpaceDto> none = spaceService.findAvailableSpaces(startDate, endDate, null, 100);
+        spaceService.findAvailableSpaces(startDate, endDate, 1, 40, "rating", 20, 40);
 
         // Assert
-        assertEquals(0, none.size());
+        verify(spaceRepository).findAvailable(OffsetDateTime.parse(startDate), OffsetDateTime.parse(endDate),
+                (short) 1, 40, "rating", 20, 40);
     }
 
     @Test
-    void testFindAvailableSpaces_FiltersBySpaceTypeId() {
+    void testFindAvailableSpaces_NormalizesSortAndPaging() {
         // Arrange
         String startDate = OffsetDateTime.now().plusDays(1).toString();
         String endDate = OffsetDateTime.now().plusDays(1).plusHours(2).toString();
-        when(spaceRepository.findAll()).thenReturn(Arrays.asList(testSpace));
-        when(reservationRepository.findOccupiedSpaceIds(any(), any())).thenReturn(Arrays.asList());
+        when(spaceRepository.findAvailable(any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(new ArrayList<>());
 
         // Act
-        List<SpaceDto> match = spaceService.findAvailableSpaces(startDate, endDate, 1, null);
-        List<SpaceDto> noMatch = spaceService.findAvailableSpaces(startDate, endDate, 2, null);
+        spaceService.findAvailableSpaces(startDate, endDate, null, null, "precio; DROP", 10_000, -5);
+        spaceService.findAvailableSpaces(startDate, endDate, null, null, "capacity", 0, null);
 
         // Assert
-        assertEquals(1, match.size());
-        assertEquals(0, noMatch.size());
+        verify(spaceRepository).findAvailable(any(), any(), isNull(), isNull(), eq("name"), eq(500), eq(0));
+        verify(spaceRepository).findAvailable(any(), any(), isNull(), isNull(), eq("capacity"), eq(100), eq(0));
     }
 
     @Test
-    void testFindAvailableSpaces_ExcludesInactiveSpaces() {
+    void testFindAvailableSpaces_LoadsImagesInOneQuery() {
         // Arrange
         String startDate = OffsetDateTime.now().plusDays(1).toString();
         String endDate = OffsetDateTime.now().plusDays(1).plusHours(2).toString();
-        Space inactive = new Space();
-        inactive.setSpaceId(UUID.randomUUID());
-        inactive.setName("Inactive");
-        inactive.setActive(false);
-        inactive.setCapacity(50);
-        inactive.setSpaceTypeId((short)1);
-        when(spaceRepository.findAll()).thenReturn(Arrays.asList(inactive));
-        when(reservationRepository.findOccupiedSpaceIds(any(), any())).thenReturn(Arrays.asList());
+        Space other = new Space();
+        other.setSpaceId(UUID.randomUUID());
+        other.setName("Salón Comunal");
+        other.setActive(true);
+        other.setCapacity(80);
+        other.setSpaceTypeId((short) 2);
+        cr.una.reservas_municipales.model.SpaceImage first = new cr.una.reservas_municipales.model.SpaceImage();
+        first.setImageId(1L);
+        first.setSpaceId(testSpaceId);
+        first.setUrl("https://img/1.jpg");
+        first.setOrd(0);
+        cr.una.reservas_municipales.model.SpaceImage second = new cr.una.reservas_municipales.model.SpaceImage();
+        second.setImageId(2L);
+        second.setSpaceId(testSpaceId);
+        second.setUrl("https://img/2.jpg");
+        second.setOrd(1);
+        when(spaceRepository.findAvailable(any(), any(), any(), any(), any(), anyInt(), anyInt()))
+                .thenReturn(Arrays.asList(testSpace, other));
+        when(spaceImageRepository.findBySpaceIdInOrderByOrdAsc(List.of(testSpaceId, other.getSpaceId())))
+                .thenReturn(Arrays.asList(first, second));
 
         // Act
-        List<SpaceDto> result = spaceService.findAvailableSpaces(startDate, endDate, null, null);
+        List<SpaceDto> result = spaceService.findAvailableSpaces(startDate, endDate, null, null, null, null, null);
 
         // Assert
-        assertEquals(0, result.size());
+        assertEquals(2, result.size());
+        assertEquals(2, result.get(0).getImages().size());
+        assertEquals("https://img/1.jpg", result.get(0).getImages().get(0).getUrl());
+        assertEquals("https://img/2.jpg", result.get(0).getImages().get(1).getUrl());
+        assertTrue(result.get(1).getImages().isEmpty());
+        verify(spaceImageRepository, times(1)).findBySpaceIdInOrderByOrdAsc(any());
+        verify(spaceImageRepository, never()).findBySpaceIdOrderByOrdAsc(any());
     }
 
     @Test
@@ -667,7 +932,7 @@ class SpaceServiceTest {
 
         // Act & Assert
         RuntimeException exception = assertThrows(RuntimeException.class, () -> {
-            spaceService.findAvailableSpaces(invalidDate, invalidDate, null, null);
+            spaceService.findAvailableSpaces(invalidDate, invalidDate, null, null, null, null, null);
         });
 
         assertTrue(exception.getMessage().contains("Invalid date format"));
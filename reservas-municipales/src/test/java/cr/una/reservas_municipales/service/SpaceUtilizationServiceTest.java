@@ -0,0 +1,205 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.dto.SpaceUtilizationDTO;
+import cr.una.reservas_municipales.dto.UtilizationReportDTO;
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.exception.SpaceNotFoundException;
+import cr.una.reservas_municipales.model.Space;
+import cr.una.reservas_municipales.model.SpaceClosure;
+import cr.una.reservas_municipales.model.SpaceSchedule;
+import cr.una.reservas_municipales.repository.ReservationRepository;
+import cr.una.reservas_municipales.repository.SpaceClosureRepository;
+import cr.una.reservas_municipales.repository.SpaceImageRepository;
+import cr.una.reservas_municipales.repository.SpaceRepository;
+import cr.una.reservas_municipales.repository.SpaceScheduleRepository;
+import cr.una.reservas_municipales.repository.projection.ReservationSlot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpaceUtilizationServiceTest {
+
+    @Mock
+    private ReservationRepository reservationRepository;
+
+    @Mock
+    private SpaceRepository spaceRepository;
+
+    @Mock
+    private SpaceImageRepository spaceImageRepository;
+
+    @Mock
+    private SpaceScheduleRepository spaceScheduleRepository;
+
+    @Mock
+    private SpaceClosureRepository spaceClosureRepository;
+
+    private SpaceUtilizationService utilizationService;
+
+    // Lunes 3 a domingo 9 de marzo de 2025
+    private final LocalDate from = LocalDate.of(2025, 3, 3);
+    private final LocalDate to = LocalDate.of(2025, 3, 9);
+
+    private Space cancha;
+    private Space salon;
+
+    @BeforeEach
+    void setUp() {
+        SpaceCatalog catalog = new SpaceCatalog(spaceRepository, spaceImageRepository, 5);
+        ScheduleIndex scheduleIndex = new ScheduleIndex(spaceScheduleRepository, 100, 10);
+        ClosureIndex closureIndex = new ClosureIndex(spaceClosureRepository, 100, 10);
+        utilizationService = new SpaceUtilizationService(reservationRepository, catalog, scheduleIndex, closureIndex,
+                2, 366);
+
+        cancha = space("Cancha", true);
+        salon = space("Salón", true);
+        lenient().when(spaceRepository.findAll()).thenReturn(List.of(cancha, salon, space("Piscina", false)));
+        lenient().when(spaceImageRepository.findBySpaceIdInOrderByOrdAsc(any())).thenReturn(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        utilizationService.shutdown();
+    }
+
+    @Test
+    void testGetUtilization_IntersectsReservationsWithOpenHours() {
+        stubCancha();
+        when(spaceScheduleRepository.findBySpace_SpaceId(salon.getSpaceId())).thenReturn(List.of());
+        when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(salon.getSpaceId())).thenReturn(List.of());
+        List<ReservationSlot> slots = List.of(
+                // Se solapan: 09:00-10:30 cuenta una sola vez
+                slot(cancha, at(3, 9, 0), at(3, 10, 0)),
+                slot(cancha, at(3, 9, 30), at(3, 10, 30)),
+                // Solo 11:30-12:00 cae dentro del horario
+                slot(cancha, at(4, 11, 30), at(4, 13, 0)),
+                // Sin horarios: abierto todo el día; cruza la medianoche del sábado
+                slot(salon, at(8, 20, 0), at(9, 2, 0)),
+                // Empezó antes del rango: cuenta la hora del lunes, pero no como reserva del rango
+                slot(salon, at(2, 23, 0), at(3, 1, 0)));
+        when(reservationRepository.findOccupyingSlotsBetween(at(3, 0, 0), at(10, 0, 0), null)).thenReturn(slots);
+
+        UtilizationReportDTO report = utilizationService.getUtilization(from, to, null);
+
+        assertEquals(2, report.getSpaces().size());
+        SpaceUtilizationDTO first = report.getSpaces().get(0);
+        assertEquals("Cancha", first.getSpaceName());
+        // 4 h el lunes + 3 h el martes (08:00-09:00 cerrado)
+        assertEquals(420, first.getOpenMinutes());
+        assertEquals(120, first.getBookedMinutes());
+        assertEquals(300, first.getIdleMinutes());
+        assertEquals(28.57, first.getOccupancyRate(), 0.001);
+        assertEquals(3, first.getReservationCount());
+        assertEquals("MONDAY", first.getPeakDay());
+        assertEquals(9, first.getPeakHour());
+        assertEquals(100.0, first.getHourlyOccupancy()[1][9], 0.001);
+        assertEquals(50.0, first.getHourlyOccupancy()[1][10], 0.001);
+        assertEquals(0.0, first.getHourlyOccupancy()[2][8], 0.001);
+
+        SpaceUtilizationDTO second = report.getSpaces().get(1);
+        assertEquals("Salón", second.getSpaceName());
+        assertEquals(7 * 1440, second.getOpenMinutes());
+        assertEquals(420, second.getBookedMinutes());
+        assertEquals(1, second.getReservationCount());
+        assertEquals(100.0, second.getHourlyOccupancy()[0][1], 0.001);
+
+        assertEquals(420 + 7 * 1440, report.getOpenMinutes());
+        assertEquals(540, report.getBookedMinutes());
+        assertEquals(5.14, report.getOccupancyRate(), 0.001);
+    }
+
+    @Test
+    void testGetUtilization_SingleSpace() {
+        stubCancha();
+        when(reservationRepository.findOccupyingSlotsBetween(any(), any(), eq(cancha.getSpaceId()))).thenReturn(List.of());
+
+        UtilizationReportDTO report = utilizationService.getUtilization(from, to, cancha.getSpaceId());
+
+        assertEquals(1, report.getSpaces().size());
+        assertEquals(420, report.getOpenMinutes());
+        assertEquals(0, report.getBookedMinutes());
+        assertEquals(0.0, report.getOccupancyRate(), 0.001);
+        assertNull(report.getPeakDay());
+        assertNull(report.getPeakHour());
+    }
+
+    @Test
+    void testGetUtilization_SpansSeveralWeeks() {
+        stubCancha();
+        when(reservationRepository.findOccupyingSlotsBetween(any(), any(), eq(cancha.getSpaceId()))).thenReturn(List.of());
+
+        // Empieza un jueves: el horario semanal debe seguir alineado con los días
+        UtilizationReportDTO report = utilizationService.getUtilization(LocalDate.of(2025, 2, 27),
+                LocalDate.of(2025, 4, 2), cancha.getSpaceId());
+
+        // 5 lunes y 5 martes de 4 h, menos la hora cerrada del 4 de marzo
+        assertEquals(10 * 240 - 60, report.getOpenMinutes());
+    }
+
+    @Test
+    void testGetUtilization_UnknownSpace() {
+        UUID unknown = UUID.randomUUID();
+
+        assertThrows(SpaceNotFoundException.class, () -> utilizationService.getUtilization(from, to, unknown));
+        verifyNoInteractions(reservationRepository);
+    }
+
+    @Test
+    void testGetUtilization_InvalidRange() {
+        assertThrows(BusinessException.class, () -> utilizationService.getUtilization(to, from, null));
+        assertThrows(BusinessException.class, () -> utilizationService.getUtilization(null, to, null));
+        assertThrows(BusinessException.class,
+                () -> utilizationService.getUtilization(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 1, 1), null));
+        verifyNoInteractions(reservationRepository);
+    }
+
+    private void stubCancha() {
+        when(spaceScheduleRepository.findBySpace_SpaceId(cancha.getSpaceId())).thenReturn(List.of(
+                new SpaceSchedule(1L, null, (short) 1, LocalTime.of(8, 0), LocalTime.of(12, 0)),
+                new SpaceSchedule(2L, null, (short) 2, LocalTime.of(8, 0), LocalTime.of(12, 0))));
+        SpaceClosure closure = new SpaceClosure();
+        closure.setClosureId(1L);
+        closure.setSpaceId(cancha.getSpaceId());
+        closure.setReason("Mantenimiento");
+        closure.setStartsAt(at(4, 8, 0));
+        closure.setEndsAt(at(4, 9, 0));
+        when(spaceClosureRepository.findBySpaceIdOrderByStartsAtAsc(cancha.getSpaceId())).thenReturn(List.of(closure));
+    }
+
+    private static Space space(String name, boolean active) {
+        Space space = new Space();
+        space.setSpaceId(UUID.randomUUID());
+        space.setName(name);
+        space.setSpaceTypeId((short) 1);
+        space.setCapacity(10);
+        space.setActive(active);
+        return space;
+    }
+
+    private static ReservationSlot slot(Space space, OffsetDateTime startsAt, OffsetDateTime endsAt) {
+        ReservationSlot slot = mock(ReservationSlot.class);
+        when(slot.getSpaceId()).thenReturn(space.getSpaceId());
+        when(slot.getStartsAt()).thenReturn(startsAt);
+        when(slot.getEndsAt()).thenReturn(endsAt);
+        return slot;
+    }
+
+    private static OffsetDateTime at(int day, int hour, int minute) {
+        return LocalDateTime.of(2025, 3, day, hour, minute).atZone(ReservationRules.COSTA_RICA_ZONE).toOffsetDateTime();
+    }
+}
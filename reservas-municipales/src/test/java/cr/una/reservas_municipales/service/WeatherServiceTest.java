@@ -246,6 +246,20 @@ class WeatherServiceTest {
         assertEquals(-84.0907, lonCap.getValue(), 0.0001);
     }
 
+    @Test
+    void getWeatherForSpace_prefersStoredCoordinates() {
+        outdoorSpace.setLocation("Centro de la ciudad");
+        outdoorSpace.setLatitude(10.0163);
+        outdoorSpace.setLongitude(-84.2116);
+        when(spaceRepository.findById(outdoorSpaceId)).thenReturn(Optional.of(outdoorSpace));
+        when(weatherApiClient.getWeatherByCoordinates(anyDouble(), anyDouble()))
+                .thenReturn(buildWeatherResponse(10.0163, -84.2116, 20.0, 21.0, 60, 5.0, 30, 0.2));
+
+        weatherService.getWeatherForSpace(outdoorSpaceId);
+
+        verify(weatherApiClient).getWeatherByCoordinates(10.0163, -84.2116);
+    }
+
     @Test
     void getWeatherForSpace_descriptionNoDisponible_andTodayNull_andNullInputs_returnFalse() {
         when(spaceRepository.findById(outdoorSpaceId)).thenReturn(Optional.of(outdoorSpace));
@@ -0,0 +1,114 @@
+package cr.una.reservas_municipales.service;
+
+import cr.una.reservas_municipales.exception.BusinessException;
+import cr.una.reservas_municipales.model.SpaceSchedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeeklyScheduleTest {
+
+    // 2026-03-16 es lunes
+    private static OffsetDateTime at(int dayOfMonth, int hour, int minute) {
+        return LocalDateTime.of(2026, 3, dayOfMonth, hour, minute)
+                .atZone(ReservationRules.COSTA_RICA_ZONE).toOffsetDateTime();
+    }
+
+    private static SpaceSchedule block(int weekday, LocalTime from, LocalTime to) {
+        return new SpaceSchedule(null, null, (short) weekday, from, to);
+    }
+
+    @Test
+    void testWithinAndOutsideHours() {
+        WeeklySchedule schedule = WeeklySchedule.compile(List.of(
+                block(1, LocalTime.of(8, 0), LocalTime.of(12, 0))));
+
+        assertDoesNotThrow(() -> schedule.validate(at(16, 8, 0), at(16, 12, 0)));
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> schedule.validate(at(16, 11, 0), at(16, 12, 1)));
+        assertEquals("El espacio solo está disponible los lunes en los siguientes horarios: 08:00 - 12:00",
+                ex.getMessage());
+    }
+
+    @Test
+    void testDayWithoutSchedule() {
+        WeeklySchedule schedule = WeeklySchedule.compile(List.of(
+                block(1, LocalTime.of(8, 0), LocalTime.of(12, 0))));
+
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> schedule.validate(at(17, 9, 0), at(17, 10, 0)));
+        assertEquals("El espacio no está disponible los martes", ex.getMessage());
+    }
+
+    @Test
+    void testAdjacentBlocksMerge() {
+        WeeklySchedule schedule = WeeklySchedule.compile(List.of(
+                block(1, LocalTime.of(12, 0), LocalTime.of(16, 0)),
+                block(1, LocalTime.of(8, 0), LocalTime.of(12, 0))));
+
+        assertDoesNotThrow(() -> schedule.validate(at(16, 10, 0), at(16, 14, 0)));
+        BusinessException ex = assertThrows(BusinessException.class,
+                () -> schedule.validate(at(16, 15, 0), at(16, 17, 0)));
+        assertTrue(ex.getMessage().endsWith("08:00 - 12:00, 12:00 - 16:00"));
+    }
+
+    @Test
+    void testWindowCrossingMidnightChecksNextDay() {
+        WeeklySchedule schedule = WeeklySchedule.compile(List.of(
+                block(1, LocalTime.of(20, 0), LocalTime.MAX),
+                block(2, LocalTime.MIDNIGHT, LocalTime.of(2, 0))));
+
+        assertDoesNotThrow(() -> schedule.validate(at(16, 22, 0), at(17, 1, 0)));
+        assertThrows(BusinessException.class, () -> schedule.validate(at(16, 22, 0), at(17, 3, 0)));
+    }
+
+    @Test
+    void testWeekWrapsFromSaturdayToSunday() {
+        WeeklySchedule schedule = WeeklySchedule.compile(List.of(
+                block(6, LocalTime.of(22, 0), LocalTime.MAX),
+                block(0, LocalTime.MIDNIGHT, LocalTime.of(1, 0))));
+
+        assertDoesNotThrow(() -> schedule.validate(at(21, 23, 0), at(22, 0, 30)));
+    }
+
+    @Test
+    void testSecondsAreRoundedInward() {
+        WeeklySchedule schedule = WeeklySchedule.compile(List.of(
+                block(1, LocalTime.of(8, 0, 30), LocalTime.of(12, 0))));
+
+        assertThrows(BusinessException.class, () -> schedule.validate(at(16, 8, 0), at(16, 9, 0)));
+        assertDoesNotThrow(() -> schedule.validate(at(16, 8, 1), at(16, 9, 0)));
+        assertThrows(BusinessException.class,
+                () -> schedule.validate(at(16, 11, 0), at(16, 12, 0).plusSeconds(1)));
+    }
+
+    @Test
+    void testNoSchedulesIsUnrestricted() {
+        WeeklySchedule schedule = WeeklySchedule.compile(List.of());
+
+        assertSame(WeeklySchedule.UNRESTRICTED, schedule);
+        assertTrue(schedule.isUnrestricted());
+        assertDoesNotThrow(() -> schedule.validate(at(15, 3, 0), at(15, 23, 0)));
+    }
+
+    @Test
+    void testCountAndClearRangeAcrossWords() {
+        long[] bits = new long[3];
+        WeeklySchedule.setRange(bits, 10, 150);
+
+        assertEquals(140, WeeklySchedule.countRange(bits, 0, 192));
+        assertEquals(50, WeeklySchedule.countRange(bits, 100, 160));
+        assertEquals(4, WeeklySchedule.countRange(bits, 60, 64));
+        assertEquals(0, WeeklySchedule.countRange(bits, 150, 150));
+
+        WeeklySchedule.clearRange(bits, 60, 130);
+        assertEquals(70, WeeklySchedule.countRange(bits, 0, 192));
+        assertFalse(WeeklySchedule.rangeSet(bits, 59, 61));
+        assertTrue(WeeklySchedule.rangeSet(bits, 130, 150));
+    }
+}